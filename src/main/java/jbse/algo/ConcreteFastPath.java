@@ -0,0 +1,323 @@
+package jbse.algo;
+
+import static jbse.algo.Util.throwVerifyError;
+import static jbse.bc.Offsets.BIPUSH_OFFSET;
+import static jbse.bc.Offsets.DUP_OFFSET;
+import static jbse.bc.Offsets.IFX_OFFSET;
+import static jbse.bc.Offsets.IINC_OFFSET;
+import static jbse.bc.Offsets.MATH_LOGICAL_OP_OFFSET;
+import static jbse.bc.Offsets.POP_OFFSET;
+import static jbse.bc.Offsets.SIPUSH_OFFSET;
+import static jbse.bc.Offsets.XCONST_OFFSET;
+import static jbse.bc.Offsets.XLOADSTORE_IMMEDIATE_OFFSET;
+import static jbse.bc.Offsets.XLOADSTORE_IMPLICIT_OFFSET;
+import static jbse.bc.Opcodes.*;
+import static jbse.common.Type.INT;
+import static jbse.common.Type.isCat_1;
+import static jbse.common.Type.isPrimitiveOpStack;
+
+import jbse.common.exc.ClasspathException;
+import jbse.mem.Frame;
+import jbse.mem.State;
+import jbse.mem.exc.FrozenStateException;
+import jbse.mem.exc.InvalidNumberOfOperandsException;
+import jbse.mem.exc.InvalidProgramCounterException;
+import jbse.mem.exc.InvalidSlotException;
+import jbse.mem.exc.ThreadStackEmptyException;
+import jbse.val.Calculator;
+import jbse.val.Primitive;
+import jbse.val.ReferenceConcrete;
+import jbse.val.Simplex;
+import jbse.val.Value;
+import jbse.val.exc.InvalidOperandException;
+import jbse.val.exc.InvalidTypeException;
+
+/**
+ * Executes the simplest bytecodes (constants, loads and stores of
+ * local variables, integer addition, subtraction and multiplication,
+ * pop, dup, iinc, goto and the conditional jumps on integers)
+ * when all the values they operate upon are concrete, without
+ * going through their {@link Algorithm}s. On concrete values these
+ * bytecodes never invoke the decision procedure, never load trigger
+ * frames and produce exactly one successor state, so they can be
+ * executed directly on the current frame, sparing the allocation
+ * of the decision results and the lazy evaluation of the
+ * {@link Algorithm}'s strategies. Whenever a bytecode is not one of
+ * the above, or some of its operands is symbolic, or its execution
+ * would require to throw an error, or would add a branch point with
+ * the current breadth mode, the state is left untouched and the
+ * bytecode must be executed by its {@link Algorithm}.
+ *
+ * @author Pietro Braione
+ */
+public final class ConcreteFastPath {
+    /**
+     * Possibly executes the bytecode at the program counter
+     * of a state.
+     *
+     * @param state the {@link State} to be stepped.
+     * @param ctx an {@link ExecutionContext}.
+     * @return {@code true} iff the bytecode was executed. If
+     *         {@code false} is returned, {@code state} is not
+     *         modified.
+     * @throws ThreadStackEmptyException if {@code state}'s thread
+     *         stack is empty.
+     * @throws FrozenStateException if {@code state} is frozen.
+     * @throws ClasspathException if a jump target is not a valid
+     *         program counter and the standard {@link VerifyError}
+     *         class is missing from the classpath or is ill-formed.
+     */
+    public boolean exec(State state, ExecutionContext ctx)
+    throws ThreadStackEmptyException, FrozenStateException, ClasspathException {
+        if (state.isStuck()) {
+            return false;
+        }
+
+        //the bytecodes after a wide bytecode are left to their
+        //algorithms; the wide test must be restored since it is
+        //consumed by checking it
+        if (state.nextWide()) {
+            state.setWide();
+            return false;
+        }
+
+        final Frame frame = state.getCurrentFrame();
+        final Calculator calc = state.getCalculator();
+        final byte opcode = frame.getInstruction();
+        try {
+            switch (opcode) {
+            case OP_ICONST_M1:
+            case OP_ICONST_0:
+            case OP_ICONST_1:
+            case OP_ICONST_2:
+            case OP_ICONST_3:
+            case OP_ICONST_4:
+            case OP_ICONST_5:
+                return push(state, frame, 0, calc.valInt(opcode - OP_ICONST_0), XCONST_OFFSET);
+            case OP_LCONST_0:
+            case OP_LCONST_1:
+                return push(state, frame, 0, calc.valLong((long) (opcode - OP_LCONST_0)), XCONST_OFFSET);
+            case OP_FCONST_0:
+            case OP_FCONST_1:
+            case OP_FCONST_2:
+                return push(state, frame, 0, calc.valFloat((float) (opcode - OP_FCONST_0)), XCONST_OFFSET);
+            case OP_DCONST_0:
+            case OP_DCONST_1:
+                return push(state, frame, 0, calc.valDouble((double) (opcode - OP_DCONST_0)), XCONST_OFFSET);
+            case OP_BIPUSH:
+                return push(state, frame, 0, calc.valInt(frame.getInstruction(1)), BIPUSH_OFFSET);
+            case OP_SIPUSH:
+                return push(state, frame, 0, calc.valInt(immediateSignedWord(frame)), SIPUSH_OFFSET);
+            case OP_ILOAD:
+            case OP_LLOAD:
+            case OP_FLOAD:
+            case OP_DLOAD:
+            case OP_ALOAD:
+                return load(state, ctx, frame, Byte.toUnsignedInt(frame.getInstruction(1)), XLOADSTORE_IMMEDIATE_OFFSET);
+            case OP_ILOAD_0:
+            case OP_ILOAD_1:
+            case OP_ILOAD_2:
+            case OP_ILOAD_3:
+            case OP_LLOAD_0:
+            case OP_LLOAD_1:
+            case OP_LLOAD_2:
+            case OP_LLOAD_3:
+            case OP_FLOAD_0:
+            case OP_FLOAD_1:
+            case OP_FLOAD_2:
+            case OP_FLOAD_3:
+            case OP_DLOAD_0:
+            case OP_DLOAD_1:
+            case OP_DLOAD_2:
+            case OP_DLOAD_3:
+            case OP_ALOAD_0:
+            case OP_ALOAD_1:
+            case OP_ALOAD_2:
+            case OP_ALOAD_3:
+                return load(state, ctx, frame, (opcode - OP_ILOAD_0) % 4, XLOADSTORE_IMPLICIT_OFFSET);
+            case OP_ISTORE:
+            case OP_LSTORE:
+            case OP_FSTORE:
+            case OP_DSTORE:
+            case OP_ASTORE:
+                return store(state, frame, Byte.toUnsignedInt(frame.getInstruction(1)), XLOADSTORE_IMMEDIATE_OFFSET);
+            case OP_ISTORE_0:
+            case OP_ISTORE_1:
+            case OP_ISTORE_2:
+            case OP_ISTORE_3:
+            case OP_LSTORE_0:
+            case OP_LSTORE_1:
+            case OP_LSTORE_2:
+            case OP_LSTORE_3:
+            case OP_FSTORE_0:
+            case OP_FSTORE_1:
+            case OP_FSTORE_2:
+            case OP_FSTORE_3:
+            case OP_DSTORE_0:
+            case OP_DSTORE_1:
+            case OP_DSTORE_2:
+            case OP_DSTORE_3:
+            case OP_ASTORE_0:
+            case OP_ASTORE_1:
+            case OP_ASTORE_2:
+            case OP_ASTORE_3:
+                return store(state, frame, (opcode - OP_ISTORE_0) % 4, XLOADSTORE_IMPLICIT_OFFSET);
+            case OP_POP: {
+                if (!isCat_1(frame.top().getType())) {
+                    return false;
+                }
+                frame.pop(1);
+                return advance(state, frame, POP_OFFSET);
+            }
+            case OP_DUP: {
+                final Value top = frame.top();
+                if (!isCat_1(top.getType())) {
+                    return false;
+                }
+                return push(state, frame, 0, top, DUP_OFFSET);
+            }
+            case OP_IADD:
+            case OP_ISUB:
+            case OP_IMUL: {
+                final Value[] operands = frame.operands(2);
+                if (!isConcreteInt(operands[0]) || !isConcreteInt(operands[1])) {
+                    return false;
+                }
+                final Primitive val1 = (Primitive) operands[0];
+                final Primitive val2 = (Primitive) operands[1];
+                final Primitive result = (opcode == OP_IADD ? val1.add(val2) : opcode == OP_ISUB ? val1.sub(val2) : val1.mul(val2));
+                return push(state, frame, 2, result, MATH_LOGICAL_OP_OFFSET);
+            }
+            case OP_IINC: {
+                final int slot = Byte.toUnsignedInt(frame.getInstruction(1));
+                final Value local = frame.getLocalVariableValue(slot);
+                if (!isConcreteInt(local)) {
+                    return false;
+                }
+                final Primitive result = ((Primitive) local).add(calc.valInt(frame.getInstruction(2)));
+                frame.setLocalVariableValue(slot, frame.getProgramCounter(), result);
+                return advance(state, frame, IINC_OFFSET);
+            }
+            case OP_IFEQ:
+            case OP_IFNE:
+            case OP_IFLT:
+            case OP_IFGE:
+            case OP_IFGT:
+            case OP_IFLE: {
+                final Value operand = frame.top();
+                if (!isConcreteInt(operand) || decisionsAddBranchPoints(ctx)) {
+                    return false;
+                }
+                final int jumpOffset = immediateSignedWord(frame);
+                final boolean doJump = compare(opcode - OP_IFEQ, ((Integer) ((Simplex) operand).getActualValue()).intValue(), 0);
+                frame.pop(1);
+                return advance(state, frame, (doJump ? jumpOffset : IFX_OFFSET));
+            }
+            case OP_IF_ICMPEQ:
+            case OP_IF_ICMPNE:
+            case OP_IF_ICMPLT:
+            case OP_IF_ICMPGE:
+            case OP_IF_ICMPGT:
+            case OP_IF_ICMPLE: {
+                final Value[] operands = frame.operands(2);
+                if (!isConcreteInt(operands[0]) || !isConcreteInt(operands[1]) || decisionsAddBranchPoints(ctx)) {
+                    return false;
+                }
+                final int jumpOffset = immediateSignedWord(frame);
+                final int val1 = ((Integer) ((Simplex) operands[0]).getActualValue()).intValue();
+                final int val2 = ((Integer) ((Simplex) operands[1]).getActualValue()).intValue();
+                final boolean doJump = compare(opcode - OP_IF_ICMPEQ, val1, val2);
+                frame.pop(2);
+                return advance(state, frame, (doJump ? jumpOffset : IFX_OFFSET));
+            }
+            case OP_GOTO:
+                return advance(state, frame, immediateSignedWord(frame));
+            default:
+                return false;
+            }
+        } catch (InvalidProgramCounterException | InvalidNumberOfOperandsException |
+                 InvalidSlotException | InvalidOperandException | InvalidTypeException e) {
+            //the bytecode is ill-formed, or its operands are:
+            //leaves to its algorithm to throw the right error
+            //(note that the state has not been modified yet)
+            return false;
+        }
+    }
+
+    private static boolean isConcreteInt(Value value) {
+        return (value instanceof Simplex && value.getType() == INT);
+    }
+
+    private static short immediateSignedWord(Frame frame) throws InvalidProgramCounterException {
+        return (short) ((frame.getInstruction(1) << 8) | (frame.getInstruction(2) & 0xFF));
+    }
+
+    /**
+     * Checks whether a concrete decision (of a load or of a
+     * conditional jump) adds a branch point with the current
+     * breadth mode, in which case the bytecode must be executed
+     * by its {@link Algorithm}.
+     */
+    private static boolean decisionsAddBranchPoints(ExecutionContext ctx) {
+        return ctx.stateTree.shouldAddBranchPoint(false, true, true, false);
+    }
+
+    /**
+     * Compares two integers with the comparison operator of
+     * an if bytecode, as given by the distance of the bytecode's
+     * opcode from either ifeq or if_icmpeq.
+     */
+    private static boolean compare(int operator, int val1, int val2) {
+        switch (operator) {
+        case 0:
+            return val1 == val2;
+        case 1:
+            return val1 != val2;
+        case 2:
+            return val1 < val2;
+        case 3:
+            return val1 >= val2;
+        case 4:
+            return val1 > val2;
+        default: //5
+            return val1 <= val2;
+        }
+    }
+
+    private static boolean load(State state, ExecutionContext ctx, Frame frame, int slot, int offset)
+    throws InvalidSlotException, FrozenStateException, ClasspathException {
+        final Value value = frame.getLocalVariableValue(slot);
+        if (!((value instanceof Simplex && isPrimitiveOpStack(value.getType())) || value instanceof ReferenceConcrete) ||
+            decisionsAddBranchPoints(ctx)) {
+            return false;
+        }
+        frame.push(value);
+        return advance(state, frame, offset);
+    }
+
+    private static boolean store(State state, Frame frame, int slot, int offset)
+    throws InvalidNumberOfOperandsException, InvalidSlotException, FrozenStateException, ClasspathException {
+        final Value value = frame.top();
+        frame.setLocalVariableValue(slot, frame.getProgramCounter(), value);
+        frame.pop(1);
+        return advance(state, frame, offset);
+    }
+
+    private static boolean push(State state, Frame frame, int numOperands, Value value, int offset)
+    throws InvalidNumberOfOperandsException, FrozenStateException, ClasspathException {
+        frame.pop(numOperands);
+        frame.push(value);
+        return advance(state, frame, offset);
+    }
+
+    private static boolean advance(State state, Frame frame, int offset)
+    throws FrozenStateException, ClasspathException {
+        try {
+            frame.setProgramCounter(frame.getProgramCounter() + offset);
+        } catch (InvalidProgramCounterException e) {
+            throwVerifyError(state);
+        }
+        state.setBranchingDecision(false);
+        return true;
+    }
+}
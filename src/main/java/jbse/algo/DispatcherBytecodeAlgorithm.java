@@ -151,6 +151,12 @@ public class DispatcherBytecodeAlgorithm extends Dispatcher<Byte, Algorithm<?, ?
     private final Algo_XUSHR          algo_XUSHR           = new Algo_XUSHR();
     private final Algo_XXOR           algo_XXOR            = new Algo_XXOR();
 
+    /** 
+     * The dispatch table, associating every (unsigned) opcode 
+     * to its {@link Algorithm}.
+     */
+    private final Algorithm<?, ?, ?, ?, ?>[] dispatchTable = new Algorithm<?, ?, ?, ?, ?>[256];
+
     public DispatcherBytecodeAlgorithm() {
         //implemented bytecodes (sometimes with limited support)
         setCase(OP_NOP,             () -> this.algo_NOP);
@@ -362,6 +368,11 @@ public class DispatcherBytecodeAlgorithm extends Dispatcher<Byte, Algorithm<?, ?
 
         //the remaining bytecodes should never appear in a classfile
         setDefault(() -> this.algo_NOTALLOWED);
+        
+        //builds the dispatch table
+        for (int i = 0; i < this.dispatchTable.length; ++i) {
+            this.dispatchTable[i] = select(Byte.valueOf((byte) i));
+        }
     }
 
     public Action_PREINIT selectPreInit() {
@@ -372,6 +383,16 @@ public class DispatcherBytecodeAlgorithm extends Dispatcher<Byte, Algorithm<?, ?
         return this.action_INIT;
     }
 
+    /**
+     * Returns the {@link Algorithm} for a bytecode.
+     * 
+     * @param bytecode a {@code byte}, the opcode of the bytecode.
+     * @return the {@link Algorithm} that executes {@code bytecode}.
+     */
+    public Algorithm<?, ?, ?, ?, ?> select(byte bytecode) {
+        return this.dispatchTable[bytecode & 0xFF];
+    }
+
     @Override
     public Algorithm<?, ?, ?, ?, ?> select(Byte bytecode) {
         final Algorithm<?, ?, ?, ?, ?> retVal;
@@ -747,6 +747,15 @@ public final class ExecutionContext {
         return new State(this.bypassStandardLoading, this.stateTree.getPreInitialHistoryPoint(), this.maxSimpleArrayLength, this.maxHeapSize, this.classpath, this.classFileFactoryClass, this.expansionBackdoor, this.calc, this.symbolFactory);
     }
 
+    /**
+     * Returns the calculator used during initialization.
+     * 
+     * @return a {@link Calculator}.
+     */
+    public Calculator getCalculator() {
+        return this.calc;
+    }
+
     /**
      * Sets the initial state. To be invoked whenever 
      * the engine parameters object provided through the 
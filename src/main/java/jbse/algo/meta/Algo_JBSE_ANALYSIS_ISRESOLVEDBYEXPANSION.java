@@ -14,12 +14,11 @@ import jbse.algo.exc.CannotManageStateException;
 import jbse.common.exc.ClasspathException;
 import jbse.common.exc.InvalidInputException;
 import jbse.dec.exc.DecisionException;
-import jbse.mem.Clause;
-import jbse.mem.ClauseAssumeExpands;
 import jbse.mem.State;
 import jbse.mem.exc.ThreadStackEmptyException;
 import jbse.tree.DecisionAlternative_NONE;
 import jbse.val.Reference;
+import jbse.val.ReferenceSymbolic;
 import jbse.val.Simplex;
 
 public final class Algo_JBSE_ANALYSIS_ISRESOLVEDBYEXPANSION extends Algo_INVOKEMETA_Nonbranching {
@@ -48,16 +47,7 @@ public final class Algo_JBSE_ANALYSIS_ISRESOLVEDBYEXPANSION extends Algo_INVOKEM
 
         //analyzes the field and calculates the return value
         if (ref.isSymbolic()) {
-        	int retVal = 0;
-        	for (Clause c : state.getPathCondition()) {
-        		if (c instanceof ClauseAssumeExpands) {
-        			final ClauseAssumeExpands cExp = (ClauseAssumeExpands) c;
-        			if (cExp.getReference() == ref) {
-        				retVal = 1;
-        				break;
-        			}
-        		}
-        	}
+        	final int retVal = (state.resolvedByExpansion((ReferenceSymbolic) ref) ? 1 : 0);
             this.retVal = state.getCalculator().valInt(retVal);
         } else {
             this.retVal = state.getCalculator().valInt(0);
@@ -6,6 +6,7 @@ import static jbse.apps.Util.formatExpression;
 
 import java.io.PrintStream;
 import java.util.Collection;
+import java.util.List;
 
 import jbse.bc.ClassFile;
 import jbse.bc.ClassHierarchy;
@@ -74,6 +75,19 @@ public class DecisionProcedureDecoratorPrint extends DecisionProcedureDecorator
         return retVal;
     }
 
+    @Override
+    public boolean[] isSatBatch(ClassHierarchy hier, List<Expression> expressions) 
+    throws InvalidInputException, DecisionException {
+        final boolean[] retVal = super.isSatBatch(hier, expressions);
+        int i = 0;
+        for (Expression exp : expressions) {
+            IO.print(this.out, ":: Decided: ");
+            IO.print(this.out, formatClauses(this.getAssumptions())); 
+            IO.println(this.out, TURNSTILE + formatExpression(exp) + ". Result: " + Boolean.toString(retVal[i++]));
+        }
+        return retVal;
+    }
+
     @Override
     public boolean isSatAliases(ClassHierarchy hier, ReferenceSymbolic r, long heapPos, Objekt o)
     throws InvalidInputException, DecisionException {
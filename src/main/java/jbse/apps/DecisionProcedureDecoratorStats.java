@@ -1,6 +1,8 @@
 package jbse.apps;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 
 import jbse.bc.ClassFile;
 import jbse.bc.ClassHierarchy;
@@ -82,6 +84,16 @@ public class DecisionProcedureDecoratorStats extends DecisionProcedureDecorator
         return result;
     }
 
+    @Override
+    public boolean[] isSatBatch(ClassHierarchy hier, List<Expression> expressions) 
+    throws InvalidInputException, DecisionException {
+        this.startTimer();
+        final boolean[] result = super.isSatBatch(hier, expressions);
+        final long elapsed = this.elapsed();
+        System.err.println("ISSATBATCH\t" + expressions + "\t" + Arrays.toString(result) + "\t" + elapsed);
+        return result;
+    }
+
     @Override
     public boolean isSatAliases(ClassHierarchy hier, ReferenceSymbolic r, long heapPos, Objekt o)
     throws InvalidInputException, DecisionException {
@@ -1,6 +1,7 @@
 package jbse.apps;
 
 import java.util.Collection;
+import java.util.List;
 
 import jbse.bc.ClassFile;
 import jbse.bc.ClassHierarchy;
@@ -83,6 +84,15 @@ public class DecisionProcedureDecoratorTimer extends DecisionProcedureDecorator
         return result;
     }
 
+    @Override
+    public boolean[] isSatBatch(ClassHierarchy hier, List<Expression> expressions) 
+    throws InvalidInputException, DecisionException {
+        this.startTimer();
+        final boolean[] result = super.isSatBatch(hier, expressions);
+        this.stopTimer();
+        return result;
+    }
+
     @Override
     public boolean isSatAliases(ClassHierarchy hier, ReferenceSymbolic r, long heapPos, Objekt o)
     throws InvalidInputException, DecisionException {
@@ -48,6 +48,35 @@ public final class DecisionProcedureConservativeRepOk extends DecisionProcedureC
         this.checker.setCurrentStateSupplier(currentStateSupplier);
     }
 
+    /**
+     * Returns the number of checks whose result 
+     * was found in the cache.
+     * 
+     * @return a {@code long}.
+     */
+    public long getCacheHits() {
+        return this.checker.getCacheHits();
+    }
+
+    /**
+     * Returns the number of checks that were executed
+     * because their result was not in the cache.
+     * 
+     * @return a {@code long}.
+     */
+    public long getCacheMisses() {
+        return this.checker.getCacheMisses();
+    }
+
+    /**
+     * Returns the checker of the initial heaps.
+     * 
+     * @return an {@link InitialHeapChecker}.
+     */
+    InitialHeapChecker getChecker() {
+        return this.checker;
+    }
+
     @Override
     protected boolean isSatExpandsLocal(ClassHierarchy hier, ReferenceSymbolic r, ClassFile classFile)
     throws DecisionException {
@@ -89,4 +118,9 @@ public final class DecisionProcedureConservativeRepOk extends DecisionProcedureC
         }
         return this.checker.checkHeap(sIni, true);
     }
+
+    @Override
+    protected void closeLocal() throws DecisionException {
+        this.checker.close();
+    }
 }
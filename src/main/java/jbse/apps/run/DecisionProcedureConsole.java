@@ -4,6 +4,7 @@ import static jbse.apps.Util.formatClauses;
 
 import java.io.PrintStream;
 import java.util.Collection;
+import java.util.List;
 import java.util.SortedSet;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -71,6 +72,17 @@ public final class DecisionProcedureConsole extends DecisionProcedureAlgorithms
         return retVal;
     }
 
+    @Override
+    public boolean[] isSatBatch(ClassHierarchy hier, List<Expression> expressions) {
+        //asks the user one clause at a time
+        final boolean[] retVal = new boolean[expressions.size()];
+        int i = 0;
+        for (Expression exp : expressions) {
+            retVal[i++] = isSat(hier, exp);
+        }
+        return retVal;
+    }
+
     @Override
     protected Outcome decide_IFX_Nonconcrete(ClassHierarchy hier, Primitive exp, SortedSet<DecisionAlternative_IFX> result) {
         final DecisionAlternative_IFX T = DecisionAlternative_IFX.toNonconcrete(true);
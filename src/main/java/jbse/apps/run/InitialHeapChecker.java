@@ -3,15 +3,31 @@ package jbse.apps.run;
 import static java.lang.annotation.ElementType.METHOD;
 
 import static jbse.common.Type.BOOLEAN;
+import static jbse.common.Type.className;
+import static jbse.common.Type.isArray;
 import static jbse.common.Type.splitParametersDescriptors;
 import static jbse.common.Type.splitReturnValueDescriptor;
 import static jbse.common.Type.internalClassName;
 
 import java.lang.annotation.Annotation;
 import java.lang.annotation.Target;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
 import jbse.algo.exc.CannotManageStateException;
@@ -28,37 +44,110 @@ import jbse.jvm.Engine;
 import jbse.jvm.Runner;
 import jbse.jvm.RunnerBuilder;
 import jbse.jvm.RunnerParameters;
+import jbse.jvm.WorkerFactory;
 import jbse.jvm.exc.CannotBacktrackException;
 import jbse.jvm.exc.CannotBuildEngineException;
 import jbse.jvm.exc.EngineStuckException;
 import jbse.jvm.exc.FailureException;
 import jbse.jvm.exc.InitializationException;
 import jbse.jvm.exc.NonexistingObservedVariablesException;
+import jbse.mem.Array;
+import jbse.mem.Clause;
+import jbse.mem.ClauseAssume;
+import jbse.mem.ClauseAssumeClassInitialized;
+import jbse.mem.ClauseAssumeClassNotInitialized;
+import jbse.mem.Klass;
 import jbse.mem.Objekt;
 import jbse.mem.State;
+import jbse.mem.Util;
+import jbse.mem.Variable;
 import jbse.mem.exc.CannotRefineException;
 import jbse.mem.exc.ContradictionException;
 import jbse.mem.exc.FrozenStateException;
 import jbse.mem.exc.InvalidProgramCounterException;
 import jbse.mem.exc.InvalidSlotException;
 import jbse.mem.exc.ThreadStackEmptyException;
+import jbse.val.Any;
+import jbse.val.Expression;
+import jbse.val.NarrowingConversion;
+import jbse.val.Primitive;
+import jbse.val.PrimitiveSymbolicApply;
+import jbse.val.PrimitiveSymbolicAtomic;
+import jbse.val.PrimitiveVisitor;
 import jbse.val.Reference;
 import jbse.val.ReferenceConcrete;
+import jbse.val.ReferenceSymbolic;
 import jbse.val.Simplex;
+import jbse.val.Term;
 import jbse.val.Value;
+import jbse.val.WideningConversion;
 import jbse.val.exc.InvalidTypeException;
 
 public final class InitialHeapChecker {
+    /** The maximum number of check results that are cached. */
+    private static final int MAX_CACHED_RESULTS = 4096;
+    
     private final RunnerParameters runnerParameters;
     private final CheckMethodTable checkMethodTable;
     private Supplier<State> initialStateSupplier = null;
     private Supplier<State> currentStateSupplier = null;
+    
+    /** 
+     * Caches the results of the check methods, associating 
+     * the shape of the part of the initial heap a check 
+     * depends on to its result. The least recently used
+     * results are evicted first. 
+     */
+    private final LinkedHashMap<String, Boolean> results = new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+        private static final long serialVersionUID = -5148016376305219764L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > InitialHeapChecker.this.maxCachedResults;
+        }
+    };
+    
+    /** The maximum number of check results that are cached by this checker. */
+    private int maxCachedResults = MAX_CACHED_RESULTS;
+    
+    /** The number of checks whose result was found in the cache. */
+    private long cacheHits = 0L;
+    
+    /** The number of checks that were executed. */
+    private long cacheMisses = 0L;
+    
+    /** 
+     * The maximum number of {@link CheckerEngine}s, i.e., of
+     * check methods that can be run in parallel.
+     */
+    private final int maxEngines;
+    
+    /** The {@link CheckerEngine}s that are not running a check method. */
+    private final ArrayDeque<CheckerEngine> idleEngines = new ArrayDeque<>();
+    
+    /** All the {@link CheckerEngine}s created so far. */
+    private final ArrayList<CheckerEngine> engines = new ArrayList<>();
+    
+    /** 
+     * Whether a {@link CheckerEngine} using the decision procedure 
+     * in the {@link RunnerParameters} passed upon construction
+     * was created, or is being created.
+     */
+    private boolean firstEngineReserved = false;
+    
+    /** 
+     * The threads that run the check methods in parallel with
+     * the thread invoking {@link #checkHeap(State, boolean) checkHeap},
+     * or {@code null} if not yet created.
+     */
+    private ExecutorService executor = null;
 
     public InitialHeapChecker(RunnerParameters runnerParameters, 
                               Class<? extends Annotation> methodAnnotationClass,
                               Map<String, String> checkMethods) {
         this.runnerParameters = runnerParameters;
         this.checkMethodTable = new CheckMethodTable(methodAnnotationClass, checkMethods);
+        this.maxEngines = runnerParameters.getNumOfWorkers();
     }
 
     public void setInitialStateSupplier(Supplier<State> initialStateSupplier) {
@@ -74,25 +163,88 @@ public final class InitialHeapChecker {
         return checkHeap(sIni, scopeExhaustionMeansSuccess);
     }
 
+    /**
+     * Returns the number of checks whose result 
+     * was found in the cache.
+     * 
+     * @return a {@code long}.
+     */
+    public long getCacheHits() {
+        return this.cacheHits;
+    }
+    
+    /**
+     * Returns the number of checks that were executed
+     * because their result was not in the cache.
+     * 
+     * @return a {@code long}.
+     */
+    public long getCacheMisses() {
+        return this.cacheMisses;
+    }
+
+    /**
+     * Sets the maximum number of check results that are cached.
+     * 
+     * @param maxCachedResults an {@code int}; {@code 0} disables
+     *        the cache.
+     */
+    void setMaxCachedResults(int maxCachedResults) {
+        this.maxCachedResults = maxCachedResults;
+    }
+
     public boolean checkHeap(State sIni, boolean scopeExhaustionMeansSuccess) {
         try {
-        	//runs the check methods on all the instances in the heap 
-        	for (long heapPos : sIni.getHeap().keySet()) {
-        		final Reference objectRef = new ReferenceConcrete(heapPos);
-        		final Objekt obj = sIni.getObject(objectRef);
-        		if (obj.isSymbolic()) {
-        			final Signature methodSignature = this.checkMethodTable.findCheckMethod(obj.getType(), sIni);
-        			if (methodSignature == null) {
-        				//nothing to check
-        			} else {
-        				final State sRun = sIni.clone();
-        				final boolean repOk = 
-        						runCheckMethod(sRun, objectRef, obj.getType(), methodSignature, this.runnerParameters, scopeExhaustionMeansSuccess);
-        				if (!repOk) {
-        					return false; 
-        				}
-        			}
-        		}
+            //determines the checks to do and looks up their results
+            final HeapShapeEncoder encoder = new HeapShapeEncoder(sIni);
+            final ArrayList<Long> toRun = new ArrayList<>();
+            final ArrayList<Signature> toRunSignatures = new ArrayList<>();
+            final ArrayList<String> toRunKeys = new ArrayList<>();
+            for (Map.Entry<Long, Objekt> e : sIni.getHeap().entrySet()) {
+                final Objekt obj = e.getValue();
+                if (obj.isSymbolic()) {
+                    final Signature methodSignature = this.checkMethodTable.findCheckMethod(obj.getType(), sIni);
+                    if (methodSignature == null) {
+                        //nothing to check
+                    } else {
+                        final String key = methodSignature.toString() + scopeExhaustionMeansSuccess + encoder.encode(e.getKey());
+                        final Boolean repOk = this.results.get(key);
+                        if (repOk == null) {
+                            toRun.add(e.getKey());
+                            toRunSignatures.add(methodSignature);
+                            toRunKeys.add(key);
+                        } else if (repOk.booleanValue()) {
+                            ++this.cacheHits;
+                        } else {
+                            ++this.cacheHits;
+                            return false;
+                        }
+                    }
+                }
+            }
+            
+        	//runs the check methods on the instances 
+            //whose check results are not cached
+            if (this.maxEngines <= 1 || toRun.size() <= 1) {
+                for (int i = 0; i < toRun.size(); ++i) {
+                    final boolean repOk = runCheckMethod(sIni, toRun.get(i), toRunSignatures.get(i), scopeExhaustionMeansSuccess);
+                    ++this.cacheMisses;
+                    this.results.put(toRunKeys.get(i), repOk);
+                    if (!repOk) {
+                        return false; 
+                    }
+                }
+            } else {
+                final Boolean[] repOks = runCheckMethodsParallel(sIni, toRun, toRunSignatures, scopeExhaustionMeansSuccess);
+                boolean allRepOk = true;
+                for (int i = 0; i < repOks.length; ++i) {
+                    if (repOks[i] != null) {
+                        ++this.cacheMisses;
+                        this.results.put(toRunKeys.get(i), repOks[i]);
+                        allRepOk = allRepOk && repOks[i].booleanValue();
+                    }
+                }
+                return allRepOk;
         	}
         } catch (DecisionException | FrozenStateException |
                 InitializationException | InvalidClassFileFactoryClassException | 
@@ -108,6 +260,189 @@ public final class InitialHeapChecker {
         return true;
     }
 
+    /**
+     * Runs the check methods on many objects in parallel. Every 
+     * check method runs on its own copy of the initial state and 
+     * in its own {@link CheckerEngine}, so the runs do not share 
+     * any heap or decision procedure. When a check method fails 
+     * the check methods that were not started yet are skipped.
+     * 
+     * @param sIni the initial {@link State}. It will not be modified.
+     * @param heapPositions the heap positions of the objects to check.
+     * @param methodSignatures the {@link Signature}s of the check methods 
+     *        to run on the objects at {@code heapPositions}.
+     * @param scopeExhaustionMeansSuccess as in {@link #runCheckMethod(State, long, Signature, boolean) runCheckMethod}.
+     * @return a {@link Boolean}{@code []} with the same length of 
+     *         {@code heapPositions}, whose elements are the results
+     *         of the check methods or {@code null} for the check 
+     *         methods that were skipped.
+     */
+    private Boolean[] runCheckMethodsParallel(State sIni, List<Long> heapPositions, List<Signature> methodSignatures, boolean scopeExhaustionMeansSuccess) 
+    throws CannotBuildEngineException, InitializationException, 
+    InvalidClassFileFactoryClassException, InvalidProgramCounterException, 
+    NullMethodReceiverException, InvalidSlotException, NonexistingObservedVariablesException, 
+    DecisionException, CannotBacktrackException, CannotManageStateException, 
+    ClasspathException, ContradictionException, EngineStuckException, FailureException, 
+    ThreadStackEmptyException, FrozenStateException {
+        final Boolean[] retVal = new Boolean[heapPositions.size()];
+        final AtomicInteger next = new AtomicInteger(0);
+        final AtomicBoolean failed = new AtomicBoolean(false);
+        final Callable<Void> job = () -> {
+            try {
+                for (int i = next.getAndIncrement(); i < retVal.length && !failed.get(); i = next.getAndIncrement()) {
+                    final boolean repOk = runCheckMethod(sIni, heapPositions.get(i), methodSignatures.get(i), scopeExhaustionMeansSuccess);
+                    retVal[i] = repOk;
+                    if (!repOk) {
+                        failed.set(true);
+                    }
+                }
+            } catch (Exception | Error e) {
+                failed.set(true);
+                throw e;
+            }
+            return null;
+        };
+        
+        //submits the job to the pool threads, and makes 
+        //the current thread work too
+        final int numThreads = Math.min(this.maxEngines, heapPositions.size());
+        final ExecutorService executor = getExecutor();
+        final ArrayList<Future<Void>> futures = new ArrayList<>();
+        for (int i = 1; i < numThreads; ++i) {
+            futures.add(executor.submit(job));
+        }
+        Throwable failure = null;
+        try {
+            job.call();
+        } catch (Exception | Error e) {
+            failure = e;
+        }
+        
+        //waits for the other threads; an interruption is deferred 
+        //until they finish, since the results would be incomplete
+        boolean interrupted = false;
+        for (Future<Void> future : futures) {
+            while (true) {
+                try {
+                    future.get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause();
+                    }
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            rethrow(failure);
+        }
+        return retVal;
+    }
+    
+    /**
+     * Returns the {@link ExecutorService} whose threads run
+     * the check methods in parallel with the invoking thread,
+     * creating it upon the first invocation.
+     * 
+     * @return an {@link ExecutorService} with {@link #maxEngines}{@code  - 1}
+     *         threads.
+     */
+    private synchronized ExecutorService getExecutor() {
+        if (this.executor == null) {
+            final AtomicInteger threadNumber = new AtomicInteger(1);
+            this.executor = Executors.newFixedThreadPool(this.maxEngines - 1, r -> {
+                final Thread t = new Thread(r, "jbse-checker-" + threadNumber.getAndIncrement());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return this.executor;
+    }
+    
+    /**
+     * Rethrows the failure of a check method run
+     * by another thread in the invoking thread.
+     * 
+     * @param failure the {@link Throwable} raised by 
+     *        {@link #runCheckMethod(State, long, Signature, boolean) runCheckMethod}.
+     */
+    private static void rethrow(Throwable failure) 
+    throws CannotBuildEngineException, InitializationException, 
+    InvalidClassFileFactoryClassException, InvalidProgramCounterException, 
+    NullMethodReceiverException, InvalidSlotException, NonexistingObservedVariablesException, 
+    DecisionException, CannotBacktrackException, CannotManageStateException, 
+    ClasspathException, ContradictionException, EngineStuckException, FailureException, 
+    ThreadStackEmptyException, FrozenStateException {
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        } else if (failure instanceof CannotBuildEngineException) {
+            throw (CannotBuildEngineException) failure;
+        } else if (failure instanceof InitializationException) {
+            throw (InitializationException) failure;
+        } else if (failure instanceof InvalidClassFileFactoryClassException) {
+            throw (InvalidClassFileFactoryClassException) failure;
+        } else if (failure instanceof InvalidProgramCounterException) {
+            throw (InvalidProgramCounterException) failure;
+        } else if (failure instanceof NullMethodReceiverException) {
+            throw (NullMethodReceiverException) failure;
+        } else if (failure instanceof InvalidSlotException) {
+            throw (InvalidSlotException) failure;
+        } else if (failure instanceof NonexistingObservedVariablesException) {
+            throw (NonexistingObservedVariablesException) failure;
+        } else if (failure instanceof DecisionException) {
+            throw (DecisionException) failure;
+        } else if (failure instanceof CannotBacktrackException) {
+            throw (CannotBacktrackException) failure;
+        } else if (failure instanceof CannotManageStateException) {
+            throw (CannotManageStateException) failure;
+        } else if (failure instanceof ClasspathException) {
+            throw (ClasspathException) failure;
+        } else if (failure instanceof ContradictionException) {
+            throw (ContradictionException) failure;
+        } else if (failure instanceof EngineStuckException) {
+            throw (EngineStuckException) failure;
+        } else if (failure instanceof FailureException) {
+            throw (FailureException) failure;
+        } else if (failure instanceof ThreadStackEmptyException) {
+            throw (ThreadStackEmptyException) failure;
+        } else if (failure instanceof FrozenStateException) {
+            throw (FrozenStateException) failure;
+        } else {
+            //this should never happen
+            throw new UnexpectedInternalException(failure);
+        }
+    }
+    
+    /**
+     * Releases the resources of the engines that 
+     * run the check methods. Does not close the 
+     * decision procedure set in the 
+     * {@link RunnerParameters} passed upon construction.
+     * 
+     * @throws DecisionException if closing a 
+     *         decision procedure fails.
+     */
+    public synchronized void close() throws DecisionException {
+        if (this.executor != null) {
+            this.executor.shutdown();
+            this.executor = null;
+        }
+        for (CheckerEngine e : this.engines) {
+            e.close();
+        }
+        this.engines.clear();
+        this.idleEngines.clear();
+        this.firstEngineReserved = false;
+    }
+
     public State makeInitialState() {
     	final State sIni;
     	//takes a copy of the initial state and refines it
@@ -123,6 +458,369 @@ public final class InitialHeapChecker {
         return sIni;
     }
 
+    /**
+     * Encodes the shape of the part of an initial heap a check 
+     * method may depend on when it is run on an object. This is 
+     * the subheap reachable from the object and from the symbolic 
+     * classes, the numeric assumptions on the symbols in the 
+     * subheap, and the assumptions on class initialization. The
+     * concrete objects are the same in all the initial heaps, 
+     * thus they are identified just by their heap position. The
+     * names of the symbols and the origins of the objects are 
+     * normalized away: The symbols are renamed in the order they
+     * are met, so two isomorphic subheaps have the same encoding 
+     * even when they sit at different positions of different 
+     * initial heaps. If the subheap contains unresolved symbolic 
+     * references, that the check method may resolve by aliasing, 
+     * the subheap is extended with all the symbolic objects that 
+     * are compatible with them, otherwise a failed check might 
+     * be reused for an initial heap where the reference may 
+     * alias an object the check did not see.
+     */
+    private static final class HeapShapeEncoder implements PrimitiveVisitor {
+        private final State sIni;
+        private final Map<Long, Objekt> heap;
+        private final List<Klass> symbolicKlasses = new ArrayList<>();
+        private final List<Primitive> numericClauses = new ArrayList<>();
+        private final List<HashSet<String>> numericClausesSymbols = new ArrayList<>();
+        private final StringBuilder classInitClauses = new StringBuilder();
+        
+        //the state of the current encoding
+        private StringBuilder sb;
+        private HashMap<Long, Integer> ids;
+        private ArrayDeque<Long> toVisit;
+        private HashSet<String> symbols;
+        private HashMap<String, Integer> symbolIds;
+        private HashSet<String> unresolvedTypes;
+        
+        HeapShapeEncoder(State sIni) throws FrozenStateException {
+            this.sIni = sIni;
+            this.heap = sIni.getHeap();
+            
+            //the symbolic classes, sorted by name
+            final TreeMap<String, Klass> klasses = new TreeMap<>();
+            for (Map.Entry<ClassFile, Klass> e : sIni.getStaticMethodArea().entrySet()) {
+                if (e.getValue().isSymbolic()) {
+                    klasses.put(e.getKey().getClassName(), e.getValue());
+                }
+            }
+            this.symbolicKlasses.addAll(klasses.values());
+            
+            //the assumptions; the symbols of the numeric ones
+            //are collected with a throwaway encoding
+            for (Clause c : sIni.getPathCondition()) {
+                if (c instanceof ClauseAssume) {
+                    final Primitive condition = ((ClauseAssume) c).getCondition();
+                    this.sb = new StringBuilder();
+                    this.ids = new HashMap<>();
+                    this.toVisit = new ArrayDeque<>();
+                    this.symbols = new HashSet<>();
+                    this.symbolIds = new HashMap<>();
+                    this.unresolvedTypes = new HashSet<>();
+                    encodePrimitive(condition);
+                    this.numericClauses.add(condition);
+                    this.numericClausesSymbols.add(this.symbols);
+                } else if (c instanceof ClauseAssumeClassInitialized || c instanceof ClauseAssumeClassNotInitialized) {
+                    this.classInitClauses.append(c.toString()).append(';');
+                }
+            }
+        }
+        
+        /**
+         * Encodes the shape of the part of the initial heap
+         * a check method may depend on when run on an object.
+         * 
+         * @param heapPos a {@code long}, the heap position 
+         *        of the object.
+         * @return a {@link String}.
+         */
+        String encode(long heapPos) {
+            this.sb = new StringBuilder();
+            this.ids = new HashMap<>();
+            this.toVisit = new ArrayDeque<>();
+            this.symbols = new HashSet<>();
+            this.symbolIds = new HashMap<>();
+            this.unresolvedTypes = new HashSet<>();
+            
+            //the object and the symbolic classes
+            encodeReferenceTo(heapPos);
+            for (Klass k : this.symbolicKlasses) {
+                this.sb.append('K');
+                encodeFields(k);
+            }
+            
+            //the subheap
+            encodeToVisit();
+            
+            //the relevant numeric assumptions
+            this.sb.append('|');
+            final boolean[] relevant = new boolean[this.numericClauses.size()];
+            boolean changed;
+            do {
+                changed = false;
+                for (int i = 0; i < relevant.length; ++i) {
+                    if (!relevant[i] && !Collections.disjoint(this.symbols, this.numericClausesSymbols.get(i))) {
+                        relevant[i] = true;
+                        this.symbols.addAll(this.numericClausesSymbols.get(i));
+                        changed = true;
+                    }
+                }
+            } while (changed);
+            for (int i = 0; i < relevant.length; ++i) {
+                if (relevant[i]) {
+                    encodePrimitive(this.numericClauses.get(i));
+                    this.sb.append(';');
+                }
+            }
+            
+            //the objects the arguments of the applied 
+            //functions in the assumptions refer to
+            encodeToVisit();
+            
+            //the class initialization assumptions
+            this.sb.append('|').append(this.classInitClauses);
+            return this.sb.toString();
+        }
+        
+        private void encodeToVisit() {
+            while (!this.toVisit.isEmpty()) {
+                final long pos = this.toVisit.removeFirst();
+                this.sb.append('#').append(this.ids.get(pos)).append('=');
+                encodeObject(this.heap.get(pos));
+            }
+        }
+        
+        private void encodeObject(Objekt o) {
+            if (o == null) {
+                //this should never happen
+                throw new UnexpectedInternalException("Reached a missing object while encoding a heap shape.");
+            }
+            this.sb.append(o.getType().getClassName()).append(',');
+            encodePrimitive(o.getIdentityHashCode());
+            if (o instanceof Array) {
+                final Array a = (Array) o;
+                this.sb.append('[');
+                encodePrimitive(a.getLength());
+                for (Array.AccessOutcomeIn entry : a.values()) {
+                    this.sb.append(',');
+                    encodePrimitive(entry.getAccessCondition());
+                    this.sb.append("->");
+                    if (entry instanceof Array.AccessOutcomeInValue) {
+                        encodeValue(((Array.AccessOutcomeInValue) entry).getValue());
+                    } else { //entry instanceof Array.AccessOutcomeInInitialArray
+                        final Array.AccessOutcomeInInitialArray entryInitial = (Array.AccessOutcomeInInitialArray) entry;
+                        encodeValue(entryInitial.getInitialArray());
+                        this.sb.append('+');
+                        encodePrimitive(entryInitial.getOffset());
+                    }
+                }
+                this.sb.append(']');
+            } else {
+                encodeFields(o);
+            }
+        }
+        
+        private void encodeFields(Objekt o) {
+            this.sb.append('{');
+            for (Map.Entry<String, Variable> e : new TreeMap<>(o.fields()).entrySet()) {
+                this.sb.append(e.getKey()).append('=');
+                encodeValue(e.getValue().getValue());
+                this.sb.append(',');
+            }
+            this.sb.append('}');
+        }
+        
+        private void encodeValue(Value v) {
+            if (v == null) {
+                this.sb.append("?");
+            } else if (v instanceof Primitive) {
+                encodePrimitive((Primitive) v);
+            } else if (v instanceof ReferenceConcrete) {
+                final long pos = ((ReferenceConcrete) v).getHeapPosition();
+                final Objekt o = this.heap.get(pos);
+                if (o != null && o.isSymbolic()) {
+                    encodeReferenceTo(pos);
+                } else {
+                    //null, or a concrete object
+                    this.sb.append('C').append(pos);
+                }
+            } else if (v instanceof ReferenceSymbolic) {
+                final ReferenceSymbolic r = (ReferenceSymbolic) v;
+                if (this.sIni.resolved(r)) {
+                    final long pos = this.sIni.getResolution(r);
+                    if (pos == Util.POS_NULL) {
+                        this.sb.append("null");
+                    } else {
+                        encodeReferenceTo(pos);
+                    }
+                } else {
+                    this.sb.append('?').append(r.getStaticType());
+                    addPossibleAliases(r.getStaticType());
+                }
+            } else {
+                this.sb.append(v.toString());
+            }
+        }
+        
+        /**
+         * Adds to the subheap all the symbolic objects
+         * an unresolved symbolic reference may alias.
+         * 
+         * @param staticType a {@link String}, the static
+         *        type of the reference.
+         */
+        private void addPossibleAliases(String staticType) {
+            if (!this.unresolvedTypes.add(staticType)) {
+                return;
+            }
+            final String typeName = (isArray(staticType) ? null : className(staticType));
+            for (Map.Entry<Long, Objekt> e : this.heap.entrySet()) {
+                final Objekt o = e.getValue();
+                if (o.isSymbolic() && !this.ids.containsKey(e.getKey()) && isCompatible(o.getType(), typeName)) {
+                    this.sb.append('~');
+                    encodeReferenceTo(e.getKey());
+                }
+            }
+        }
+        
+        /**
+         * Checks whether a class may be the type of an 
+         * object referred by a reference with a given 
+         * static type.
+         * 
+         * @param cf a {@link ClassFile}.
+         * @param typeName the name of the static type, 
+         *        or {@code null} if it is an array type.
+         * @return {@code true} if {@code cf} is (conservatively)
+         *         a subclass of {@code typeName}.
+         */
+        private static boolean isCompatible(ClassFile cf, String typeName) {
+            if (typeName == null) {
+                return cf.isArray();
+            }
+            if (cf.isArray()) {
+                return true;
+            }
+            for (ClassFile c = cf; c != null; c = c.getSuperclass()) {
+                if (c.getClassName().equals(typeName) || implementsInterface(c, typeName)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        private static boolean implementsInterface(ClassFile cf, String typeName) {
+            for (ClassFile i : cf.getSuperInterfaces()) {
+                if (i.getClassName().equals(typeName) || implementsInterface(i, typeName)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        private void encodeReferenceTo(long pos) {
+            Integer id = this.ids.get(pos);
+            if (id == null) {
+                id = this.ids.size();
+                this.ids.put(pos, id);
+                this.toVisit.addLast(pos);
+            }
+            this.sb.append('#').append(id);
+        }
+        
+        private void encodePrimitive(Primitive p) {
+            if (p == null) {
+                this.sb.append("?");
+            } else {
+                try {
+                    p.accept(this);
+                } catch (Exception e) {
+                    //this should never happen
+                    throw new UnexpectedInternalException(e);
+                }
+            }
+        }
+        
+        /**
+         * Encodes a symbol with its normalized name, 
+         * i.e., the order it was met in the current 
+         * encoding, and records it as a symbol of the
+         * encoded subheap.
+         * 
+         * @param symbol a {@link Primitive}, the symbol.
+         */
+        private void encodeSymbol(Primitive symbol) {
+            final String name = symbol.toString();
+            Integer id = this.symbolIds.get(name);
+            if (id == null) {
+                id = this.symbolIds.size();
+                this.symbolIds.put(name, id);
+            }
+            this.symbols.add(name);
+            this.sb.append('$').append(id).append(symbol.getType());
+        }
+
+        @Override
+        public void visitAny(Any x) {
+            this.sb.append(x.toString());
+        }
+
+        @Override
+        public void visitExpression(Expression e) throws Exception {
+            this.sb.append('(');
+            if (e.isUnary()) {
+                this.sb.append(e.getOperator());
+                e.getOperand().accept(this);
+            } else {
+                e.getFirstOperand().accept(this);
+                this.sb.append(e.getOperator());
+                e.getSecondOperand().accept(this);
+            }
+            this.sb.append(')');
+        }
+
+        @Override
+        public void visitPrimitiveSymbolicApply(PrimitiveSymbolicApply x) {
+            //the applied function is encoded, and its
+            //arguments are normalized as any other value
+            this.sb.append('A').append(x.getOperator()).append(x.getType()).append('(');
+            for (Value arg : x.getArgs()) {
+                encodeValue(arg);
+                this.sb.append(',');
+            }
+            this.sb.append(')');
+        }
+
+        @Override
+        public void visitPrimitiveSymbolicAtomic(PrimitiveSymbolicAtomic s) {
+            encodeSymbol(s);
+        }
+
+        @Override
+        public void visitSimplex(Simplex x) {
+            this.sb.append(x.toString()).append(x.getType());
+        }
+
+        @Override
+        public void visitTerm(Term x) {
+            encodeSymbol(x);
+        }
+
+        @Override
+        public void visitNarrowingConversion(NarrowingConversion x) throws Exception {
+            this.sb.append("N").append(x.getType()).append('(');
+            x.getArg().accept(this);
+            this.sb.append(')');
+        }
+
+        @Override
+        public void visitWideningConversion(WideningConversion x) throws Exception {
+            this.sb.append("W").append(x.getType()).append('(');
+            x.getArg().accept(this);
+            this.sb.append(')');
+        }
+    }
+
     /**
      * This class stores bindings from class names to signatures
      * of methods in the class that must be used to check the 
@@ -216,21 +914,16 @@ public final class InitialHeapChecker {
     }
 
     /**
-     * Runs a check method in a new {@link Engine}.
+     * Runs a check method in a pooled {@link CheckerEngine}.
      * 
-     * @param s the initial {@link State} to run the
-     *        method. It will be modified.
-     * @param r a {@link Reference} to the target
+     * @param sIni the initial {@link State} to run the
+     *        method. It will not be modified.
+     * @param heapPos the heap position of the target 
      *        of the method invocation ("this").
-     * @param classFile the {@link ClassFile} of the target of the method
-     *        invocation.
      * @param methodSignatureImpl the {@link Signature} of the method to run.
      *        It must be the signature of the looked up method (i.e., it must
-     *        have its implementation in {@code classFile}) and it must be
+     *        have its implementation in the class of the target) and it must be
      *        nonnative.
-     * @param p the {@link RunnerParameters} object that will be used to build 
-     *        the runner; It must be coherent with the parameters of the engine
-     *        that created {@code s}. It will be modified.
      * @param scopeExhaustionMeansSuccess {@code true} iff a trace that exhausts
      *        the execution scope must be interpreted as a successful 
      *        execution of the method that returns {@code true}. 
@@ -254,38 +947,179 @@ public final class InitialHeapChecker {
      * @throws FrozenStateException
      */
     //TODO handle and convert all these exceptions and raise the abstraction level of the operation
-    private static boolean 
-    runCheckMethod(State s, Reference r, ClassFile classFile, Signature methodSignatureImpl, RunnerParameters p, boolean scopeExhaustionMeansSuccess) 
+    private boolean 
+    runCheckMethod(State sIni, long heapPos, Signature methodSignatureImpl, boolean scopeExhaustionMeansSuccess) 
     throws CannotBuildEngineException, InitializationException, 
     InvalidClassFileFactoryClassException, InvalidProgramCounterException, 
     NullMethodReceiverException, InvalidSlotException, NonexistingObservedVariablesException, 
     DecisionException, CannotBacktrackException, CannotManageStateException, 
     ClasspathException, ContradictionException, EngineStuckException, FailureException, 
     ThreadStackEmptyException, FrozenStateException {
+        final State s;
+        synchronized (sIni) {
+            s = sIni.clone();
+        }
+        final Reference r = new ReferenceConcrete(heapPos);
+        final ClassFile classFile = s.getObject(r).getType();
         try {
             s.pushFrame(classFile, methodSignatureImpl, true, 0, r);
         } catch (MethodNotFoundException | MethodCodeNotFoundException | InvalidTypeException e) {
             return true; //TODO ugly way to cope with nonexistent methods; possibly handle the situation in the constructor of CheckMethodTable
         }
-        p.setInitialState(s);
-        final RepOkRunnerActions actions = new RepOkRunnerActions(scopeExhaustionMeansSuccess);
-        p.setActions(actions);
-
+        
         //runs
-        final RunnerBuilder builder = new RunnerBuilder();
-        final Runner runner = builder.build(p);
-        runner.run();
-        return actions.repOk;
+        final CheckerEngine engine = acquireEngine(s);
+        try {
+            return engine.run(s, scopeExhaustionMeansSuccess);
+        } finally {
+            releaseEngine(engine);
+        }
+    }
+    
+    /**
+     * Takes an idle {@link CheckerEngine} from the pool, 
+     * or creates a new one if no engine is idle.
+     * 
+     * @param s a {@link State}, the initial state of the
+     *        check method the engine will run.
+     * @return a {@link CheckerEngine}.
+     * @throws CannotBuildEngineException
+     * @throws DecisionException
+     * @throws InitializationException
+     * @throws InvalidClassFileFactoryClassException
+     * @throws NonexistingObservedVariablesException
+     * @throws ClasspathException
+     * @throws ContradictionException
+     * @throws CannotManageStateException
+     */
+    private CheckerEngine acquireEngine(State s) 
+    throws CannotBuildEngineException, DecisionException, InitializationException, 
+    InvalidClassFileFactoryClassException, NonexistingObservedVariablesException, 
+    ClasspathException, ContradictionException, CannotManageStateException {
+        final boolean first;
+        synchronized (this) {
+            final CheckerEngine idle = this.idleEngines.pollFirst();
+            if (idle != null) {
+                return idle;
+            }
+            first = !this.firstEngineReserved;
+            this.firstEngineReserved = true;
+        }
+        
+        //the first engine uses the decision procedure in the
+        //parameters, the others their own decision procedures
+        final CheckerEngine retVal;
+        try {
+            final RunnerParameters p = this.runnerParameters.clone();
+            p.setInitialState(s);
+            p.setSequential();
+            if (!first) {
+                final WorkerFactory factory = this.runnerParameters.getWorkerFactory();
+                p.setDecisionProcedure(factory.makeDecisionProcedure(p.getCalculator()));
+            }
+            retVal = new CheckerEngine(p, !first);
+        } catch (CannotBuildEngineException | DecisionException | InitializationException | 
+                 InvalidClassFileFactoryClassException | NonexistingObservedVariablesException | 
+                 ClasspathException | ContradictionException | CannotManageStateException | 
+                 RuntimeException e) {
+            if (first) {
+                //gives back the reservation
+                synchronized (this) {
+                    this.firstEngineReserved = false;
+                }
+            }
+            throw e;
+        }
+        synchronized (this) {
+            this.engines.add(retVal);
+        }
+        return retVal;
+    }
+    
+    /**
+     * Returns the number of {@link CheckerEngine}s created so far.
+     * 
+     * @return an {@code int}.
+     */
+    synchronized int getNumOfEngines() {
+        return this.engines.size();
+    }
+    
+    /**
+     * Returns the number of {@link CheckerEngine}s created so far
+     * that use the decision procedure in the {@link RunnerParameters} 
+     * passed upon construction.
+     * 
+     * @return an {@code int}.
+     */
+    synchronized int getNumOfEnginesSharingDecisionProcedure() {
+        int retVal = 0;
+        for (CheckerEngine e : this.engines) {
+            if (!e.ownsDecisionProcedure) {
+                ++retVal;
+            }
+        }
+        return retVal;
+    }
+    
+    private synchronized void releaseEngine(CheckerEngine engine) {
+        this.idleEngines.addFirst(engine);
+    }
+    
+    /**
+     * A {@link Runner} that runs check methods, and that 
+     * is reused for many check methods by restarting it 
+     * from their initial states.
+     * 
+     * @author Pietro Braione
+     */
+    private static final class CheckerEngine {
+        private final RepOkRunnerActions actions = new RepOkRunnerActions();
+        private final Runner runner;
+        private final Engine engine;
+        private final boolean ownsDecisionProcedure;
+        
+        /** Whether {@link #runner} is at the state it was built from. */
+        private boolean fresh = true;
+        
+        CheckerEngine(RunnerParameters p, boolean ownsDecisionProcedure) 
+        throws CannotBuildEngineException, DecisionException, InitializationException, 
+        InvalidClassFileFactoryClassException, NonexistingObservedVariablesException, 
+        ClasspathException, ContradictionException, CannotManageStateException {
+            p.setActions(this.actions);
+            final RunnerBuilder builder = new RunnerBuilder();
+            this.runner = builder.build(p);
+            this.engine = builder.getEngine();
+            this.ownsDecisionProcedure = ownsDecisionProcedure;
+        }
+        
+        boolean run(State s, boolean scopeExhaustionMeansSuccess) 
+        throws DecisionException, InitializationException, InvalidClassFileFactoryClassException, 
+        NonexistingObservedVariablesException, ClasspathException, ContradictionException, 
+        CannotBacktrackException, CannotManageStateException, ThreadStackEmptyException, 
+        EngineStuckException, FailureException {
+            if (this.fresh) {
+                this.fresh = false;
+            } else {
+                this.runner.restart(s);
+            }
+            this.actions.scopeExhaustionMeansSuccess = scopeExhaustionMeansSuccess;
+            this.actions.repOk = false;
+            this.runner.run();
+            return this.actions.repOk;
+        }
+        
+        void close() throws DecisionException {
+            if (this.ownsDecisionProcedure) {
+                this.engine.close();
+            }
+        }
     }
 
     private static class RepOkRunnerActions extends Runner.Actions {
-        final boolean scopeExhaustionMeansSuccess;
+        boolean scopeExhaustionMeansSuccess = false;
         boolean repOk = false;
 
-        public RepOkRunnerActions(boolean scopeExhaustionMeansSuccess) { 
-            this.scopeExhaustionMeansSuccess = scopeExhaustionMeansSuccess;
-        }
-
         //TODO log differently!
         /*
         @Override
@@ -6,7 +6,9 @@ import java.io.PrintStream;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import jbse.JBSE;
 import jbse.algo.exc.CannotInvokeNativeException;
@@ -39,7 +41,9 @@ import jbse.dec.DecisionProcedure;
 import jbse.dec.DecisionProcedureAlgorithms;
 import jbse.dec.DecisionProcedureAlwSat;
 import jbse.dec.DecisionProcedureClassInit;
+import jbse.dec.DecisionProcedureDecoratorCache;
 import jbse.dec.DecisionProcedureEquality;
+import jbse.dec.DecisionProcedureIntervalAnalysis;
 import jbse.dec.DecisionProcedureLICS;
 import jbse.dec.DecisionProcedureSignAnalysis;
 import jbse.dec.DecisionProcedureSMTLIB2_AUFNIRA;
@@ -50,6 +54,7 @@ import jbse.jvm.EngineParameters;
 import jbse.jvm.Runner;
 import jbse.jvm.RunnerBuilder;
 import jbse.jvm.RunnerParameters;
+import jbse.jvm.WorkerFactory;
 import jbse.jvm.exc.CannotBacktrackException;
 import jbse.jvm.exc.CannotBuildEngineException;
 import jbse.jvm.exc.EngineStuckException;
@@ -66,6 +71,7 @@ import jbse.rewr.CalculatorRewriting;
 import jbse.rewr.Rewriter;
 import jbse.rewr.RewriterOperationOnSimplex;
 import jbse.tree.StateTree.BranchPoint;
+import jbse.val.Calculator;
 import jbse.val.PrimitiveSymbolic;
 import jbse.val.Simplex;
 
@@ -127,6 +133,12 @@ public final class Run {
     /** The concretization checker. */
     private InitialHeapChecker checker = null;
 
+    /** The conservative repOk decision procedure, if used. */
+    private DecisionProcedureConservativeRepOk conservativeRepOk = null;
+
+    /** The cache of the external decision procedure, if used. */
+    private DecisionProcedureDecoratorCache decisionProcedureCache = null;
+
     /** Counter for the number of analyzed traces that are safe (do not violate assertions). */
     private long tracesSafe = 0;
 
@@ -188,7 +200,7 @@ public final class Run {
          */
         private boolean stackSizeAcceptable() {
             try {
-                final State currentState = Run.this.engine.getCurrentState();
+                final State currentState = getEngine().getCurrentState();
 				return (Run.this.parameters.getStackDepthShow() == 0 || 
 				        Run.this.parameters.getStackDepthShow() > currentState.getStackSize());
 			} catch (FrozenStateException e) {
@@ -206,8 +218,10 @@ public final class Run {
         private boolean printAndAsk() {
             if (this.endOfTraceMessage == null && this.traceKind != TraceTypes.CONTRADICTORY && this.stackSizeAcceptable() && this.mayPrint) {
                 try {
-                    final State currentState = Run.this.getCurrentState();
-                    Run.this.emitState(currentState);
+                    final State currentState = getEngine().getCurrentState();
+                    synchronized (Run.this) {
+                        Run.this.emitState(currentState);
+                    }
                 } catch (UnexpectedInternalException e) {
                     Run.this.err(ERROR_UNEXPECTED);
                     Run.this.err(e);
@@ -344,7 +358,7 @@ public final class Run {
 
         @Override
         public boolean atStepPost() {
-            final State currentState = Run.this.engine.getCurrentState();
+            final State currentState = getEngine().getCurrentState();
             
             //if a resolved reference has not been expanded, prints a warning
             if (Run.this.parameters.getShowWarnings() && 
@@ -355,7 +369,7 @@ public final class Run {
             }
             
             //enables printing if we hit the root method execution
-            if (Run.this.engine.atInitialState()) {
+            if (getEngine().atInitialState()) {
             	this.mayPrint = true;
             }
 
@@ -392,8 +406,16 @@ public final class Run {
 
         @Override
         public boolean atTraceEnd() {
+            //the workers of a parallel exploration print 
+            //and update the counters one at a time
+            synchronized (Run.this) {
+                return atTraceEndSynchronized();
+            }
+        }
+
+        private boolean atTraceEndSynchronized() {
             try {
-                final State currentState = Run.this.engine.getCurrentState();
+                final State currentState = getEngine().getCurrentState();
                 //prints the leaf state if the case
                 if (Run.this.parameters.getStepShowMode() == StepShowMode.ALL ||       //already shown
                     Run.this.parameters.getStepShowMode() == StepShowMode.SOURCE ||    //already shown
@@ -405,7 +427,7 @@ public final class Run {
                 } else {
                     //prints the refined root state for the summaries case
                     if (Run.this.parameters.getStepShowMode() == StepShowMode.SUMMARIES) {
-                        State initialRefined = Run.this.engine.getInitialState();
+                        State initialRefined = getEngine().getInitialState();
                         initialRefined.refine(currentState);
                         Run.this.emitState(initialRefined);
                         Run.this.out("\n===\n");
@@ -548,6 +570,55 @@ public final class Run {
         }
     }
 
+    /**
+     * The {@link Runner.Actions} of the workers of a parallel
+     * exploration besides the first one. They start from 
+     * donated post-initial states, and do not print the
+     * epilogue at their end.
+     */
+    private class ActionsRunWorker extends ActionsRun {
+        ActionsRunWorker() {
+            super.mayPrint = true;
+        }
+        
+        @Override
+        public void atEnd() {
+            //does not print the epilogue, the first worker does
+        }
+    }
+    
+    /**
+     * Creates the components of the workers of a parallel
+     * exploration, configured as the ones of the first worker.
+     */
+    private class WorkerFactoryRun implements WorkerFactory {
+        @Override
+        public Calculator makeCalculator() {
+            try {
+                return createCalculator();
+            } catch (CannotBuildEngineException e) {
+                //this should never happen, since 
+                //the first worker has a calculator
+                throw new UnexpectedInternalException(e);
+            }
+        }
+        
+        @Override
+        public DecisionProcedureAlgorithms makeDecisionProcedure(Calculator calc) 
+        throws DecisionException {
+            try {
+                return createDecisionProcedure((CalculatorRewriting) calc, true);
+            } catch (CannotBuildDecisionProcedureException e) {
+                throw new DecisionException(e);
+            }
+        }
+        
+        @Override
+        public Runner.Actions makeActions() {
+            return new ActionsRunWorker();
+        }
+    }
+
     /**
      * Runs the method.
      * 
@@ -676,8 +747,15 @@ public final class Run {
             final CalculatorRewriting calc = createCalculator();
             final EngineParameters engineParameters = runnerParameters.getEngineParameters();
             engineParameters.setCalculator(calc);
-            createDecisionProcedure(calc);
+            this.decisionProcedure = createDecisionProcedure(calc, false);
             engineParameters.setDecisionProcedure(this.decisionProcedure);
+            if (this.parameters.getNumOfWorkers() > 1) {
+                if (parallelSupported()) {
+                    runnerParameters.setParallel(this.parameters.getNumOfWorkers(), new WorkerFactoryRun());
+                } else if (this.parameters.getShowWarnings()) {
+                    log(WARNING_PARALLEL_UNSUPPORTED);
+                }
+            }
             final RunnerBuilder rb = new RunnerBuilder();
             this.runner = rb.build(this.parameters.getRunnerParameters());
             this.engine = rb.getEngine();
@@ -726,6 +804,21 @@ public final class Run {
         return 0;
     }
 
+    /**
+     * Checks whether the state space can be explored
+     * in parallel with the current parameters.
+     * 
+     * @return {@code true} iff there is no interaction with
+     *         the user and no decision procedure that is 
+     *         bound to the states of the first engine.
+     */
+    private boolean parallelSupported() {
+        return (this.parameters.getInteractionMode() == InteractionMode.NO_INTERACTION &&
+                !this.parameters.isGuided() && 
+                !this.parameters.getUseConservativeRepOks() && 
+                !this.parameters.getDoConcretization());
+    }
+
     private void setStreams() {
         // sets the output and error streams
         // first are to standard
@@ -846,18 +939,46 @@ public final class Run {
     }
 
     /**
-     * Creates the decision procedures in {@code this.decisionProcedure}
-     * and {@code this.decisionProcedureConcretization}. 
+     * Creates the external decision procedure, that is a pool 
+     * of solver processes when so required by the parameters.
+     * 
+     * @param next the next {@link DecisionProcedure} in the chain.
+     * @param calc a {@link CalculatorRewriting}.
+     * @param solverCommandLine a {@link List}{@code <}{@link String}{@code >}, 
+     *        the command line to launch the solver processes.
+     * @return a {@link DecisionProcedureSMTLIB2_AUFNIRA}.
+     * @throws DecisionException if launching the solver processes fails.
+     */
+    private DecisionProcedureSMTLIB2_AUFNIRA createExternalDecisionProcedure(DecisionProcedure next, CalculatorRewriting calc, List<String> solverCommandLine) 
+    throws DecisionException {
+        final int poolSize = this.parameters.getExternalDecisionProcedurePoolSize();
+        if (poolSize > 1) {
+            return new DecisionProcedureSMTLIB2_AUFNIRA(next, calc, solverCommandLine, poolSize, 
+                                                        this.parameters.getExternalDecisionProcedureQueryTimeout(), TimeUnit.MILLISECONDS);
+        } else {
+            return new DecisionProcedureSMTLIB2_AUFNIRA(next, calc, solverCommandLine);
+        }
+    }
+
+    /**
+     * Creates a decision procedure, and possibly the decision 
+     * procedure in {@code this.decisionProcedureConcretization}. 
      * 
      * @param calc a {@link CalculatorRewriting}.
+     * @param worker {@code true} if the decision procedure is 
+     *        for a worker of a parallel exploration besides the
+     *        first one. In this case the components of the 
+     *        decision procedure are not stored in the fields of 
+     *        this object, and no feedback is printed.
+     * @return the created {@link DecisionProcedureAlgorithms}.
      * @throws CannotBuildDecisionProcedureException upon failure.
      */
-    private void createDecisionProcedure(CalculatorRewriting calc)
+    private DecisionProcedureAlgorithms createDecisionProcedure(CalculatorRewriting calc, boolean worker)
     throws CannotBuildDecisionProcedureException {
         final Path path = this.parameters.getExternalDecisionProcedurePath();       
 
         //prints some feedback
-        if (this.parameters.getShowInfo()) {
+        if (this.parameters.getShowInfo() && !worker) {
             if (this.parameters.getDecisionProcedureType() == DecisionProcedureType.Z3) {
                 log(MSG_TRY_Z3 + (path == null ? "default" : path.toString()) + ".");
             } else if (this.parameters.getDecisionProcedureType() == DecisionProcedureType.CVC4) {
@@ -886,7 +1007,7 @@ public final class Run {
                 z3CommandLine.add(switchChar + "smt2");
                 z3CommandLine.add(switchChar + "in");
                 z3CommandLine.add(switchChar + "t:10");
-                core = new DecisionProcedureSMTLIB2_AUFNIRA(core, calc, z3CommandLine);
+                core = createExternalDecisionProcedure(core, calc, z3CommandLine);
                 coreNumeric = (needHeapCheck ? new DecisionProcedureSMTLIB2_AUFNIRA(coreNumeric, calc, z3CommandLine) : null);
             } else if (type == DecisionProcedureType.CVC4) {
                 final ArrayList<String> cvc4CommandLine = new ArrayList<>();
@@ -896,7 +1017,7 @@ public final class Run {
                 cvc4CommandLine.add("--no-interactive");
                 cvc4CommandLine.add("--incremental");
                 cvc4CommandLine.add("--tlimit-per=10000");
-                core = new DecisionProcedureSMTLIB2_AUFNIRA(core, calc, cvc4CommandLine);
+                core = createExternalDecisionProcedure(core, calc, cvc4CommandLine);
                 coreNumeric = (needHeapCheck ? new DecisionProcedureSMTLIB2_AUFNIRA(coreNumeric, calc, cvc4CommandLine) : null);
             } else {
                 core.close();
@@ -909,12 +1030,27 @@ public final class Run {
             throw new CannotBuildDecisionProcedureException(e);
         }
 
+        //caches the answers of the external numeric decision procedure, if required
+        if (type != DecisionProcedureType.ALL_SAT && this.parameters.getUseDecisionProcedureCache()) {
+            final DecisionProcedureDecoratorCache cache = new DecisionProcedureDecoratorCache(core);
+            if (!worker) {
+                this.decisionProcedureCache = cache;
+            }
+            core = cache;
+        }
+
         //further wraps cores with sign analysis, if required
         if (this.parameters.getDoSignAnalysis()) {
             core = new DecisionProcedureSignAnalysis(core, calc);
             coreNumeric = (needHeapCheck ? new DecisionProcedureSignAnalysis(coreNumeric, calc) : null);
         }
 
+        //further wraps cores with interval analysis, if required
+        if (this.parameters.getDoIntervalAnalysis()) {
+            core = new DecisionProcedureIntervalAnalysis(core, calc);
+            coreNumeric = (needHeapCheck ? new DecisionProcedureIntervalAnalysis(coreNumeric, calc) : null);
+        }
+
         //further wraps cores with equality analysis, if required
         if (this.parameters.getDoEqualityAnalysis()) {
             core = new DecisionProcedureEquality(core, calc);
@@ -943,6 +1079,7 @@ public final class Run {
                 new DecisionProcedureConservativeRepOk(core, calc, checkerParameters, this.parameters.getConservativeRepOks());
             dec.setInitialStateSupplier(this::getInitialState); 
             dec.setCurrentStateSupplier(this::getCurrentState); 
+            this.conservativeRepOk = dec;
             core = dec;
         }
 
@@ -953,7 +1090,9 @@ public final class Run {
 
         //wraps with timer
         final DecisionProcedureDecoratorTimer tCore = new DecisionProcedureDecoratorTimer(core);
-        this.timer = tCore;
+        if (!worker) {
+            this.timer = tCore;
+        }
         core = tCore;
 
         //wraps with printer if interaction with decision procedure must be shown
@@ -982,10 +1121,10 @@ public final class Run {
             core = this.guidance;
         }
 
-        //sets the result
-        this.decisionProcedure = ((core instanceof DecisionProcedureAlgorithms) ? 
-                                  (DecisionProcedureAlgorithms) core :
-                                  new DecisionProcedureAlgorithms(core, calc));
+        //returns the result
+        return ((core instanceof DecisionProcedureAlgorithms) ? 
+                (DecisionProcedureAlgorithms) core :
+                new DecisionProcedureAlgorithms(core, calc));
     }
 
     /**
@@ -1076,6 +1215,19 @@ public final class Run {
             (this.timer == null ? 
              "." :
              ", " + MSG_END_DECISION + Util.formatTime(elapsedTimeDecisionProcedure) + " (" + Util.formatTimePercent(elapsedTimeDecisionProcedure, elapsedTime) + " of total)."));
+        if (this.conservativeRepOk != null) {
+            log(MSG_END_REPOK_CACHE + this.conservativeRepOk.getCacheHits() + " hits, " + this.conservativeRepOk.getCacheMisses() + " misses.");
+        }
+        if (this.decisionProcedureCache != null) {
+            log(MSG_END_DECISION_CACHE + this.decisionProcedureCache.getHits() + " hits (" + 
+                this.decisionProcedureCache.getHitsExact() + " exact, " + 
+                this.decisionProcedureCache.getHitsSubsumed() + " subsumed, " + 
+                this.decisionProcedureCache.getHitsModel() + " by model), " + 
+                this.decisionProcedureCache.getMisses() + " misses.");
+        }
+        if (this.checker != null) {
+            log(MSG_END_CONCRETIZATION_CACHE + this.checker.getCacheHits() + " hits, " + this.checker.getCacheMisses() + " misses.");
+        }
     }
 
     /**
@@ -1089,6 +1241,9 @@ public final class Run {
         // quits the numeric decision procedure for the checker
         if (this.decisionProcedureConcretization != null) {
             try {
+                if (this.checker != null) {
+                    this.checker.close();
+                }
                 this.decisionProcedureConcretization.close();
                 this.decisionProcedureConcretization = null;
                 this.checker = null;
@@ -1178,6 +1333,15 @@ public final class Run {
     /** Message: analyzed states. */
     private static final String MSG_END_STATES = "Analyzed states: ";
 
+    /** Message: cache of the conservative repOk checks. */
+    private static final String MSG_END_REPOK_CACHE = "Conservative repOk cache: ";
+
+    /** Message: cache of the decision procedure. */
+    private static final String MSG_END_DECISION_CACHE = "Decision procedure cache: ";
+
+    /** Message: cache of the concretization checks. */
+    private static final String MSG_END_CONCRETIZATION_CACHE = "Concretization check cache: ";
+
     /** Message: total traces. */
     private static final String MSG_END_TRACES_TOT = "Analyzed traces: ";
 
@@ -1209,6 +1373,9 @@ public final class Run {
     private static final String WARNING_PARTIAL_REFERENCE_RESOLUTION = " not expanded. It may be a " +
     "hint of too strong user-defined constraints, possibly correct when enforcing redundancy by representation invariant.";
 
+    /** Warning: parallel exploration not supported. */
+    private static final String WARNING_PARALLEL_UNSUPPORTED = "Parallel exploration is not supported with the current parameters, the exploration will be sequential.";
+
     /** Warning: timeout. */
     private static final String WARNING_TIMEOUT = "Timeout.";
 
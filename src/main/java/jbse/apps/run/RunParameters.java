@@ -312,6 +312,28 @@ public final class RunParameters implements Cloneable {
     
     /** The {@link Path} where the executable of the external decision procedure is. */
     private Path externalDecisionProcedurePath = null;
+    
+    /** The number of processes of the external decision procedure. */
+    private int externalDecisionProcedurePoolSize = 1;
+    
+    /** 
+     * The maximum time, in milliseconds, a process of a pool of external 
+     * decision procedures may take to answer a query; if it is not 
+     * positive, there is no timeout.
+     */
+    private long externalDecisionProcedureQueryTimeout = 0L;
+
+    /** 
+     * Whether the answers of the external decision procedure 
+     * should be cached.
+     */
+    private boolean useDecisionProcedureCache = false;
+    
+    /** 
+     * The number of workers that explore the state space 
+     * in parallel.
+     */
+    private int numOfWorkers = 1;
 
     /** 
      * Whether the engine should use its sign analysis 
@@ -319,6 +341,12 @@ public final class RunParameters implements Cloneable {
      */
     private boolean doSignAnalysis = false;
 
+    /** 
+     * Whether the engine should use its interval analysis 
+     * decision support.
+     */
+    private boolean doIntervalAnalysis = false;
+
     /** Whether the engine should do sign analysis before invoking the decision procedure. */
     private boolean doEqualityAnalysis = false;
 
@@ -507,6 +535,120 @@ public final class RunParameters implements Cloneable {
         return this.runnerParameters.getBypassStandardLoading();
     }
 
+    /**
+     * Sets whether the last pre-initial state, i.e., the
+     * state at the end of the bootstrap of the standard Java
+     * classes, must be cached on disk and reused by all the 
+     * subsequent runs, also in other processes, with the same 
+     * classpath and configuration. By default it is set to {@code false}.
+     *
+     * @param preInitialStateCaching a {@code boolean}.
+     */
+    public void setPreInitialStateCaching(boolean preInitialStateCaching) {
+        this.runnerParameters.setPreInitialStateCaching(preInitialStateCaching);
+    }
+
+    /**
+     * Returns whether the last pre-initial state must be cached.
+     *
+     * @return a {@code boolean}.
+     */
+    public boolean getPreInitialStateCaching() {
+        return this.runnerParameters.getPreInitialStateCaching();
+    }
+
+    /**
+     * Sets the directory where the last pre-initial states 
+     * are cached when {@link #setPreInitialStateCaching(boolean) setPreInitialStateCaching}{@code (true)}.
+     *
+     * @param preInitialStateCacheDirectory a {@link String}.
+     * @throws NullPointerException if {@code preInitialStateCacheDirectory == null}.
+     */
+    public void setPreInitialStateCacheDirectory(String preInitialStateCacheDirectory) {
+        this.runnerParameters.setPreInitialStateCacheDirectory(preInitialStateCacheDirectory);
+    }
+
+    /**
+     * Sets the directory where the last pre-initial states 
+     * are cached when {@link #setPreInitialStateCaching(boolean) setPreInitialStateCaching}{@code (true)}.
+     *
+     * @param preInitialStateCacheDirectory a {@link Path}.
+     * @throws NullPointerException if {@code preInitialStateCacheDirectory == null}.
+     */
+    public void setPreInitialStateCacheDirectory(Path preInitialStateCacheDirectory) {
+        this.runnerParameters.setPreInitialStateCacheDirectory(preInitialStateCacheDirectory);
+    }
+
+    /**
+     * Returns the directory where the last pre-initial states are cached.
+     *
+     * @return a {@link Path}, or {@code null} if the default 
+     *         directory is used.
+     */
+    public Path getPreInitialStateCacheDirectory() {
+        return this.runnerParameters.getPreInitialStateCacheDirectory();
+    }
+
+    /**
+     * Bounds the number of pending states, i.e., states at
+     * branch points that have not yet been explored, that are
+     * kept in memory. The bound is a count of states, not a 
+     * size in bytes. When the bound is exceeded, the pending
+     * states that will be explored last are moved to disk, 
+     * and read back when needed. By default it is set to 
+     * {@code 0}, meaning that all the pending states are 
+     * kept in memory.
+     *
+     * @param maxResidentPendingStates an {@code int}. If it is 
+     *        less than {@code 2}, all the pending states are 
+     *        kept in memory.
+     */
+    public void setMaxResidentPendingStates(int maxResidentPendingStates) {
+        this.runnerParameters.setMaxResidentPendingStates(maxResidentPendingStates);
+    }
+
+    /**
+     * Returns the maximum number of pending states
+     * that are kept in memory.
+     *
+     * @return an {@code int}, {@code 0} meaning unbounded.
+     */
+    public int getMaxResidentPendingStates() {
+        return this.runnerParameters.getMaxResidentPendingStates();
+    }
+
+    /**
+     * Sets the directory where the pending states are moved
+     * when they exceed the bound set with {@link #setMaxResidentPendingStates(int)}.
+     *
+     * @param spillDirectory a {@link String}.
+     * @throws NullPointerException if {@code spillDirectory == null}.
+     */
+    public void setSpillDirectory(String spillDirectory) {
+        this.runnerParameters.setSpillDirectory(spillDirectory);
+    }
+
+    /**
+     * Sets the directory where the pending states are moved
+     * when they exceed the bound set with {@link #setMaxResidentPendingStates(int)}.
+     *
+     * @param spillDirectory a {@link Path}.
+     * @throws NullPointerException if {@code spillDirectory == null}.
+     */
+    public void setSpillDirectory(Path spillDirectory) {
+        this.runnerParameters.setSpillDirectory(spillDirectory);
+    }
+
+    /**
+     * Returns the directory where the pending states are moved.
+     *
+     * @return a {@link Path}, or {@code null} if the default
+     *         temporary-file directory is used.
+     */
+    public Path getSpillDirectory() {
+        return this.runnerParameters.getSpillDirectory();
+    }
+
     /**
      * Sets the Java home.
      * 
@@ -940,6 +1082,81 @@ public final class RunParameters implements Cloneable {
         return this.externalDecisionProcedurePath;
     }
 
+    /**
+     * Sets the external decision procedure to be a pool of
+     * processes, among which the batches of independent 
+     * satisfiability checks are distributed. By default 
+     * there is one process.
+     * 
+     * @param poolSize an {@code int}, the number of processes.
+     * @param queryTimeout a {@code long}, the maximum time a process 
+     *        may take to answer a query before being restarted (the 
+     *        query is resubmitted to the restarted process, and fails
+     *        only if it times out again); if it is not positive, there 
+     *        is no timeout.
+     * @param timeUnit the {@link TimeUnit} of {@code queryTimeout}.
+     * @throws IllegalArgumentException if {@code poolSize <= 0}.
+     * @throws NullPointerException if {@code timeUnit == null}.
+     */
+    public void setExternalDecisionProcedurePool(int poolSize, long queryTimeout, TimeUnit timeUnit) {
+        if (poolSize <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.externalDecisionProcedurePoolSize = poolSize;
+        this.externalDecisionProcedureQueryTimeout = timeUnit.toMillis(queryTimeout);
+    }
+
+    /**
+     * Gets the number of processes of the external 
+     * decision procedure.
+     * 
+     * @return a positive {@code int}.
+     */
+    public int getExternalDecisionProcedurePoolSize() {
+        return this.externalDecisionProcedurePoolSize;
+    }
+
+    /**
+     * Gets the maximum time a process of the external 
+     * decision procedure may take to answer a query 
+     * when the processes are more than one.
+     * 
+     * @return a {@code long}, the time in milliseconds, 
+     *         or a nonpositive value for no timeout.
+     */
+    public long getExternalDecisionProcedureQueryTimeout() {
+        return this.externalDecisionProcedureQueryTimeout;
+    }
+
+    /**
+     * Sets the number of workers that explore the state space
+     * in parallel, each with its own engine, calculator and 
+     * decision procedure. By default there is one worker. 
+     * The parallel exploration is not done in the interactive
+     * modes, or when guidance, conservative repOks or 
+     * concretization checks are used, since these are bound to 
+     * the states of a single engine.
+     * 
+     * @param numOfWorkers an {@code int}, the number of workers.
+     * @throws IllegalArgumentException if {@code numOfWorkers <= 0}.
+     */
+    public void setParallel(int numOfWorkers) {
+        if (numOfWorkers <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.numOfWorkers = numOfWorkers;
+    }
+
+    /**
+     * Gets the number of workers that explore the 
+     * state space in parallel.
+     * 
+     * @return a positive {@code int}.
+     */
+    public int getNumOfWorkers() {
+        return this.numOfWorkers;
+    }
+
     /**
      * Adds a creation strategy to the strategies 
      * for creating the {@link DecisionProcedure}.
@@ -973,6 +1190,30 @@ public final class RunParameters implements Cloneable {
         return new ArrayList<>(this.creationStrategies);
     }
 
+    /**
+     * Sets whether the answers of the decision procedure
+     * set with {@link #setDecisionProcedureType(DecisionProcedureType)}
+     * should be cached. It has no effect if the decision procedure
+     * type is {@link DecisionProcedureType#ALL_SAT}.
+     * 
+     * @param useDecisionProcedureCache {@code true} iff the answers 
+     *        of the decision procedure must be cached.
+     */
+    public void setUseDecisionProcedureCache(boolean useDecisionProcedureCache) {
+        this.useDecisionProcedureCache = useDecisionProcedureCache;
+    }
+
+    /**
+     * Gets whether the answers of the decision procedure 
+     * should be cached.
+     * 
+     * @return {@code true} iff the answers of the decision 
+     *         procedure must be cached.
+     */
+    public boolean getUseDecisionProcedureCache() {
+        return this.useDecisionProcedureCache;
+    }
+
     /**
      * Sets whether the engine should perform sign analysis
      * for deciding inequations before invoking the decision procedure
@@ -994,6 +1235,27 @@ public final class RunParameters implements Cloneable {
         return this.doSignAnalysis;
     }
 
+    /**
+     * Sets whether the engine should perform interval analysis
+     * for deciding inequations before invoking the decision procedure
+     * set with {@link #setDecisionProcedureType(DecisionProcedureType)}.
+     * 
+     * @param doIntervalAnalysis {@code true} iff the engine must do interval analysis.
+     */
+    public void setDoIntervalAnalysis(boolean doIntervalAnalysis) {
+        this.doIntervalAnalysis = doIntervalAnalysis;
+    }
+
+    /**
+     * Gets whether the engine should perform interval analysis
+     * for deciding inequations.
+     * 
+     * @return {@code true} iff the engine must do interval analysis.
+     */
+    public boolean getDoIntervalAnalysis() {
+        return this.doIntervalAnalysis;
+    }
+
     /**
      * Sets whether the engine should decide equality with a
      * simple closure algorithm. 
@@ -955,6 +955,21 @@ public abstract class ClassFile implements Comparable<ClassFile> {
     public abstract int getLocalVariableLength(Signature methodSignature) 
     throws MethodNotFoundException, MethodCodeNotFoundException;
 
+    /**
+     * Returns the maximum depth of the operand stack of a method.
+     * 
+     * @param methodSignature a method's {@link Signature}.
+     * @return a {@code int} representing the maximum depth 
+     *         of the operand stack of the method with signature 
+     *         {@code methodSignature}, in the case such method exists 
+     *         in the class and has code.
+     * @throws MethodNotFoundException iff the method does not exist in the class.
+     * @throws MethodCodeNotFoundException iff the method has not the 
+     *         Code attribute.
+     */
+    public abstract int getMaxStack(Signature methodSignature) 
+    throws MethodNotFoundException, MethodCodeNotFoundException;
+
     /**
      * Returns the length of the bytecode of a method.
      * 
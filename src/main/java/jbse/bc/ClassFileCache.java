@@ -0,0 +1,272 @@
+package jbse.bc;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jbse.bc.exc.ClassFileIllFormedException;
+import jbse.common.exc.InvalidInputException;
+import jbse.common.exc.UnexpectedInternalException;
+
+/**
+ * A process-wide cache of the {@link ClassFile}s created by
+ * the {@link ClassFileFactory}s. Dummy classfiles are identified
+ * by their defining classloader, their name and (a digest of) their
+ * bytecode, complete classfiles by their dummy classfile, their
+ * superclass and their superinterfaces. Since {@link ClassFile}s
+ * are immutable, all the {@link ClassHierarchy}s of all the
+ * states, engines and runs in the process share them, and the
+ * same bytecode is parsed only once. The cache refers its classfiles
+ * softly, so the ones that are not used anymore by any {@link ClassHierarchy}
+ * are collected when memory runs low, and their entries are purged.
+ *
+ * @author Pietro Braione
+ */
+final class ClassFileCache {
+    private static final String DIGEST_ALGORITHM = "SHA-1";
+
+    /** The dummy classfiles. */
+    private static final ConcurrentHashMap<KeyDummy, Entry<KeyDummy>> DUMMIES = new ConcurrentHashMap<>();
+
+    /** The queue of the collected dummy classfiles. */
+    private static final ReferenceQueue<ClassFile> DUMMIES_COLLECTED = new ReferenceQueue<>();
+
+    /** The complete classfiles. */
+    private static final ConcurrentHashMap<KeyClass, Entry<KeyClass>> CLASSES = new ConcurrentHashMap<>();
+
+    /** The queue of the collected complete classfiles. */
+    private static final ReferenceQueue<ClassFile> CLASSES_COLLECTED = new ReferenceQueue<>();
+
+    /**
+     * A soft reference to a cached {@link ClassFile}, that
+     * remembers its key so its entry can be purged after 
+     * the {@link ClassFile} is collected.
+     * 
+     * @param <K> the type of the key.
+     */
+    private static final class Entry<K> extends SoftReference<ClassFile> {
+        final K key;
+
+        Entry(K key, ClassFile classFile, ReferenceQueue<ClassFile> queue) {
+            super(classFile, queue);
+            this.key = key;
+        }
+    }
+
+    private static final class KeyDummy {
+        private final Class<? extends ClassFileFactory> factoryClass;
+        private final int definingClassLoader;
+        private final String className;
+        private final byte[] digest;
+        private final int hashCode;
+
+        KeyDummy(Class<? extends ClassFileFactory> factoryClass, int definingClassLoader, String className, byte[] digest) {
+            this.factoryClass = factoryClass;
+            this.definingClassLoader = definingClassLoader;
+            this.className = className;
+            this.digest = digest;
+            final int prime = 31;
+            int result = 1;
+            result = prime * result + factoryClass.hashCode();
+            result = prime * result + definingClassLoader;
+            result = prime * result + (className == null ? 0 : className.hashCode());
+            result = prime * result + Arrays.hashCode(digest);
+            this.hashCode = result;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            final KeyDummy other = (KeyDummy) obj;
+            return this.hashCode == other.hashCode &&
+                   this.factoryClass == other.factoryClass &&
+                   this.definingClassLoader == other.definingClassLoader &&
+                   (this.className == null ? other.className == null : this.className.equals(other.className)) &&
+                   Arrays.equals(this.digest, other.digest);
+        }
+    }
+
+    private static final class KeyClass {
+        private final ClassFile classDummy;
+        private final ClassFile superClass;
+        private final ClassFile[] superInterfaces;
+        private final int hashCode;
+
+        KeyClass(ClassFile classDummy, ClassFile superClass, ClassFile[] superInterfaces) {
+            this.classDummy = classDummy;
+            this.superClass = superClass;
+            this.superInterfaces = superInterfaces.clone();
+            final int prime = 31;
+            int result = 1;
+            result = prime * result + System.identityHashCode(classDummy);
+            result = prime * result + System.identityHashCode(superClass);
+            for (ClassFile superInterface : superInterfaces) {
+                result = prime * result + System.identityHashCode(superInterface);
+            }
+            this.hashCode = result;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            final KeyClass other = (KeyClass) obj;
+            if (this.hashCode != other.hashCode ||
+                this.classDummy != other.classDummy ||
+                this.superClass != other.superClass ||
+                this.superInterfaces.length != other.superInterfaces.length) {
+                return false;
+            }
+            for (int i = 0; i < this.superInterfaces.length; ++i) {
+                if (this.superInterfaces[i] != other.superInterfaces[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Returns a dummy {@link ClassFile} for an ordinary (instance) class,
+     * creating it if it is not cached.
+     *
+     * @param f the {@link ClassFileFactory} that must create the classfile.
+     * @param definingClassLoader an {@code int}, the identifier of
+     *        a classloader.
+     * @param className a {@link String}, the name of the class.
+     * @param bytecode a {@code byte[]}, the bytecode for the class.
+     * @return a dummy {@link ClassFile} for the class.
+     * @throws InvalidInputException if any of the parameters has an invalid
+     *         value.
+     * @throws ClassFileIllFormedException if {@code bytecode} is ill-formed.
+     */
+    static ClassFile getClassFileClassDummy(ClassFileFactory f, int definingClassLoader, String className, byte[] bytecode)
+    throws InvalidInputException, ClassFileIllFormedException {
+        if (bytecode == null) {
+            //lets the factory complain
+            return f.newClassFileClass(definingClassLoader, className, bytecode, null, null);
+        }
+        final KeyDummy key = new KeyDummy(f.getClass(), definingClassLoader, className, digest(bytecode));
+        final ClassFile cached = lookup(DUMMIES, key);
+        if (cached != null) {
+            return cached;
+        }
+        final ClassFile retVal = f.newClassFileClass(definingClassLoader, className, bytecode.clone(), null, null);
+        return store(DUMMIES, DUMMIES_COLLECTED, key, retVal);
+    }
+
+    /**
+     * Returns a {@link ClassFile} for an ordinary (instance) class,
+     * creating it if it is not cached.
+     *
+     * @param f the {@link ClassFileFactory} that must create the classfile.
+     * @param classDummy a dummy {@link ClassFile} for the class, as returned
+     *        by {@link #getClassFileClassDummy(ClassFileFactory, int, String, byte[]) getClassFileClassDummy}.
+     * @param superClass a {@link ClassFile} for {@code classDummy}'s superclass.
+     * @param superInterfaces a {@link ClassFile}{@code []} for {@code classDummy}'s superinterfaces.
+     * @return a {@link ClassFile} for the class.
+     * @throws InvalidInputException if any of the parameters has an invalid
+     *         value.
+     * @throws ClassFileIllFormedException if the bytecode of {@code classDummy} is ill-formed.
+     */
+    static ClassFile getClassFileClass(ClassFileFactory f, ClassFile classDummy, ClassFile superClass, ClassFile[] superInterfaces)
+    throws InvalidInputException, ClassFileIllFormedException {
+        if (superInterfaces == null) {
+            //lets the factory complain
+            return f.newClassFileClass(classDummy.getDefiningClassLoader(), classDummy.getClassName(), classDummy.getBinaryFileContent(), superClass, superInterfaces);
+        }
+        final KeyClass key = new KeyClass(classDummy, superClass, superInterfaces);
+        final ClassFile cached = lookup(CLASSES, key);
+        if (cached != null) {
+            return cached;
+        }
+        final ClassFile retVal = f.newClassFileClass(classDummy.getDefiningClassLoader(), classDummy.getClassName(), classDummy.getBinaryFileContent(), superClass, superInterfaces);
+        return store(CLASSES, CLASSES_COLLECTED, key, retVal);
+    }
+
+    private static <K> ClassFile lookup(ConcurrentHashMap<K, Entry<K>> map, K key) {
+        final Entry<K> entry = map.get(key);
+        return (entry == null ? null : entry.get());
+    }
+
+    /**
+     * Caches a {@link ClassFile}, unless another one is 
+     * already cached with the same key, and purges the 
+     * entries of the collected {@link ClassFile}s.
+     * 
+     * @param map the {@link ConcurrentHashMap} where the 
+     *        {@link ClassFile} must be cached.
+     * @param queue the {@link ReferenceQueue} of the 
+     *        collected {@link ClassFile}s of {@code map}.
+     * @param key the key.
+     * @param classFile the {@link ClassFile} to cache.
+     * @return the {@link ClassFile} cached for {@code key}, 
+     *         i.e., either {@code classFile} or the one that
+     *         was already cached.
+     */
+    private static <K> ClassFile store(ConcurrentHashMap<K, Entry<K>> map, ReferenceQueue<ClassFile> queue, K key, ClassFile classFile) {
+        purge(map, queue);
+        final Entry<K> entry = new Entry<>(key, classFile, queue);
+        while (true) {
+            final Entry<K> previous = map.putIfAbsent(key, entry);
+            if (previous == null) {
+                return classFile;
+            }
+            final ClassFile previousClassFile = previous.get();
+            if (previousClassFile != null) {
+                return previousClassFile;
+            }
+            if (map.replace(key, previous, entry)) {
+                return classFile;
+            }
+        }
+    }
+
+    private static <K> void purge(ConcurrentHashMap<K, Entry<K>> map, ReferenceQueue<ClassFile> queue) {
+        Reference<? extends ClassFile> collected;
+        while ((collected = queue.poll()) != null) {
+            @SuppressWarnings("unchecked")
+            final Entry<K> entry = (Entry<K>) collected;
+            map.remove(entry.key, entry);
+        }
+    }
+
+    private static byte[] digest(byte[] bytecode) {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM).digest(bytecode);
+        } catch (NoSuchAlgorithmException e) {
+            //this should never happen
+            throw new UnexpectedInternalException(e);
+        }
+    }
+
+    /**
+     * Do not instantiate!
+     */
+    private ClassFileCache() {
+        //nothing to do
+    }
+}
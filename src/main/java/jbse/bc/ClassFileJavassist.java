@@ -24,6 +24,7 @@ import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.stream.Stream;
 
@@ -70,11 +71,52 @@ public class ClassFileJavassist extends ClassFile {
     private final ClassFile superClass;
     private final ClassFile[] superInterfaces;
     private final ConstantPoolValue[] cpPatches;
-    private ClassFile hostClass;
-    private ArrayList<Signature> fieldsStatic; //lazily initialized
-    private ArrayList<Signature> fieldsObject; //lazily initialized
-    private ArrayList<Signature> methods; //lazily initialized
-    private ArrayList<Signature> constructors; //lazily initialized
+    private final ClassFile hostClass;
+    private final ArrayList<Signature> fieldsStatic;
+    private final ArrayList<Signature> fieldsObject;
+    private final ArrayList<Signature> methods;
+    private final ArrayList<Signature> constructors;
+    private final Object[] cpResolved; //the resolved class names and signatures, lazily initialized (races are benign, they are immutable)
+    private volatile HashMap<String, HashMap<String, MethodRecord>> methodIndex; //lazily initialized
+    private MethodRecord staticInitializer; //lazily initialized together with methodIndex
+    private volatile HashMap<String, HashMap<String, FieldRecord>> fieldIndex; //lazily initialized
+    
+    /**
+     * The information on a method declared in the classfile. The 
+     * tables are built upon first request.
+     */
+    private static final class MethodRecord {
+        final MethodInfo info;
+        final int modifiers;
+        final CodeAttribute code;
+        final byte[] bytecode;
+        volatile ExceptionTable exceptionTable;
+        volatile LocalVariableTable localVariableTable;
+        volatile LineNumberTable lineNumberTable;
+        volatile String[] annotations;
+        
+        MethodRecord(MethodInfo info) {
+            this.info = info;
+            this.modifiers = AccessFlag.toModifier(info.getAccessFlags());
+            this.code = info.getCodeAttribute();
+            this.bytecode = (this.code == null ? null : this.code.getCode());
+        }
+    }
+    
+    /**
+     * The information on a field declared in the classfile.
+     */
+    private static final class FieldRecord {
+        final FieldInfo info;
+        final int modifiers;
+        final int constantValue;
+        
+        FieldRecord(FieldInfo info) {
+            this.info = info;
+            this.modifiers = AccessFlag.toModifier(info.getAccessFlags());
+            this.constantValue = info.getConstantValue();
+        }
+    }
 
     /**
      * Constructor for nonanonymous classes.
@@ -131,12 +173,17 @@ public class ClassFileJavassist extends ClassFile {
             this.isAnonymousUnregistered = false;
             this.definingClassLoader = definingClassLoader;
             this.cp = this.cf.getConstPool();
+            this.cpResolved = new Object[this.cp.getSize() + 1];
             this.bytecode = (superInterfaces == null ? bytecode : null); //only dummy classfiles (without a superInterfaces array) cache their bytecode
             this.superClass = superClass;
             this.superInterfaces = superInterfaces;
             this.cpPatches = null;
             this.hostClass = null;
-            this.fieldsStatic = this.fieldsObject = this.constructors = null;
+            this.fieldsStatic = declaredFields(true);
+            this.fieldsObject = declaredFields(false);
+            this.methods = new ArrayList<>();
+            this.constructors = new ArrayList<>();
+            fillMethodsAndConstructors();
         } catch (IOException e) {
             throw new ClassFileIllFormedException(className);
         }
@@ -183,12 +230,17 @@ public class ClassFileJavassist extends ClassFile {
             this.isAnonymousUnregistered = true;
             this.definingClassLoader = CLASSLOADER_NONE;  //the classloader context is taken from the host class
             this.cp = this.cf.getConstPool();
+            this.cpResolved = new Object[this.cp.getSize() + 1];
             this.bytecode = (hostClass == null ? bytecode : null); //only dummy anonymous classfiles (without a host class) cache their bytecode
             this.superClass = null;      //TODO is it ok to impose that anonymous classfiles have no superclass?
             this.superInterfaces = null; //TODO is it ok to impose that anonymous classfiles have no superinterfaces?
             this.cpPatches = (cpPatches == null ? null : cpPatches.clone());
             this.hostClass = hostClass;
-            this.fieldsStatic = this.fieldsObject = this.constructors = null;
+            this.fieldsStatic = declaredFields(true);
+            this.fieldsObject = declaredFields(false);
+            this.methods = new ArrayList<>();
+            this.constructors = new ArrayList<>();
+            fillMethodsAndConstructors();
         } catch (IOException e) {
             throw new ClassFileIllFormedException("anonymous");
         }
@@ -358,7 +410,13 @@ public class ClassFileJavassist extends ClassFile {
         if (this.cp.getTag(classIndex) != ConstPool.CONST_Class) {
             throw new InvalidIndexException(entryInvalidMessage(classIndex));
         }
-        return internalClassName(this.cp.getClassInfo(classIndex));
+        final Object cached = this.cpResolved[classIndex];
+        if (cached != null) {
+            return (String) cached;
+        }
+        final String retVal = internalClassName(this.cp.getClassInfo(classIndex));
+        this.cpResolved[classIndex] = retVal;
+        return retVal;
     }
     
     @Override
@@ -500,29 +558,32 @@ public class ClassFileJavassist extends ClassFile {
         if (this.cp.getTag(fieldIndex) != ConstPool.CONST_Fieldref) {
             throw new InvalidIndexException(entryInvalidMessage(fieldIndex));
         }
+        final Object cached = this.cpResolved[fieldIndex];
+        if (cached != null) {
+            return (Signature) cached;
+        }
         final String containerClass = internalClassName(this.cp.getFieldrefClassName(fieldIndex));
         final String descriptor = this.cp.getFieldrefType(fieldIndex);
         final String name = this.cp.getFieldrefName(fieldIndex);
-        return new Signature(containerClass, descriptor, name);
+        final Signature retVal = new Signature(containerClass, descriptor, name);
+        this.cpResolved[fieldIndex] = retVal;
+        return retVal;
     }
 
-    private ArrayList<Signature> getDeclaredFields(boolean areStatic) {
-        if ((areStatic ? this.fieldsStatic : this.fieldsObject) == null) {
-            final ArrayList<Signature> fields = new ArrayList<Signature>();
-            @SuppressWarnings("unchecked")
-            final List<FieldInfo> fieldsJA = this.cf.getFields();
-            for (FieldInfo fld : fieldsJA) {
-                if (Modifier.isStatic(AccessFlag.toModifier(fld.getAccessFlags())) == areStatic) {
-                    final Signature sig = new Signature(getClassName(), fld.getDescriptor(), fld.getName());
-                    fields.add(sig);
-                }
-            }
-            if (areStatic) {
-                this.fieldsStatic = fields;
-            } else {
-                this.fieldsObject = fields;
+    private ArrayList<Signature> declaredFields(boolean areStatic) {
+        final ArrayList<Signature> fields = new ArrayList<Signature>();
+        @SuppressWarnings("unchecked")
+        final List<FieldInfo> fieldsJA = this.cf.getFields();
+        for (FieldInfo fld : fieldsJA) {
+            if (Modifier.isStatic(AccessFlag.toModifier(fld.getAccessFlags())) == areStatic) {
+                final Signature sig = new Signature(getClassName(), fld.getDescriptor(), fld.getName());
+                fields.add(sig);
             }
         }
+        return fields;
+    }
+
+    private ArrayList<Signature> getDeclaredFields(boolean areStatic) {
         return (areStatic ? this.fieldsStatic : this.fieldsObject);
     }
 
@@ -557,10 +618,16 @@ public class ClassFileJavassist extends ClassFile {
         if (this.cp.getTag(methodIndex) != ConstPool.CONST_InterfaceMethodref) {
             throw new InvalidIndexException(entryInvalidMessage(methodIndex));
         }
+        final Object cached = this.cpResolved[methodIndex];
+        if (cached != null) {
+            return (Signature) cached;
+        }
         final String containerClass = internalClassName(this.cp.getInterfaceMethodrefClassName(methodIndex));
         final String descriptor = this.cp.getInterfaceMethodrefType(methodIndex);
         final String name = this.cp.getInterfaceMethodrefName(methodIndex);
-        return new Signature(containerClass, descriptor, name); 
+        final Signature retVal = new Signature(containerClass, descriptor, name);
+        this.cpResolved[methodIndex] = retVal;
+        return retVal; 
     }
 
     /**
@@ -569,52 +636,78 @@ public class ClassFileJavassist extends ClassFile {
      * @param methodSignature a {@link Signature}.
      * @return {@code null} if no method with {@code methodSignature} 
      *         signature is declared in this classfile, otherwise the 
-     *         {@link CtBehavior} for it; the class name in {@code methodSignature}
+     *         {@link MethodRecord} for it; the class name in {@code methodSignature}
      *         is ignored.
      */
-    private MethodInfo findMethodDeclaration(Signature methodSignature) {
+    private MethodRecord findMethodRecord(Signature methodSignature) {
+        final HashMap<String, HashMap<String, MethodRecord>> index = methodIndex();
         if ("<clinit>".equals(methodSignature.getName())) {
-            return this.cf.getStaticInitializer();
+            return this.staticInitializer;
         }
+        final HashMap<String, MethodRecord> records = index.get(methodSignature.getName());
+        return (records == null ? null : records.get(methodSignature.getDescriptor()));
+    }
 
-        @SuppressWarnings("unchecked")
-        final List<MethodInfo> ms = this.cf.getMethods();
-        for (MethodInfo m : ms) {
-            final String internalName = m.getName();
-            if (internalName.equals(methodSignature.getName()) &&
-                m.getDescriptor().equals(methodSignature.getDescriptor())) {
-                return m;
+    /**
+     * Returns the index of the methods declared in the classfile,
+     * building it upon first invocation.
+     * 
+     * @return a {@link HashMap} mapping method names to 
+     *         method descriptors to {@link MethodRecord}s.
+     */
+    private HashMap<String, HashMap<String, MethodRecord>> methodIndex() {
+        HashMap<String, HashMap<String, MethodRecord>> retVal = this.methodIndex;
+        if (retVal == null) {
+            retVal = new HashMap<>();
+            MethodRecord staticInitializer = null;
+            @SuppressWarnings("unchecked")
+            final List<MethodInfo> ms = this.cf.getMethods();
+            for (MethodInfo m : ms) {
+                final MethodRecord record = new MethodRecord(m);
+                retVal.computeIfAbsent(m.getName(), k -> new HashMap<>()).putIfAbsent(m.getDescriptor(), record);
+                if (staticInitializer == null && m.isStaticInitializer()) {
+                    staticInitializer = record;
+                }
             }
+            this.staticInitializer = staticInitializer;
+            this.methodIndex = retVal; //publishes staticInitializer as well
         }
-        return null;
+        return retVal;
     }
 
-    private CodeAttribute getMethodCodeAttribute(Signature methodSignature) 
+    private MethodRecord getMethodRecordWithCode(Signature methodSignature) 
     throws MethodNotFoundException, MethodCodeNotFoundException {
-        final MethodInfo m = findMethodDeclaration(methodSignature);
+        final MethodRecord m = findMethodRecord(methodSignature);
         if (m == null) { 
             throw new MethodNotFoundException(methodSignature.toString());
         }
-        final CodeAttribute ca = m.getCodeAttribute();
-        if (ca == null) {
+        if (m.code == null) {
             throw new MethodCodeNotFoundException(methodSignature.toString()); 
         }
-        return ca;
+        return m;
+    }
+
+    private CodeAttribute getMethodCodeAttribute(Signature methodSignature) 
+    throws MethodNotFoundException, MethodCodeNotFoundException {
+        return getMethodRecordWithCode(methodSignature).code;
     }
 
     @Override
     public ExceptionTable getExceptionTable(Signature methodSignature)
     throws MethodNotFoundException, MethodCodeNotFoundException, InvalidIndexException {
-        final javassist.bytecode.ExceptionTable et = getMethodCodeAttribute(methodSignature).getExceptionTable();
-
-        final ExceptionTable retVal = new ExceptionTable(et.size());
-        for (int i = 0; i < et.size(); ++i) {
-            final int exType = et.catchType(i);
-            final String catchType = (exType == 0 ? Signatures.JAVA_THROWABLE : getClassSignature(exType));
-            final ExceptionTableEntry exEntry = new ExceptionTableEntry(et.startPc(i), et.endPc(i), et.handlerPc(i), catchType);
-            retVal.addEntry(exEntry);
+        final MethodRecord m = getMethodRecordWithCode(methodSignature);
+        if (m.exceptionTable == null) {
+            final javassist.bytecode.ExceptionTable et = m.code.getExceptionTable();
+            final ExceptionTable retVal = new ExceptionTable(et.size());
+            for (int i = 0; i < et.size(); ++i) {
+                final int exType = et.catchType(i);
+                final String catchType = (exType == 0 ? Signatures.JAVA_THROWABLE : getClassSignature(exType));
+                final ExceptionTableEntry exEntry = new ExceptionTableEntry(et.startPc(i), et.endPc(i), et.handlerPc(i), catchType);
+                retVal.addEntry(exEntry);
+            }
+            m.exceptionTable = retVal;
         }
-        return retVal;
+        return m.exceptionTable;
     }
 
     @Override
@@ -623,6 +716,12 @@ public class ClassFileJavassist extends ClassFile {
         return getMethodCodeAttribute(methodSignature).getMaxLocals();
     }
 
+    @Override
+    public int getMaxStack(Signature methodSignature)
+    throws MethodNotFoundException, MethodCodeNotFoundException {
+        return getMethodCodeAttribute(methodSignature).getMaxStack();
+    }
+
     @Override
     public int getCodeLength(Signature methodSignature) throws MethodNotFoundException, MethodCodeNotFoundException {
         return getMethodCodeAttribute(methodSignature).getCodeLength();
@@ -631,27 +730,31 @@ public class ClassFileJavassist extends ClassFile {
     @Override
     public LocalVariableTable getLocalVariableTable(Signature methodSignature) 
     throws MethodNotFoundException, MethodCodeNotFoundException  {
-        final CodeAttribute ca = getMethodCodeAttribute(methodSignature);
-        final LocalVariableAttribute lvtJA = (LocalVariableAttribute) ca.getAttribute("LocalVariableTable");
-
-        if (lvtJA == null) {
-            return this.defaultLocalVariableTable(methodSignature);
-        }
+        final MethodRecord m = getMethodRecordWithCode(methodSignature);
+        if (m.localVariableTable == null) {
+            final CodeAttribute ca = m.code;
+            final LocalVariableAttribute lvtJA = (LocalVariableAttribute) ca.getAttribute("LocalVariableTable");
 
-        //builds the local variable table from the LocalVariableTable attribute 
-        //information; this has always success
-        final LocalVariableTable lvt = new LocalVariableTable(ca.getMaxLocals());
-        for (int i = 0; i < lvtJA.tableLength(); ++i) {
-            lvt.setEntry(lvtJA.index(i), lvtJA.descriptor(i), 
-                         lvtJA.variableName(i), lvtJA.startPc(i),  lvtJA.codeLength(i));
+            if (lvtJA == null) {
+                m.localVariableTable = this.defaultLocalVariableTable(methodSignature);
+            } else {
+                //builds the local variable table from the LocalVariableTable attribute 
+                //information; this has always success
+                final LocalVariableTable lvt = new LocalVariableTable(ca.getMaxLocals());
+                for (int i = 0; i < lvtJA.tableLength(); ++i) {
+                    lvt.setEntry(lvtJA.index(i), lvtJA.descriptor(i), 
+                                 lvtJA.variableName(i), lvtJA.startPc(i),  lvtJA.codeLength(i));
+                }
+                m.localVariableTable = lvt;
+            }
         }
-        return lvt;
+        return m.localVariableTable;
     }
 
     @Override
     public byte[] getMethodCodeBySignature(Signature methodSignature) 
     throws MethodNotFoundException, MethodCodeNotFoundException {
-        return getMethodCodeAttribute(methodSignature).getCode();
+        return getMethodRecordWithCode(methodSignature).bytecode;
     }
 
     @Override
@@ -662,10 +765,16 @@ public class ClassFileJavassist extends ClassFile {
         if (this.cp.getTag(methodIndex) != ConstPool.CONST_Methodref) {
             throw new InvalidIndexException(entryInvalidMessage(methodIndex));
         }
+        final Object cached = this.cpResolved[methodIndex];
+        if (cached != null) {
+            return (Signature) cached;
+        }
         final String containerClass = internalClassName(this.cp.getMethodrefClassName(methodIndex));
         final String descriptor = this.cp.getMethodrefType(methodIndex);
         final String name = this.cp.getMethodrefName(methodIndex);
-        return new Signature(containerClass, descriptor, name); 
+        final Signature retVal = new Signature(containerClass, descriptor, name);
+        this.cpResolved[methodIndex] = retVal;
+        return retVal; 
     }
 
     @Override
@@ -733,7 +842,7 @@ public class ClassFileJavassist extends ClassFile {
 
     @Override
     public boolean hasMethodDeclaration(Signature methodSignature) {
-        return (findMethodDeclaration(methodSignature) != null);
+        return (findMethodRecord(methodSignature) != null);
     }
     
     private MethodInfo findUniqueMethodDeclarationWithName(String methodName) {
@@ -783,8 +892,8 @@ public class ClassFileJavassist extends ClassFile {
 
     @Override
     public boolean hasMethodImplementation(Signature methodSignature) {
-        final MethodInfo m = findMethodDeclaration(methodSignature);
-        return (m != null && (m.getCodeAttribute() != null || Modifier.isNative(AccessFlag.toModifier(m.getAccessFlags()))));
+        final MethodRecord m = findMethodRecord(methodSignature);
+        return (m != null && (m.code != null || Modifier.isNative(m.modifiers)));
     }
 
     @Override
@@ -799,38 +908,38 @@ public class ClassFileJavassist extends ClassFile {
 
     @Override
     public boolean isMethodAbstract(Signature methodSignature) throws MethodNotFoundException {
-        final MethodInfo m = findMethodDeclaration(methodSignature);
+        final MethodRecord m = findMethodRecord(methodSignature);
         if (m == null) {
             throw new MethodNotFoundException(methodSignature.toString());
         }
-        return Modifier.isAbstract(AccessFlag.toModifier(m.getAccessFlags()));
+        return Modifier.isAbstract(m.modifiers);
     }
 
     @Override
     public boolean isMethodNative(Signature methodSignature) throws MethodNotFoundException {
-        final MethodInfo m = findMethodDeclaration(methodSignature);
+        final MethodRecord m = findMethodRecord(methodSignature);
         if (m == null) {
             throw new MethodNotFoundException(methodSignature.toString());
         }
-        return Modifier.isNative(AccessFlag.toModifier(m.getAccessFlags()));
+        return Modifier.isNative(m.modifiers);
     }
     
     @Override
     public boolean isMethodVarargs(Signature methodSignature) throws MethodNotFoundException {
-        final MethodInfo m = findMethodDeclaration(methodSignature);
+        final MethodRecord m = findMethodRecord(methodSignature);
         if (m == null) {
             throw new MethodNotFoundException(methodSignature.toString());
         }
-        return (AccessFlag.toModifier(m.getAccessFlags()) & Modifier.VARARGS) != 0;
+        return (m.modifiers & Modifier.VARARGS) != 0;
     }
     
     @Override
     public boolean isMethodFinal(Signature methodSignature) throws MethodNotFoundException {
-        final MethodInfo m = findMethodDeclaration(methodSignature);
+        final MethodRecord m = findMethodRecord(methodSignature);
         if (m == null) {
             throw new MethodNotFoundException(methodSignature.toString());
         }
-        return Modifier.isFinal(AccessFlag.toModifier(m.getAccessFlags()));
+        return Modifier.isFinal(m.modifiers);
     }
     
     @Override
@@ -856,7 +965,11 @@ public class ClassFileJavassist extends ClassFile {
     @Override
     public boolean isMethodCallerSensitive(Signature methodSignature) 
     throws MethodNotFoundException {
-        final String[] annotations = getMethodAvailableAnnotations(methodSignature);
+        final MethodRecord m = findMethodRecord(methodSignature);
+        if (m == null) {
+            throw new MethodNotFoundException(methodSignature.toString());
+        }
+        final String[] annotations = availableAnnotations(m);
         for (String annotation : annotations) {
             if (SUN_CALLERSENSITIVE.equals(annotation)) {
                 return true;
@@ -867,9 +980,6 @@ public class ClassFileJavassist extends ClassFile {
 
     @Override
     public Signature[] getDeclaredMethods() {
-        if (this.methods == null) {
-            fillMethodsAndConstructors();
-        }
         final Signature[] retVal = new Signature[this.methods.size()];
         this.methods.toArray(retVal);
         return retVal;
@@ -877,23 +987,23 @@ public class ClassFileJavassist extends ClassFile {
 
     @Override
     public String getMethodGenericSignatureType(Signature methodSignature) throws MethodNotFoundException {
-        final MethodInfo m = findMethodDeclaration(methodSignature);
+        final MethodRecord m = findMethodRecord(methodSignature);
         if (m == null) {
             throw new MethodNotFoundException(methodSignature.toString());
         }
         final SignatureAttribute sa
-            = (SignatureAttribute) m.getAttribute(SignatureAttribute.tag);
+            = (SignatureAttribute) m.info.getAttribute(SignatureAttribute.tag);
         return sa == null ? null : sa.getSignature();
     }
 
     @Override
     public int getMethodModifiers(Signature methodSignature) 
     throws MethodNotFoundException {
-        final MethodInfo m = findMethodDeclaration(methodSignature);
+        final MethodRecord m = findMethodRecord(methodSignature);
         if (m == null) {
             throw new MethodNotFoundException(methodSignature.toString());
         }
-        return AccessFlag.toModifier(m.getAccessFlags());
+        return m.modifiers;
     }
 
     private byte[] mergeVisibleAndInvisibleAttributes(AttributeInfo attrVisible, AttributeInfo attrInvisible) {
@@ -908,51 +1018,58 @@ public class ClassFileJavassist extends ClassFile {
     @Override
     public byte[] getMethodAnnotationsRaw(Signature methodSignature) 
     throws MethodNotFoundException {
-        final MethodInfo m = findMethodDeclaration(methodSignature);
+        final MethodRecord m = findMethodRecord(methodSignature);
         if (m == null) {
             throw new MethodNotFoundException(methodSignature.toString());
         }
-        final AttributeInfo attrVisible = m.getAttribute(AnnotationsAttribute.visibleTag);
-        final AttributeInfo attrInvisible = m.getAttribute(AnnotationsAttribute.invisibleTag);
+        final AttributeInfo attrVisible = m.info.getAttribute(AnnotationsAttribute.visibleTag);
+        final AttributeInfo attrInvisible = m.info.getAttribute(AnnotationsAttribute.invisibleTag);
         return mergeVisibleAndInvisibleAttributes(attrVisible, attrInvisible);
     }
 
     @Override
     public String[] getMethodAvailableAnnotations(Signature methodSignature)
     throws MethodNotFoundException {
-        final MethodInfo m = findMethodDeclaration(methodSignature);
+        final MethodRecord m = findMethodRecord(methodSignature);
         if (m == null) {
             throw new MethodNotFoundException(methodSignature.toString());
         }
-        AnnotationsAttribute ainfo = 
-            (AnnotationsAttribute) m.getAttribute(AnnotationsAttribute.invisibleTag);  
-        AnnotationsAttribute ainfo2 = 
-            (AnnotationsAttribute) m.getAttribute(AnnotationsAttribute.visibleTag);
-        final ArrayList<String> anno = new ArrayList<>();
-        if (ainfo != null) {
-            for (Annotation a : ainfo.getAnnotations()) {
-                anno.add(internalClassName(a.getTypeName()));
+        return availableAnnotations(m).clone();
+    }
+
+    private String[] availableAnnotations(MethodRecord m) {
+        if (m.annotations == null) {
+            AnnotationsAttribute ainfo = 
+                (AnnotationsAttribute) m.info.getAttribute(AnnotationsAttribute.invisibleTag);  
+            AnnotationsAttribute ainfo2 = 
+                (AnnotationsAttribute) m.info.getAttribute(AnnotationsAttribute.visibleTag);
+            final ArrayList<String> anno = new ArrayList<>();
+            if (ainfo != null) {
+                for (Annotation a : ainfo.getAnnotations()) {
+                    anno.add(internalClassName(a.getTypeName()));
+                }
             }
-        }
-        if (ainfo2 != null) {
-            for (Annotation a : ainfo2.getAnnotations()) {
-                anno.add(internalClassName(a.getTypeName()));
+            if (ainfo2 != null) {
+                for (Annotation a : ainfo2.getAnnotations()) {
+                    anno.add(internalClassName(a.getTypeName()));
+                }
             }
+            m.annotations = anno.toArray(new String[0]);
         }
-        return anno.toArray(new String[0]);
+        return m.annotations;
     }
 
     @Override
     public String getMethodAnnotationParameterValueString(Signature methodSignature, String annotation, String parameter) 
     throws MethodNotFoundException {
-        final MethodInfo m = findMethodDeclaration(methodSignature);
+        final MethodRecord m = findMethodRecord(methodSignature);
         if (m == null) {
             throw new MethodNotFoundException(methodSignature.toString());
         }
         AnnotationsAttribute ainfo = 
-            (AnnotationsAttribute) m.getAttribute(AnnotationsAttribute.invisibleTag);  
+            (AnnotationsAttribute) m.info.getAttribute(AnnotationsAttribute.invisibleTag);  
         AnnotationsAttribute ainfo2 = 
-            (AnnotationsAttribute) m.getAttribute(AnnotationsAttribute.visibleTag);
+            (AnnotationsAttribute) m.info.getAttribute(AnnotationsAttribute.visibleTag);
         if (ainfo != null) {
             for (Annotation a : ainfo.getAnnotations()) {
                 final MemberValue mv = a.getMemberValue(parameter);
@@ -975,12 +1092,12 @@ public class ClassFileJavassist extends ClassFile {
     @Override
     public String[] getMethodThrownExceptions(Signature methodSignature) 
     throws MethodNotFoundException {
-        final MethodInfo m = findMethodDeclaration(methodSignature);
+        final MethodRecord m = findMethodRecord(methodSignature);
         if (m == null) {
             throw new MethodNotFoundException(methodSignature.toString());
         }
 
-        final ExceptionsAttribute exc = m.getExceptionsAttribute();
+        final ExceptionsAttribute exc = m.info.getExceptionsAttribute();
         if (exc == null) {
             return new String[0];
         }
@@ -989,77 +1106,80 @@ public class ClassFileJavassist extends ClassFile {
 
     @Override
     public boolean isMethodStatic(Signature methodSignature) throws MethodNotFoundException {
-        final MethodInfo m = findMethodDeclaration(methodSignature);
+        final MethodRecord m = findMethodRecord(methodSignature);
         if (m == null) {
             throw new MethodNotFoundException(methodSignature.toString());
         }
-        return Modifier.isStatic(AccessFlag.toModifier(m.getAccessFlags()));
+        return Modifier.isStatic(m.modifiers);
     }
 
     @Override
     public boolean isMethodPublic(Signature methodSignature) throws MethodNotFoundException {
-        final MethodInfo m = findMethodDeclaration(methodSignature);
+        final MethodRecord m = findMethodRecord(methodSignature);
         if (m == null) {
             throw new MethodNotFoundException(methodSignature.toString());
         }
-        return Modifier.isPublic(AccessFlag.toModifier(m.getAccessFlags()));
+        return Modifier.isPublic(m.modifiers);
     }
 
     @Override
     public boolean isMethodProtected(Signature methodSignature) throws MethodNotFoundException {
-        final MethodInfo m = findMethodDeclaration(methodSignature);
+        final MethodRecord m = findMethodRecord(methodSignature);
         if (m == null) {
             throw new MethodNotFoundException(methodSignature.toString());
         }
-        return Modifier.isProtected(AccessFlag.toModifier(m.getAccessFlags()));
+        return Modifier.isProtected(m.modifiers);
     }
 
     @Override
     public boolean isMethodPackage(Signature methodSignature) throws MethodNotFoundException {
-        final MethodInfo m = findMethodDeclaration(methodSignature);
+        final MethodRecord m = findMethodRecord(methodSignature);
         if (m == null) {
             throw new MethodNotFoundException(methodSignature.toString());
         }
-        return Modifier.isPackage(AccessFlag.toModifier(m.getAccessFlags()));
+        return Modifier.isPackage(m.modifiers);
     }
 
     @Override
     public boolean isMethodPrivate(Signature methodSignature) throws MethodNotFoundException {
-        final MethodInfo m = findMethodDeclaration(methodSignature);
+        final MethodRecord m = findMethodRecord(methodSignature);
         if (m == null) {
             throw new MethodNotFoundException(methodSignature.toString());
         }
-        return Modifier.isPrivate(AccessFlag.toModifier(m.getAccessFlags()));
+        return Modifier.isPrivate(m.modifiers);
     }
 
     @Override
     public boolean hasFieldDeclaration(Signature fieldSignature) {
-        return (findField(fieldSignature) != null);
+        return (findFieldRecord(fieldSignature) != null);
     }
 
     @Override
     public LineNumberTable getLineNumberTable(Signature methodSignature) 
     throws MethodNotFoundException, MethodCodeNotFoundException {
-        final CodeAttribute ca = this.getMethodCodeAttribute(methodSignature);
-        final LineNumberAttribute lnJA = (LineNumberAttribute) ca.getAttribute("LineNumberTable");
-
-        if (lnJA == null) {
-            return defaultLineNumberTable();
-        }
-        final LineNumberTable LN = new LineNumberTable(lnJA.tableLength());
-        for (int i = 0; i < lnJA.tableLength(); ++i) {
-            LN.addRow(lnJA.startPc(i), lnJA.lineNumber(i));
+        final MethodRecord m = getMethodRecordWithCode(methodSignature);
+        if (m.lineNumberTable == null) {
+            final LineNumberAttribute lnJA = (LineNumberAttribute) m.code.getAttribute("LineNumberTable");
+            if (lnJA == null) {
+                m.lineNumberTable = defaultLineNumberTable();
+            } else {
+                final LineNumberTable LN = new LineNumberTable(lnJA.tableLength());
+                for (int i = 0; i < lnJA.tableLength(); ++i) {
+                    LN.addRow(lnJA.startPc(i), lnJA.lineNumber(i));
+                }
+                m.lineNumberTable = LN;
+            }
         }
-        return LN;
+        return m.lineNumberTable;
     }
 
     @Override
     public int fieldConstantValueIndex(Signature fieldSignature) throws FieldNotFoundException, AttributeNotFoundException {
-        final FieldInfo fld = findField(fieldSignature);
+        final FieldRecord fld = findFieldRecord(fieldSignature);
         if (fld == null) {
             throw new FieldNotFoundException(fieldSignature.toString());
         }
-        final int cpVal = fld.getConstantValue();
+        final int cpVal = fld.constantValue;
         if (cpVal == 0) {
             throw new AttributeNotFoundException();
         }
@@ -1068,115 +1188,125 @@ public class ClassFileJavassist extends ClassFile {
 
     @Override
     public boolean hasFieldConstantValue(Signature fieldSignature) throws FieldNotFoundException {
-        final FieldInfo fld = findField(fieldSignature);
+        final FieldRecord fld = findFieldRecord(fieldSignature);
         if (fld == null) {
             throw new FieldNotFoundException(fieldSignature.toString());
         }
-        return (fld.getConstantValue() != 0);
+        return (fld.constantValue != 0);
     }
 
     @Override
     public boolean isFieldFinal(Signature fieldSignature) throws FieldNotFoundException {
-        final FieldInfo fld = findField(fieldSignature);
+        final FieldRecord fld = findFieldRecord(fieldSignature);
         if (fld == null) {
             throw new FieldNotFoundException(fieldSignature.toString());
         }
-        return Modifier.isFinal(AccessFlag.toModifier(fld.getAccessFlags()));
+        return Modifier.isFinal(fld.modifiers);
     }
 
     @Override
     public boolean isFieldPublic(Signature fieldSignature) throws FieldNotFoundException {
-        final FieldInfo fld = findField(fieldSignature);
+        final FieldRecord fld = findFieldRecord(fieldSignature);
         if (fld == null) {
             throw new FieldNotFoundException(fieldSignature.toString());
         }
-        return Modifier.isPublic(AccessFlag.toModifier(fld.getAccessFlags()));
+        return Modifier.isPublic(fld.modifiers);
     }
 
     @Override
     public boolean isFieldProtected(Signature fieldSignature) throws FieldNotFoundException {
-        final FieldInfo fld = findField(fieldSignature);
+        final FieldRecord fld = findFieldRecord(fieldSignature);
         if (fld == null) {
             throw new FieldNotFoundException(fieldSignature.toString());
         }
-        return Modifier.isProtected(AccessFlag.toModifier(fld.getAccessFlags()));
+        return Modifier.isProtected(fld.modifiers);
     }
 
     @Override
     public boolean isFieldPackage(Signature fieldSignature) throws FieldNotFoundException {
-        final FieldInfo fld = findField(fieldSignature);
+        final FieldRecord fld = findFieldRecord(fieldSignature);
         if (fld == null) {
             throw new FieldNotFoundException(fieldSignature.toString());
         }
-        return Modifier.isPackage(AccessFlag.toModifier(fld.getAccessFlags()));
+        return Modifier.isPackage(fld.modifiers);
     }
 
     @Override
     public boolean isFieldPrivate(Signature fieldSignature) throws FieldNotFoundException {
-        final FieldInfo fld = findField(fieldSignature);
+        final FieldRecord fld = findFieldRecord(fieldSignature);
         if (fld == null) {
             throw new FieldNotFoundException(fieldSignature.toString());
         }
-        return Modifier.isPrivate(AccessFlag.toModifier(fld.getAccessFlags()));
+        return Modifier.isPrivate(fld.modifiers);
     }
 
     @Override
     public boolean isFieldStatic(Signature fieldSignature) throws FieldNotFoundException {
-        final FieldInfo fld = findField(fieldSignature);
+        final FieldRecord fld = findFieldRecord(fieldSignature);
         if (fld == null) {
             throw new FieldNotFoundException(fieldSignature.toString());
         }
-        return Modifier.isStatic(AccessFlag.toModifier(fld.getAccessFlags()));
+        return Modifier.isStatic(fld.modifiers);
     }
 
     @Override
     public String getFieldGenericSignatureType(Signature fieldSignature) 
     throws FieldNotFoundException {
-        final FieldInfo fld = findField(fieldSignature);
+        final FieldRecord fld = findFieldRecord(fieldSignature);
         if (fld == null) {
             throw new FieldNotFoundException(fieldSignature.toString());
         }
-        SignatureAttribute sa = (SignatureAttribute) fld.getAttribute(SignatureAttribute.tag);
+        SignatureAttribute sa = (SignatureAttribute) fld.info.getAttribute(SignatureAttribute.tag);
         return (sa == null ? null : sa.getSignature());
     }
 
     @Override
     public int getFieldModifiers(Signature fieldSignature) 
     throws FieldNotFoundException {
-        final FieldInfo fld = findField(fieldSignature);
+        final FieldRecord fld = findFieldRecord(fieldSignature);
         if (fld == null) {
             throw new FieldNotFoundException(fieldSignature.toString());
         }
-        return AccessFlag.toModifier(fld.getAccessFlags());
+        return fld.modifiers;
     }
 
     @Override
     public byte[] getFieldAnnotationsRaw(Signature fieldSignature) 
     throws FieldNotFoundException {
-        final FieldInfo fld = findField(fieldSignature);
+        final FieldRecord fld = findFieldRecord(fieldSignature);
         if (fld == null) {
             throw new FieldNotFoundException(fieldSignature.toString());
         }
-        final AttributeInfo attrVisible = fld.getAttribute(AnnotationsAttribute.visibleTag);
-        final AttributeInfo attrInvisible = fld.getAttribute(AnnotationsAttribute.invisibleTag);
+        final AttributeInfo attrVisible = fld.info.getAttribute(AnnotationsAttribute.visibleTag);
+        final AttributeInfo attrInvisible = fld.info.getAttribute(AnnotationsAttribute.invisibleTag);
         return mergeVisibleAndInvisibleAttributes(attrVisible, attrInvisible);
     }
 
-    private FieldInfo findField(Signature fieldSignature) {
-        @SuppressWarnings("unchecked")
-        final List<FieldInfo> fieldsJA = this.cf.getFields();
-        for (FieldInfo fld : fieldsJA) {
-            if (fld.getDescriptor().equals(fieldSignature.getDescriptor()) && 
-                fld.getName().equals(fieldSignature.getName())) {
-                return fld;
+    /**
+     * Finds a field declaration in the classfile.
+     * 
+     * @param fieldSignature a {@link Signature}.
+     * @return {@code null} if no field with {@code fieldSignature} 
+     *         signature is declared in this classfile, otherwise the 
+     *         {@link FieldRecord} for it; the class name in {@code fieldSignature}
+     *         is ignored.
+     */
+    private FieldRecord findFieldRecord(Signature fieldSignature) {
+        HashMap<String, HashMap<String, FieldRecord>> index = this.fieldIndex;
+        if (index == null) {
+            index = new HashMap<>();
+            @SuppressWarnings("unchecked")
+            final List<FieldInfo> fieldsJA = this.cf.getFields();
+            for (FieldInfo fld : fieldsJA) {
+                index.computeIfAbsent(fld.getName(), k -> new HashMap<>()).putIfAbsent(fld.getDescriptor(), new FieldRecord(fld));
             }
+            this.fieldIndex = index;
         }
-        return null;
+        final HashMap<String, FieldRecord> records = index.get(fieldSignature.getName());
+        return (records == null ? null : records.get(fieldSignature.getDescriptor()));
     }
     
     private void fillMethodsAndConstructors() {
-        this.methods = new ArrayList<>();
-        this.constructors = new ArrayList<>();
         @SuppressWarnings("unchecked")
         final List<MethodInfo> ms = this.cf.getMethods();
         for (MethodInfo m : ms) {
@@ -1190,9 +1320,6 @@ public class ClassFileJavassist extends ClassFile {
 
     @Override
     public Signature[] getDeclaredConstructors() {
-        if (this.constructors == null) {
-            fillMethodsAndConstructors();
-        }
         final Signature[] retVal = new Signature[this.constructors.size()];
         this.constructors.toArray(retVal);
         return retVal;
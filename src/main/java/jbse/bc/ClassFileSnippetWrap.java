@@ -476,6 +476,12 @@ public class ClassFileSnippetWrap extends ClassFile {
     	return this.component.getLocalVariableLength(methodSignature);
     }
 
+    @Override
+    public int getMaxStack(Signature methodSignature)
+    throws MethodNotFoundException, MethodCodeNotFoundException {
+    	return this.component.getMaxStack(methodSignature);
+    }
+
     @Override
     public int getCodeLength(Signature methodSignature) 
     throws MethodNotFoundException, MethodCodeNotFoundException {
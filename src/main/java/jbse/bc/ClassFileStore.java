@@ -3,7 +3,10 @@ package jbse.bc;
 import static jbse.bc.ClassLoaders.CLASSLOADER_NONE;
 
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
 
 import jbse.common.Type;
 import jbse.common.exc.InvalidInputException;
@@ -12,7 +15,10 @@ import jbse.common.exc.InvalidInputException;
  * A container for the loaded classfiles. Implements
  * the loaded class cache, similarly to what
  * in the Hotspot JVM implementation does the system
- * dictionary. 
+ * dictionary. The {@link ClassFile}s are immutable and shared, 
+ * and the maps of a store are shared with its clones until one
+ * of them modifies them (copy on write), so cloning a store
+ * costs a copy of the list of its maps.
  */ 
 final class ClassFileStore implements Cloneable {  
     /** 
@@ -21,6 +27,12 @@ final class ClassFileStore implements Cloneable {
      */
     private ArrayList<HashMap<String, ClassFile>> loadedClassCache = new ArrayList<>(); //not final because of clone
     
+    /** 
+     * The initiating loader ids whose map in {@link #loadedClassCache}
+     * is owned by this store, i.e., is not shared with other stores.
+     */
+    private BitSet loadedClassCacheOwned = new BitSet(); //not final because of clone
+    
     // The primitive classfiles.
     private final ClassFileBoolean primitiveClassFileBoolean = new ClassFileBoolean(); 
     private final ClassFileByte primitiveClassFileByte = new ClassFileByte();   
@@ -35,6 +47,9 @@ final class ClassFileStore implements Cloneable {
     /** The cache for the anonymous classes. */
     //TODO is it necessary?
     private HashMap<String, ClassFile> anonymousClasses = new HashMap<>(); //not final because of clone
+    
+    /** Whether {@link #anonymousClasses} is owned by this store. */
+    private boolean anonymousClassesOwned = true;
 
     /**
      * Given a class name and the identifier of an initiating class loader 
@@ -59,6 +74,43 @@ final class ClassFileStore implements Cloneable {
         return null;
     }
     
+    /**
+     * Returns the number of initiating loaders that 
+     * have an entry in the loaded class cache.
+     * 
+     * @return an {@code int}; all the initiating loaders
+     *         with an entry in the loaded class cache 
+     *         are smaller than it.
+     */
+    int numOfInitiatingLoaders() {
+        return this.loadedClassCache.size();
+    }
+    
+    /**
+     * Returns the classes in the loaded class cache 
+     * for an initiating loader.
+     * 
+     * @param initiatingLoader an {@code int}, the identifier of 
+     *        a classloader. It must be nonnegative and smaller than
+     *        {@link #numOfInitiatingLoaders()}.
+     * @return a {@link Map}{@code <}{@link String}{@code , }{@link ClassFile}{@code >}
+     *         (unmodifiable) mapping the names of the classes to their
+     *         {@link ClassFile}s.
+     */
+    Map<String, ClassFile> getLoadedClassCache(int initiatingLoader) {
+        return Collections.unmodifiableMap(this.loadedClassCache.get(initiatingLoader));
+    }
+    
+    /**
+     * Checks whether some anonymous class was added 
+     * to this store.
+     * 
+     * @return a {@code boolean}.
+     */
+    boolean hasAnonymousClasses() {
+        return !this.anonymousClasses.isEmpty();
+    }
+    
     /**
      * Puts a {@link ClassFile} in the loaded class cache.
      * 
@@ -93,10 +145,15 @@ final class ClassFileStore implements Cloneable {
         //makes room
         for (int i = this.loadedClassCache.size(); i <= initiatingLoader; ++i) {
             this.loadedClassCache.add(new HashMap<>());
+            this.loadedClassCacheOwned.set(i);
         }
 
         final ClassFile previousClassFile = getLoadedClassCache(initiatingLoader, classFile.getClassName());
         if (previousClassFile == null) {
+            if (!this.loadedClassCacheOwned.get(initiatingLoader)) {
+                this.loadedClassCache.set(initiatingLoader, new HashMap<>(this.loadedClassCache.get(initiatingLoader)));
+                this.loadedClassCacheOwned.set(initiatingLoader);
+            }
             this.loadedClassCache.get(initiatingLoader).put(classFile.getClassName(), classFile);
         } else if (previousClassFile == classFile) {
             //reinsertion of the same classfile, does nothing
@@ -109,6 +166,10 @@ final class ClassFileStore implements Cloneable {
     
     //TODO is it necessary?
     void putAnonymousClassCache(ClassFile classFile) {
+        if (!this.anonymousClassesOwned) {
+            this.anonymousClasses = new HashMap<>(this.anonymousClasses);
+            this.anonymousClassesOwned = true;
+        }
         this.anonymousClasses.put(classFile.getClassName(), classFile);
     }
 
@@ -169,14 +230,14 @@ final class ClassFileStore implements Cloneable {
             throw new InternalError(e);
         }
         
-        //loadedClassCache
-        o.loadedClassCache = new ArrayList<>();
-        for (HashMap<String, ClassFile> map : this.loadedClassCache) {
-            o.loadedClassCache.add(new HashMap<>(map));
-        }
+        //loadedClassCache: the maps become shared
+        o.loadedClassCache = new ArrayList<>(this.loadedClassCache);
+        o.loadedClassCacheOwned = new BitSet();
+        this.loadedClassCacheOwned.clear();
         
-        //anonymousClasses
-        o.anonymousClasses = new HashMap<>(o.anonymousClasses);
+        //anonymousClasses: the map becomes shared
+        o.anonymousClassesOwned = false;
+        this.anonymousClassesOwned = false;
         
         return o;
     }
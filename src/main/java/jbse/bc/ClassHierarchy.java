@@ -20,11 +20,11 @@ import static jbse.common.Type.splitReturnValueDescriptor;
 import static jbse.common.Type.toPrimitiveOrVoidCanonicalName;
 import static jbse.common.Type.toPrimitiveOrVoidInternalName;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.Serializable;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -35,11 +35,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
-import java.util.jar.JarEntry;
-import java.util.jar.JarFile;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
+import java.util.zip.CRC32;
 
 import jbse.bc.exc.AlreadyDefinedClassException;
 import jbse.bc.exc.BadClassFileVersionException;
@@ -68,7 +68,12 @@ import jbse.common.exc.UnexpectedInternalException;
 public final class ClassHierarchy implements Cloneable {
     private final Classpath cp;
     private final Map<String, Set<String>> expansionBackdoor;
-    private final HashMap<ClassFile, ArrayList<Signature>> allFieldsOf;
+    private final ConcurrentHashMap<ClassFile, ArrayList<Signature>> allFieldsOf;
+    private final ConcurrentHashMap<Path, JarIndex> jarIndices;
+    private final ConcurrentHashMap<Path, Set<String>> directoryMisses;
+    private final ConcurrentHashMap<ClassFile, Supertypes> supertypesOf;
+    private final ConcurrentHashMap<DispatchKey, ClassFile> dispatchVirtual;
+    private final ConcurrentHashMap<DispatchKey, ClassFile> dispatchInterface;
     private final ClassFileFactory f;
     private ClassFileStore cfs; //not final because of clone
     private HashMap<String, Path> systemPackages; //not final because of clone
@@ -83,6 +88,109 @@ public final class ClassHierarchy implements Cloneable {
         }
     }
 
+    /**
+     * All the superclasses and superinterfaces of a class.
+     */
+    private static final class Supertypes {
+        /** The class. */
+        final ClassFile classFile;
+        
+        /** Its superclasses and superinterfaces, itself included. */
+        final HashSet<ClassFile> supertypes;
+        
+        Supertypes(ClassFile classFile, HashSet<ClassFile> supertypes) {
+            this.classFile = classFile;
+            this.supertypes = supertypes;
+        }
+    }
+    
+    /**
+     * The key of a method implementation lookup: Since {@link ClassFile}s 
+     * are immutable, the implementation only depends on the receiver class,
+     * the resolution class and the method signature, and can be memoized
+     * (as a virtual/interface method table would do).
+     */
+    private static final class DispatchKey {
+        final ClassFile receiverClass;
+        final ClassFile resolutionClass;
+        final Signature methodSignature;
+        final int hashCode;
+        
+        DispatchKey(ClassFile receiverClass, ClassFile resolutionClass, Signature methodSignature) {
+            this.receiverClass = receiverClass;
+            this.resolutionClass = resolutionClass;
+            this.methodSignature = methodSignature;
+            final int prime = 31;
+            int result = 1;
+            result = prime * result + System.identityHashCode(receiverClass);
+            result = prime * result + System.identityHashCode(resolutionClass);
+            result = prime * result + methodSignature.hashCode();
+            this.hashCode = result;
+        }
+        
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            final DispatchKey other = (DispatchKey) obj;
+            //classfiles are compared by identity: two 
+            //different classfiles might have same name
+            //and defining classloader
+            return this.receiverClass == other.receiverClass &&
+                   this.resolutionClass == other.resolutionClass &&
+                   this.methodSignature.equals(other.methodSignature);
+        }
+    }
+
+    /**
+     * The content of the loaded class cache of a hierarchy, where 
+     * every class is described by its name, initiating and defining
+     * classloader, and the checksum of its bytecode, plus the system
+     * packages. It allows to rebuild the loaded class cache in another
+     * hierarchy, possibly in another process, with the same classpath.
+     */
+    public static final class LoadedClasses implements Serializable {
+        private static final long serialVersionUID = 4217396105427733891L;
+
+        /** The loaded classes. */
+        private final ArrayList<LoadedClass> classes = new ArrayList<>();
+        
+        /** Maps the system packages to the paths they were loaded from. */
+        private final HashMap<String, String> systemPackages = new HashMap<>();
+        
+        private LoadedClasses() {
+            //nothing to do
+        }
+    }
+    
+    /**
+     * An entry of the loaded class cache.
+     */
+    private static final class LoadedClass implements Serializable {
+        private static final long serialVersionUID = -6170498343237705129L;
+
+        final int initiatingLoader;
+        final String className;
+        final int definingLoader;
+        final long checksum;
+        
+        LoadedClass(int initiatingLoader, String className, int definingLoader, long checksum) {
+            this.initiatingLoader = initiatingLoader;
+            this.className = className;
+            this.definingLoader = definingLoader;
+            this.checksum = checksum;
+        }
+    }
+
     /**
      * Constructor.
      * 
@@ -102,7 +210,12 @@ public final class ClassHierarchy implements Cloneable {
         this.cp = cp.clone(); //safety copy
         this.cfs = new ClassFileStore();
         this.expansionBackdoor = expansionBackdoor;
-        this.allFieldsOf = new HashMap<>();
+        this.allFieldsOf = new ConcurrentHashMap<>();
+        this.jarIndices = new ConcurrentHashMap<>();
+        this.directoryMisses = new ConcurrentHashMap<>();
+        this.supertypesOf = new ConcurrentHashMap<>();
+        this.dispatchVirtual = new ConcurrentHashMap<>();
+        this.dispatchInterface = new ConcurrentHashMap<>();
         try {
             this.f = fClass.newInstance();
         } catch (InstantiationException | IllegalAccessException e) {
@@ -122,7 +235,8 @@ public final class ClassHierarchy implements Cloneable {
     
     /**
      * Creates a dummy {@link ClassFile} for an ordinary (instance) class without
-     * adding it to the hierarchy.
+     * adding it to the hierarchy. The {@link ClassFile} is shared with all the 
+     * hierarchies that created a dummy classfile for the same class and bytecode.
      * 
      * @param definingClassLoader an {@code int}, the identifier of 
      *        a classloader.
@@ -136,13 +250,15 @@ public final class ClassHierarchy implements Cloneable {
     public ClassFile createClassFileClassDummy(int definingClassLoader, String className, byte[] bytecode) 
     throws InvalidInputException, ClassFileIllFormedException {
         final ClassFile retval =
-            this.f.newClassFileClass(definingClassLoader, className, bytecode, null, null);
+            ClassFileCache.getClassFileClassDummy(this.f, definingClassLoader, className, bytecode);
         return retval;
     }
     
     /**
      * Creates a {@link ClassFile} for an ordinary (instance) class without
-     * adding it to the hierarchy.
+     * adding it to the hierarchy. The {@link ClassFile} is shared with all the 
+     * hierarchies that created a classfile from the same dummy classfile, 
+     * superclass and superinterfaces.
      * 
      * @param classFile a dummy {@link ClassFile} for the class to be added. It must have 
      *        been created with {@link #createClassFileClassDummy(int, String, byte[]) createClassFileClass}.
@@ -166,8 +282,7 @@ public final class ClassHierarchy implements Cloneable {
         }
         final ClassFile retVal;
         try {
-            retVal =
-                this.f.newClassFileClass(classFile.getDefiningClassLoader(), classFile.getClassName(), classFile.getBinaryFileContent(), superClass, superInterfaces);
+            retVal = ClassFileCache.getClassFileClass(this.f, classFile, superClass, superInterfaces);
         } catch (ClassFileIllFormedException e) {
             //this should never happen
             throw new UnexpectedInternalException(e);
@@ -477,18 +592,41 @@ public final class ClassHierarchy implements Cloneable {
                 return false;
             }
         } else {
-            for (ClassFile f : superclasses(sub)) { 
-                if (sup.equals(f)) {
-                    return true;
-                } 
-            }
-            for (ClassFile f : superinterfaces(sub)) {
-                if (sup.equals(f)) {
-                    return true;
-                }
-            }
-            return false;
+            return supertypes(sub).contains(sup);
+        }
+    }
+    
+    /**
+     * Returns all the superclasses and superinterfaces of a class.
+     * 
+     * @param classFile a {@link ClassFile}.
+     * @return a {@link Set}{@code <}{@link ClassFile}{@code >} containing
+     *         all the {@link #superclasses(ClassFile) superclasses} and 
+     *         {@link #superinterfaces(ClassFile) superinterfaces} of 
+     *         {@code classFile}. It must not be modified.
+     */
+    private Set<ClassFile> supertypes(ClassFile classFile) {
+        final Supertypes cached = this.supertypesOf.get(classFile);
+        if (cached != null && cached.classFile == classFile) {
+            return cached.supertypes;
+        }
+        final HashSet<ClassFile> supertypes = new HashSet<>();
+        for (ClassFile f : superclasses(classFile)) { 
+            supertypes.add(f);
+        }
+        for (ClassFile f : superinterfaces(classFile)) {
+            supertypes.add(f);
+        }
+        //supertypesOf is shared by clones, possibly across threads;
+        //a stale entry, for another classfile equal to classFile,
+        //is replaced, so the next invocations find it
+        final Supertypes computed = new Supertypes(classFile, supertypes);
+        if (cached == null) {
+            this.supertypesOf.putIfAbsent(classFile, computed);
+        } else {
+            this.supertypesOf.replace(classFile, cached, computed);
         }
+        return supertypes;
     }
 
     /**
@@ -656,7 +794,6 @@ public final class ClassHierarchy implements Cloneable {
         ArrayList<Signature> signatures = this.allFieldsOf.get(classFile);
         if (signatures == null) {
             signatures = new ArrayList<Signature>(0);
-            this.allFieldsOf.put(classFile, signatures);
             boolean isStartClass = true;
             for (ClassFile c : superclasses(classFile)) {
                 if (isStartClass) {
@@ -666,6 +803,8 @@ public final class ClassHierarchy implements Cloneable {
                 final Signature[] fields = c.getDeclaredFieldsNonStatic();
                 signatures.addAll(Arrays.asList(fields));
             }
+            //allFieldsOf is shared by clones, possibly across threads
+            this.allFieldsOf.putIfAbsent(classFile, signatures);
         }
         final Signature[] retVal = signatures.toArray(SIGNATURE_ARRAY);
         return retVal;
@@ -1002,7 +1141,11 @@ public final class ClassHierarchy implements Cloneable {
     
     /**
      * Returns the bytecode of a class file by searching the 
-     * class file on the filesystem.
+     * class file on the filesystem. The classes that are missing 
+     * from a directory in the classpath are remembered, so the 
+     * directory is not searched for them again (and a classfile 
+     * added later to the directory is not found by this hierarchy
+     * and its clones).
      * 
      * @param className a {@link String}, the name of the class.
      * @param initatingLoader an {@code int}; It must be either {@link ClassLoaders#CLASSLOADER_BOOT}, 
@@ -1016,23 +1159,27 @@ public final class ClassHierarchy implements Cloneable {
                                       this.cp.userClassPath());
         for (Path path : paths) {
             try {
-                if (Files.isDirectory(path)) {
-                    final Path pathOfClass = path.resolve(className + ".class");
-                    return new FindBytecodeResult(Files.readAllBytes(pathOfClass), path);
-                } else if (Util.isJarFile(path)) {
-                    try (final JarFile f = new JarFile(path.toFile())) {
-                        final JarEntry e = f.getJarEntry(className + ".class");
-                        if (e == null) {
-                            continue;
-                        }
-                        final InputStream inStr = f.getInputStream(e);
-                        final ByteArrayOutputStream outStr = new ByteArrayOutputStream();
-                        final byte[] buf = new byte[2048];
-                        int nbytes;
-                        while ((nbytes = inStr.read(buf)) != -1) {
-                            outStr.write(buf, 0, nbytes);
+                final JarIndex indexCached = this.jarIndices.get(path);
+                final Set<String> misses = this.directoryMisses.get(path);
+                if (indexCached != null) {
+                    //an indexed jar file: no need to check the filesystem
+                    if (indexCached.contains(className)) {
+                        return new FindBytecodeResult(indexCached.read(className), path);
+                    }
+                } else if (misses != null || Files.isDirectory(path)) {
+                    //a directory: checks the filesystem only if
+                    //the class was not already missed there
+                    if (misses == null || !misses.contains(className)) {
+                        final Path pathOfClass = path.resolve(className + ".class");
+                        if (Files.isRegularFile(pathOfClass)) {
+                            return new FindBytecodeResult(Files.readAllBytes(pathOfClass), path);
                         }
-                        return new FindBytecodeResult(outStr.toByteArray(), path);
+                        this.directoryMisses.computeIfAbsent(path, p -> ConcurrentHashMap.newKeySet()).add(className);
+                    }
+                } else if (Util.isJarFile(path)) {
+                    final JarIndex index = jarIndex(path);
+                    if (index.contains(className)) {
+                        return new FindBytecodeResult(index.read(className), path);
                     }
                 } //else do nothing
             } catch (IOException e) {
@@ -1042,6 +1189,138 @@ public final class ClassHierarchy implements Cloneable {
         return null;
     }
     
+    /**
+     * Builds (or retrieves from the process-wide cache)
+     * the index of a jar file in the classpath, and
+     * associates it to its path in this hierarchy.
+     * 
+     * @param path the {@link Path} of a jar file.
+     * @return the {@link JarIndex} of {@code path}.
+     * @throws IOException if the jar file cannot be read.
+     */
+    private JarIndex jarIndex(Path path) throws IOException {
+        final JarIndex retVal = JarIndex.get(path);
+        this.jarIndices.put(path, retVal);
+        return retVal;
+    }
+    
+    /**
+     * Returns the content of the loaded class cache of 
+     * this hierarchy.
+     * 
+     * @return a {@link LoadedClasses}.
+     * @throws InvalidInputException if the loaded class cache
+     *         contains classes that cannot be reloaded from the 
+     *         classpath, i.e., anonymous classes or classes defined
+     *         by a user-defined classloader.
+     */
+    public LoadedClasses getLoadedClasses() throws InvalidInputException {
+        if (this.cfs.hasAnonymousClasses()) {
+            throw new InvalidInputException("Invoked " + this.getClass().getName() + ".getLoadedClasses on a hierarchy with anonymous classes.");
+        }
+        final LoadedClasses retVal = new LoadedClasses();
+        for (int initiatingLoader = CLASSLOADER_BOOT; initiatingLoader < this.cfs.numOfInitiatingLoaders(); ++initiatingLoader) {
+            for (ClassFile classFile : this.cfs.getLoadedClassCache(initiatingLoader).values()) {
+                if (classFile.getDefiningClassLoader() > CLASSLOADER_APP) {
+                    throw new InvalidInputException("Invoked " + this.getClass().getName() + ".getLoadedClasses on a hierarchy with class " + classFile.getClassName() + " defined by a user-defined classloader.");
+                }
+                retVal.classes.add(new LoadedClass(initiatingLoader, classFile.getClassName(), classFile.getDefiningClassLoader(), checksum(classFile.getBinaryFileContent())));
+            }
+        }
+        for (Map.Entry<String, Path> systemPackage : this.systemPackages.entrySet()) {
+            retVal.systemPackages.put(systemPackage.getKey(), systemPackage.getValue().toString());
+        }
+        return retVal;
+    }
+    
+    /**
+     * Fills the loaded class cache of this hierarchy with the 
+     * classes in the loaded class cache of another hierarchy,
+     * by reloading them from the classpath of this hierarchy.
+     * 
+     * @param loadedClasses the {@link LoadedClasses} of the 
+     *        other hierarchy, as returned by {@link #getLoadedClasses()}.
+     * @throws InvalidInputException if {@code loadedClasses} is 
+     *         inconsistent, or this hierarchy already contains a 
+     *         different class with the same name and loader of a 
+     *         class in {@code loadedClasses}.
+     * @throws ClassFileNotFoundException if the classpath of this 
+     *         hierarchy does not contain a classfile with the same
+     *         bytecode of a class in {@code loadedClasses}.
+     * @throws ClassFileIllFormedException if the bytecode of a 
+     *         class in {@code loadedClasses} is ill-formed.
+     */
+    public void restoreLoadedClasses(LoadedClasses loadedClasses) 
+    throws InvalidInputException, ClassFileNotFoundException, ClassFileIllFormedException {
+        final HashMap<Integer, HashMap<String, LoadedClass>> index = new HashMap<>();
+        for (LoadedClass loadedClass : loadedClasses.classes) {
+            index.computeIfAbsent(loadedClass.initiatingLoader, k -> new HashMap<>()).put(loadedClass.className, loadedClass);
+        }
+        for (LoadedClass loadedClass : loadedClasses.classes) {
+            restoreLoadedClass(index, loadedClass.initiatingLoader, loadedClass.className);
+        }
+        for (Map.Entry<String, String> systemPackage : loadedClasses.systemPackages.entrySet()) {
+            this.systemPackages.put(systemPackage.getKey(), Paths.get(systemPackage.getValue()));
+        }
+    }
+    
+    private ClassFile restoreLoadedClass(HashMap<Integer, HashMap<String, LoadedClass>> index, int initiatingLoader, String className) 
+    throws InvalidInputException, ClassFileNotFoundException, ClassFileIllFormedException {
+        final ClassFile loaded = getClassFileClassArray(initiatingLoader, className);
+        if (loaded != null) {
+            return loaded;
+        }
+        final HashMap<String, LoadedClass> loadedClasses = index.get(initiatingLoader);
+        final LoadedClass loadedClass = (loadedClasses == null ? null : loadedClasses.get(className));
+        if (loadedClass == null) {
+            throw new InvalidInputException("Invoked " + this.getClass().getName() + ".restoreLoadedClasses with no class " + className + " for initiating loader " + initiatingLoader + ".");
+        }
+        
+        //defines the class (recursively restoring the classes 
+        //it depends on), unless it was already defined
+        final int definingLoader = loadedClass.definingLoader;
+        ClassFile defined = getClassFileClassArray(definingLoader, className);
+        if (defined == null) {
+            if (isArray(className)) {
+                final String memberType = getArrayMemberType(className);
+                final ClassFile memberClass;
+                if (isReference(memberType) || isArray(memberType)) {
+                    memberClass = restoreLoadedClass(index, definingLoader, className(memberType));
+                } else {
+                    memberClass = getClassFilePrimitiveOrVoid(toPrimitiveOrVoidCanonicalName(memberType));
+                }
+                defined = createClassFileArray(className, memberClass);
+            } else {
+                final FindBytecodeResult findBytecodeResult = findBytecode(className, definingLoader);
+                if (findBytecodeResult == null || checksum(findBytecodeResult.bytecode) != loadedClass.checksum) {
+                    throw new ClassFileNotFoundException("Did not find the bytecode of class " + className + " in the classpath.");
+                }
+                final ClassFile classDummy = createClassFileClassDummy(definingLoader, className, findBytecodeResult.bytecode);
+                final ClassFile superClass = (classDummy.getSuperclassName() == null ? null : restoreLoadedClass(index, definingLoader, classDummy.getSuperclassName()));
+                final List<String> superInterfaceNames = classDummy.getSuperInterfaceNames();
+                final ClassFile[] superInterfaces = new ClassFile[superInterfaceNames.size()];
+                for (int i = 0; i < superInterfaces.length; ++i) {
+                    superInterfaces[i] = restoreLoadedClass(index, definingLoader, superInterfaceNames.get(i));
+                }
+                defined = createClassFileClass(classDummy, superClass, superInterfaces);
+            }
+            addClassFileClassArray(definingLoader, defined);
+        }
+        if (initiatingLoader != definingLoader) {
+            addClassFileClassArray(initiatingLoader, defined);
+        }
+        return defined;
+    }
+    
+    private static long checksum(byte[] bytecode) {
+        if (bytecode == null) {
+            return 0L;
+        }
+        final CRC32 crc = new CRC32();
+        crc.update(bytecode);
+        return crc.getValue();
+    }
+    
     /**
      * Performs class (including array class) and interface resolution 
      * (see JVMS v8, section 5.4.3.1).
@@ -1591,6 +1870,23 @@ public final class ClassHierarchy implements Cloneable {
      * @throws IncompatibleClassFileException if lookup fails and {@link java.lang.IncompatibleClassChangeError} should be thrown.
      */
     public ClassFile lookupMethodImplInterface(ClassFile receiverClass, ClassFile resolutionClass, Signature methodSignature) 
+    throws MethodNotAccessibleException, MethodAbstractException, IncompatibleClassFileException {
+        final DispatchKey key = new DispatchKey(receiverClass, resolutionClass, methodSignature);
+        final ClassFile cached = this.dispatchInterface.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        final ClassFile retVal = doLookupMethodImplInterface(receiverClass, resolutionClass, methodSignature);
+        //dispatchInterface is shared by clones, possibly across threads
+        this.dispatchInterface.putIfAbsent(key, retVal);
+        return retVal;
+    }
+
+    /**
+     * Performs method implementation lookup as {@link #lookupMethodImplInterface(ClassFile, ClassFile, Signature) lookupMethodImplInterface}
+     * does, but without memoization.
+     */
+    ClassFile doLookupMethodImplInterface(ClassFile receiverClass, ClassFile resolutionClass, Signature methodSignature) 
     throws MethodNotAccessibleException, MethodAbstractException, IncompatibleClassFileException {
         ClassFile retVal = null;
         
@@ -1759,6 +2055,23 @@ public final class ClassHierarchy implements Cloneable {
      * @throws IncompatibleClassFileException if lookup fails and {@link java.lang.IncompatibleClassChangeError} should be thrown.
      */
     public ClassFile lookupMethodImplVirtual(ClassFile receiverClass, ClassFile resolutionClass, Signature methodSignature) 
+    throws MethodNotFoundException, MethodAbstractException, IncompatibleClassFileException {
+        final DispatchKey key = new DispatchKey(receiverClass, resolutionClass, methodSignature);
+        final ClassFile cached = this.dispatchVirtual.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        final ClassFile retVal = doLookupMethodImplVirtual(receiverClass, resolutionClass, methodSignature);
+        //dispatchVirtual is shared by clones, possibly across threads
+        this.dispatchVirtual.putIfAbsent(key, retVal);
+        return retVal;
+    }
+
+    /**
+     * Performs method implementation lookup as {@link #lookupMethodImplVirtual(ClassFile, ClassFile, Signature) lookupMethodImplVirtual}
+     * does, but without memoization.
+     */
+    ClassFile doLookupMethodImplVirtual(ClassFile receiverClass, ClassFile resolutionClass, Signature methodSignature) 
     throws MethodNotFoundException, MethodAbstractException, IncompatibleClassFileException {
         if (resolutionClass.isMethodSignaturePolymorphic(methodSignature)) {
             return resolutionClass;
@@ -1942,7 +2255,8 @@ public final class ClassHierarchy implements Cloneable {
             throw new InternalError(e);
         }
         
-        //cp, expansionBackdoor and allFieldsOf may be shared;
+        //cp, expansionBackdoor, allFieldsOf, jarIndices, directoryMisses,
+        //supertypesOf, dispatchVirtual and dispatchInterface may be shared;
         //in a future, expansionBackdoor may possibly be cloned
         
         o.cfs = o.cfs.clone();
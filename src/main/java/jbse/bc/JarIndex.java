@@ -0,0 +1,339 @@
+package jbse.bc;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * An index of the classfiles in a jar file. The jar file is
+ * memory-mapped, and its central directory is read once to
+ * build a map from the names of the classes to the positions
+ * of their classfiles in the jar, so finding a classfile
+ * neither opens the jar nor scans its directory. The indices
+ * are shared by the whole process, and are rebuilt whenever
+ * the modification time or the size of their jar file changes.
+ * Jar files that cannot be indexed (e.g., ZIP64 archives) are
+ * kept open and read through a {@link JarFile}.
+ *
+ * @author Pietro Braione
+ */
+final class JarIndex {
+    private static final int EOCD_SIGNATURE = 0x06054b50;
+    private static final int EOCD_SIZE = 22;
+    private static final int EOCD_MAX_COMMENT_SIZE = 0xFFFF;
+    private static final int CEN_SIGNATURE = 0x02014b50;
+    private static final int CEN_SIZE = 46;
+    private static final int LOC_SIGNATURE = 0x04034b50;
+    private static final int LOC_SIZE = 30;
+    private static final int METHOD_STORED = 0;
+    private static final int METHOD_DEFLATED = 8;
+    private static final String CLASSFILE_EXTENSION = ".class";
+
+    /** All the indices, associated to the (absolute) paths of their jar files. */
+    private static final ConcurrentHashMap<Path, JarIndex> INDICES = new ConcurrentHashMap<>();
+
+    /**
+     * The position of a classfile in the jar file.
+     */
+    private static final class Entry {
+        final int method;
+        final long localHeaderOffset;
+        final int compressedSize;
+        final int uncompressedSize;
+
+        Entry(int method, long localHeaderOffset, int compressedSize, int uncompressedSize) {
+            this.method = method;
+            this.localHeaderOffset = localHeaderOffset;
+            this.compressedSize = compressedSize;
+            this.uncompressedSize = uncompressedSize;
+        }
+    }
+
+    /** The modification time of the jar file when it was indexed. */
+    private final long lastModified;
+
+    /** The size of the jar file when it was indexed. */
+    private final long size;
+
+    /**
+     * The memory-mapped jar file, or {@code null} if
+     * the jar file could not be indexed.
+     */
+    private final MappedByteBuffer jar;
+
+    /**
+     * Maps the names of the classes in the jar file
+     * to the positions of their classfiles.
+     */
+    private final HashMap<String, Entry> entries = new HashMap<>();
+
+    /**
+     * The (open) jar file, if it could not be indexed,
+     * or {@code null}.
+     */
+    private final JarFile jarFile;
+
+    /**
+     * Returns the index of a jar file.
+     *
+     * @param path the {@link Path} of a jar file.
+     * @return the {@link JarIndex} of the jar file at {@code path}.
+     * @throws IOException if the jar file cannot be read.
+     */
+    static JarIndex get(Path path) throws IOException {
+        final Path key = path.toAbsolutePath().normalize();
+        final long lastModified = Files.getLastModifiedTime(key).toMillis();
+        final long size = Files.size(key);
+        final JarIndex cached = INDICES.get(key);
+        if (cached != null && cached.lastModified == lastModified && cached.size == size) {
+            return cached;
+        }
+        final JarIndex retVal = new JarIndex(key, lastModified, size);
+        final boolean stored = (cached == null ? INDICES.putIfAbsent(key, retVal) == null : INDICES.replace(key, cached, retVal));
+        if (stored) {
+            if (cached != null) {
+                //the jar file changed
+                cached.close();
+            }
+            return retVal;
+        }
+        
+        //another thread indexed the jar file meanwhile
+        retVal.close();
+        return get(path);
+    }
+
+    private JarIndex(Path path, long lastModified, long size) throws IOException {
+        this.lastModified = lastModified;
+        this.size = size;
+        MappedByteBuffer jar = null;
+        if (size <= Integer.MAX_VALUE) {
+            try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                jar = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                jar.order(ByteOrder.LITTLE_ENDIAN);
+            }
+            if (!readCentralDirectory(jar)) {
+                jar = null;
+                this.entries.clear();
+            }
+        }
+        this.jar = jar;
+        this.jarFile = (jar == null ? new JarFile(path.toFile()) : null);
+    }
+
+    /**
+     * Closes the jar file if it could not be indexed. 
+     * After the invocation of this method this index
+     * must not be used anymore.
+     */
+    private void close() {
+        if (this.jarFile != null) {
+            try {
+                this.jarFile.close();
+            } catch (IOException e) {
+                //nothing to do
+            }
+        }
+    }
+
+    /**
+     * Reads the central directory of the jar file
+     * and fills {@link #entries}.
+     *
+     * @param jar the memory-mapped jar file.
+     * @return {@code true} iff the central directory could
+     *         be read (it is absent or has an unsupported
+     *         format otherwise).
+     */
+    private boolean readCentralDirectory(ByteBuffer jar) {
+        //finds the end of central directory record
+        int eocd = -1;
+        for (int pos = jar.limit() - EOCD_SIZE; pos >= 0 && pos >= jar.limit() - EOCD_SIZE - EOCD_MAX_COMMENT_SIZE; --pos) {
+            if (jar.getInt(pos) == EOCD_SIGNATURE) {
+                eocd = pos;
+                break;
+            }
+        }
+        if (eocd < 0) {
+            return false;
+        }
+        final int numEntries = Short.toUnsignedInt(jar.getShort(eocd + 10));
+        final long cenOffset = Integer.toUnsignedLong(jar.getInt(eocd + 16));
+        if (numEntries == 0xFFFF || cenOffset == 0xFFFFFFFFL || cenOffset >= jar.limit()) {
+            return false; //ZIP64 or corrupted
+        }
+
+        //scans the central directory
+        int pos = (int) cenOffset;
+        for (int i = 0; i < numEntries; ++i) {
+            if (pos + CEN_SIZE > jar.limit() || jar.getInt(pos) != CEN_SIGNATURE) {
+                return false;
+            }
+            final int method = Short.toUnsignedInt(jar.getShort(pos + 10));
+            final long compressedSize = Integer.toUnsignedLong(jar.getInt(pos + 20));
+            final long uncompressedSize = Integer.toUnsignedLong(jar.getInt(pos + 24));
+            final int nameLength = Short.toUnsignedInt(jar.getShort(pos + 28));
+            final int extraLength = Short.toUnsignedInt(jar.getShort(pos + 30));
+            final int commentLength = Short.toUnsignedInt(jar.getShort(pos + 32));
+            final long localHeaderOffset = Integer.toUnsignedLong(jar.getInt(pos + 42));
+            if (pos + CEN_SIZE + nameLength > jar.limit()) {
+                return false;
+            }
+            final byte[] nameBytes = new byte[nameLength];
+            final ByteBuffer nameBuffer = jar.duplicate();
+            nameBuffer.position(pos + CEN_SIZE);
+            nameBuffer.get(nameBytes);
+            final String name = new String(nameBytes, StandardCharsets.UTF_8);
+            if (name.endsWith(CLASSFILE_EXTENSION)) {
+                if ((method != METHOD_STORED && method != METHOD_DEFLATED) ||
+                    compressedSize >= Integer.MAX_VALUE || uncompressedSize >= Integer.MAX_VALUE ||
+                    localHeaderOffset >= jar.limit()) {
+                    return false; //unsupported
+                }
+                final String className = name.substring(0, name.length() - CLASSFILE_EXTENSION.length());
+                this.entries.putIfAbsent(className, new Entry(method, localHeaderOffset, (int) compressedSize, (int) uncompressedSize));
+            }
+            pos += CEN_SIZE + nameLength + extraLength + commentLength;
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether the jar file could be indexed.
+     *
+     * @return {@code true} iff the jar file was indexed,
+     *         {@code false} iff it is read through a 
+     *         {@link JarFile}.
+     */
+    boolean isIndexed() {
+        return this.jar != null;
+    }
+
+    /**
+     * Checks whether the jar file contains the
+     * classfile of a class.
+     *
+     * @param className a {@link String}, the name
+     *        of a class.
+     * @return {@code true} iff the jar file contains
+     *         the classfile for {@code className}.
+     */
+    boolean contains(String className) {
+        if (this.jar == null) {
+            return this.jarFile.getJarEntry(className + CLASSFILE_EXTENSION) != null;
+        }
+        return this.entries.containsKey(className);
+    }
+
+    /**
+     * Reads the classfile of a class.
+     *
+     * @param className a {@link String}, the name
+     *        of a class.
+     * @return the content of the classfile for {@code className}
+     *         as a {@code byte[]}, or {@code null} if the
+     *         jar file does not contain it.
+     * @throws IOException if reading the classfile fails.
+     */
+    byte[] read(String className) throws IOException {
+        if (this.jar == null) {
+            return readFromJarFile(className);
+        }
+        final Entry e = this.entries.get(className);
+        if (e == null) {
+            return null;
+        }
+
+        //finds the data in the local file header
+        final int loc = (int) e.localHeaderOffset;
+        if (loc + LOC_SIZE > this.jar.limit() || this.jar.getInt(loc) != LOC_SIGNATURE) {
+            throw new IOException("Bad local file header for class " + className + ".");
+        }
+        final int nameLength = Short.toUnsignedInt(this.jar.getShort(loc + 26));
+        final int extraLength = Short.toUnsignedInt(this.jar.getShort(loc + 28));
+        final int data = loc + LOC_SIZE + nameLength + extraLength;
+        if (data + e.compressedSize > this.jar.limit()) {
+            throw new IOException("Truncated classfile for class " + className + ".");
+        }
+        final ByteBuffer dataBuffer = this.jar.duplicate();
+        dataBuffer.position(data);
+
+        //reads it
+        if (e.method == METHOD_STORED) {
+            final byte[] retVal = new byte[e.uncompressedSize];
+            dataBuffer.get(retVal);
+            return retVal;
+        } else { //METHOD_DEFLATED
+            final byte[] compressed = new byte[e.compressedSize];
+            dataBuffer.get(compressed);
+            final Inflater inflater = new Inflater(true);
+            try {
+                inflater.setInput(compressed);
+                final byte[] retVal = new byte[e.uncompressedSize];
+                int inflated = 0;
+                while (inflated < retVal.length) {
+                    final int n = inflater.inflate(retVal, inflated, retVal.length - inflated);
+                    if (n == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    inflated += n;
+                }
+                if (inflated != retVal.length) {
+                    throw new IOException("Truncated classfile for class " + className + ".");
+                }
+                return retVal;
+            } catch (DataFormatException exc) {
+                throw new IOException(exc);
+            } finally {
+                inflater.end();
+            }
+        }
+    }
+
+    private byte[] readFromJarFile(String className) throws IOException {
+        final JarEntry e = this.jarFile.getJarEntry(className + CLASSFILE_EXTENSION);
+        if (e == null) {
+            return null;
+        }
+        try (final InputStream inStr = this.jarFile.getInputStream(e)) {
+            final long size = e.getSize();
+            if (size == 0) {
+                return new byte[0];
+            }
+            final byte[] retVal = new byte[(size < 0 ? 2048 : (int) size)];
+            int read = 0;
+            int n;
+            byte[] buf = retVal;
+            while ((n = inStr.read(buf, read, buf.length - read)) > 0) {
+                read += n;
+                if (read == buf.length) {
+                    if (size >= 0) {
+                        break;
+                    }
+                    final byte[] bufNew = new byte[buf.length * 2];
+                    System.arraycopy(buf, 0, bufNew, 0, read);
+                    buf = bufNew;
+                }
+            }
+            if (read == buf.length) {
+                return buf;
+            }
+            final byte[] trimmed = new byte[read];
+            System.arraycopy(buf, 0, trimmed, 0, read);
+            return trimmed;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package jbse.dec;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 import jbse.bc.ClassFile;
@@ -129,6 +130,35 @@ public interface DecisionProcedure extends AutoCloseable {
     boolean isSat(ClassHierarchy hier, Expression expression) 
     throws InvalidInputException, DecisionException;
 
+    /**
+     * Determines the satisfiability of several {@link Expression}s under the
+     * current assumption, each independently of the others. Implementations
+     * may decide the expressions concurrently; the default implementation 
+     * invokes {@link #isSat(ClassHierarchy, Expression) isSat} on each of them.
+     * 
+     * @param hier a {@link ClassHierarchy}. It must not be {@code null}.
+     * @param expressions a {@link List}{@code <}{@link Expression}{@code >}
+     *        of boolean expressions. It must not be {@code null} nor 
+     *        contain {@code null}s.
+     * @return a {@code boolean[]} with same size as {@code expressions}, whose 
+     *         {@code i}-th element is {@code true} iff {@code expressions.get(i)}
+     *         is satisfiable under the current assumptions.
+     * @throws InvalidInputException when one of the parameters is incorrect.
+     * @throws DecisionException upon failure.
+     */
+    default boolean[] isSatBatch(ClassHierarchy hier, List<Expression> expressions) 
+    throws InvalidInputException, DecisionException {
+        if (expressions == null) {
+            throw new InvalidInputException("isSatBatch invoked with a null parameter.");
+        }
+        final boolean[] retVal = new boolean[expressions.size()];
+        int i = 0;
+        for (Expression expression : expressions) {
+            retVal[i++] = isSat(hier, expression);
+        }
+        return retVal;
+    }
+
     /**
      * Determines the satisfiability of a resolution by null under the
      * current assumptions.
@@ -3,8 +3,10 @@ package jbse.dec;
 import static jbse.bc.ClassLoaders.CLASSLOADER_APP;
 import static jbse.common.Type.className;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
@@ -25,7 +27,6 @@ import jbse.common.exc.InvalidInputException;
 import jbse.common.exc.UnexpectedInternalException;
 import jbse.dec.exc.DecisionException;
 import jbse.mem.Array;
-import jbse.mem.Clause;
 import jbse.mem.ClauseAssumeExpands;
 import jbse.mem.Objekt;
 import jbse.mem.State;
@@ -468,17 +469,31 @@ public class DecisionProcedureAlgorithms extends DecisionProcedureDecorator {
 	throws DecisionException {
 		try {
 	        final boolean isAny = isAny(selector);
+	        
+	        //the entries and the default are independent
+	        //queries, so we decide them all at once
+	        final boolean[] isSat;
+	        if (isAny) {
+	            isSat = null;
+	        } else {
+	            final ArrayList<Expression> exps = new ArrayList<>();
+	            for (int i : tab) {
+	                exps.add((Expression) selector.eq(this.calc.valInt(i)));
+	            }
+	            exps.add(tab.getDefaultClause(selector));
+	            isSat = isSatBatch(hier, exps);
+	        }
+	        
 	        int branchCounter = 1;
-	        boolean noEntryIsSat = true; //allows to skip the last sat check
+	        boolean noEntryIsSat = true; //the default is sat if no entry is
 			for (int i : tab) {
-				final Expression exp = (isAny ? null : (Expression) selector.eq(this.calc.valInt(i)));
-				if (isAny || isSat(hier, exp)) { 
+				if (isAny || isSat[branchCounter - 1]) { 
 					result.add(DecisionAlternative_XSWITCH.toNonconcrete(i, branchCounter));
 					noEntryIsSat = false;
 				}
 				++branchCounter;
 			}
-			if (isAny || noEntryIsSat || isSat(hier, tab.getDefaultClause(selector))) { 
+			if (isAny || noEntryIsSat || isSat[branchCounter - 1]) { 
 				result.add(DecisionAlternative_XSWITCH.toNonconcreteDefault(branchCounter));
 			}
 			final boolean shouldRefine = (!isAny && (result.size() > 1));
@@ -1111,18 +1126,19 @@ public class DecisionProcedureAlgorithms extends DecisionProcedureDecorator {
 
 	    final TreeMap<Long, Objekt> retVal = new TreeMap<>();
 
-	    //TODO extract this code and share with State.getObjectInitial
-	    //scans the path condition for compatible objects
+	    //scans the expansions in the path condition for compatible 
+	    //objects, checking the type only once for each class
 	    final ClassHierarchy classHierarchy = state.getClassHierarchy();
-	    final Iterable<Clause> pathCondition = state.getPathCondition();
-	    for (Clause c : pathCondition) {
-	        if (c instanceof ClauseAssumeExpands) {
+	    for (Map.Entry<ClassFile, ? extends List<ClauseAssumeExpands>> e : state.getExpansionsByClass().entrySet()) {
+	        if (!classHierarchy.isSubclass(e.getKey(), refClass)) {
+	            continue;
+	        }
+	        for (ClauseAssumeExpands cExp : e.getValue()) {
 	            //gets the object and its position in the heap
-	            final ClauseAssumeExpands cExp = (ClauseAssumeExpands) c;
 	            final Long i = cExp.getHeapPosition();
 	            final Objekt o = cExp.getObjekt();
 	            
-	            //if it is type and epoch compatible, adds the object
+	            //if it is epoch compatible, adds the object
 	            //to the result
 	            if (isAliasCompatible(o, ref, refClass, classHierarchy)) {
 	                retVal.put(i, o);
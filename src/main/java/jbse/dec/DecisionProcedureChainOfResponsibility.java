@@ -1,7 +1,9 @@
 package jbse.dec;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import jbse.bc.ClassFile;
@@ -502,6 +504,100 @@ public abstract class DecisionProcedureChainOfResponsibility implements Decision
         throw new DecisionException(NO_DELEGATE_ERROR);
     }
 
+    @Override
+    public final boolean[] isSatBatch(ClassHierarchy hier, List<Expression> expressions) 
+    throws InvalidInputException, DecisionException {
+        if (hier == null || expressions == null) {
+            throw new InvalidInputException("isSatBatch invoked with a null parameter.");
+        }
+        final boolean[] retVal = new boolean[expressions.size()];
+        
+        //simplifies, and collects the expressions that 
+        //are not decided by simplification
+        final ArrayList<Integer> undecided = new ArrayList<>();
+        final ArrayList<Expression> exps = new ArrayList<>();
+        final ArrayList<Expression> expsSimpl = new ArrayList<>();
+        int i = 0;
+        for (Expression expression : expressions) {
+            if (expression == null) {
+                throw new InvalidInputException("isSatBatch invoked with a null expression.");
+            }
+            if (expression.getType() != Type.BOOLEAN) {
+                throw new DecisionException("isSat expression has type " + expression.getType());
+            }
+            final Primitive expSimpl = simplifyLocal(expression);
+            if (expSimpl instanceof Simplex) {
+                retVal[i] = ((Simplex) expSimpl).surelyTrue();
+            } else if (expSimpl instanceof Expression) {
+                undecided.add(i);
+                exps.add(expression);
+                expsSimpl.add((Expression) expSimpl);
+            } else {
+                throw new DecisionException("the simplified " + expSimpl + " is neither a Simplex nor an Expression"); //TODO throw a better exception
+            }
+            ++i;
+        }
+        if (undecided.isEmpty()) {
+            return retVal;
+        }
+        
+        //decides locally, and delegates the
+        //expressions that are not surely unsat
+        final boolean[] localDecidesSat = isSatBatchLocal(hier, exps, expsSimpl);
+        final ArrayList<Integer> toDelegate = new ArrayList<>();
+        final ArrayList<Expression> expsToDelegate = new ArrayList<>();
+        for (int j = 0; j < localDecidesSat.length; ++j) {
+            if (localDecidesSat[j]) {
+                toDelegate.add(undecided.get(j));
+                expsToDelegate.add(exps.get(j));
+            } //else, surely unsat (retVal is already false)
+        }
+        if (!toDelegate.isEmpty()) {
+            final boolean[] delegateDecidesSat = delegateIsSatBatch(hier, expsToDelegate);
+            for (int j = 0; j < delegateDecidesSat.length; ++j) {
+                retVal[toDelegate.get(j)] = delegateDecidesSat[j];
+            }
+        }
+        return retVal;
+    }
+
+    /**
+     * May be overridden by subclasses to implement 
+     * {@link #isSatBatch(ClassHierarchy, List)}, e.g., 
+     * to decide the expressions concurrently. The default 
+     * implementation invokes {@link #isSatLocal(ClassHierarchy, Expression, Expression) isSatLocal}
+     * on each expression. 
+     *  
+     * @param hier see {@link #isSatBatch(ClassHierarchy, List) isSatBatch}.
+     * @param exps see {@link #isSatBatch(ClassHierarchy, List) isSatBatch}. 
+     *        Note that they are <em>not</em> locally simplified, and that 
+     *        they remain {@link Expression}s after local simplification.
+     * @param expsSimpl {@code exps} after local simplification.
+     * @return see {@link #isSatBatch(ClassHierarchy, List) isSatBatch}.
+     * @throws DecisionException upon failure.
+     */
+    protected boolean[] isSatBatchLocal(ClassHierarchy hier, List<Expression> exps, List<Expression> expsSimpl) 
+    throws DecisionException {
+        final boolean[] retVal = new boolean[exps.size()];
+        for (int i = 0; i < retVal.length; ++i) {
+            retVal[i] = isSatLocal(hier, exps.get(i), expsSimpl.get(i));
+        }
+        return retVal;
+    }
+
+    private final boolean[] delegateIsSatBatch(ClassHierarchy hier, List<Expression> exps) 
+    throws DecisionException {
+        if (hasNext()) {
+            try {
+                return this.next.isSatBatch(hier, exps);
+            } catch (InvalidInputException e) {
+                //this should never happen
+                throw new UnexpectedInternalException(e);
+            }
+        }
+        throw new DecisionException(NO_DELEGATE_ERROR);
+    }
+
     @Override
     public final boolean isSatNull(ClassHierarchy hier, ReferenceSymbolic r) 
     throws InvalidInputException, DecisionException {
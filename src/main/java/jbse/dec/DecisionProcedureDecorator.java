@@ -1,6 +1,7 @@
 package jbse.dec;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 import jbse.bc.ClassFile;
@@ -80,6 +81,12 @@ public class DecisionProcedureDecorator implements DecisionProcedure {
         return this.component.isSat(hier, exp);
     }
 
+    @Override
+    public boolean[] isSatBatch(ClassHierarchy hier, List<Expression> expressions) 
+    throws InvalidInputException, DecisionException {
+        return this.component.isSatBatch(hier, expressions);
+    }
+
     @Override
     public boolean isSatNull(ClassHierarchy hier, ReferenceSymbolic r) 
     throws InvalidInputException, DecisionException {
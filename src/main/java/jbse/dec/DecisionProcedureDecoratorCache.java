@@ -0,0 +1,709 @@
+package jbse.dec;
+
+import static jbse.common.Type.isPrimitiveFloating;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import jbse.bc.ClassHierarchy;
+import jbse.common.exc.InvalidInputException;
+import jbse.dec.exc.DecisionException;
+import jbse.mem.Clause;
+import jbse.mem.ClauseAssume;
+import jbse.val.Any;
+import jbse.val.Expression;
+import jbse.val.NarrowingConversion;
+import jbse.val.Operator;
+import jbse.val.Primitive;
+import jbse.val.PrimitiveSymbolic;
+import jbse.val.PrimitiveSymbolicApply;
+import jbse.val.PrimitiveSymbolicAtomic;
+import jbse.val.PrimitiveVisitor;
+import jbse.val.Simplex;
+import jbse.val.Term;
+import jbse.val.WideningConversion;
+
+/**
+ * A {@link DecisionProcedureDecorator} that caches the answers to
+ * {@link #isSat(ClassHierarchy, Expression)} queries. The current
+ * assumption is mirrored as a path in a tree of hash-consed nodes,
+ * so that two assumptions made of equal clauses pushed in the same
+ * order are represented by the very same node, and a query is identified
+ * by the pair (node, expression). Besides exact matches, the cache
+ * exploits that:
+ * <ul>
+ * <li>if a query was unsatisfiable under some assumption, it is
+ * unsatisfiable under all the stronger assumptions (i.e., all
+ * the descendants of its node);</li>
+ * <li>if a query was satisfiable under some assumption, it is
+ * satisfiable under all the weaker assumptions (i.e., all the
+ * ancestors of its node);</li>
+ * <li>if a model obtained with {@link #getModel()} satisfies the
+ * current assumption and the query, then the query is satisfiable.
+ * The model is evaluated with the semantics of the SMT encoding
+ * (unbounded integers), and queries with uninterpreted operators
+ * are always forwarded to the decorated decision procedure.</li>
+ * </ul>
+ * The cache is bounded, and the least recently used queries are evicted
+ * when the bound is exceeded.
+ *
+ * @author Pietro Braione
+ */
+public class DecisionProcedureDecoratorCache extends DecisionProcedureDecorator {
+    /** The default maximum number of cached queries. */
+    public static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+    /** The maximum number of assumptions per query that are remembered. */
+    private static final int MAX_NODES_PER_ENTRY = 8;
+
+    /** The maximum number of models that are remembered. */
+    private static final int MAX_MODELS = 16;
+
+    /**
+     * A node in the tree of the assumptions. Two nodes are
+     * equal iff they have the same parent and equal clauses,
+     * thus nodes can be hash-consed.
+     */
+    private static final class Node {
+        final Node parent;
+        final Clause clause;
+        final int depth;
+        final int hashCode;
+
+        Node(Node parent, Clause clause) {
+            this.parent = parent;
+            this.clause = clause;
+            this.depth = (parent == null ? 0 : parent.depth + 1);
+            this.hashCode = 31 * System.identityHashCode(parent) + (clause == null ? 0 : clause.hashCode());
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            final Node other = (Node) obj;
+            return this.parent == other.parent && this.hashCode == other.hashCode &&
+                   (this.clause == null ? other.clause == null : this.clause.equals(other.clause));
+        }
+    }
+
+    /**
+     * The cached answers to a query: The (most recent)
+     * assumptions under which it was found satisfiable
+     * and unsatisfiable.
+     */
+    private static final class Entry {
+        final ArrayList<Node> sat = new ArrayList<>();
+        final ArrayList<Node> unsat = new ArrayList<>();
+    }
+
+    /** A model together with the assumption it satisfies. */
+    private static final class Model {
+        final Node node;
+        final Map<PrimitiveSymbolic, Simplex> values;
+
+        Model(Node node, Map<PrimitiveSymbolic, Simplex> values) {
+            this.node = node;
+            this.values = values;
+        }
+    }
+
+    private final int maxEntries;
+
+    /** The root node, i.e., the empty assumption. */
+    private final Node root = new Node(null, null);
+
+    /** The interned nodes. */
+    private final LinkedHashMap<Node, Node> nodes;
+
+    /**
+     * The nodes of the current assumption, from the root
+     * to the current node: The node at position {@code i}
+     * has depth {@code i}.
+     */
+    private final ArrayList<Node> path = new ArrayList<>();
+
+    /** The cached queries. */
+    private final LinkedHashMap<Expression, Entry> entries;
+
+    /** The remembered models, from the least to the most recent. */
+    private final ArrayList<Model> models = new ArrayList<>();
+
+    /** Whether the decision procedure is currently fast and imprecise. */
+    private boolean fastAndImprecise = false;
+
+    private long hitsExact = 0L;
+    private long hitsSubsumed = 0L;
+    private long hitsModel = 0L;
+    private long misses = 0L;
+
+    /**
+     * Constructor. The cache will store at most
+     * {@link #DEFAULT_MAX_ENTRIES} queries.
+     *
+     * @param component the decorated {@link DecisionProcedure}.
+     */
+    public DecisionProcedureDecoratorCache(DecisionProcedure component) {
+        this(component, DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param component the decorated {@link DecisionProcedure}.
+     * @param maxEntries an {@code int}, the maximum number of
+     *        queries the cache may store. It must be positive.
+     */
+    public DecisionProcedureDecoratorCache(DecisionProcedure component, int maxEntries) {
+        super(component);
+        this.maxEntries = maxEntries;
+        this.nodes = new LinkedHashMap<Node, Node>(16, 0.75f, true) {
+            private static final long serialVersionUID = 2453812389075112348L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Node, Node> eldest) {
+                //evicting a node is safe: at worst, a later equal
+                //node will not be identified with the evicted one
+                return size() > 4 * DecisionProcedureDecoratorCache.this.maxEntries;
+            }
+        };
+        this.entries = new LinkedHashMap<Expression, Entry>(16, 0.75f, true) {
+            private static final long serialVersionUID = -3196624101853870471L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Expression, Entry> eldest) {
+                return size() > DecisionProcedureDecoratorCache.this.maxEntries;
+            }
+        };
+        this.path.add(this.root);
+    }
+
+    /**
+     * Returns the number of queries answered by the cache
+     * because the same query was already answered under
+     * the same assumption.
+     *
+     * @return a {@code long}.
+     */
+    public long getHitsExact() {
+        return this.hitsExact;
+    }
+
+    /**
+     * Returns the number of queries answered by the cache
+     * because the same query was already answered under
+     * a weaker (if unsatisfiable) or stronger (if satisfiable)
+     * assumption.
+     *
+     * @return a {@code long}.
+     */
+    public long getHitsSubsumed() {
+        return this.hitsSubsumed;
+    }
+
+    /**
+     * Returns the number of queries answered by the cache
+     * because a previously obtained model satisfies them.
+     *
+     * @return a {@code long}.
+     */
+    public long getHitsModel() {
+        return this.hitsModel;
+    }
+
+    /**
+     * Returns the total number of queries answered by the cache.
+     *
+     * @return a {@code long}.
+     */
+    public long getHits() {
+        return this.hitsExact + this.hitsSubsumed + this.hitsModel;
+    }
+
+    /**
+     * Returns the number of queries that were not answered
+     * by the cache, and thus were forwarded to the decorated
+     * decision procedure.
+     *
+     * @return a {@code long}.
+     */
+    public long getMisses() {
+        return this.misses;
+    }
+
+    @Override
+    public void goFastAndImprecise() {
+        super.goFastAndImprecise();
+        this.fastAndImprecise = true;
+    }
+
+    @Override
+    public void stopFastAndImprecise() {
+        super.stopFastAndImprecise();
+        this.fastAndImprecise = false;
+    }
+
+    @Override
+    public void pushAssumption(Clause c)
+    throws InvalidInputException, DecisionException {
+        super.pushAssumption(c);
+        push(c);
+    }
+
+    @Override
+    public void clearAssumptions() throws DecisionException {
+        super.clearAssumptions();
+        clearPath();
+    }
+
+    @Override
+    public void addAssumptions(Iterable<Clause> assumptionsToAdd)
+    throws InvalidInputException, DecisionException {
+        super.addAssumptions(assumptionsToAdd);
+        for (Clause c : assumptionsToAdd) {
+            push(c);
+        }
+    }
+
+    @Override
+    public void setAssumptions(Collection<Clause> newAssumptions)
+    throws InvalidInputException, DecisionException {
+        super.setAssumptions(newAssumptions);
+        clearPath();
+        for (Clause c : newAssumptions) {
+            push(c);
+        }
+    }
+
+    private void clearPath() {
+        this.path.clear();
+        this.path.add(this.root);
+    }
+
+    private void push(Clause c) {
+        final Node node = new Node(currentNode(), c);
+        final Node interned = this.nodes.get(node);
+        if (interned == null) {
+            this.nodes.put(node, node);
+            this.path.add(node);
+        } else {
+            this.path.add(interned);
+        }
+    }
+
+    private Node currentNode() {
+        return this.path.get(this.path.size() - 1);
+    }
+
+    /**
+     * Checks whether a node is the current node or one of its ancestors.
+     *
+     * @param n a {@link Node}.
+     * @return {@code true} iff the assumption of {@code n} is
+     *         a prefix of the current assumption.
+     */
+    private boolean isOnPath(Node n) {
+        return n.depth < this.path.size() && this.path.get(n.depth) == n;
+    }
+
+    /**
+     * Checks whether a node is the current node or one of its descendants.
+     *
+     * @param n a {@link Node}.
+     * @return {@code true} iff the current assumption is
+     *         a prefix of the assumption of {@code n}.
+     */
+    private boolean isBelowPath(Node n) {
+        final Node current = currentNode();
+        Node m = n;
+        while (m != null && m.depth > current.depth) {
+            m = m.parent;
+        }
+        return m == current;
+    }
+
+    @Override
+    public boolean isSat(ClassHierarchy hier, Expression exp)
+    throws InvalidInputException, DecisionException {
+        final Boolean cached = lookup(exp);
+        if (cached != null) {
+            return cached.booleanValue();
+        }
+        ++this.misses;
+        final boolean retVal = super.isSat(hier, exp);
+        record(exp, retVal);
+        return retVal;
+    }
+
+    @Override
+    public boolean[] isSatBatch(ClassHierarchy hier, List<Expression> expressions)
+    throws InvalidInputException, DecisionException {
+        final boolean[] retVal = new boolean[expressions.size()];
+        final ArrayList<Expression> missed = new ArrayList<>();
+        final ArrayList<Integer> missedPositions = new ArrayList<>();
+        for (int i = 0; i < retVal.length; ++i) {
+            final Expression exp = expressions.get(i);
+            final Boolean cached = lookup(exp);
+            if (cached == null) {
+                missed.add(exp);
+                missedPositions.add(i);
+            } else {
+                retVal[i] = cached.booleanValue();
+            }
+        }
+        if (!missed.isEmpty()) {
+            this.misses += missed.size();
+            final boolean[] missedRetVal = super.isSatBatch(hier, missed);
+            for (int k = 0; k < missedRetVal.length; ++k) {
+                retVal[missedPositions.get(k)] = missedRetVal[k];
+                record(missed.get(k), missedRetVal[k]);
+            }
+        }
+        return retVal;
+    }
+
+    /**
+     * Looks up the cache.
+     *
+     * @param exp an {@link Expression}, the query.
+     * @return {@link Boolean#TRUE} or {@link Boolean#FALSE} if
+     *         the cache can answer the query under the current
+     *         assumption, {@code null} otherwise.
+     */
+    private Boolean lookup(Expression exp) {
+        final Node current = currentNode();
+        final Entry entry = this.entries.get(exp);
+        if (entry != null) {
+            for (Node n : entry.unsat) {
+                if (isOnPath(n)) {
+                    if (n == current) {
+                        ++this.hitsExact;
+                    } else {
+                        ++this.hitsSubsumed;
+                    }
+                    return Boolean.FALSE;
+                }
+            }
+            for (Node n : entry.sat) {
+                if (isBelowPath(n)) {
+                    if (n == current) {
+                        ++this.hitsExact;
+                    } else {
+                        ++this.hitsSubsumed;
+                    }
+                    return Boolean.TRUE;
+                }
+            }
+        }
+        for (int i = this.models.size() - 1; i >= 0; --i) {
+            if (satisfies(this.models.get(i), exp)) {
+                ++this.hitsModel;
+                return Boolean.TRUE;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Stores the answer to a query under the current assumption.
+     *
+     * @param exp an {@link Expression}, the query.
+     * @param sat a {@code boolean}, the answer.
+     */
+    private void record(Expression exp, boolean sat) {
+        if (sat && this.fastAndImprecise) {
+            //when imprecise a sat answer may be wrong
+            return;
+        }
+        Entry entry = this.entries.get(exp);
+        if (entry == null) {
+            entry = new Entry();
+            this.entries.put(exp, entry);
+        }
+        final ArrayList<Node> nodes = (sat ? entry.sat : entry.unsat);
+        if (nodes.size() == MAX_NODES_PER_ENTRY) {
+            nodes.remove(0);
+        }
+        nodes.add(currentNode());
+    }
+
+    @Override
+    public Map<PrimitiveSymbolic, Simplex> getModel() throws DecisionException {
+        final Map<PrimitiveSymbolic, Simplex> retVal = super.getModel();
+        if (this.models.size() == MAX_MODELS) {
+            this.models.remove(0);
+        }
+        this.models.add(new Model(currentNode(), retVal));
+        return retVal;
+    }
+
+    /**
+     * Checks whether a model surely satisfies the current
+     * assumption and a query.
+     *
+     * @param model a {@link Model}.
+     * @param exp an {@link Expression}, the query.
+     * @return {@code true} if {@code model} surely satisfies
+     *         the current assumption and {@code exp}, {@code false}
+     *         if it does not or if it is unknown.
+     */
+    private boolean satisfies(Model model, Expression exp) {
+        if (!isBelowPath(model.node)) {
+            if (!isOnPath(model.node)) {
+                return false;
+            }
+            //the model satisfies a prefix of the current
+            //assumption: checks the rest of it
+            for (int i = model.node.depth + 1; i < this.path.size(); ++i) {
+                final Clause c = this.path.get(i).clause;
+                if (!(c instanceof ClauseAssume) || !evaluatesToTrue(model, ((ClauseAssume) c).getCondition())) {
+                    return false;
+                }
+            }
+        }
+        return evaluatesToTrue(model, exp);
+    }
+
+    private boolean evaluatesToTrue(Model model, Primitive p) {
+        final Evaluator evaluator = new Evaluator(model.values);
+        try {
+            p.accept(evaluator);
+        } catch (Exception e) {
+            //cannot evaluate
+            return false;
+        }
+        return Boolean.TRUE.equals(evaluator.value);
+    }
+
+    /**
+     * Evaluates a {@link Primitive} under a model, with the
+     * semantics of the SMT encoding used by the external
+     * decision procedures rather than with the Java one: Integral
+     * values are unbounded integers (no overflow, and integral
+     * narrowing does not truncate), floating values are reals,
+     * and integral division and remainder are the SMT {@code div}
+     * and {@code mod}. The value of an integral expression is a
+     * {@link BigInteger}, of a floating expression a
+     * {@link BigDecimal}, and of a boolean expression a
+     * {@link Boolean}. The result is {@code null} when the
+     * evaluation is not possible, e.g., because the model does
+     * not assign some symbol, or because the expression has an
+     * operator that the SMT encoding does not interpret.
+     */
+    private static final class Evaluator implements PrimitiveVisitor {
+        private final Map<PrimitiveSymbolic, Simplex> values;
+        Object value = null;
+
+        Evaluator(Map<PrimitiveSymbolic, Simplex> values) {
+            this.values = values;
+        }
+
+        private Object eval(Primitive p) throws Exception {
+            this.value = null;
+            p.accept(this);
+            return this.value;
+        }
+
+        private static Object toValue(Simplex x) {
+            if (x == null) {
+                return null;
+            }
+            final Object v = x.getActualValue();
+            if (v instanceof Boolean) {
+                return v;
+            } else if (v instanceof Character) {
+                return BigInteger.valueOf(((Character) v).charValue());
+            } else if (v instanceof Float || v instanceof Double) {
+                final double d = ((Number) v).doubleValue();
+                return (Double.isNaN(d) || Double.isInfinite(d) ? null : new BigDecimal(d));
+            } else if (v instanceof Number) {
+                return BigInteger.valueOf(((Number) v).longValue());
+            } else {
+                return null;
+            }
+        }
+
+        @Override
+        public void visitAny(Any x) {
+            this.value = null;
+        }
+
+        @Override
+        public void visitExpression(Expression e)
+        throws Exception {
+            final Operator operator = e.getOperator();
+            if (e.isUnary()) {
+                final Object operand = eval(e.getOperand());
+                if (operator == Operator.NOT && operand instanceof Boolean) {
+                    this.value = !((Boolean) operand).booleanValue();
+                } else if (operator == Operator.NEG && operand instanceof BigInteger) {
+                    this.value = ((BigInteger) operand).negate();
+                } else if (operator == Operator.NEG && operand instanceof BigDecimal) {
+                    this.value = ((BigDecimal) operand).negate();
+                } else {
+                    this.value = null;
+                }
+                return;
+            }
+            final Object first = eval(e.getFirstOperand());
+            if (first == null) {
+                return;
+            }
+            final Object second = eval(e.getSecondOperand());
+            if (second == null) {
+                return;
+            }
+            if (first instanceof Boolean && second instanceof Boolean) {
+                final boolean a = ((Boolean) first).booleanValue();
+                final boolean b = ((Boolean) second).booleanValue();
+                switch (operator) {
+                case AND:
+                    this.value = a && b;
+                    break;
+                case OR:
+                    this.value = a || b;
+                    break;
+                case EQ:
+                    this.value = a == b;
+                    break;
+                case NE:
+                    this.value = a != b;
+                    break;
+                default:
+                    this.value = null;
+                }
+            } else if (first instanceof BigInteger && second instanceof BigInteger) {
+                final BigInteger a = (BigInteger) first;
+                final BigInteger b = (BigInteger) second;
+                switch (operator) {
+                case ADD:
+                    this.value = a.add(b);
+                    break;
+                case SUB:
+                    this.value = a.subtract(b);
+                    break;
+                case MUL:
+                    this.value = a.multiply(b);
+                    break;
+                case DIV:
+                case REM:
+                    if (b.signum() == 0) {
+                        //division by zero is not evaluated
+                        this.value = null;
+                    } else {
+                        //SMT div and mod: the remainder is never negative
+                        final BigInteger r = a.mod(b.abs());
+                        this.value = (operator == Operator.REM ? r : a.subtract(r).divide(b));
+                    }
+                    break;
+                default:
+                    this.value = compare(operator, a.compareTo(b));
+                }
+            } else if (first instanceof BigDecimal && second instanceof BigDecimal) {
+                final BigDecimal a = (BigDecimal) first;
+                final BigDecimal b = (BigDecimal) second;
+                switch (operator) {
+                case ADD:
+                    this.value = a.add(b);
+                    break;
+                case SUB:
+                    this.value = a.subtract(b);
+                    break;
+                case MUL:
+                    this.value = a.multiply(b);
+                    break;
+                default:
+                    //real division is not evaluated, since its
+                    //result may have no finite representation
+                    this.value = compare(operator, a.compareTo(b));
+                }
+            } else {
+                this.value = null;
+            }
+        }
+
+        private static Boolean compare(Operator operator, int cmp) {
+            switch (operator) {
+            case EQ:
+                return cmp == 0;
+            case NE:
+                return cmp != 0;
+            case LT:
+                return cmp < 0;
+            case LE:
+                return cmp <= 0;
+            case GT:
+                return cmp > 0;
+            case GE:
+                return cmp >= 0;
+            default:
+                //shifts, bitwise operators and the like are
+                //not interpreted by the SMT encoding
+                return null;
+            }
+        }
+
+        @Override
+        public void visitPrimitiveSymbolicApply(PrimitiveSymbolicApply x) {
+            this.value = toValue(this.values.get(x));
+        }
+
+        @Override
+        public void visitPrimitiveSymbolicAtomic(PrimitiveSymbolicAtomic s) {
+            this.value = toValue(this.values.get(s));
+        }
+
+        @Override
+        public void visitSimplex(Simplex x) {
+            this.value = toValue(x);
+        }
+
+        @Override
+        public void visitTerm(Term x) {
+            this.value = null;
+        }
+
+        @Override
+        public void visitNarrowingConversion(NarrowingConversion x)
+        throws Exception {
+            this.value = convert(x.getType(), eval(x.getArg()));
+        }
+
+        @Override
+        public void visitWideningConversion(WideningConversion x)
+        throws Exception {
+            this.value = convert(x.getType(), eval(x.getArg()));
+        }
+
+        /**
+         * Converts a value as the SMT encoding does: Conversions
+         * between integral types are the identity, from integral
+         * to floating types are to_real, and from floating to
+         * integral types round toward zero.
+         */
+        private static Object convert(char type, Object arg) {
+            if (arg instanceof BigInteger) {
+                return (isPrimitiveFloating(type) ? new BigDecimal((BigInteger) arg) : arg);
+            } else if (arg instanceof BigDecimal) {
+                return (isPrimitiveFloating(type) ? arg : ((BigDecimal) arg).setScale(0, RoundingMode.DOWN).toBigIntegerExact());
+            } else {
+                return null;
+            }
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package jbse.dec;
 
-import java.util.LinkedHashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 
 import jbse.bc.ClassHierarchy;
 import jbse.common.exc.UnexpectedInternalException;
 import jbse.dec.exc.DecisionException;
+import jbse.mem.Clause;
 import jbse.mem.ClauseAssume;
 import jbse.rewr.CalculatorRewriting;
 import jbse.rewr.Rewriter;
@@ -20,24 +25,43 @@ import jbse.val.PrimitiveSymbolic;
 import jbse.val.PrimitiveVisitor;
 import jbse.val.Simplex;
 import jbse.val.Term;
+import jbse.val.Value;
 import jbse.val.WideningConversion;
 
 
 /**
- * A poor man decision procedure for equalities and inequalities 
- * (not really congruence closure).
+ * A poor man decision procedure for equalities and inequalities, 
+ * with congruence closure limited to {@link PrimitiveSymbolicApply}
+ * terms. Popping assumptions undoes the merges done after 
+ * they were pushed, without rebuilding the partition.
  * 
  * @author Pietro Braione
  *
  */
 public final class DecisionProcedureEquality extends DecisionProcedureChainOfResponsibility {
 	private final Partition equivalence = new Partition();
+	
+	/** 
+	 * The marks of {@link #equivalence} taken when each of 
+	 * the assumptions in {@link #assumptions} was pushed.
+	 */
+	private final ArrayList<Integer> marks = new ArrayList<>();
+	
+	/** The current assumptions. */
+	private final ArrayList<Clause> assumptions = new ArrayList<>();
 
 	public DecisionProcedureEquality(DecisionProcedure component, CalculatorRewriting calc) {
 		super(component, calc);
 		this.rewriters = new Rewriter[] { new RewriterUnify() }; //explicit assignment: no constructor call is allowed before super()
 	}
 
+	@Override
+	protected void pushAssumptionLocal(Clause cSimpl) throws DecisionException {
+		this.marks.add(this.equivalence.mark());
+		this.assumptions.add(cSimpl);
+		super.pushAssumptionLocal(cSimpl);
+	}
+
 	@Override
 	protected void pushAssumptionLocal(ClauseAssume c) {
 		final Primitive p = c.getCondition();
@@ -56,6 +80,27 @@ public final class DecisionProcedureEquality extends DecisionProcedureChainOfRes
 	@Override
 	protected void clearAssumptionsLocal() {
 		this.equivalence.reset();
+		this.marks.clear();
+		this.assumptions.clear();
+	}
+
+	@Override
+	protected boolean canPopAssumptions() {
+		return true;
+	}
+
+	@Override
+	protected void popAssumptionLocal() throws DecisionException {
+		if (this.marks.isEmpty()) {
+			throw new DecisionException("Tried to pop an assumption when there are none.");
+		}
+		this.equivalence.undo(this.marks.remove(this.marks.size() - 1));
+		this.assumptions.remove(this.assumptions.size() - 1);
+	}
+
+	@Override
+	protected Collection<Clause> getAssumptionsLocal() {
+		return Collections.unmodifiableList(new ArrayList<>(this.assumptions));
 	}
 
 	@Override
@@ -335,74 +380,157 @@ public final class DecisionProcedureEquality extends DecisionProcedureChainOfRes
 	}
 	
 	/**
-	 * Union-find partition of primitives.
+	 * Union-find partition of primitives, closed under congruence
+	 * of {@link PrimitiveSymbolicApply} terms. It uses union by rank
+	 * and no path compression, so that every change can be recorded 
+	 * on a trail and later undone.
 	 * 
 	 * @author Pietro Braione
 	 */
 	private static class Partition {
-		private final LinkedHashMap<Primitive, PartitionNode> nodes = new LinkedHashMap<Primitive, PartitionNode>();
+		private final HashMap<Primitive, PartitionNode> nodes = new HashMap<>();
+		
+		/** The {@link PrimitiveSymbolicApply}s in {@link #nodes}, in creation order. */
+		private final ArrayList<PrimitiveSymbolicApply> applications = new ArrayList<>();
+		
+		/** The changes done to the partition, in order. */
+		private final ArrayList<TrailEntry> trail = new ArrayList<>();
 		
 		void union(Primitive elemFirst, Primitive elemSecond) {
+			if (merge(elemFirst, elemSecond) && !this.applications.isEmpty()) {
+				closeCongruence();
+			}
+		}
+		
+		Primitive find(Primitive elem) {
+			final PartitionNode node = this.nodes.get(elem);
+			if (node == null) {
+				return elem;
+			}
+			return findRoot(node).element;
+		}
+		
+		/**
+		 * Returns the size of the trail, to be passed 
+		 * later to {@link #undo(int)}.
+		 * 
+		 * @return an {@code int}.
+		 */
+		int mark() {
+			return this.trail.size();
+		}
+		
+		/**
+		 * Undoes all the changes done after a mark.
+		 * 
+		 * @param mark an {@code int} returned by a previous call 
+		 *        to {@link #mark()}.
+		 */
+		void undo(int mark) {
+			while (this.trail.size() > mark) {
+				final TrailEntry entry = this.trail.remove(this.trail.size() - 1);
+				if (entry.created == null) {
+					entry.lower.parent = entry.lower;
+					if (entry.rankIncremented) {
+						--entry.higher.rank;
+					}
+				} else {
+					this.nodes.remove(entry.created.element);
+					if (entry.created.element instanceof PrimitiveSymbolicApply) {
+						this.applications.remove(this.applications.size() - 1);
+					}
+				}
+			}
+		}
+		
+		void reset() {
+			this.nodes.clear();
+			this.applications.clear();
+			this.trail.clear();
+		}
+		
+		private boolean merge(Primitive elemFirst, Primitive elemSecond) {
 			if (elemFirst.equals(elemSecond)) {
-				return;
+				return false;
 			}
 			final int firstLength = elemFirst.toString().length();
 			final int secondLength = elemSecond.toString().length();
 			final boolean firstShorter = (firstLength < secondLength);
 			final PartitionNode partitionFirst = (firstShorter ? rootNode(elemFirst) : rootNode(elemSecond));
 			final PartitionNode partitionSecond = (firstShorter ? rootNode(elemSecond) : rootNode(elemFirst));
-			final PartitionNode partitionLower, partitionHigher; 
+			if (partitionFirst == partitionSecond) {
+				return false;
+			}
+			final PartitionNode partitionLower, partitionHigher;
+			final boolean rankIncremented;
 			if (partitionFirst.rank < partitionSecond.rank) {
 				partitionLower = partitionFirst;
 				partitionHigher = partitionSecond;
+				rankIncremented = false;
 			} else { 
 				partitionLower = partitionSecond;
 				partitionHigher = partitionFirst;
-				if (partitionLower.rank == partitionHigher.rank) {
+				rankIncremented = (partitionLower.rank == partitionHigher.rank);
+				if (rankIncremented) {
 					++partitionHigher.rank;
 				}
 			}
 			partitionLower.parent = partitionHigher;
+			this.trail.add(new TrailEntry(partitionLower, partitionHigher, rankIncremented));
+			return true;
 		}
 		
-		Primitive find (Primitive elem) {
-			PartitionNode node = this.nodes.get(elem);
-			if (node == null) {
-				return elem;
-			}
-			return findRootAndCompress(node).element;
+		/**
+		 * Merges all the {@link PrimitiveSymbolicApply}s with same
+		 * operator and pairwise equivalent arguments, until 
+		 * a fixpoint is reached. Only the applications whose
+		 * arguments are all {@link Primitive}s are considered, 
+		 * because the external decision procedures treat the 
+		 * other ones as independent atoms.
+		 */
+		private void closeCongruence() {
+			boolean changed;
+			do {
+				changed = false;
+				final HashMap<List<Object>, PrimitiveSymbolicApply> signatures = new HashMap<>();
+				for (PrimitiveSymbolicApply application : this.applications) {
+					if (!allArgsPrimitive(application)) {
+						continue;
+					}
+					final PrimitiveSymbolicApply other = signatures.putIfAbsent(signature(application), application);
+					if (other != null && merge(other, application)) {
+						changed = true;
+					}
+				}
+			} while (changed);
 		}
 		
-		/* aggressive closure, seemingly offers no advantage
-		private static class PrimitivePair {
-			Primitive oldValue;
-			Primitive newValue;
-			PrimitivePair(Primitive oldValue, Primitive newValue) {
-				this.oldValue = oldValue;
-				this.newValue = newValue;
+		private static boolean allArgsPrimitive(PrimitiveSymbolicApply application) {
+			for (Value arg : application.getArgs()) {
+				if (!(arg instanceof Primitive)) {
+					return false;
+				}
 			}
+			return true;
 		}
 		
-		void close(CalculatorRewriting calc, Rewriter[] rewriters) {
-			final ArrayList<PrimitivePair> normalized = new ArrayList<PrimitivePair>();
-			for (final Primitive oldValue : this.nodes.keySet()) {
-				final Primitive newValue = calc.applyRewriters(oldValue, rewriters); 		//TODO may cause divergence!!!!!!!!!
-				normalized.add(new PrimitivePair(oldValue, newValue));
+		private List<Object> signature(PrimitiveSymbolicApply application) {
+			final Value[] args = application.getArgs();
+			final ArrayList<Object> retVal = new ArrayList<>(args.length + 2);
+			retVal.add(application.getOperator());
+			retVal.add(application.getType());
+			for (Value arg : args) {
+				retVal.add(find((Primitive) arg));
 			}
-			for (final PrimitivePair p : normalized) {
-				this.union(p.oldValue, p.newValue);
-			}
-		}*/
-		
-		void reset() {
-			this.nodes.clear();
+			return retVal;
 		}
-
-		private PartitionNode findRootAndCompress(PartitionNode node) {
-			if (node.parent != node) {
-				node.parent = findRootAndCompress(node.parent);
+		
+		private static PartitionNode findRoot(PartitionNode node) {
+			PartitionNode retVal = node;
+			while (retVal.parent != retVal) {
+				retVal = retVal.parent;
 			}
-			return node.parent;
+			return retVal;
 		}
 		
 		private PartitionNode rootNode(Primitive elem) {
@@ -410,8 +538,13 @@ public final class DecisionProcedureEquality extends DecisionProcedureChainOfRes
 			if (elemNode == null) {
 				elemNode = new PartitionNode(elem);
 				this.nodes.put(elem, elemNode);
+				if (elem instanceof PrimitiveSymbolicApply) {
+					this.applications.add((PrimitiveSymbolicApply) elem);
+				}
+				this.trail.add(new TrailEntry(elemNode));
+				return elemNode;
 			}
-			return findRootAndCompress(elemNode);
+			return findRoot(elemNode);
 		}
 		
 		private static class PartitionNode {
@@ -430,5 +563,28 @@ public final class DecisionProcedureEquality extends DecisionProcedureChainOfRes
 				return ">" + this.parent.element +"(r" + this.rank + ")";
 			}
 		}
+		
+		/**
+		 * A change to the partition: Either the creation of 
+		 * a node, or the merge of a root into another one.
+		 */
+		private static class TrailEntry {
+			final PartitionNode created;
+			final PartitionNode lower, higher;
+			final boolean rankIncremented;
+			
+			TrailEntry(PartitionNode created) {
+				this.created = created;
+				this.lower = this.higher = null;
+				this.rankIncremented = false;
+			}
+			
+			TrailEntry(PartitionNode lower, PartitionNode higher, boolean rankIncremented) {
+				this.created = null;
+				this.lower = lower;
+				this.higher = higher;
+				this.rankIncremented = rankIncremented;
+			}
+		}
 	}
 }
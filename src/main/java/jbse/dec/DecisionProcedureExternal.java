@@ -2,6 +2,8 @@ package jbse.dec;
 
 import java.io.IOException;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import jbse.bc.ClassFile;
@@ -19,6 +21,7 @@ import jbse.mem.Objekt;
 import jbse.rewr.CalculatorRewriting;
 import jbse.rewr.Rewriter;
 import jbse.val.Expression;
+import jbse.val.Primitive;
 import jbse.val.PrimitiveSymbolic;
 import jbse.val.ReferenceSymbolic;
 import jbse.val.Simplex;
@@ -233,6 +236,23 @@ public abstract class DecisionProcedureExternal extends DecisionProcedureChainOf
         }
     }
 
+    @Override
+    protected final boolean[] isSatBatchLocal(ClassHierarchy hier, List<Expression> exps, List<Expression> expsSimpl) 
+    throws DecisionException {
+        try {
+            if (this.extIf.isWorking()) {
+                if (this.notInSynch) {
+                    resynch();
+                }
+                return this.extIf.checkSatBatch(hier, new ArrayList<Primitive>(expsSimpl));
+            } else {
+                throw new DecisionException(NOT_WORKING);
+            }
+        } catch (ExternalProtocolInterfaceException | IOException e) {
+            throw new DecisionException(e);
+        }
+    }
+
     @Override
     protected final boolean isSatAliasesLocal(ClassHierarchy hier, ReferenceSymbolic r, long heapPos, Objekt o) 
     throws DecisionException {
@@ -1,6 +1,7 @@
 package jbse.dec;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 
 import jbse.bc.ClassHierarchy;
@@ -152,6 +153,37 @@ public abstract class DecisionProcedureExternalInterface {
     public abstract boolean checkSat(ClassHierarchy hier, boolean positive)
     throws ExternalProtocolInterfaceException, IOException;
 
+    /**
+     * Verifies whether the current assumption is satisfiable 
+     * when put in logical and with each of several numeric 
+     * clauses, independently of each other. Implementations 
+     * may check the clauses concurrently; the default implementation 
+     * sends and checks them one at a time.
+     * 
+     * @param hier a {@link ClassHierarchy}.
+     * @param predicates a {@link List}{@code <}{@link Primitive}{@code >},
+     *        the clauses to check.
+     * @return a {@code boolean[]} whose {@code i}-th element is 
+     *         {@code false} if the decision procedure proves that the 
+     *         current assumption and {@code predicates.get(i)} are 
+     *         not satisfiable, {@code true} otherwise. 
+     * @throws ExternalProtocolInterfaceException if this method is 
+     *         invoked when a current predicate already exists.
+     * @throws IOException if communication with the external 
+     *         decision procedure fails. 
+     */
+    public boolean[] checkSatBatch(ClassHierarchy hier, List<Primitive> predicates)
+    throws ExternalProtocolInterfaceException, IOException {
+        final boolean[] retVal = new boolean[predicates.size()];
+        int i = 0;
+        for (Primitive predicate : predicates) {
+            sendClauseAssume(predicate);
+            retVal[i++] = checkSat(hier, true);
+            retractClause();
+        }
+        return retVal;
+    }
+
     /**
      * Returns a model of the last sent clause whose satisfiability
      * was checked with {@link #checkSat(ClassHierarchy, boolean) checkSat}.
@@ -0,0 +1,459 @@
+package jbse.dec;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jbse.bc.ClassHierarchy;
+import jbse.dec.exc.ExternalProtocolInterfaceException;
+import jbse.dec.exc.NoModelException;
+import jbse.mem.Objekt;
+import jbse.val.Primitive;
+import jbse.val.PrimitiveSymbolic;
+import jbse.val.ReferenceSymbolic;
+import jbse.val.Simplex;
+
+/**
+ * {@link DecisionProcedureExternalInterface} to a pool of external
+ * decision procedures, each accessed through its own
+ * {@link DecisionProcedureExternalInterface} and with its own copy
+ * of the current assumption. Single satisfiability checks are
+ * performed by the first member of the pool, while batches of
+ * independent checks ({@link #checkSatBatch(ClassHierarchy, List)})
+ * are distributed among all the members and performed concurrently.
+ * A member that crashes or that does not answer within a timeout
+ * is killed and restarted, and its pending checks are resubmitted
+ * to the restarted member. Only if the restarted member fails as
+ * well the check fails with an {@link ExternalProtocolInterfaceException}
+ * that reports it, since considering the unanswered checks satisfiable
+ * might make the symbolic execution explore infeasible paths.
+ *
+ * @author Pietro Braione
+ */
+class DecisionProcedureExternalInterfacePool extends DecisionProcedureExternalInterface {
+    /**
+     * Creates the members of the pool.
+     */
+    @FunctionalInterface
+    interface Factory {
+        DecisionProcedureExternalInterface make() throws ExternalProtocolInterfaceException, IOException;
+    }
+
+    /**
+     * Sends a clause to a member of the pool.
+     */
+    @FunctionalInterface
+    private interface Sender {
+        void sendTo(DecisionProcedureExternalInterface member) throws ExternalProtocolInterfaceException, IOException;
+    }
+
+    /**
+     * Performs some satisfiability checks on a member of the pool.
+     */
+    @FunctionalInterface
+    private interface Task {
+        void runOn(DecisionProcedureExternalInterface member) throws ExternalProtocolInterfaceException, IOException;
+    }
+
+    /**
+     * A clause pushed to the current assumption,
+     * to be replayed on restarted members.
+     */
+    private static final class Frame {
+        final Sender sender;
+        final boolean positive;
+
+        Frame(Sender sender, boolean positive) {
+            this.sender = sender;
+            this.positive = positive;
+        }
+    }
+
+    private final Factory factory;
+    private final DecisionProcedureExternalInterface[] members;
+    private final long queryTimeoutMillis;
+    private final ExecutorService executor;
+    private final ArrayList<Frame> frames = new ArrayList<>();
+    private Sender currentClause = null;
+    private boolean working;
+
+    /**
+     * Constructor.
+     *
+     * @param factory a {@link Factory} for the members of the pool.
+     * @param numOfMembers an {@code int}, the number of members of the
+     *        pool. It must be positive.
+     * @param queryTimeout a {@code long}, the maximum time a member of
+     *        the pool may take to check the satisfiability of a clause
+     *        before being restarted. If it is not positive, there is
+     *        no timeout.
+     * @param timeUnit the {@link TimeUnit} of {@code queryTimeout}.
+     * @throws ExternalProtocolInterfaceException if the creation of a
+     *         member fails.
+     * @throws IOException if the creation of a member fails.
+     */
+    DecisionProcedureExternalInterfacePool(Factory factory, int numOfMembers, long queryTimeout, TimeUnit timeUnit)
+    throws ExternalProtocolInterfaceException, IOException {
+        this.factory = factory;
+        this.members = new DecisionProcedureExternalInterface[numOfMembers];
+        for (int k = 0; k < numOfMembers; ++k) {
+            this.members[k] = factory.make();
+        }
+        this.queryTimeoutMillis = timeUnit.toMillis(queryTimeout);
+        final AtomicInteger threadNumber = new AtomicInteger(1);
+        this.executor = Executors.newFixedThreadPool(numOfMembers, r -> {
+            final Thread t = new Thread(r, "jbse-solver-pool-" + threadNumber.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+        this.working = true;
+    }
+
+    @Override
+    public boolean isWorking() {
+        return this.working;
+    }
+
+    private void setCurrentClause(Sender sender) throws ExternalProtocolInterfaceException {
+        if (this.currentClause != null) {
+            throw new ExternalProtocolInterfaceException("Attempted to send a clause when a current clause already exists.");
+        }
+        this.currentClause = sender;
+    }
+
+    @Override
+    public void sendClauseAssume(Primitive predicate)
+    throws ExternalProtocolInterfaceException {
+        setCurrentClause(m -> m.sendClauseAssume(predicate));
+    }
+
+    @Override
+    public void sendClauseAssumeAliases(ReferenceSymbolic r, long heapPos, Objekt o)
+    throws ExternalProtocolInterfaceException {
+        setCurrentClause(m -> m.sendClauseAssumeAliases(r, heapPos, o));
+    }
+
+    @Override
+    public void sendClauseAssumeExpands(ReferenceSymbolic r, String className)
+    throws ExternalProtocolInterfaceException {
+        setCurrentClause(m -> m.sendClauseAssumeExpands(r, className));
+    }
+
+    @Override
+    public void sendClauseAssumeNull(ReferenceSymbolic r)
+    throws ExternalProtocolInterfaceException {
+        setCurrentClause(m -> m.sendClauseAssumeNull(r));
+    }
+
+    @Override
+    public void sendClauseAssumeClassInitialized(String className)
+    throws ExternalProtocolInterfaceException {
+        setCurrentClause(m -> m.sendClauseAssumeClassInitialized(className));
+    }
+
+    @Override
+    public void sendClauseAssumeClassNotInitialized(String className)
+    throws ExternalProtocolInterfaceException {
+        setCurrentClause(m -> m.sendClauseAssumeClassNotInitialized(className));
+    }
+
+    @Override
+    public void retractClause() throws ExternalProtocolInterfaceException {
+        if (this.currentClause == null) {
+            throw new ExternalProtocolInterfaceException("Attempted to retract a clause with no current clause.");
+        }
+        this.currentClause = null;
+    }
+
+    @Override
+    public boolean checkSat(ClassHierarchy hier, boolean positive)
+    throws ExternalProtocolInterfaceException, IOException {
+        if (this.currentClause == null) {
+            throw new ExternalProtocolInterfaceException("Attempted to check satisfiability with no current clause.");
+        }
+        final Sender clause = this.currentClause;
+        final boolean[] retVal = { true };
+        boolean answered = false;
+        try {
+            final ExternalProtocolInterfaceException failure = runOrRetry(0, member -> {
+                clause.sendTo(member);
+                retVal[0] = member.checkSat(hier, positive);
+                member.retractClause();
+            }, 1);
+            if (failure != null) {
+                throw failure;
+            }
+            answered = true;
+            return retVal[0];
+        } finally {
+            //on failure the caller does not retract the clause,
+            //that otherwise would block all the subsequent checks
+            if (!answered) {
+                this.currentClause = null;
+            }
+        }
+    }
+
+    @Override
+    public boolean[] checkSatBatch(ClassHierarchy hier, List<Primitive> predicates)
+    throws ExternalProtocolInterfaceException, IOException {
+        if (this.currentClause != null) {
+            throw new ExternalProtocolInterfaceException("Attempted to check a batch of clauses when a current clause already exists.");
+        }
+        final int nPredicates = predicates.size();
+        final boolean[] retVal = new boolean[nPredicates];
+        final int nTasks = Math.min(this.members.length, nPredicates);
+        final ArrayList<Task> tasks = new ArrayList<>();
+        final ArrayList<Future<?>> futures = new ArrayList<>();
+        for (int k = 0; k < nTasks; ++k) {
+            final int first = k;
+            final Task task = member -> {
+                for (int i = first; i < nPredicates; i += nTasks) {
+                    member.sendClauseAssume(predicates.get(i));
+                    retVal[i] = member.checkSat(hier, true);
+                    member.retractClause();
+                }
+            };
+            tasks.add(task);
+            futures.add(submit(k, task));
+        }
+        
+        //waits for all the members, so none is still working
+        //when the failure of one of them is reported, and 
+        //resubmits the tasks of the failed members to the
+        //restarted ones
+        final ArrayList<Integer> failed = new ArrayList<>();
+        RuntimeException crash = null;
+        for (int k = 0; k < nTasks; ++k) {
+            try {
+                if (awaitOrRestart(k, futures.get(k), nQueries(k, nPredicates, nTasks)) != null) {
+                    failed.add(k);
+                    futures.set(k, submit(k, tasks.get(k)));
+                }
+            } catch (RuntimeException e) {
+                //the member was restarted, the other members 
+                //must be waited before reporting the crash
+                if (crash == null) {
+                    crash = e;
+                } else {
+                    crash.addSuppressed(e);
+                }
+            }
+        }
+        if (crash != null) {
+            for (int k : failed) {
+                try {
+                    awaitOrRestart(k, futures.get(k), nQueries(k, nPredicates, nTasks));
+                } catch (RuntimeException e) {
+                    crash.addSuppressed(e);
+                }
+            }
+            throw crash;
+        }
+        ExternalProtocolInterfaceException failure = null;
+        for (int k : failed) {
+            final ExternalProtocolInterfaceException failureMember = awaitOrRestart(k, futures.get(k), nQueries(k, nPredicates, nTasks));
+            if (failure == null) {
+                failure = failureMember;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return retVal;
+    }
+
+    private static int nQueries(int k, int nPredicates, int nTasks) {
+        return (nPredicates - k + nTasks - 1) / nTasks;
+    }
+
+    private Future<?> submit(int k, Task task) {
+        final DecisionProcedureExternalInterface member = this.members[k];
+        return this.executor.submit(() -> {
+            task.runOn(member);
+            return null;
+        });
+    }
+
+    /**
+     * Runs a task on a member of the pool and, if the member
+     * crashes or exceeds the timeout, restarts it and runs the
+     * task again on the restarted member.
+     *
+     * @param k an {@code int}, the index of the member.
+     * @param task the {@link Task} to run.
+     * @param nQueries an {@code int}, the number of satisfiability
+     *        checks performed by the task.
+     * @return {@code null} if the task was completed, otherwise
+     *         an {@link ExternalProtocolInterfaceException} reporting
+     *         that the restarted member failed as well.
+     * @throws ExternalProtocolInterfaceException if the member
+     *         cannot be restarted, or if the wait is interrupted.
+     * @throws IOException if the member cannot be restarted.
+     */
+    private ExternalProtocolInterfaceException runOrRetry(int k, Task task, int nQueries)
+    throws ExternalProtocolInterfaceException, IOException {
+        if (awaitOrRestart(k, submit(k, task), nQueries) == null) {
+            return null;
+        }
+        return awaitOrRestart(k, submit(k, task), nQueries);
+    }
+
+    /**
+     * Waits for a member of the pool to complete a task,
+     * and restarts it if it crashes or exceeds the timeout.
+     *
+     * @param k an {@code int}, the index of the member.
+     * @param future the {@link Future} of the task.
+     * @param nQueries an {@code int}, the number of satisfiability
+     *        checks performed by the task.
+     * @return {@code null} if the member completed the task, otherwise
+     *         an {@link ExternalProtocolInterfaceException} reporting
+     *         that the member crashed or exceeded the timeout (and was
+     *         restarted).
+     * @throws ExternalProtocolInterfaceException if the member
+     *         cannot be restarted, or if the wait is interrupted.
+     * @throws IOException if the member cannot be restarted.
+     */
+    private ExternalProtocolInterfaceException awaitOrRestart(int k, Future<?> future, int nQueries)
+    throws ExternalProtocolInterfaceException, IOException {
+        try {
+            if (this.queryTimeoutMillis > 0) {
+                future.get(this.queryTimeoutMillis * nQueries, TimeUnit.MILLISECONDS);
+            } else {
+                future.get();
+            }
+            return null;
+        } catch (TimeoutException e) {
+            //the member hangs: kills it (this also
+            //terminates the task) and restarts it
+            this.members[k].fail();
+            awaitTermination(future);
+            restart(k);
+            return new ExternalProtocolInterfaceException("The solver " + k + " of the pool did not answer " + nQueries + 
+                                                          " queries within " + (this.queryTimeoutMillis * nQueries) + " ms.");
+        } catch (ExecutionException e) {
+            //the member crashed, or was left at an unknown 
+            //point of the protocol: restarts it
+            final Throwable cause = e.getCause();
+            this.members[k].fail();
+            if (cause instanceof RuntimeException || cause instanceof Error) {
+                try {
+                    restart(k);
+                } catch (ExternalProtocolInterfaceException | IOException | RuntimeException eRestart) {
+                    cause.addSuppressed(eRestart);
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw (Error) cause;
+            }
+            restart(k);
+            return new ExternalProtocolInterfaceException((Exception) cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail();
+            throw new ExternalProtocolInterfaceException(e);
+        }
+    }
+
+    private static void awaitTermination(Future<?> future) {
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            //expected, since the member was killed
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Replaces a member of the pool with a fresh one,
+     * and pushes on it the current assumption.
+     *
+     * @param k an {@code int}, the index of the member.
+     * @throws ExternalProtocolInterfaceException if the creation
+     *         of the member fails.
+     * @throws IOException if the creation of the member fails.
+     */
+    private void restart(int k) throws ExternalProtocolInterfaceException, IOException {
+        try {
+            final DecisionProcedureExternalInterface member = this.factory.make();
+            for (Frame frame : this.frames) {
+                frame.sender.sendTo(member);
+                member.pushAssumption(frame.positive);
+            }
+            this.members[k] = member;
+        } catch (ExternalProtocolInterfaceException | IOException | RuntimeException e) {
+            fail();
+            throw e;
+        }
+    }
+
+    @Override
+    public Map<PrimitiveSymbolic, Simplex> getModel()
+    throws NoModelException, ExternalProtocolInterfaceException, IOException {
+        return this.members[0].getModel();
+    }
+
+    @Override
+    public void pushAssumption(boolean positive)
+    throws ExternalProtocolInterfaceException, IOException {
+        if (this.currentClause == null) {
+            throw new ExternalProtocolInterfaceException("attempted to push assumption with no current clause");
+        }
+        final Frame frame = new Frame(this.currentClause, positive);
+        this.frames.add(frame);
+        this.currentClause = null;
+        for (DecisionProcedureExternalInterface member : this.members) {
+            frame.sender.sendTo(member);
+            member.pushAssumption(positive);
+        }
+    }
+
+    @Override
+    public void popAssumption()
+    throws ExternalProtocolInterfaceException, IOException {
+        this.frames.remove(this.frames.size() - 1);
+        for (DecisionProcedureExternalInterface member : this.members) {
+            member.popAssumption();
+        }
+    }
+
+    @Override
+    public void clear()
+    throws ExternalProtocolInterfaceException, IOException {
+        this.frames.clear();
+        this.currentClause = null;
+        for (DecisionProcedureExternalInterface member : this.members) {
+            member.clear();
+        }
+    }
+
+    @Override
+    public void quit()
+    throws ExternalProtocolInterfaceException, IOException {
+        this.working = false;
+        this.executor.shutdownNow();
+        for (DecisionProcedureExternalInterface member : this.members) {
+            member.quit();
+        }
+    }
+
+    @Override
+    public void fail() {
+        this.working = false;
+        this.executor.shutdownNow();
+        for (DecisionProcedureExternalInterface member : this.members) {
+            member.fail();
+        }
+    }
+}
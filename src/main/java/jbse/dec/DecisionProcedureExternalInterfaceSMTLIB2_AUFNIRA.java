@@ -11,6 +11,7 @@ import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Stack;
 
 import jbse.bc.ClassHierarchy;
@@ -68,6 +69,10 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
     
     //etc
     private static final String OTHER = "";
+    
+    //maximum number of commands sent with a single write, 
+    //to avoid filling the solver's output pipe before reading
+    private static final int MAX_COMMANDS_PER_WRITE = 1024;
 
     private final CalculatorRewriting calc;
     private final ExpressionMangler m;
@@ -82,6 +87,32 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
     private ArrayList<Integer> nSymPushed; 
     private int nSymCurrent;
     private int nTotalSymbols;
+    
+    /** 
+     * The frames (one per pushed assumption, {@code null} 
+     * for the assumptions that send nothing) currently 
+     * in the solver's assertion stack. 
+     */
+    private final ArrayList<String> framesSolver = new ArrayList<>();
+    
+    /** 
+     * The frames (one per pushed assumption, {@code null} 
+     * for the assumptions that send nothing) that must be 
+     * in the solver's assertion stack before the next query. 
+     */
+    private final ArrayList<String> frames = new ArrayList<>();
+    
+    /** 
+     * The number of the bottommost frames in {@link #frames}
+     * that coincide with those in {@link #framesSolver}.
+     */
+    private int nFramesSynched = 0;
+    
+    /** 
+     * The number of levels pushed on the solver's assertion stack 
+     * above {@link #framesSolver} to check a clause, and not yet popped.
+     */
+    private int nLevelsChecked = 0;
 
     /** 
      * Costructor.
@@ -213,16 +244,17 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
         if (queryPush == null) {
             return true;
         }
-        sendAndCheckAnswer(queryPush);
-        final boolean isSat = sendAndCheckAnswerChecksat();
-        sendAndCheckAnswer(POP_1);
+        //sends everything with one write, and 
+        //postpones popping the checked clause
+        final boolean isSat = sendAndCheckAnswerChecksat(synchQuery() + queryPush);
+        this.nLevelsChecked = 1;
         return isSat;
     }
     
     @Override
     public Map<PrimitiveSymbolic, Simplex> getModel() 
     throws NoModelException, ExternalProtocolInterfaceException, IOException {
-        sendAndCheckAnswerChecksat(); //always need a checksat before reading a model
+        sendAndCheckAnswerChecksat(synchQuery()); //always need a checksat before reading a model
         final String smtlib2Model = sendAndCheckAnswerGetmodel();
         if (smtlib2Model == null || smtlib2Model.startsWith("(error")) {
             throw new NoModelException();
@@ -388,31 +420,68 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
         this.hasCurrentClause = false;
         rememberPushedDeclarations();
         
-        String queryPush = (value ? this.currentClausePositive : this.currentClauseNegative);
-        if (queryPush == null) {
-            queryPush = PUSH_1; //TODO avoid empty pushes
+        //the frame is not sent now, but with the next query
+        final String queryPush = (value ? this.currentClausePositive : this.currentClauseNegative);
+        final int depth = this.frames.size();
+        this.frames.add(queryPush);
+        if (this.nFramesSynched == depth && depth < this.framesSolver.size() &&
+            Objects.equals(queryPush, this.framesSolver.get(depth))) {
+            //the frame is already in the solver
+            ++this.nFramesSynched;
         }
-        sendAndCheckAnswer(queryPush);
     }
 
     @Override
     public void popAssumption() throws ExternalProtocolInterfaceException, IOException {
         forgetPoppedDeclarations();
-        sendAndCheckAnswer(POP_1);
+        this.frames.remove(this.frames.size() - 1);
+        this.nFramesSynched = Math.min(this.nFramesSynched, this.frames.size());
     }
 
     @Override
     public void clear() 
     throws ExternalProtocolInterfaceException, IOException {
-        final int nToPop = (this.nSymPushed == null ? 0 : this.nSymPushed.size());
-        if (nToPop > 0) {
-            sendAndCheckAnswer(POP_BEGIN + nToPop + POP_END);
-        }
+        //the frames are not popped now, but with the next query, 
+        //so the bottommost ones can be reused if pushed again
+        this.frames.clear();
+        this.nFramesSynched = 0;
         this.currentClausePositive = this.currentClauseNegative = null;
         this.hasCurrentClause = false;
         forgetAllDeclarations();
     }
     
+    /**
+     * Builds the query that synchronizes the solver's assertion
+     * stack with {@link #frames}, by popping the solver's stack
+     * down to the longest common prefix and then pushing the 
+     * nonempty missing frames, and assumes that the query will 
+     * be sent. 
+     * 
+     * @return a {@link String}, possibly empty.
+     */
+    private String synchQuery() {
+        final StringBuilder query = new StringBuilder();
+        int nLevelsToPop = this.nLevelsChecked;
+        for (int i = this.nFramesSynched; i < this.framesSolver.size(); ++i) {
+            if (this.framesSolver.get(i) != null) {
+                ++nLevelsToPop;
+            }
+        }
+        if (nLevelsToPop > 0) {
+            query.append(nLevelsToPop == 1 ? POP_1 : POP_BEGIN + nLevelsToPop + POP_END);
+        }
+        for (int i = this.nFramesSynched; i < this.frames.size(); ++i) {
+            if (this.frames.get(i) != null) {
+                query.append(this.frames.get(i));
+            }
+        }
+        this.framesSolver.subList(this.nFramesSynched, this.framesSolver.size()).clear();
+        this.framesSolver.addAll(this.frames.subList(this.nFramesSynched, this.frames.size()));
+        this.nFramesSynched = this.frames.size();
+        this.nLevelsChecked = 0;
+        return query.toString();
+    }
+    
     private void send(String query) throws IOException {
         //System.err.print("--->SMTLIB2: " + query); //TODO log differently!
 
@@ -426,20 +495,53 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
     }
     
     private void sendAndCheckAnswer(String query) throws IOException, ExternalProtocolInterfaceException {
-        send(query);
-        for (int i = 0; i < query.length(); ++i) {
-            if (query.charAt(i) == '\n') {
+        sendAndCheckAnswer(query, "");
+    }
+    
+    /**
+     * Sends a query whose commands must all be answered with 
+     * success, followed by a last command whose answer is 
+     * not read. Commands are sent in as few writes as possible, 
+     * but at most {@link #MAX_COMMANDS_PER_WRITE} commands are 
+     * sent before reading their answers.
+     * 
+     * @param query a {@link String}, a sequence of commands 
+     *        (one per line).
+     * @param queryLast a {@link String}, the last command
+     *        (possibly empty).
+     * @throws IOException if the communication with the solver fails.
+     * @throws ExternalProtocolInterfaceException if the solver
+     *         does not answer success to any command in {@code query}.
+     */
+    private void sendAndCheckAnswer(String query, String queryLast) throws IOException, ExternalProtocolInterfaceException {
+        int start = 0;
+        do {
+            int end = start;
+            int nCommands = 0;
+            while (end < query.length() && nCommands < MAX_COMMANDS_PER_WRITE) {
+                if (query.charAt(end) == '\n') {
+                    ++nCommands;
+                }
+                ++end;
+            }
+            final String chunk = query.substring(start, end);
+            final String toSend = (end == query.length() ? chunk + queryLast : chunk);
+            if (!toSend.isEmpty()) {
+                send(toSend);
+            }
+            for (int i = 0; i < nCommands; ++i) {
                 final String answer = read();
                 if (answer == null) {
                     this.working = false;
-                    throw new IOException("failed read of solver answer. Query: " + query + ", failed at character " + i);
+                    throw new IOException("failed read of solver answer. Query: " + chunk + ", failed at command " + i);
                 }
                 if (!answer.equals(SUCCESS)) {
                     this.working = false;
                     throw new ExternalProtocolInterfaceException("unexpected solver answer. Message: " + answer);
                 }
             }
-        }
+            start = end;
+        } while (start < query.length());
     }
     
     private String read() throws IOException {
@@ -452,15 +554,15 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
         }
         if (answer == null) {
             this.working = false;
-            throw new IOException("failed read of solver output, premature end of stream reached, process alive: " + this.solver.isAlive() + ", exit value: " + this.solver.exitValue());
+            throw new IOException("failed read of solver output, premature end of stream reached, process alive: " + this.solver.isAlive() + ", exit value: " + (this.solver.isAlive() ? "none" : this.solver.exitValue()));
         }
 
         //System.err.println("<---SMTLIB2: " + answer); //TODO log differently!
         return answer;
     }
     
-    private boolean sendAndCheckAnswerChecksat() throws IOException, ExternalProtocolInterfaceException {
-        send(CHECKSAT);
+    private boolean sendAndCheckAnswerChecksat(String queryBefore) throws IOException, ExternalProtocolInterfaceException {
+        sendAndCheckAnswer(queryBefore, CHECKSAT);
         final String answer = read();
         if (!answer.equals(SAT) && !answer.equals(UNSAT) && !answer.equals(UNKNOWN)) {
             this.working = false;
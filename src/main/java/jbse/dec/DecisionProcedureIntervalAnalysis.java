@@ -0,0 +1,578 @@
+package jbse.dec;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+
+import jbse.bc.ClassHierarchy;
+import jbse.common.Type;
+import jbse.dec.exc.DecisionException;
+import jbse.mem.Clause;
+import jbse.mem.ClauseAssume;
+import jbse.rewr.CalculatorRewriting;
+import jbse.val.Any;
+import jbse.val.Expression;
+import jbse.val.Operator;
+import jbse.val.Primitive;
+import jbse.val.Simplex;
+import jbse.val.WideningConversion;
+
+/**
+ * Decides comparisons between numeric expressions by keeping,
+ * for every term that occurs in the assumptions in the form
+ * {@code term + number rel_op number} or
+ * {@code term + number rel_op term + number}, an interval
+ * that bounds its possible values. The intervals are refined
+ * at every assumption, and are restored on pop by undoing the
+ * refinements recorded on a trail. A query is detected as
+ * unsatisfiable when it empties the interval of some term;
+ * conjunctions and disjunctions (e.g., array bounds checks)
+ * and their negations are decided as well. As the solvers
+ * in the chain, numbers are treated as mathematical integers
+ * (integral types) or reals (floating types), i.e., neither
+ * overflow nor rounding is considered.
+ *
+ * @author Pietro Braione
+ *
+ */
+public final class DecisionProcedureIntervalAnalysis extends DecisionProcedureChainOfResponsibility {
+    /**
+     * The biggest magnitude up to which all the
+     * integers are exactly represented as {@code double}s.
+     */
+    private static final double MAX_EXACT = 9007199254740992.0; //2^53
+
+    /**
+     * An interval of numbers, possibly open at either end.
+     *
+     * @author Pietro Braione
+     *
+     */
+    private static final class Interval {
+        /** The interval of all the numbers. */
+        static final Interval TOP = new Interval(Double.NEGATIVE_INFINITY, true, Double.POSITIVE_INFINITY, true);
+
+        final double lo;
+        final boolean loOpen;
+        final double hi;
+        final boolean hiOpen;
+
+        Interval(double lo, boolean loOpen, double hi, boolean hiOpen) {
+            this.lo = lo;
+            this.loOpen = loOpen;
+            this.hi = hi;
+            this.hiOpen = hiOpen;
+        }
+
+        static Interval below(double hi, boolean hiOpen) {
+            return new Interval(Double.NEGATIVE_INFINITY, true, hi, hiOpen);
+        }
+
+        static Interval above(double lo, boolean loOpen) {
+            return new Interval(lo, loOpen, Double.POSITIVE_INFINITY, true);
+        }
+
+        boolean isEmpty() {
+            return this.lo > this.hi || (this.lo == this.hi && (this.loOpen || this.hiOpen));
+        }
+
+        /**
+         * Intersects this interval with another one.
+         *
+         * @param other an {@link Interval}.
+         * @return an {@link Interval}, the intersection
+         *         of {@code this} and {@code other}, or
+         *         {@code this} if it is contained in
+         *         {@code other}.
+         */
+        Interval meet(Interval other) {
+            final boolean loThis = (this.lo > other.lo || (this.lo == other.lo && (this.loOpen || !other.loOpen)));
+            final boolean hiThis = (this.hi < other.hi || (this.hi == other.hi && (this.hiOpen || !other.hiOpen)));
+            if (loThis && hiThis) {
+                return this;
+            }
+            return new Interval((loThis ? this.lo : other.lo), (loThis ? this.loOpen : other.loOpen),
+                                (hiThis ? this.hi : other.hi), (hiThis ? this.hiOpen : other.hiOpen));
+        }
+
+        /**
+         * Restricts this interval to the integers.
+         *
+         * @return the smallest closed {@link Interval} with
+         *         integer ends that contains the same integers
+         *         of {@code this} (or {@code this}, if it is
+         *         already such an interval).
+         */
+        Interval integral() {
+            final double loNew = (Double.isInfinite(this.lo) ? this.lo : this.loOpen ? Math.floor(this.lo) + 1 : Math.ceil(this.lo));
+            final double hiNew = (Double.isInfinite(this.hi) ? this.hi : this.hiOpen ? Math.ceil(this.hi) - 1 : Math.floor(this.hi));
+            final boolean loOpenNew = Double.isInfinite(loNew);
+            final boolean hiOpenNew = Double.isInfinite(hiNew);
+            if (loNew == this.lo && hiNew == this.hi && loOpenNew == this.loOpen && hiOpenNew == this.hiOpen) {
+                return this;
+            }
+            return new Interval(loNew, loOpenNew, hiNew, hiOpenNew);
+        }
+    }
+
+    /**
+     * A term plus a number, or just a number
+     * (if the term is {@code null}).
+     *
+     * @author Pietro Braione
+     *
+     */
+    private static final class Linear {
+        final Primitive term;
+        final double offset;
+
+        Linear(Primitive term, double offset) {
+            this.term = term;
+            this.offset = offset;
+        }
+    }
+
+    /**
+     * A refinement of the interval of a term,
+     * recorded to be undone.
+     *
+     * @author Pietro Braione
+     *
+     */
+    private static final class TrailEntry {
+        final Primitive term;
+        final Interval previous;
+
+        TrailEntry(Primitive term, Interval previous) {
+            this.term = term;
+            this.previous = previous;
+        }
+    }
+
+    /** The current intervals of the terms. */
+    private final HashMap<Primitive, Interval> intervals = new HashMap<>();
+
+    /** The refinements of the intervals, in the order they were done. */
+    private final ArrayList<TrailEntry> trail = new ArrayList<>();
+
+    /**
+     * The sizes of {@link #trail} before each of
+     * the assumptions in {@link #assumptions} was pushed.
+     */
+    private final ArrayList<Integer> marks = new ArrayList<>();
+
+    /** The current assumptions. */
+    private final ArrayList<Clause> assumptions = new ArrayList<>();
+
+    /**
+     * Constructor.
+     *
+     * @param next The next {@link DecisionProcedure} in the
+     *        Chain Of Responsibility.
+     * @param calc a {@link CalculatorRewriting}.
+     */
+    public DecisionProcedureIntervalAnalysis(DecisionProcedure next, CalculatorRewriting calc) {
+        super(next, calc);
+    }
+
+    @Override
+    protected void pushAssumptionLocal(Clause cSimpl) throws DecisionException {
+        this.marks.add(this.trail.size());
+        this.assumptions.add(cSimpl);
+        super.pushAssumptionLocal(cSimpl);
+    }
+
+    @Override
+    protected void pushAssumptionLocal(ClauseAssume c) {
+        assume(c.getCondition(), true);
+    }
+
+    @Override
+    protected void clearAssumptionsLocal() {
+        this.intervals.clear();
+        this.trail.clear();
+        this.marks.clear();
+        this.assumptions.clear();
+    }
+
+    @Override
+    protected boolean canPopAssumptions() {
+        return true;
+    }
+
+    @Override
+    protected void popAssumptionLocal() throws DecisionException {
+        if (this.marks.isEmpty()) {
+            throw new DecisionException("Tried to pop an assumption when there are none.");
+        }
+        undo(this.marks.remove(this.marks.size() - 1));
+        this.assumptions.remove(this.assumptions.size() - 1);
+    }
+
+    @Override
+    protected Collection<Clause> getAssumptionsLocal() {
+        return Collections.unmodifiableList(new ArrayList<>(this.assumptions));
+    }
+
+    @Override
+    protected boolean isSatLocal(ClassHierarchy hier, Expression exp, Expression expSimpl) {
+        final int mark = this.trail.size();
+        final boolean retVal = assume(expSimpl, true);
+        undo(mark);
+        return retVal; //if true, either sat or out of the theory
+    }
+
+    /**
+     * Undoes the refinements of the intervals
+     * done after a given point.
+     *
+     * @param mark an {@code int}, the size of
+     *        {@link #trail} at that point.
+     */
+    private void undo(int mark) {
+        for (int i = this.trail.size() - 1; i >= mark; --i) {
+            final TrailEntry e = this.trail.remove(i);
+            if (e.previous == null) {
+                this.intervals.remove(e.term);
+            } else {
+                this.intervals.put(e.term, e.previous);
+            }
+        }
+    }
+
+    /**
+     * Refines the intervals of the terms by assuming
+     * a predicate.
+     *
+     * @param p a {@link Primitive} with boolean type.
+     * @param positive {@code true} if {@code p} must be
+     *        assumed, {@code false} if its negation must.
+     * @return {@code false} iff the assumption empties the
+     *         interval of some term, i.e., it is surely
+     *         unsatisfiable.
+     */
+    private boolean assume(Primitive p, boolean positive) {
+        if (p instanceof Simplex) {
+            final Object value = ((Simplex) p).getActualValue();
+            return (value instanceof Boolean ? ((Boolean) value).booleanValue() == positive : true);
+        }
+        if (!(p instanceof Expression)) {
+            return true; //out of the theory
+        }
+        final Expression e = (Expression) p;
+        final Operator operator = e.getOperator();
+        switch (operator) {
+        case NOT:
+            return assume(e.getOperand(), !positive);
+        case AND:
+            if (positive) {
+                return assume(e.getFirstOperand(), true) && assume(e.getSecondOperand(), true);
+            } else {
+                return assumeDisjunction(e.getFirstOperand(), e.getSecondOperand(), false);
+            }
+        case OR:
+            if (positive) {
+                return assumeDisjunction(e.getFirstOperand(), e.getSecondOperand(), true);
+            } else {
+                return assume(e.getFirstOperand(), false) && assume(e.getSecondOperand(), false);
+            }
+        case EQ:
+        case NE:
+        case LT:
+        case LE:
+        case GT:
+        case GE:
+            return assumeComparison(e.getFirstOperand(), (positive ? operator : negate(operator)), e.getSecondOperand());
+        default:
+            return true; //out of the theory
+        }
+    }
+
+    /**
+     * Checks a disjunction. Since the intervals cannot
+     * represent it, it does not refine them.
+     *
+     * @param first a {@link Primitive}, the first disjunct.
+     * @param second a {@link Primitive}, the second disjunct.
+     * @param positive {@code true} if {@code first} and {@code second}
+     *        must be taken as they are, {@code false} if their negations
+     *        must.
+     * @return {@code false} iff both the disjuncts are surely
+     *         unsatisfiable.
+     */
+    private boolean assumeDisjunction(Primitive first, Primitive second, boolean positive) {
+        final int mark = this.trail.size();
+        final boolean firstSat = assume(first, positive);
+        undo(mark);
+        if (firstSat) {
+            return true;
+        }
+        final boolean secondSat = assume(second, positive);
+        undo(mark);
+        return secondSat;
+    }
+
+    private static Operator negate(Operator operator) {
+        switch (operator) {
+        case EQ:
+            return Operator.NE;
+        case NE:
+            return Operator.EQ;
+        case LT:
+            return Operator.GE;
+        case LE:
+            return Operator.GT;
+        case GT:
+            return Operator.LE;
+        default: //GE
+            return Operator.LT;
+        }
+    }
+
+    private boolean assumeComparison(Primitive first, Operator operator, Primitive second) {
+        final char type = first.getType();
+        if (!isNumeric(type) || !isNumeric(second.getType())) {
+            return true; //out of the theory
+        }
+        final boolean integral = Type.isPrimitiveIntegral(type);
+        final Linear l1 = linear(first);
+        final Linear l2 = linear(second);
+        if (l1 == null || l2 == null || (l1.term == null && l2.term == null)) {
+            return true; //out of the theory, or left to simplification
+        }
+        if (l1.term == null) {
+            //number rel_op term + number
+            return assumeComparison(l2, operator.twist(), l1.offset, integral);
+        }
+        if (l2.term == null) {
+            //term + number rel_op number
+            return assumeComparison(l1, operator, l2.offset, integral);
+        }
+
+        //term1 + number1 rel_op term2 + number2, i.e.,
+        //term1 rel_op term2 + k with k == number2 - number1
+        final double k = l2.offset - l1.offset;
+        if (Math.abs(k) > MAX_EXACT) {
+            return true; //too big to be treated exactly
+        }
+        if (l1.term.equals(l2.term)) {
+            return compare(0, operator, k);
+        }
+        switch (operator) {
+        case EQ:
+            return restrict(l1.term, shift(interval(l2.term), k), integral) &&
+                   restrict(l2.term, shift(interval(l1.term), -k), integral);
+        case NE:
+            return true; //no refinement
+        case LT:
+        case LE:
+            return assumeLess(l1.term, l2.term, k, operator == Operator.LT, integral);
+        default: //GT, GE
+            //term1 > term2 + k iff term2 < term1 - k
+            return assumeLess(l2.term, l1.term, -k, operator == Operator.GT, integral);
+        }
+    }
+
+    /**
+     * Assumes {@code term < number} or similar.
+     */
+    private boolean assumeComparison(Linear l, Operator operator, double number, boolean integral) {
+        //term + offset rel_op number iff term rel_op number - offset
+        final double bound = number - l.offset;
+        if (Math.abs(bound) > MAX_EXACT && integral) {
+            return true; //too big to be treated exactly
+        }
+        switch (operator) {
+        case EQ:
+            return restrict(l.term, new Interval(bound, false, bound, false), integral);
+        case NE: {
+            final Interval current = interval(l.term);
+            if (current.lo == bound && current.hi == bound) {
+                return restrict(l.term, Interval.below(bound, true), integral);
+            } else if (integral && current.lo == bound) {
+                return restrict(l.term, Interval.above(bound, true), integral);
+            } else if (integral && current.hi == bound) {
+                return restrict(l.term, Interval.below(bound, true), integral);
+            } else {
+                return true; //no refinement
+            }
+        }
+        case LT:
+            return restrict(l.term, Interval.below(bound, true), integral);
+        case LE:
+            return restrict(l.term, Interval.below(bound, false), integral);
+        case GT:
+            return restrict(l.term, Interval.above(bound, true), integral);
+        default: //GE
+            return restrict(l.term, Interval.above(bound, false), integral);
+        }
+    }
+
+    /**
+     * Assumes {@code smaller < bigger + k} (or {@code <=}).
+     */
+    private boolean assumeLess(Primitive smaller, Primitive bigger, double k, boolean strict, boolean integral) {
+        final Interval iSmaller = interval(smaller);
+        final Interval iBigger = interval(bigger);
+        //smaller < sup(bigger) + k, bigger > inf(smaller) - k
+        final double hi = shiftUp(iBigger.hi, k);
+        final double lo = shiftDown(iSmaller.lo, -k);
+        return restrict(smaller, Interval.below(hi, strict || iBigger.hiOpen || Double.isInfinite(hi)), integral) &&
+               restrict(bigger, Interval.above(lo, strict || iSmaller.loOpen || Double.isInfinite(lo)), integral);
+    }
+
+    private static boolean compare(double first, Operator operator, double second) {
+        switch (operator) {
+        case EQ:
+            return first == second;
+        case NE:
+            return first != second;
+        case LT:
+            return first < second;
+        case LE:
+            return first <= second;
+        case GT:
+            return first > second;
+        default: //GE
+            return first >= second;
+        }
+    }
+
+    /**
+     * Refines the interval of a term.
+     *
+     * @param term a {@link Primitive}.
+     * @param range an {@link Interval} that bounds
+     *        the values of {@code term}.
+     * @param integral {@code true} iff {@code term}
+     *        is integral.
+     * @return {@code false} iff the refined interval
+     *         of {@code term} is empty.
+     */
+    private boolean restrict(Primitive term, Interval range, boolean integral) {
+        final Interval previous = this.intervals.get(term);
+        final Interval current = (previous == null ? Interval.TOP : previous);
+        Interval refined = current.meet(range);
+        if (integral) {
+            refined = refined.integral();
+        }
+        if (refined != current) {
+            this.trail.add(new TrailEntry(term, previous));
+            this.intervals.put(term, refined);
+        }
+        return !refined.isEmpty();
+    }
+
+    private Interval interval(Primitive term) {
+        final Interval retVal = this.intervals.get(term);
+        return (retVal == null ? Interval.TOP : retVal);
+    }
+
+    private static Interval shift(Interval i, double k) {
+        final double lo = shiftDown(i.lo, k);
+        final double hi = shiftUp(i.hi, k);
+        return new Interval(lo, i.loOpen || Double.isInfinite(lo), hi, i.hiOpen || Double.isInfinite(hi));
+    }
+
+    /**
+     * Adds a number to an upper bound, loosening
+     * it if the result is not exact.
+     */
+    private static double shiftUp(double bound, double k) {
+        if (k == 0 || Double.isInfinite(bound)) {
+            return bound;
+        }
+        final double retVal = bound + k;
+        return (Math.abs(retVal) > MAX_EXACT ? Double.POSITIVE_INFINITY : retVal);
+    }
+
+    /**
+     * Adds a number to a lower bound, loosening
+     * it if the result is not exact.
+     */
+    private static double shiftDown(double bound, double k) {
+        if (k == 0 || Double.isInfinite(bound)) {
+            return bound;
+        }
+        final double retVal = bound + k;
+        return (Math.abs(retVal) > MAX_EXACT ? Double.NEGATIVE_INFINITY : retVal);
+    }
+
+    private static boolean isNumeric(char type) {
+        return (Type.isPrimitiveFloating(type) || (Type.isPrimitiveIntegral(type) && type != Type.BOOLEAN));
+    }
+
+    /**
+     * Decomposes a numeric {@link Primitive} in a
+     * term plus a number. Offsets are only
+     * extracted from integral terms, where they
+     * are exact.
+     *
+     * @param p a {@link Primitive}.
+     * @return a {@link Linear}, or {@code null} if
+     *         {@code p} is out of the theory.
+     */
+    private static Linear linear(Primitive p) {
+        if (p instanceof Simplex) {
+            final double value = value((Simplex) p);
+            return (Double.isNaN(value) ? null : new Linear(null, value));
+        }
+        if (p instanceof Any) {
+            return null;
+        }
+        final char type = p.getType();
+        if (p instanceof WideningConversion && Type.isPrimitiveIntegral(type) &&
+            Type.isPrimitiveIntegral(((WideningConversion) p).getArg().getType())) {
+            //integral widening preserves the value
+            return linear(((WideningConversion) p).getArg());
+        }
+        if (p instanceof Expression && Type.isPrimitiveIntegral(type)) {
+            final Expression e = (Expression) p;
+            final Operator operator = e.getOperator();
+            if (operator == Operator.ADD || operator == Operator.SUB) {
+                final Primitive first = e.getFirstOperand();
+                final Primitive second = e.getSecondOperand();
+                final Linear l1 = linear(first);
+                final Linear l2 = linear(second);
+                if (l1 != null && l2 != null) {
+                    if (l2.term == null) {
+                        final double offset = (operator == Operator.ADD ? l1.offset + l2.offset : l1.offset - l2.offset);
+                        if (Math.abs(offset) <= MAX_EXACT) {
+                            return new Linear(l1.term, offset);
+                        }
+                    } else if (l1.term == null && operator == Operator.ADD) {
+                        final double offset = l1.offset + l2.offset;
+                        if (Math.abs(offset) <= MAX_EXACT) {
+                            return new Linear(l2.term, offset);
+                        }
+                    }
+                }
+            }
+        }
+        return new Linear(p, 0);
+    }
+
+    /**
+     * Returns the value of a numeric {@link Simplex}.
+     *
+     * @param s a {@link Simplex}.
+     * @return its value as a {@code double}, or {@link Double#NaN}
+     *         if {@code s} is not numeric, or it is not finite, or
+     *         it cannot be represented exactly as a {@code double}.
+     */
+    private static double value(Simplex s) {
+        final Object o = s.getActualValue();
+        if (o instanceof Character) {
+            return (double) ((Character) o).charValue();
+        } else if (o instanceof Double || o instanceof Float) {
+            final double value = ((Number) o).doubleValue();
+            return (Double.isInfinite(value) ? Double.NaN : value);
+        } else if (o instanceof Number) {
+            final long value = ((Number) o).longValue();
+            return (Math.abs((double) value) > MAX_EXACT ? Double.NaN : (double) value);
+        } else {
+            return Double.NaN;
+        }
+    }
+}
@@ -6,6 +6,7 @@ import jbse.rewr.CalculatorRewriting;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A decision procedure for solvers compatible with SMTLIB 2 specification
@@ -26,6 +27,39 @@ public final class DecisionProcedureSMTLIB2_AUFNIRA extends DecisionProcedureExt
 		}
 	}
 	
+	/**
+	 * Constructor for a pool of solvers. Independent satisfiability
+	 * checks (see {@link #isSatBatch(jbse.bc.ClassHierarchy, List) isSatBatch})
+	 * are distributed among the solvers and performed concurrently. 
+	 * A solver that crashes or exceeds the timeout is restarted,
+	 * and the check fails with a {@link DecisionException}.
+	 * 
+	 * @param next the next {@link DecisionProcedure} in the chain.
+	 * @param calc a {@link CalculatorRewriting}.
+	 * @param solverCommandLine a {@link List}{@code <}{@link String}{@code >}, the
+	 *        command line to launch the external solver processes.
+	 * @param numOfSolvers an {@code int}, the number of solver processes. 
+	 *        It must be positive.
+	 * @param queryTimeout a {@code long}, the maximum time a solver process 
+	 *        may take to answer a query. If it is not positive, there is no 
+	 *        timeout.
+	 * @param timeUnit the {@link TimeUnit} of {@code queryTimeout}.
+	 * @throws DecisionException if launching the solver processes fails.
+	 */
+	public DecisionProcedureSMTLIB2_AUFNIRA(DecisionProcedure next, CalculatorRewriting calc, List<String> solverCommandLine, 
+	                                        int numOfSolvers, long queryTimeout, TimeUnit timeUnit) throws DecisionException {
+		super(next, calc);
+		if (numOfSolvers <= 0) {
+			throw new DecisionException("The number of solvers must be positive.");
+		}
+		try {
+			this.extIf = new DecisionProcedureExternalInterfacePool(() -> new DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA(calc, solverCommandLine), 
+			                                                        numOfSolvers, queryTimeout, timeUnit);
+		} catch (ExternalProtocolInterfaceException | IOException e) {
+			throw new DecisionException(e);
+		}
+	}
+	
 	@Override
 	protected boolean canPopAssumptions() {
 		return true; //TODO should query the external tool for capabilities?
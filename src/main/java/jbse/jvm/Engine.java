@@ -15,6 +15,7 @@ import java.util.ArrayDeque;
 import java.util.Collection;
 
 import jbse.algo.Algorithm;
+import jbse.algo.ConcreteFastPath;
 import jbse.algo.ContinuationException;
 import jbse.algo.ExecutionContext;
 import jbse.algo.Action;
@@ -37,6 +38,7 @@ import jbse.mem.State.Phase;
 import jbse.mem.exc.ContradictionException;
 import jbse.mem.exc.FrozenStateException;
 import jbse.mem.exc.ThreadStackEmptyException;
+import jbse.tree.StateTree;
 import jbse.tree.StateTree.BranchPoint;
 
 /**
@@ -69,6 +71,22 @@ public class Engine implements AutoCloseable {
     /** The {@link VariableObserverManager}. */
     private final VariableObserverManager vom;
 
+    /** 
+     * The key for caching the last pre-initial state, or {@code null}
+     * if the last pre-initial state must not be cached.
+     */
+    private final PreInitialStateCache.Key preInitialStateKey;
+    
+    /** Whether the last pre-initial state was restored from the cache. */
+    private boolean preInitialStateRestored = false;
+
+    /** 
+     * The {@link ConcreteFastPath} that executes the simplest
+     * bytecodes on concrete values, or {@code null} if all 
+     * the bytecodes must be executed by their algorithms.
+     */
+    private final ConcreteFastPath fastPath;
+
     //State of the execution
 
     /** The current JVM {@link State} of the symbolic execution. */
@@ -118,10 +136,65 @@ public class Engine implements AutoCloseable {
      * Constructor. Used by the builder.
      * 
      * @param ctx an {@link ExecutionContext}.
+     * @param vom a {@link VariableObserverManager}.
      */
     Engine(ExecutionContext ctx, VariableObserverManager vom) {
+        this(ctx, vom, null);
+    }
+
+    /**
+     * Constructor. Used by the builder.
+     * 
+     * @param ctx an {@link ExecutionContext}.
+     * @param vom a {@link VariableObserverManager}.
+     * @param preInitialStateKey a {@link PreInitialStateCache.Key} 
+     *        for caching the last pre-initial state, or {@code null}
+     *        if the last pre-initial state must not be cached.
+     * @param concreteFastPath {@code true} iff the simplest bytecodes
+     *        on concrete values must be executed by a {@link ConcreteFastPath}.
+     */
+    Engine(ExecutionContext ctx, VariableObserverManager vom, PreInitialStateCache.Key preInitialStateKey, boolean concreteFastPath) {
         this.ctx = ctx;
         this.vom = vom;
+        this.preInitialStateKey = preInitialStateKey;
+        this.fastPath = (concreteFastPath ? new ConcreteFastPath() : null);
+        this.ctx.stateTree.setReplayer(new Replayer());
+    }
+    
+    /**
+     * Rebuilds the pending states of the state tree 
+     * by reexecuting the steps from their checkpoints.
+     * 
+     * @author Pietro Braione
+     */
+    private final class Replayer implements StateTree.Replayer {
+        @Override
+        public void execute(State state) throws DecisionException {
+            try {
+                Engine.this.execute(state, false);
+            } catch (ClasspathException | CannotManageStateException | 
+                     ThreadStackEmptyException | ContradictionException | 
+                     FailureException e) {
+                //this should never happen, the steps were already executed once
+                throw new UnexpectedInternalException(e);
+            }
+        }
+
+        @Override
+        public void settle(State state, boolean resync) throws DecisionException {
+            try {
+                updateScopeCounters(state);
+                if (resync) {
+                    Engine.this.ctx.decisionProcedure.setAssumptions(state.getPathCondition());
+                } else {
+                    Engine.this.ctx.decisionProcedure.addAssumptions(state.getLastPathConditionPushedClauses());
+                }
+                state.resetLastPathConditionClauses();
+            } catch (InvalidInputException e) {
+                //this should never happen
+                throw new UnexpectedInternalException(e);
+            }
+        }
     }
 
     /**
@@ -168,9 +241,17 @@ public class Engine implements AutoCloseable {
     			throw new InitializationException("JBSE requires to be run on a Java 8 JVM.");
     		}
 
-    		//steps
-    		final Action_PREINIT algo = this.ctx.dispatcher.selectPreInit();
-    		algo.exec(this.ctx);
+    		//steps, or restores the last pre-initial state if cached
+    		final State lastPreInitialState = 
+    		    (this.preInitialStateKey == null || this.ctx.getInitialState() != null ? null : 
+    		    PreInitialStateCache.get(this.preInitialStateKey, this.ctx.createVirginPreInitialState().getClassHierarchy(), this.ctx.getCalculator()));
+    		if (lastPreInitialState == null) {
+    		    final Action_PREINIT algo = this.ctx.dispatcher.selectPreInit();
+    		    algo.exec(this.ctx);
+    		} else {
+    		    this.ctx.stateTree.addState(lastPreInitialState);
+    		    this.preInitialStateRestored = true;
+    		}
     		
     		//updates the current state
     		if (this.ctx.stateTree.createdBranch()) { //Algo_PREINIT always creates a branch, but we need the side effect of invoking createBranch
@@ -197,6 +278,36 @@ public class Engine implements AutoCloseable {
         }
     }
 
+    /**
+     * Makes this engine start a new symbolic execution from a given 
+     * initial state, reusing its execution context, its decision
+     * procedure and its observers. All the pending states of the 
+     * current symbolic execution are discarded.
+     * 
+     * @param initialState the initial {@link State} of the new 
+     *        symbolic execution. The method stores a safety 
+     *        copy of it.
+     * @throws DecisionException as in {@link #init()}.
+     * @throws InitializationException as in {@link #init()}.
+     * @throws InvalidClassFileFactoryClassException as in {@link #init()}.
+     * @throws NonexistingObservedVariablesException as in {@link #init()}.
+     * @throws ClasspathException as in {@link #init()}.
+     * @throws ContradictionException as in {@link #init()}.
+     */
+    public void restart(State initialState) 
+    throws DecisionException, InitializationException, 
+    InvalidClassFileFactoryClassException, NonexistingObservedVariablesException, 
+    ClasspathException, ContradictionException {
+        this.ctx.stateTree.clear();
+        this.ctx.setInitialState(initialState);
+        this.someReferenceNotExpanded = false;
+        this.nonExpandedReferencesOrigins = null;
+        this.nonExpandedReferencesTypes = null;
+        this.preStepSourceRow = -1;
+        this.analyzedStates = 0L;
+        init();
+    }
+
     //public methods (operations)
     
     /** 
@@ -273,6 +384,11 @@ public class Engine implements AutoCloseable {
         	//detects whether we ended the pre-initialization phase
         	final boolean atLastPreInitialState = (this.currentState.phase() == Phase.PRE_INITIAL && this.currentState.getStackSize() == 0);
 
+        	//possibly caches the last pre-initial state
+        	if (atLastPreInitialState && this.preInitialStateKey != null && !this.preInitialStateRestored) {
+        		PreInitialStateCache.put(this.preInitialStateKey, this.currentState);
+        	}
+
         	//determines the next phase of the state
         	if (atLastPreInitialState) {
         		this.currentState.setPhaseInitial();
@@ -285,37 +401,24 @@ public class Engine implements AutoCloseable {
         	this.preStepSourceRow = (this.preStepStackSize == 0 ? -1 : this.currentState.getSourceRow());
 
         	//steps
-        	Action action;
-        	int continuationCounter = 0;
-        	final ArrayDeque<Action[]> continuations = new ArrayDeque<>();
-        	final ArrayDeque<Integer> continuationCounters = new ArrayDeque<>();
-        	do {
-        		action = (atLastPreInitialState ? 
-        				  this.ctx.dispatcher.selectInit() :
-        				  continuations.isEmpty() ? 
-        				  this.ctx.dispatcher.select(this.currentState.getInstruction()) : 
-        				  continuations.peek()[continuationCounter++]);
-        		if (!continuations.isEmpty() && continuationCounter == continuations.peek().length) {
-        			continuations.pop();
-        			continuationCounter = continuationCounters.pop();
-        		}
-        		try {
-        			action.exec(this.currentState, this.ctx);
-        		} catch (ContinuationException e) {
-        			continuations.push(e.getContinuation());
-        			continuationCounters.push(continuationCounter);
-        			continuationCounter = 0;
-        		} catch (ClasspathException | CannotManageStateException | 
-        				ThreadStackEmptyException | ContradictionException | 
-        				DecisionException | FailureException | 
-        				UnexpectedInternalException e) {
-        			stopCurrentTrace();
-        			throw e;
-        		} 
-        	} while (!continuations.isEmpty() && continuationCounter < continuations.peek().length);
+        	final Action action;
+        	try {
+        		action = execute(this.currentState, atLastPreInitialState);
+        	} catch (ClasspathException | CannotManageStateException | 
+        			ThreadStackEmptyException | ContradictionException | 
+        			DecisionException | FailureException | 
+        			UnexpectedInternalException e) {
+        		stopCurrentTrace();
+        		throw e;
+        	}
 
         	//possibly gets information about symbolic references that were not expanded
-        	if (action instanceof Algorithm<?, ?, ?, ?, ?>) {
+        	if (action == null) {
+        		//executed by the fast path, that resolves no reference
+        		this.someReferenceNotExpanded = false;
+        		this.nonExpandedReferencesOrigins = null;
+        		this.nonExpandedReferencesTypes = null;
+        	} else if (action instanceof Algorithm<?, ?, ?, ?, ?>) {
         		final Algorithm<?, ?, ?, ?, ?> algo = (Algorithm<?, ?, ?, ?, ?>) action;
         		this.someReferenceNotExpanded = algo.someReferenceNotExpanded();
         		this.nonExpandedReferencesOrigins = algo.nonExpandedReferencesOrigins();
@@ -340,12 +443,7 @@ public class Engine implements AutoCloseable {
         	}
         	
         	//updates the counters for depth/count scope
-        	if (this.currentState.branchingDecision()) {
-        		this.currentState.incDepth();
-        		this.currentState.resetCount();
-        	} else {
-        		this.currentState.incCount();
-        	}
+        	updateScopeCounters(this.currentState);
 
         	//synchronizes the decision procedure with the current path condition
         	this.ctx.decisionProcedure.addAssumptions(this.currentState.getLastPathConditionPushedClauses());
@@ -369,6 +467,87 @@ public class Engine implements AutoCloseable {
         }
     }
 
+    /**
+     * Executes the bytecode at the program counter of a 
+     * state, and all the continuations it produces.
+     * 
+     * @param state the {@link State} to be stepped.
+     * @param atLastPreInitialState {@code true} iff {@code state}
+     *        is the last pre-initial state.
+     * @return the last executed {@link Action}, or {@code null}
+     *         if the bytecode was executed by the {@link ConcreteFastPath}.
+     * @throws ClasspathException as in {@link #step()}.
+     * @throws CannotManageStateException as in {@link #step()}.
+     * @throws ThreadStackEmptyException as in {@link #step()}.
+     * @throws ContradictionException as in {@link #step()}.
+     * @throws DecisionException as in {@link #step()}.
+     * @throws FailureException as in {@link #step()}.
+     */
+    private Action execute(State state, boolean atLastPreInitialState) 
+    throws ClasspathException, CannotManageStateException, 
+    ThreadStackEmptyException, ContradictionException, 
+    DecisionException, FailureException {
+        try {
+            //fastest path: simple bytecode on concrete values
+            if (this.fastPath != null && !atLastPreInitialState && this.fastPath.exec(state, this.ctx)) {
+                return null;
+            }
+            
+            //fast path: no continuations
+            Action action = (atLastPreInitialState ? 
+                             this.ctx.dispatcher.selectInit() :
+                             this.ctx.dispatcher.select(state.getInstruction()));
+            final Action[] continuation;
+            try {
+                action.exec(state, this.ctx);
+                return action;
+            } catch (ContinuationException e) {
+                continuation = e.getContinuation();
+            }
+            
+            //slow path: executes the continuations
+            int continuationCounter = 0;
+            final ArrayDeque<Action[]> continuations = new ArrayDeque<>();
+            final ArrayDeque<Integer> continuationCounters = new ArrayDeque<>();
+            continuations.push(continuation);
+            continuationCounters.push(continuationCounter);
+            while (!continuations.isEmpty() && continuationCounter < continuations.peek().length) {
+                action = continuations.peek()[continuationCounter++];
+                if (continuationCounter == continuations.peek().length) {
+                    continuations.pop();
+                    continuationCounter = continuationCounters.pop();
+                }
+                try {
+                    action.exec(state, this.ctx);
+                } catch (ContinuationException e) {
+                    continuations.push(e.getContinuation());
+                    continuationCounters.push(continuationCounter);
+                    continuationCounter = 0;
+                }
+            }
+            return action;
+        } catch (FrozenStateException e) {
+            //this should never happen
+            throw new UnexpectedInternalException(e);
+        }
+    }
+    
+    /**
+     * Updates the depth and count of a state after 
+     * its emission.
+     * 
+     * @param state a {@link State}.
+     * @throws FrozenStateException if {@code state} is frozen.
+     */
+    private static void updateScopeCounters(State state) throws FrozenStateException {
+        if (state.branchingDecision()) {
+            state.incDepth();
+            state.resetCount();
+        } else {
+            state.incCount();
+        }
+    }
+
     /**
      * Returns the engine's current JVM state 
      * (<em>not</em> a copy).
@@ -389,6 +568,17 @@ public class Engine implements AutoCloseable {
         return this.analyzedStates;
     }
 
+    /**
+     * Returns the number of pending states that were
+     * rebuilt by replaying the execution from a checkpoint
+     * (see {@link EngineParameters#setMaxReplaySteps(int)}).
+     * 
+     * @return a {@code long}.
+     */
+    public long getReplayedStates() {
+        return this.ctx.stateTree.getReplayedStates();
+    }
+
     /**
      * Returns the number of assumed object of a given class.
      * 
@@ -460,12 +650,7 @@ public class Engine implements AutoCloseable {
             this.currentState.resetLastPathConditionClauses();
 
             //updates the counters for depth/count scope
-            if (this.currentState.branchingDecision()) {
-                this.currentState.incDepth();
-                this.currentState.resetCount();
-            } else {
-                this.currentState.incCount();
-            }
+            updateScopeCounters(this.currentState);
         } catch (DecisionException e) {
             throw new DecisionBacktrackException(e);
         } catch (InvalidInputException e) {
@@ -478,6 +663,71 @@ public class Engine implements AutoCloseable {
         return bp;
     }
 
+    /**
+     * Checks whether the engine has some pending state that 
+     * can be donated to another engine.
+     * 
+     * @return {@code true} iff the engine has at least one 
+     *         pending post-initial state.
+     */
+    boolean canDonate() {
+        return this.ctx.stateTree.canStealState();
+    }
+
+    /**
+     * Removes from the pending states the one that is 
+     * nearest to the root of the symbolic execution tree, 
+     * so it can be explored by another engine.
+     * 
+     * @return the removed {@link State}.
+     * @throws CannotBacktrackException iff {@link #canDonate}{@code () == false} 
+     *         before the method is invoked.
+     * @throws DecisionBacktrackException iff the decision procedure fails 
+     *         while rebuilding the removed state.
+     */
+    State donate() throws CannotBacktrackException, DecisionBacktrackException {
+        if (!canDonate()) {
+            throw new CannotBacktrackException();
+        }
+        try {
+            final long replayedStates = this.ctx.stateTree.getReplayedStates();
+            final State retVal = this.ctx.stateTree.stealState();
+            if (this.ctx.stateTree.getReplayedStates() != replayedStates) {
+                //rebuilding the state moved the decision procedure away
+                this.ctx.decisionProcedure.setAssumptions(this.currentState.getPathCondition());
+            }
+            return retVal;
+        } catch (DecisionException e) {
+            throw new DecisionBacktrackException(e);
+        } catch (InvalidInputException e) {
+            //this should never happen
+            throw new UnexpectedInternalException(e);
+        }
+    }
+
+    /**
+     * Makes the engine continue the execution from a 
+     * pending state donated by another engine, as it
+     * backtracked to it. 
+     * 
+     * @param donated a {@link State} obtained by invoking
+     *        {@link #donate()} on another engine. The 
+     *        engine must have no pending states, i.e., 
+     *        {@link #canBacktrack()}{@code  == false}.
+     * @return the {@link BranchPoint} of {@code donated}.
+     * @throws DecisionBacktrackException iff the decision procedure fails for 
+     *         any reason. 
+     */
+    BranchPoint adopt(State donated) throws DecisionBacktrackException {
+        try {
+            this.ctx.stateTree.addStolenState(donated);
+            return backtrack();
+        } catch (InvalidInputException | CannotBacktrackException e) {
+            //this should never happen
+            throw new UnexpectedInternalException(e);
+        }
+    }
+
     /**
      * Test whether some of the references resolved by the last
      * decision procedure call has not been expanded.
@@ -585,6 +835,7 @@ public class Engine implements AutoCloseable {
      */
     @Override
     public void close() throws DecisionException {
+        this.ctx.stateTree.dispose();
         this.ctx.decisionProcedure.close();
     }
 }
\ No newline at end of file
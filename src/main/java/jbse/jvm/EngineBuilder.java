@@ -7,6 +7,7 @@ import jbse.algo.ExecutionContext;
 import jbse.algo.exc.MetaUnsupportedException;
 import jbse.algo.exc.NotYetImplementedException;
 import jbse.bc.ClassFileFactoryJavassist;
+import jbse.bc.Classpath;
 import jbse.bc.Signature;
 import jbse.bc.exc.InvalidClassFileFactoryClassException;
 import jbse.common.exc.ClasspathException;
@@ -74,12 +75,13 @@ public class EngineBuilder {
     private static Engine bootEngineArchitecture(EngineParameters parameters) 
     throws CannotBuildEngineException {
     	try {
+	        final Classpath classpath = parameters.getClasspath();
 	        final ExecutionContext ctx = 
 	          new ExecutionContext(parameters.getInitialState(),
 	                               parameters.getBypassStandardLoading(),
 	                               parameters.getMaxSimpleArrayLength(),
 	                               parameters.getMaxHeapSize(),
-	                               parameters.getClasspath(),
+	                               classpath,
 	                               ClassFileFactoryJavassist.class,          //default
 	                               parameters.getExpansionBackdoor(), 
 	                               parameters.getCalculator(),
@@ -90,6 +92,12 @@ public class EngineBuilder {
 	                               parameters.getBreadthMode().toInternal(),
 	                               parameters.getTriggerRulesRepo());
 	
+	        //bounds the pending states in memory
+	        ctx.stateTree.setMaxNumOfResidentStates(parameters.getMaxResidentPendingStates(), parameters.getSpillDirectory());
+	        
+	        //possibly stores the pending states as replayable decisions
+	        ctx.stateTree.setMaxReplay(parameters.getMaxReplaySteps(), parameters.getMaxReplayDepth());
+	
 	        //sets the meta-level directives
 	        setOverrides(ctx, parameters);
 	
@@ -98,7 +106,12 @@ public class EngineBuilder {
 	        //sets the observers
 	        setObservers(vom, parameters);
 	
-	        return new Engine(ctx, vom);
+	        //the key for caching the last pre-initial state
+	        final PreInitialStateCache.Key preInitialStateKey = 
+	            (parameters.getPreInitialStateCaching() && parameters.getInitialState() == null ? 
+	            new PreInitialStateCache.Key(parameters, classpath) : null);
+
+	        return new Engine(ctx, vom, preInitialStateKey, parameters.getConcreteFastPath());
     	} catch (IOException e) {
     		throw new CannotBuildEngineException(e);
     	}
@@ -227,6 +227,46 @@ public final class EngineParameters implements Cloneable {
     
     /** The maximum size of the heap (number of objects). */
     private long maxHeapSize = 1_000_000;
+    
+    /** Whether the last pre-initial state must be cached. */
+    private boolean preInitialStateCaching = false;
+    
+    /** 
+     * The directory where the last pre-initial states are 
+     * cached, or {@code null} for the default directory. 
+     */
+    private Path preInitialStateCacheDirectory = null;
+    
+    /** 
+     * Whether the simplest bytecodes on concrete values 
+     * are executed without the algorithm pipeline.
+     */
+    private boolean concreteFastPath = true;
+    
+    /** 
+     * The maximum number of pending states kept in memory, 
+     * or {@code 0} if unbounded. 
+     */
+    private int maxResidentPendingStates = 0;
+    
+    /** 
+     * The directory where the pending states are moved, 
+     * or {@code null} for the default temporary-file directory. 
+     */
+    private Path spillDirectory = null;
+    
+    /** 
+     * The maximum number of steps to reexecute for rebuilding
+     * a pending state, or {@code 0} if the pending states are
+     * stored in full. 
+     */
+    private int maxReplaySteps = 0;
+    
+    /** 
+     * The maximum number of branch points between a pending
+     * state and the checkpoint it is rebuilt from. 
+     */
+    private int maxReplayDepth = 16;
 
     /**
      * Constructor.
@@ -947,6 +987,213 @@ public final class EngineParameters implements Cloneable {
         return this.maxHeapSize;
     }
 
+    /**
+     * Sets whether the last pre-initial state, i.e., the
+     * state at the end of the bootstrap of the standard Java 
+     * classes, must be cached on disk and reused by all the 
+     * subsequent executions, also in other processes, with 
+     * the same classpath and configuration. By default it is 
+     * set to {@code false}. Ignored when an initial state is set.
+     * 
+     * @param preInitialStateCaching a {@code boolean}.
+     */
+    public void setPreInitialStateCaching(boolean preInitialStateCaching) {
+        this.preInitialStateCaching = preInitialStateCaching;
+    }
+    
+    /**
+     * Returns whether the last pre-initial state must be cached.
+     * 
+     * @return a {@code boolean}.
+     */
+    public boolean getPreInitialStateCaching() {
+        return this.preInitialStateCaching;
+    }
+    
+    /**
+     * Sets the directory where the last pre-initial states 
+     * are cached when {@link #setPreInitialStateCaching(boolean) setPreInitialStateCaching}{@code (true)}.
+     * 
+     * @param preInitialStateCacheDirectory a {@link String}.
+     * @throws NullPointerException if {@code preInitialStateCacheDirectory == null}.
+     */
+    public void setPreInitialStateCacheDirectory(String preInitialStateCacheDirectory) {
+        if (preInitialStateCacheDirectory == null) {
+            throw new NullPointerException();
+        }
+        this.preInitialStateCacheDirectory = Paths.get(preInitialStateCacheDirectory);
+    }
+    
+    /**
+     * Sets the directory where the last pre-initial states 
+     * are cached when {@link #setPreInitialStateCaching(boolean) setPreInitialStateCaching}{@code (true)}.
+     * 
+     * @param preInitialStateCacheDirectory a {@link Path}.
+     * @throws NullPointerException if {@code preInitialStateCacheDirectory == null}.
+     */
+    public void setPreInitialStateCacheDirectory(Path preInitialStateCacheDirectory) {
+        if (preInitialStateCacheDirectory == null) {
+            throw new NullPointerException();
+        }
+        this.preInitialStateCacheDirectory = preInitialStateCacheDirectory;
+    }
+    
+    /**
+     * Returns the directory where the last pre-initial states are cached.
+     * 
+     * @return a {@link Path}, or {@code null} if the default 
+     *         directory ({@code jbse-snapshots} in the default
+     *         temporary-file directory) is used.
+     */
+    public Path getPreInitialStateCacheDirectory() {
+        return this.preInitialStateCacheDirectory;
+    }
+    
+    /**
+     * Sets whether the simplest bytecodes (constants, 
+     * local variables, integer arithmetic, jumps...) on 
+     * concrete values must be executed directly on the 
+     * current frame, without the algorithm pipeline. 
+     * The states and the branch points are the same 
+     * either way. By default it is set to {@code true}.
+     * 
+     * @param concreteFastPath a {@code boolean}.
+     */
+    public void setConcreteFastPath(boolean concreteFastPath) {
+        this.concreteFastPath = concreteFastPath;
+    }
+    
+    /**
+     * Returns whether the simplest bytecodes on concrete 
+     * values are executed without the algorithm pipeline.
+     * 
+     * @return a {@code boolean}.
+     */
+    public boolean getConcreteFastPath() {
+        return this.concreteFastPath;
+    }
+    
+    /**
+     * Bounds the number of pending states, i.e., states at
+     * branch points that have not yet been explored, that are
+     * kept in memory. The bound is a count of states, not a 
+     * size in bytes. When the bound is exceeded, the pending
+     * states that will be explored last are moved to disk, 
+     * and read back when needed. By default it is set to 
+     * {@code 0}, meaning that all the pending states are 
+     * kept in memory.
+     * 
+     * @param maxResidentPendingStates an {@code int}. If it is 
+     *        less than {@code 2}, all the pending states are 
+     *        kept in memory.
+     */
+    public void setMaxResidentPendingStates(int maxResidentPendingStates) {
+        this.maxResidentPendingStates = maxResidentPendingStates;
+    }
+    
+    /**
+     * Returns the maximum number of pending states
+     * that are kept in memory.
+     * 
+     * @return an {@code int}, {@code 0} meaning unbounded.
+     */
+    public int getMaxResidentPendingStates() {
+        return this.maxResidentPendingStates;
+    }
+    
+    /**
+     * Sets the directory where the pending states are moved
+     * when they exceed the bound set with {@link #setMaxResidentPendingStates(int)}.
+     * 
+     * @param spillDirectory a {@link String}.
+     * @throws NullPointerException if {@code spillDirectory == null}.
+     */
+    public void setSpillDirectory(String spillDirectory) {
+        if (spillDirectory == null) {
+            throw new NullPointerException();
+        }
+        this.spillDirectory = Paths.get(spillDirectory);
+    }
+    
+    /**
+     * Sets the directory where the pending states are moved
+     * when they exceed the bound set with {@link #setMaxResidentPendingStates(int)}.
+     * 
+     * @param spillDirectory a {@link Path}.
+     * @throws NullPointerException if {@code spillDirectory == null}.
+     */
+    public void setSpillDirectory(Path spillDirectory) {
+        if (spillDirectory == null) {
+            throw new NullPointerException();
+        }
+        this.spillDirectory = spillDirectory;
+    }
+    
+    /**
+     * Returns the directory where the pending states are moved.
+     * 
+     * @return a {@link Path}, or {@code null} if the default
+     *         temporary-file directory is used.
+     */
+    public Path getSpillDirectory() {
+        return this.spillDirectory;
+    }
+    
+    /**
+     * Makes the pending states, i.e., states at branch points 
+     * that have not yet been explored, be stored as a checkpoint
+     * state plus the decisions taken from the checkpoint, and
+     * rebuilt when needed by reexecuting the steps from the 
+     * checkpoint. This trades execution time for memory. 
+     * The checkpoints are placed so that no more than the given
+     * number of steps must be reexecuted to rebuild a state.
+     * Note that the side effects of reexecuted native methods
+     * (e.g., output to files) are repeated. By default it is set 
+     * to {@code 0}, meaning that the pending states are stored 
+     * in full.
+     * 
+     * @param maxReplaySteps an {@code int}. If it is less than 
+     *        {@code 1}, the pending states are stored in full.
+     */
+    public void setMaxReplaySteps(int maxReplaySteps) {
+        this.maxReplaySteps = maxReplaySteps;
+    }
+    
+    /**
+     * Returns the maximum number of steps to reexecute
+     * for rebuilding a pending state.
+     * 
+     * @return an {@code int}, {@code 0} meaning that 
+     *         the pending states are stored in full.
+     */
+    public int getMaxReplaySteps() {
+        return this.maxReplaySteps;
+    }
+    
+    /**
+     * Sets the maximum number of branch points between a 
+     * pending state and the checkpoint it is rebuilt from
+     * (see {@link #setMaxReplaySteps(int)}). By default 
+     * it is set to {@code 16}.
+     * 
+     * @param maxReplayDepth an {@code int}. If it is less 
+     *        than {@code 1}, the pending states are stored 
+     *        in full.
+     */
+    public void setMaxReplayDepth(int maxReplayDepth) {
+        this.maxReplayDepth = maxReplayDepth;
+    }
+    
+    /**
+     * Returns the maximum number of branch points between 
+     * a pending state and the checkpoint it is rebuilt from.
+     * 
+     * @return an {@code int}.
+     */
+    public int getMaxReplayDepth() {
+        return this.maxReplayDepth;
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public EngineParameters clone() {
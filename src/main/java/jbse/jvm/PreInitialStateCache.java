@@ -0,0 +1,512 @@
+package jbse.jvm;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidObjectException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.ProtectionDomain;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import jbse.bc.ClassFile;
+import jbse.bc.ClassHierarchy;
+import jbse.bc.ClassHierarchy.LoadedClasses;
+import jbse.bc.Classpath;
+import jbse.bc.exc.ClassFileIllFormedException;
+import jbse.bc.exc.ClassFileNotFoundException;
+import jbse.common.exc.InvalidInputException;
+import jbse.mem.State;
+import jbse.mem.exc.FrozenStateException;
+import jbse.rewr.CalculatorRewriting;
+import jbse.rewr.Rewriter;
+import jbse.val.Calculator;
+
+/**
+ * A cache of the last pre-initial {@link State}s, i.e., the states
+ * at the end of the pre-initialization phase, immediately before the
+ * root method is invoked. It allows an {@link Engine} to skip the
+ * (costly) bootstrap of the standard Java classes whenever a previous
+ * {@link Engine}, possibly in another process, already did it with
+ * the same configuration. The snapshots are serialized in files
+ * of a cache directory, that are memory-mapped when restored.
+ * The objects in a snapshot that are not {@link Serializable} are
+ * not written: The {@link Calculator} is replaced by the one of
+ * the restoring {@link Engine}, the classfiles are replaced by their
+ * names, and the class hierarchy is rebuilt by reloading from the
+ * classpath all the classes that were loaded (the snapshot is
+ * discarded if the bytecode of any of them changed). A snapshot
+ * is not cached when the pre-initial state has native resources,
+ * or classes that cannot be reloaded from the classpath (anonymous
+ * classes, classes defined by user-defined classloaders).
+ *
+ * @author Pietro Braione
+ */
+final class PreInitialStateCache {
+    private static final int BUFFER_SIZE = 65536;
+
+    /**
+     * The version of the format of the snapshot files; it must be
+     * increased whenever the content of a snapshot changes.
+     */
+    private static final String FORMAT_VERSION = "1";
+
+    /** The default cache directory, in the default temporary-file directory. */
+    private static final String DEFAULT_DIRECTORY = "jbse-snapshots";
+
+    /**
+     * The time, in milliseconds, a stamp of a classpath directory
+     * is reused before walking the directory again.
+     */
+    private static final long DIRECTORY_STAMP_VALIDITY = 1000L;
+
+    /** The last stamps of the classpath directories. */
+    private static final HashMap<Path, DirectoryStamp> DIRECTORY_STAMPS = new HashMap<>();
+
+    /**
+     * A stamp of a classpath directory, with the time it was taken.
+     */
+    private static final class DirectoryStamp {
+        final String stamp;
+        final long time;
+
+        DirectoryStamp(String stamp, long time) {
+            this.stamp = stamp;
+            this.time = time;
+        }
+    }
+
+    /** The number of times a snapshot was restored. */
+    private static long hits = 0L;
+
+    /**
+     * Returns the number of times a snapshot was
+     * restored.
+     *
+     * @return a {@code long}.
+     */
+    static synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Stands, in a snapshot file, for an object
+     * that is not written.
+     */
+    private enum Placeholder {
+        /** Stands for the class hierarchy of the snapshot. */
+        CLASS_HIERARCHY,
+
+        /** Stands for the calculator. */
+        CALCULATOR,
+
+        /** Stands for the stream of a standard file. */
+        STANDARD_FILE
+    }
+
+    /**
+     * Stands, in a snapshot file, for a {@link ClassFile}.
+     */
+    private static final class ClassFileReference implements Serializable {
+        private static final long serialVersionUID = 2938561843605184572L;
+
+        final boolean primitive;
+        final int definingLoader;
+        final String className;
+
+        ClassFileReference(boolean primitive, int definingLoader, String className) {
+            this.primitive = primitive;
+            this.definingLoader = definingLoader;
+            this.className = className;
+        }
+    }
+
+    private static final class SnapshotOutputStream extends ObjectOutputStream {
+        private final ClassHierarchy hier;
+        private final Object[] standardFiles;
+
+        SnapshotOutputStream(OutputStream out, State snapshot) throws IOException, FrozenStateException {
+            super(out);
+            this.hier = snapshot.getClassHierarchy();
+            this.standardFiles = new Object[] { snapshot.getFile(0), snapshot.getFile(1), snapshot.getFile(2) };
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) throws IOException {
+            if (obj == this.hier) {
+                return Placeholder.CLASS_HIERARCHY;
+            } else if (obj instanceof Calculator) {
+                return Placeholder.CALCULATOR;
+            } else if (obj instanceof ClassFile) {
+                final ClassFile classFile = (ClassFile) obj;
+                if (classFile.isPrimitiveOrVoid()) {
+                    return new ClassFileReference(true, classFile.getDefiningClassLoader(), classFile.getClassName());
+                } else if (this.hier.getClassFileClassArray(classFile.getDefiningClassLoader(), classFile.getClassName()) == classFile) {
+                    return new ClassFileReference(false, classFile.getDefiningClassLoader(), classFile.getClassName());
+                } else {
+                    throw new NotSerializableException("Class " + classFile.getClassName() + " is not in the loaded class cache.");
+                }
+            } else if (obj != null && Arrays.asList(this.standardFiles).contains(obj)) {
+                return Placeholder.STANDARD_FILE;
+            }
+            return obj;
+        }
+    }
+
+    private static final class SnapshotInputStream extends ObjectInputStream {
+        private final Calculator calc;
+        private ClassHierarchy hier;
+
+        SnapshotInputStream(InputStream in, Calculator calc) throws IOException {
+            super(in);
+            this.calc = calc;
+            enableResolveObject(true);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            try {
+                return Class.forName(desc.getName(), false, PreInitialStateCache.class.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                return super.resolveClass(desc);
+            }
+        }
+
+        @Override
+        protected Object resolveObject(Object obj) throws IOException {
+            if (obj == Placeholder.CLASS_HIERARCHY) {
+                return this.hier;
+            } else if (obj == Placeholder.CALCULATOR) {
+                return this.calc;
+            } else if (obj == Placeholder.STANDARD_FILE) {
+                return null; //set by State.resetStandardFiles
+            } else if (obj instanceof ClassFileReference) {
+                final ClassFileReference reference = (ClassFileReference) obj;
+                final ClassFile retVal;
+                try {
+                    retVal = (reference.primitive ?
+                              this.hier.getClassFilePrimitiveOrVoid(reference.className) :
+                              this.hier.getClassFileClassArray(reference.definingLoader, reference.className));
+                } catch (InvalidInputException e) {
+                    throw new InvalidObjectException(e.getMessage());
+                }
+                if (retVal == null) {
+                    throw new InvalidObjectException("Class " + reference.className + " was not restored.");
+                }
+                return retVal;
+            }
+            return obj;
+        }
+    }
+
+    /**
+     * An {@link InputStream} reading a {@link ByteBuffer}.
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return (this.buffer.hasRemaining() ? this.buffer.get() & 0xFF : -1);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!this.buffer.hasRemaining()) {
+                return -1;
+            }
+            final int retVal = Math.min(len, this.buffer.remaining());
+            this.buffer.get(b, off, retVal);
+            return retVal;
+        }
+
+        @Override
+        public int available() {
+            return this.buffer.remaining();
+        }
+    }
+
+    /**
+     * Restores a snapshot.
+     *
+     * @param key a {@link Key}.
+     * @param hier the {@link ClassHierarchy} of a virgin pre-initial
+     *        state of the restoring {@link Engine}. It is filled
+     *        with the classes loaded by the snapshot, and becomes
+     *        the class hierarchy of the restored state.
+     * @param calc the {@link Calculator} of the restoring {@link Engine}.
+     * @return the last pre-initial {@link State} cached for
+     *         {@code key}, or {@code null} if no state was cached,
+     *         or the cached state cannot be restored.
+     */
+    static State get(Key key, ClassHierarchy hier, Calculator calc) {
+        if (key.file == null || !Files.isRegularFile(key.file)) {
+            return null;
+        }
+        try (final FileChannel channel = FileChannel.open(key.file, StandardOpenOption.READ)) {
+            final MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+            try (final SnapshotInputStream in = new SnapshotInputStream(new ByteBufferInputStream(buffer), calc)) {
+                final LoadedClasses loadedClasses = (LoadedClasses) in.readObject();
+                hier.restoreLoadedClasses(loadedClasses);
+                in.hier = hier;
+                final State retVal = (State) in.readObject();
+                retVal.resetStandardFiles();
+                synchronized (PreInitialStateCache.class) {
+                    ++hits;
+                }
+                return retVal;
+            }
+        } catch (IOException | ClassNotFoundException | ClassCastException | InvalidInputException |
+                 ClassFileNotFoundException | ClassFileIllFormedException | FrozenStateException e) {
+            //the snapshot is stale or damaged, and
+            //will be replaced by the next put
+            return null;
+        }
+    }
+
+    /**
+     * Caches a snapshot, replacing the one that was
+     * already cached for the same key. Does nothing
+     * if the snapshot cannot be cached.
+     *
+     * @param key a {@link Key}.
+     * @param lastPreInitialState a {@link State}, the last
+     *        pre-initial state (phase pre-initial, empty stack).
+     */
+    static void put(Key key, State lastPreInitialState) {
+        if (key.file == null || lastPreInitialState.hasNativeResources()) {
+            return;
+        }
+        Path tmp = null;
+        try {
+            final LoadedClasses loadedClasses = lastPreInitialState.getClassHierarchy().getLoadedClasses();
+            Files.createDirectories(key.file.getParent());
+            tmp = Files.createTempFile(key.file.getParent(), key.file.getFileName().toString(), ".tmp");
+            try (final SnapshotOutputStream out = new SnapshotOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), BUFFER_SIZE), lastPreInitialState)) {
+                out.writeObject(loadedClasses);
+                out.writeObject(lastPreInitialState);
+            }
+            try {
+                Files.move(tmp, key.file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, key.file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | InvalidInputException | FrozenStateException | StackOverflowError e) {
+            //the snapshot cannot be cached
+            try {
+                if (tmp != null) {
+                    Files.deleteIfExists(tmp);
+                }
+            } catch (IOException e1) {
+                //nothing to do
+            }
+        }
+    }
+
+    /**
+     * The key of a snapshot, i.e., the file where it is stored.
+     * The name of the file is a digest of all the parameters that
+     * may affect the pre-initialization phase, of a stamp
+     * (modification time and size) of all the classpath entries,
+     * and of a stamp of JBSE itself, so a snapshot is invalidated
+     * whenever a jar or a classfile changes.
+     *
+     * @author Pietro Braione
+     */
+    static final class Key {
+        /** The snapshot file, or {@code null} if the snapshot cannot be cached. */
+        private final Path file;
+
+        /**
+         * Builds the key for a configuration.
+         *
+         * @param parameters an {@link EngineParameters}. It must not
+         *        have an initial state.
+         * @param classpath the {@link Classpath} of {@code parameters}.
+         * @throws IOException if reading the classpath entries stamps
+         *         fails.
+         */
+        Key(EngineParameters parameters, Classpath classpath) throws IOException {
+            final String calcConfiguration = calcConfiguration(parameters.getCalculator());
+            if (calcConfiguration == null) {
+                this.file = null;
+                return;
+            }
+            final StringBuilder configuration = new StringBuilder();
+            configuration.append(FORMAT_VERSION).append('\n');
+            configuration.append(stampJBSE()).append('\n');
+            configuration.append(classpath.javaHome()).append('\n');
+            for (Path p : classpath.classPath()) {
+                configuration.append(stamp(p)).append('\n');
+            }
+            configuration.append(parameters.getBypassStandardLoading()).append('\n');
+            configuration.append(parameters.getMaxSimpleArrayLength()).append('\n');
+            configuration.append(parameters.getMaxHeapSize()).append('\n');
+            final TreeMap<String, TreeSet<String>> expansionBackdoor = new TreeMap<>();
+            for (Map.Entry<String, Set<String>> entry : parameters.getExpansionBackdoor().entrySet()) {
+                expansionBackdoor.put(entry.getKey(), new TreeSet<>(entry.getValue()));
+            }
+            configuration.append(expansionBackdoor).append('\n');
+            for (String[] rule : parameters.getMetaOverridden()) {
+                configuration.append(Arrays.toString(rule)).append('\n');
+            }
+            configuration.append('\n');
+            for (String[] rule : parameters.getUninterpreted()) {
+                configuration.append(Arrays.toString(rule)).append('\n');
+            }
+            configuration.append('\n');
+            configuration.append(parameters.getStateIdentificationMode().toInternal()).append('\n');
+            configuration.append(calcConfiguration).append('\n');
+            configuration.append(parameters.getMethodSignature().getClassName()).append('\n');
+            final Path directory = (parameters.getPreInitialStateCacheDirectory() == null ?
+                                    Paths.get(System.getProperty("java.io.tmpdir"), DEFAULT_DIRECTORY) :
+                                    parameters.getPreInitialStateCacheDirectory());
+            this.file = directory.resolve(digest(configuration.toString()) + ".ser");
+        }
+
+        private static String digest(String s) {
+            try {
+                final byte[] digest = MessageDigest.getInstance("SHA-256").digest(s.getBytes(StandardCharsets.UTF_8));
+                final StringBuilder retVal = new StringBuilder();
+                for (byte b : digest) {
+                    retVal.append(String.format("%02x", b));
+                }
+                return retVal.toString();
+            } catch (NoSuchAlgorithmException e) {
+                //this should never happen, every JVM has SHA-256
+                throw new InternalError(e);
+            }
+        }
+
+        /**
+         * Returns the stamp of the JBSE classes, so the
+         * snapshots made by other versions of JBSE are
+         * discarded.
+         *
+         * @return a {@link String}.
+         * @throws IOException if reading the stamp fails.
+         */
+        private static String stampJBSE() throws IOException {
+            final ProtectionDomain domain = PreInitialStateCache.class.getProtectionDomain();
+            if (domain == null || domain.getCodeSource() == null || domain.getCodeSource().getLocation() == null) {
+                return "";
+            }
+            try {
+                return stamp(Paths.get(domain.getCodeSource().getLocation().toURI()));
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                return domain.getCodeSource().getLocation().toString();
+            }
+        }
+
+        private static String stamp(Path p) throws IOException {
+            if (Files.isDirectory(p)) {
+                return stampDirectory(p);
+            } else if (Files.exists(p)) {
+                return p.toString() + ":" + Files.getLastModifiedTime(p).toMillis() + ":" + Files.size(p);
+            } else {
+                return p.toString();
+            }
+        }
+
+        /**
+         * Returns the stamp of a classpath directory. Since a directory
+         * stamp does not change when a nested file changes, it combines
+         * the stamps of all the classfiles in it. Walking a directory is
+         * costly, and many engines are usually built in a short time
+         * (e.g., by the checkers of the initial heap), thus the stamps
+         * are reused for {@link PreInitialStateCache#DIRECTORY_STAMP_VALIDITY}
+         * milliseconds.
+         *
+         * @param p the {@link Path} of a directory.
+         * @return a {@link String}.
+         * @throws IOException if walking {@code p} fails.
+         */
+        private static String stampDirectory(Path p) throws IOException {
+            final long now = System.currentTimeMillis();
+            synchronized (DIRECTORY_STAMPS) {
+                final DirectoryStamp cached = DIRECTORY_STAMPS.get(p);
+                if (cached != null && now - cached.time < DIRECTORY_STAMP_VALIDITY) {
+                    return cached.stamp;
+                }
+            }
+            long lastModified = 0L;
+            long size = 0L;
+            long count = 0L;
+            try (final Stream<Path> files = Files.walk(p)) {
+                for (Path f : (Iterable<Path>) files.filter(f -> f.toString().endsWith(".class"))::iterator) {
+                    lastModified = Math.max(lastModified, Files.getLastModifiedTime(f).toMillis());
+                    size += Files.size(f);
+                    ++count;
+                }
+            }
+            final String retVal = p.toString() + ":" + lastModified + ":" + size + ":" + count;
+            synchronized (DIRECTORY_STAMPS) {
+                DIRECTORY_STAMPS.put(p, new DirectoryStamp(retVal, now));
+            }
+            return retVal;
+        }
+
+        /**
+         * Returns the configuration of a {@link Calculator}. The values
+         * in a snapshot are restored with the calculator of the restoring
+         * engine, and a {@link CalculatorRewriting} is fully determined
+         * by its rewriters, thus two calculators with the same rewriters
+         * compute the same, and the snapshots created with one of
+         * them can be restored with the other.
+         *
+         * @param calc a {@link Calculator}.
+         * @return the names of the classes of {@code calc} and of its
+         *         rewriters if it is a {@link CalculatorRewriting},
+         *         otherwise {@code null} (the snapshot cannot be cached).
+         */
+        private static String calcConfiguration(Calculator calc) {
+            if (calc instanceof CalculatorRewriting) {
+                final StringBuilder retVal = new StringBuilder(calc.getClass().getName());
+                for (Class<? extends Rewriter> rewriterClass : ((CalculatorRewriting) calc).getRewriterClasses()) {
+                    retVal.append(' ').append(rewriterClass.getName());
+                }
+                return retVal.toString();
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Do not instantiate!
+     */
+    private PreInitialStateCache() {
+        //nothing to do
+    }
+}
@@ -3,25 +3,32 @@ package jbse.jvm;
 import static jbse.val.HistoryPoint.BRANCH_IDENTIFIER_SEPARATOR_COMPACT;
 import static jbse.val.HistoryPoint.BRANCH_IDENTIFIER_SEPARATOR_LONG;
 
+import java.util.ArrayList;
 import java.util.Map;
 
 import jbse.algo.exc.CannotManageStateException;
+import jbse.bc.exc.InvalidClassFileFactoryClassException;
 import jbse.common.exc.ClasspathException;
+import jbse.common.exc.UnexpectedInternalException;
 import jbse.dec.exc.DecisionBacktrackException;
 import jbse.dec.exc.DecisionException;
 import jbse.jvm.exc.CannotBacktrackException;
 import jbse.jvm.exc.EngineStuckException;
 import jbse.jvm.exc.FailureException;
+import jbse.jvm.exc.InitializationException;
 import jbse.jvm.exc.NonexistingObservedVariablesException;
 import jbse.mem.State;
 import jbse.mem.State.Phase;
 import jbse.mem.exc.ContradictionException;
 import jbse.mem.exc.ThreadStackEmptyException;
 import jbse.tree.StateTree.BranchPoint;
+import jbse.val.Calculator;
 
 /**
  * Class implementing an algorithm for fully running a Java method by suitably 
- * steering an {@link Engine}.
+ * steering an {@link Engine}. A {@link Runner} may also explore the state 
+ * space in parallel by starting more workers, each with its own {@link Engine}: 
+ * The workers that have no pending states steal them from the busy ones.
  * 
  * @author Pietro Braione
  */
@@ -416,6 +423,25 @@ public class Runner {
 
     /** Stores the stop time. */
     private long stopTime;
+    
+    /** 
+     * The parameters for building the other workers, or {@code null} 
+     * if this {@link Runner} does not start a parallel exploration.
+     */
+    private RunnerParameters parametersWorkers = null;
+    
+    /** 
+     * The {@link WorkPool} shared with the other workers, or 
+     * {@code null} if the exploration is sequential.
+     */
+    private WorkPool workPool = null;
+    
+    /** 
+     * The {@link Calculator} of this worker, that is set in the
+     * states it adopts, or {@code null} if this is the first 
+     * worker (or the exploration is sequential).
+     */
+    private Calculator calcWorker = null;
 
     /**
      * Constructor.
@@ -454,6 +480,18 @@ public class Runner {
         this.tracesTot = 0;
     }
 
+    /**
+     * Makes this {@link Runner} start a parallel exploration
+     * of the state space.
+     * 
+     * @param parameters the {@link RunnerParameters} used to build
+     *        this runner. They are used to build the other workers.
+     */
+    void setParallel(RunnerParameters parameters) {
+        this.parametersWorkers = parameters;
+        this.workPool = new WorkPool(parameters.getNumOfWorkers());
+    }
+
     private boolean currentStateIsInRunSubregion() {
         if (this.identifierSubregion == null) {
             return true;
@@ -493,7 +531,39 @@ public class Runner {
     }
 
     /**
-     * Runs the method.
+     * Makes this {@link Runner} ready to run again, starting from 
+     * a given initial state. The underlying {@link Engine} and 
+     * {@link Actions} are reused, and the trace counters are reset.
+     * Only a {@link Runner} that was built for a sequential 
+     * exploration can be restarted.
+     * 
+     * @param initialState the initial {@link State}. The method
+     *        stores a safety copy of it.
+     * @throws DecisionException as in {@link Engine#restart(State)}.
+     * @throws InitializationException as in {@link Engine#restart(State)}.
+     * @throws InvalidClassFileFactoryClassException as in {@link Engine#restart(State)}.
+     * @throws NonexistingObservedVariablesException as in {@link Engine#restart(State)}.
+     * @throws ClasspathException as in {@link Engine#restart(State)}.
+     * @throws ContradictionException as in {@link Engine#restart(State)}.
+     * @throws UnsupportedOperationException if this {@link Runner} 
+     *         was built for a parallel exploration.
+     */
+    public void restart(State initialState) 
+    throws DecisionException, InitializationException, 
+    InvalidClassFileFactoryClassException, NonexistingObservedVariablesException, 
+    ClasspathException, ContradictionException {
+        if (this.parametersWorkers != null) {
+            throw new UnsupportedOperationException("A parallel Runner cannot be restarted.");
+        }
+        this.engine.restart(initialState);
+        this.tracesTot = 0;
+        this.tracesOutOfScope = 0;
+    }
+
+    /**
+     * Runs the method. If the {@link Runner} was built for 
+     * a parallel exploration, the method returns when all the
+     * workers have terminated.
      * 
      * @throws CannotBacktrackException as in {@link Engine#backtrack()} 
      * @throws CannotManageStateException as in {@link Engine#step()} 
@@ -512,21 +582,201 @@ public class Runner {
     FailureException, NonexistingObservedVariablesException  {
         this.startTime = System.currentTimeMillis();
 
+        final ArrayList<Thread> workers = startWorkers();
         try {
-            doRun();
+            doRun(null);
         } finally {
+            joinWorkers(workers);
             this.stopTime = System.currentTimeMillis();
         }
+        rethrowWorkerFailure();
+    }
+    
+    private ArrayList<Thread> startWorkers() {
+        final ArrayList<Thread> retVal = new ArrayList<>();
+        if (this.parametersWorkers != null) {
+            for (int i = 1; i < this.parametersWorkers.getNumOfWorkers(); ++i) {
+                final Thread worker = new Thread(this::runWorker, "jbse-worker-" + i);
+                worker.setDaemon(true);
+                worker.start();
+                retVal.add(worker);
+            }
+        }
+        return retVal;
+    }
+    
+    private void runWorker() {
+        try {
+            //waits for the first donation
+            final State donated = this.workPool.take();
+            if (donated == null) {
+                return;
+            }
+            
+            //builds an engine starting from the initial state,
+            //with its own calculator and decision procedure
+            final WorkerFactory factory = this.parametersWorkers.getWorkerFactory();
+            final Calculator calc = factory.makeCalculator();
+            final State initialState = this.workPool.getInitialState();
+            initialState.setCalculator(calc);
+            final EngineParameters engineParameters = this.parametersWorkers.getEngineParameters().clone();
+            engineParameters.setInitialState(initialState);
+            engineParameters.setDecisionProcedure(factory.makeDecisionProcedure(calc));
+            try (final Engine engineWorker = new EngineBuilder().build(engineParameters)) {
+                final Runner worker = new Runner(engineWorker, factory.makeActions(), this.identifierSubregion, 
+                                                 this.timeout, this.heapScope, this.depthScope, this.countScope);
+                worker.workPool = this.workPool;
+                worker.calcWorker = calc;
+                worker.startTime = this.startTime;
+                try {
+                    worker.doRun(donated);
+                } finally {
+                    this.workPool.addStats(worker.tracesTot, worker.tracesOutOfScope);
+                }
+            }
+        } catch (Throwable e) {
+            this.workPool.fail(e);
+        }
+    }
+    
+    private void joinWorkers(ArrayList<Thread> workers) {
+        if (this.workPool == null) {
+            return;
+        }
+        this.workPool.stop();
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+    
+    private void rethrowWorkerFailure() 
+    throws CannotBacktrackException, CannotManageStateException, 
+    ClasspathException, ThreadStackEmptyException, 
+    ContradictionException, DecisionException, EngineStuckException, 
+    FailureException, NonexistingObservedVariablesException {
+        if (this.workPool == null) {
+            return;
+        }
+        final Throwable e = this.workPool.getFailure();
+        if (e == null) {
+            return;
+        } else if (e instanceof CannotBacktrackException) {
+            throw (CannotBacktrackException) e;
+        } else if (e instanceof CannotManageStateException) {
+            throw (CannotManageStateException) e;
+        } else if (e instanceof ClasspathException) {
+            throw (ClasspathException) e;
+        } else if (e instanceof ThreadStackEmptyException) {
+            throw (ThreadStackEmptyException) e;
+        } else if (e instanceof ContradictionException) {
+            throw (ContradictionException) e;
+        } else if (e instanceof DecisionException) {
+            throw (DecisionException) e;
+        } else if (e instanceof EngineStuckException) {
+            throw (EngineStuckException) e;
+        } else if (e instanceof FailureException) {
+            throw (FailureException) e;
+        } else if (e instanceof NonexistingObservedVariablesException) {
+            throw (NonexistingObservedVariablesException) e;
+        } else if (e instanceof RuntimeException) {
+            throw (RuntimeException) e;
+        } else if (e instanceof Error) {
+            throw (Error) e;
+        } else {
+            //this should never happen, since the 
+            //worker engines are built after the first one
+            throw new UnexpectedInternalException(e);
+        }
+    }
+    
+    /**
+     * Makes the engine continue from a state donated by 
+     * another worker, skipping the states that are not 
+     * in the run subregion.
+     * 
+     * @param donated the first donated {@link State}, 
+     *        or {@code null} if it must be taken from
+     *        {@code this.workPool}.
+     * @return the {@link BranchPoint} of the adopted state,
+     *         or {@code null} if the exploration is over.
+     * @throws DecisionBacktrackException as in {@link Engine#backtrack()}.
+     */
+    private BranchPoint adoptDonatedState(State donated) throws DecisionBacktrackException {
+        if (this.workPool == null) {
+            return null;
+        }
+        State toAdopt = (donated == null ? this.workPool.take() : donated);
+        while (toAdopt != null) {
+            if (this.calcWorker != null) {
+                toAdopt.setCalculator(this.calcWorker);
+            }
+            final BranchPoint bp = this.engine.adopt(toAdopt);
+            if (currentStateIsInRunSubregion()) {
+                return bp;
+            }
+            toAdopt = this.workPool.take();
+        }
+        return null;
+    }
+    
+    /**
+     * Donates pending states to the other workers
+     * while some of them is hungry.
+     * 
+     * @throws CannotBacktrackException never.
+     * @throws DecisionBacktrackException as in {@link Engine#donate()}.
+     */
+    private void donatePendingStates() throws CannotBacktrackException, DecisionBacktrackException {
+        if (this.workPool == null) {
+            return;
+        }
+        while (this.workPool.hungry() && this.engine.canDonate()) {
+            this.workPool.give(this.engine.donate(), this.engine);
+        }
     }
 
-    private void doRun() 
+    private void doRun(State donated) 
     throws CannotBacktrackException, CannotManageStateException, 
     ClasspathException, ThreadStackEmptyException, 
     ContradictionException, DecisionException, EngineStuckException, 
     FailureException, NonexistingObservedVariablesException  {
-        if (this.actions.atRoot()) { return; }
-        if (this.engine.atInitialState()) {
-            if (this.actions.atInitial()) { return; }
+        try {
+            doRunBody(donated);
+        } finally {
+            if (this.workPool != null) {
+                this.workPool.stop();
+            }
+        }
+    }
+
+    private void doRunBody(State donated) 
+    throws CannotBacktrackException, CannotManageStateException, 
+    ClasspathException, ThreadStackEmptyException, 
+    ContradictionException, DecisionException, EngineStuckException, 
+    FailureException, NonexistingObservedVariablesException  {
+        if (donated == null) {
+            if (this.actions.atRoot()) { return; }
+            if (this.engine.atInitialState()) {
+                if (this.actions.atInitial()) { return; }
+            }
+        } else {
+            //a worker starts by backtracking to a donated state
+            BranchPoint bp = null;
+            try {
+                bp = adoptDonatedState(donated);
+            } catch (DecisionBacktrackException e) {
+                if (this.actions.atDecisionBacktrackException(e)) { return; }
+            }
+            if (bp == null) {
+                this.actions.atEnd();
+                return;
+            }
+            if (this.actions.atBacktrackPost(bp)) { return; }
         }
 
         //performs the symbolic execution loop
@@ -592,6 +842,15 @@ public class Runner {
                         return;
                     }
                 }
+                
+                if (this.workPool != null) {
+                    if (this.workPool.stopped()) { return; }
+                    try {
+                        donatePendingStates();
+                    } catch (DecisionBacktrackException e) {
+                        if (this.actions.atDecisionBacktrackException(e)) { return; }
+                    }
+                }
 
                 if (this.actions.atStepPost()) { return; }
                 if (this.engine.sourceRowChanged() || this.engine.atFrameChanger()) {
@@ -631,14 +890,23 @@ public class Runner {
                 }
                 if (found) {
                     if (this.actions.atBacktrackPost(bp)) { return; }
-                } else {
-                    this.actions.atEnd();
-                    return;
+                    continue;
                 }
-            } else {
+            }
+            
+            //no pending state: if running in parallel
+            //waits for a donation from the other workers
+            BranchPoint bp = null;
+            try {
+                bp = adoptDonatedState(null);
+            } catch (DecisionBacktrackException e) {
+                if (this.actions.atDecisionBacktrackException(e)) { return; }
+            }
+            if (bp == null) {
                 this.actions.atEnd();
                 return;
             }
+            if (this.actions.atBacktrackPost(bp)) { return; }
         }
     }
 
@@ -671,7 +939,7 @@ public class Runner {
      * @return a {@code long}.
      */
     public long getTracesTotal() {
-        return this.tracesTot;
+        return this.tracesTot + (this.workPool == null ? 0 : this.workPool.getTracesTotal());
     }
 
     /**
@@ -681,7 +949,7 @@ public class Runner {
      * @return a {@code long}.
      */
     public long getTracesOutOfScope() {
-        return this.tracesOutOfScope;
+        return this.tracesOutOfScope + (this.workPool == null ? 0 : this.workPool.getTracesOutOfScope());
     }
 }
 
@@ -54,9 +54,13 @@ public class RunnerBuilder {
 	InvalidClassFileFactoryClassException, NonexistingObservedVariablesException, ClasspathException, 
 	NotYetImplementedException, ContradictionException {
 		this.engine = this.eb.build(parameters.getEngineParameters());
-		return new Runner(this.engine, parameters.getActions(), parameters.getIdentifierSubregion(), 
+		final Runner retVal = new Runner(this.engine, parameters.getActions(), parameters.getIdentifierSubregion(), 
 				parameters.getTimeout(), parameters.getHeapScope(), parameters.getDepthScope(), 
 				parameters.getCountScope());
+		if (parameters.getNumOfWorkers() > 1) {
+			retVal.setParallel(parameters.clone());
+		}
+		return retVal;
 	}
 	
 	/**
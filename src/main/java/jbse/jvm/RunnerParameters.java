@@ -59,6 +59,16 @@ public final class RunnerParameters implements Cloneable {
      * starting from root). 
      */
     private String identifierSubregion = null;
+    
+    /** The number of workers that explore the state space in parallel. */
+    private int numOfWorkers = 1;
+    
+    /** 
+     * The {@link WorkerFactory} for the workers besides the first 
+     * (which uses the decision procedure and the actions set
+     * in this object), or {@code null} for sequential execution. 
+     */
+    private WorkerFactory workerFactory = null;
 
     /** 
      * Constructor. 
@@ -355,6 +365,200 @@ public final class RunnerParameters implements Cloneable {
         return this.engineParameters.getMethodSignature();
     }
 
+    /**
+     * Sets whether the last pre-initial state, i.e., the
+     * state at the end of the bootstrap of the standard Java 
+     * classes, must be cached on disk and reused by all the 
+     * subsequent executions, also in other processes, with the same 
+     * classpath and configuration. By default it is set to {@code false}.
+     * Ignored when an initial state is set.
+     * 
+     * @param preInitialStateCaching a {@code boolean}.
+     */
+    public void setPreInitialStateCaching(boolean preInitialStateCaching) {
+        this.engineParameters.setPreInitialStateCaching(preInitialStateCaching);
+    }
+
+    /**
+     * Returns whether the last pre-initial state must be cached.
+     * 
+     * @return a {@code boolean}.
+     */
+    public boolean getPreInitialStateCaching() {
+        return this.engineParameters.getPreInitialStateCaching();
+    }
+
+    /**
+     * Sets the directory where the last pre-initial states 
+     * are cached when {@link #setPreInitialStateCaching(boolean) setPreInitialStateCaching}{@code (true)}.
+     *
+     * @param preInitialStateCacheDirectory a {@link String}.
+     * @throws NullPointerException if {@code preInitialStateCacheDirectory == null}.
+     */
+    public void setPreInitialStateCacheDirectory(String preInitialStateCacheDirectory) {
+        this.engineParameters.setPreInitialStateCacheDirectory(preInitialStateCacheDirectory);
+    }
+
+    /**
+     * Sets the directory where the last pre-initial states 
+     * are cached when {@link #setPreInitialStateCaching(boolean) setPreInitialStateCaching}{@code (true)}.
+     *
+     * @param preInitialStateCacheDirectory a {@link Path}.
+     * @throws NullPointerException if {@code preInitialStateCacheDirectory == null}.
+     */
+    public void setPreInitialStateCacheDirectory(Path preInitialStateCacheDirectory) {
+        this.engineParameters.setPreInitialStateCacheDirectory(preInitialStateCacheDirectory);
+    }
+
+    /**
+     * Returns the directory where the last pre-initial states are cached.
+     *
+     * @return a {@link Path}, or {@code null} if the default 
+     *         directory is used.
+     */
+    public Path getPreInitialStateCacheDirectory() {
+        return this.engineParameters.getPreInitialStateCacheDirectory();
+    }
+
+    /**
+     * Sets whether the simplest bytecodes (constants, 
+     * local variables, integer arithmetic, jumps...) on 
+     * concrete values must be executed directly on the 
+     * current frame, without the algorithm pipeline. 
+     * The states and the branch points are the same 
+     * either way. By default it is set to {@code true}.
+     * 
+     * @param concreteFastPath a {@code boolean}.
+     */
+    public void setConcreteFastPath(boolean concreteFastPath) {
+        this.engineParameters.setConcreteFastPath(concreteFastPath);
+    }
+
+    /**
+     * Returns whether the simplest bytecodes on concrete 
+     * values are executed without the algorithm pipeline.
+     * 
+     * @return a {@code boolean}.
+     */
+    public boolean getConcreteFastPath() {
+        return this.engineParameters.getConcreteFastPath();
+    }
+    
+    /**
+     * Bounds the number of pending states, i.e., states at
+     * branch points that have not yet been explored, that are
+     * kept in memory. The bound is a count of states, not a 
+     * size in bytes. When the bound is exceeded, the pending
+     * states that will be explored last are moved to disk, 
+     * and read back when needed. By default it is set to 
+     * {@code 0}, meaning that all the pending states are 
+     * kept in memory.
+     * 
+     * @param maxResidentPendingStates an {@code int}. If it is 
+     *        less than {@code 2}, all the pending states are 
+     *        kept in memory.
+     */
+    public void setMaxResidentPendingStates(int maxResidentPendingStates) {
+        this.engineParameters.setMaxResidentPendingStates(maxResidentPendingStates);
+    }
+    
+    /**
+     * Returns the maximum number of pending states
+     * that are kept in memory.
+     * 
+     * @return an {@code int}, {@code 0} meaning unbounded.
+     */
+    public int getMaxResidentPendingStates() {
+        return this.engineParameters.getMaxResidentPendingStates();
+    }
+    
+    /**
+     * Sets the directory where the pending states are moved
+     * when they exceed the bound set with {@link #setMaxResidentPendingStates(int)}.
+     * 
+     * @param spillDirectory a {@link String}.
+     * @throws NullPointerException if {@code spillDirectory == null}.
+     */
+    public void setSpillDirectory(String spillDirectory) {
+        this.engineParameters.setSpillDirectory(spillDirectory);
+    }
+    
+    /**
+     * Sets the directory where the pending states are moved
+     * when they exceed the bound set with {@link #setMaxResidentPendingStates(int)}.
+     * 
+     * @param spillDirectory a {@link Path}.
+     * @throws NullPointerException if {@code spillDirectory == null}.
+     */
+    public void setSpillDirectory(Path spillDirectory) {
+        this.engineParameters.setSpillDirectory(spillDirectory);
+    }
+    
+    /**
+     * Returns the directory where the pending states are moved.
+     * 
+     * @return a {@link Path}, or {@code null} if the default
+     *         temporary-file directory is used.
+     */
+    public Path getSpillDirectory() {
+        return this.engineParameters.getSpillDirectory();
+    }
+    
+    /**
+     * Makes the pending states, i.e., states at branch points 
+     * that have not yet been explored, be stored as a checkpoint
+     * state plus the decisions taken from the checkpoint, and
+     * rebuilt when needed by reexecuting the steps from the 
+     * checkpoint. This trades execution time for memory. 
+     * The checkpoints are placed so that no more than the given
+     * number of steps must be reexecuted to rebuild a state.
+     * Note that the side effects of reexecuted native methods
+     * (e.g., output to files) are repeated. By default it is set 
+     * to {@code 0}, meaning that the pending states are stored 
+     * in full.
+     * 
+     * @param maxReplaySteps an {@code int}. If it is less than 
+     *        {@code 1}, the pending states are stored in full.
+     */
+    public void setMaxReplaySteps(int maxReplaySteps) {
+        this.engineParameters.setMaxReplaySteps(maxReplaySteps);
+    }
+    
+    /**
+     * Returns the maximum number of steps to reexecute
+     * for rebuilding a pending state.
+     * 
+     * @return an {@code int}, {@code 0} meaning that 
+     *         the pending states are stored in full.
+     */
+    public int getMaxReplaySteps() {
+        return this.engineParameters.getMaxReplaySteps();
+    }
+    
+    /**
+     * Sets the maximum number of branch points between a 
+     * pending state and the checkpoint it is rebuilt from
+     * (see {@link #setMaxReplaySteps(int)}). By default 
+     * it is set to {@code 16}.
+     * 
+     * @param maxReplayDepth an {@code int}. If it is less 
+     *        than {@code 1}, the pending states are stored 
+     *        in full.
+     */
+    public void setMaxReplayDepth(int maxReplayDepth) {
+        this.engineParameters.setMaxReplayDepth(maxReplayDepth);
+    }
+    
+    /**
+     * Returns the maximum number of branch points between 
+     * a pending state and the checkpoint it is rebuilt from.
+     * 
+     * @return an {@code int}.
+     */
+    public int getMaxReplayDepth() {
+        return this.engineParameters.getMaxReplayDepth();
+    }
+
     /** 
      * Adds an {@link ExecutionObserver} performing additional
      * actions when a field changes its value.
@@ -813,6 +1017,61 @@ public final class RunnerParameters implements Cloneable {
         return this.identifierSubregion;
     }
 
+    /**
+     * Sets the exploration of the state space to be performed 
+     * in parallel by a given number of workers. Each worker
+     * runs its own {@link Engine}, and the workers that 
+     * have nothing to explore steal pending states from the 
+     * busy ones. The first worker uses the decision procedure
+     * and the actions set in this object, the others use 
+     * the ones created by a {@link WorkerFactory}.
+     * 
+     * @param numOfWorkers an {@code int}, the number of workers.
+     *        If it is {@code <= 1} the effect is the same as of 
+     *        {@link #setSequential()}.
+     * @param workerFactory a {@link WorkerFactory}.
+     * @throws NullPointerException if {@code workerFactory == null}.
+     */
+    public void setParallel(int numOfWorkers, WorkerFactory workerFactory) {
+        if (workerFactory == null) {
+            throw new NullPointerException();
+        }
+        if (numOfWorkers <= 1) {
+            setSequential();
+        } else {
+            this.numOfWorkers = numOfWorkers;
+            this.workerFactory = workerFactory;
+        }
+    }
+
+    /**
+     * Sets the exploration of the state space to be performed
+     * sequentially by one worker. This is the default behavior.
+     */
+    public void setSequential() {
+        this.numOfWorkers = 1;
+        this.workerFactory = null;
+    }
+
+    /**
+     * Gets the number of workers that explore the state space.
+     * 
+     * @return an {@code int}, {@code 1} for sequential exploration.
+     */
+    public int getNumOfWorkers() {
+        return this.numOfWorkers;
+    }
+
+    /**
+     * Gets the factory for the workers of a parallel exploration.
+     * 
+     * @return a {@link WorkerFactory}, or {@code null} for
+     *         sequential exploration.
+     */
+    public WorkerFactory getWorkerFactory() {
+        return this.workerFactory;
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public RunnerParameters clone() {
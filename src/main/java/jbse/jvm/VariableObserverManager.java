@@ -68,6 +68,7 @@ class VariableObserverManager {
     void init(Engine engine) 
     throws ThreadStackEmptyException, NonexistingObservedVariablesException {
         this.engine = engine;
+        this.values.clear();
         try {
 			this.rootObjectReference = this.engine.getCurrentState().getRootObjectReference();
 		} catch (FrozenStateException e) {
@@ -133,7 +134,17 @@ class VariableObserverManager {
 
     void restoreObservedVariablesValues(BranchPoint bp, boolean delete) {
         if (hasObservers()) {
-            this.values = this.savedValues.get(bp);
+            final ArrayList<Value> saved = this.savedValues.get(bp);
+            if (saved == null) {
+                //the branch was created by another engine and 
+                //donated: reads the values from the current state
+                this.values = new ArrayList<>();
+                for (int i = 0; i < this.numObservers(); ++i) {
+                    this.values.add(getObservedVariableValue(i));
+                }
+            } else {
+                this.values = saved;
+            }
             if (delete) {
                 this.savedValues.remove(bp);
             }
@@ -0,0 +1,199 @@
+package jbse.jvm;
+
+import java.util.ArrayDeque;
+
+import jbse.mem.State;
+
+/**
+ * The pool of the pending states that the workers of a parallel 
+ * {@link Runner} donate to each other. An idle worker waits 
+ * on the pool until some busy worker donates it a state, or 
+ * until all the workers are idle, which means that the 
+ * exploration is over. Busy workers donate when some worker 
+ * is hungry.
+ * 
+ * @author Pietro Braione
+ */
+final class WorkPool {
+    /** The donated states not yet taken by any worker. */
+    private final ArrayDeque<State> states = new ArrayDeque<>();
+    
+    /** The total number of workers. */
+    private final int numWorkers;
+    
+    /** The number of workers that are currently exploring some state. */
+    private int busyWorkers;
+    
+    /** Whether some worker waits for a donation. */
+    private volatile boolean hungry;
+    
+    /** Whether the exploration must be stopped. */
+    private volatile boolean stopped;
+    
+    /** 
+     * The initial state of the symbolic execution, set 
+     * with the first donation. 
+     */
+    private State initialState;
+    
+    /** The first failure of a worker, or {@code null}. */
+    private Throwable failure;
+    
+    /** Total number of traces explored by the workers that terminated. */
+    private long tracesTot;
+    
+    /** Total number of out-of-scope traces explored by the workers that terminated. */
+    private long tracesOutOfScope;
+    
+    /**
+     * Constructor.
+     * 
+     * @param numWorkers an {@code int}, the total number of
+     *        workers. All of them are initially accounted as 
+     *        busy, and the ones that have nothing to explore
+     *        shall invoke {@link #take()}.
+     */
+    WorkPool(int numWorkers) {
+        this.numWorkers = numWorkers;
+        this.busyWorkers = numWorkers;
+        this.hungry = false;
+        this.stopped = false;
+    }
+    
+    /**
+     * Checks whether some worker waits for a donation.
+     * 
+     * @return a {@code boolean}.
+     */
+    boolean hungry() {
+        return this.hungry;
+    }
+    
+    /**
+     * Checks whether the exploration must be stopped.
+     * 
+     * @return a {@code boolean}.
+     */
+    boolean stopped() {
+        return this.stopped;
+    }
+    
+    /**
+     * Donates a pending state.
+     * 
+     * @param donated the donated {@link State}.
+     * @param donor the {@link Engine} that donates {@code donated}.
+     *        Upon the first donation the initial state of the 
+     *        symbolic execution is taken from it.
+     */
+    synchronized void give(State donated, Engine donor) {
+        if (this.initialState == null) {
+            this.initialState = donor.getInitialState();
+        }
+        this.states.addLast(donated);
+        updateHungry();
+        notifyAll();
+    }
+    
+    /**
+     * Takes a donated state, possibly waiting for 
+     * some busy worker to donate it. The invoker is
+     * accounted as idle until a state is returned.
+     * 
+     * @return a {@link State}, or {@code null} if 
+     *         the exploration is over, either because 
+     *         all the workers are idle and there are 
+     *         no donated states, or because it was 
+     *         stopped.
+     */
+    synchronized State take() {
+        --this.busyWorkers;
+        updateHungry();
+        while (this.states.isEmpty() && this.busyWorkers > 0 && !this.stopped) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                this.stopped = true;
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (this.stopped || this.states.isEmpty()) {
+            updateHungry();
+            notifyAll();
+            return null;
+        }
+        ++this.busyWorkers;
+        final State retVal = this.states.removeFirst();
+        updateHungry();
+        return retVal;
+    }
+    
+    /**
+     * Stops the exploration: Idle workers are woken up
+     * and busy workers will return at their next step.
+     */
+    synchronized void stop() {
+        this.stopped = true;
+        updateHungry();
+        notifyAll();
+    }
+    
+    /**
+     * Records the failure of a worker and stops the
+     * exploration.
+     * 
+     * @param failure a {@link Throwable}. Only the first 
+     *        failure is recorded.
+     */
+    synchronized void fail(Throwable failure) {
+        if (this.failure == null) {
+            this.failure = failure;
+        }
+        stop();
+    }
+    
+    /**
+     * Returns the first failure of a worker.
+     * 
+     * @return a {@link Throwable}, or {@code null}
+     *         if no worker failed.
+     */
+    synchronized Throwable getFailure() {
+        return this.failure;
+    }
+    
+    /**
+     * Returns the initial state of the symbolic execution.
+     * 
+     * @return a {@link State} (a safety copy), or {@code null}
+     *         if no state was ever donated.
+     */
+    synchronized State getInitialState() {
+        return (this.initialState == null ? null : this.initialState.clone());
+    }
+    
+    /**
+     * Accounts the statistics of a terminated worker.
+     * 
+     * @param tracesTot a {@code long}, the total number of traces 
+     *        explored by the worker.
+     * @param tracesOutOfScope a {@code long}, the number of out-of-scope
+     *        traces explored by the worker.
+     */
+    synchronized void addStats(long tracesTot, long tracesOutOfScope) {
+        this.tracesTot += tracesTot;
+        this.tracesOutOfScope += tracesOutOfScope;
+    }
+    
+    synchronized long getTracesTotal() {
+        return this.tracesTot;
+    }
+    
+    synchronized long getTracesOutOfScope() {
+        return this.tracesOutOfScope;
+    }
+    
+    private void updateHungry() {
+        this.hungry = (!this.stopped && this.numWorkers - this.busyWorkers > this.states.size());
+    }
+}
@@ -0,0 +1,49 @@
+package jbse.jvm;
+
+import jbse.dec.DecisionProcedureAlgorithms;
+import jbse.dec.exc.DecisionException;
+import jbse.jvm.Runner.Actions;
+import jbse.val.Calculator;
+
+/**
+ * Factory for the components that cannot be shared by the 
+ * workers of a parallel {@link Runner}. Each worker owns 
+ * an {@link Engine} with its own calculator, its own decision 
+ * procedure (and thus, its own solver process) and its own 
+ * {@link Actions}.
+ * 
+ * @author Pietro Braione
+ */
+public interface WorkerFactory {
+    /**
+     * Creates a calculator for a worker.
+     * 
+     * @return a fresh {@link Calculator}, configured as the 
+     *         one of the symbolic execution, that does not 
+     *         share any component (e.g., rewriter) with the 
+     *         calculators of the other workers.
+     */
+    Calculator makeCalculator();
+    
+    /**
+     * Creates a decision procedure for a worker.
+     * 
+     * @param calc the {@link Calculator} of the worker, 
+     *        as created by {@link #makeCalculator()}.
+     * @return a fresh {@link DecisionProcedureAlgorithms}, that
+     *         does not share any component with the decision 
+     *         procedures of the other workers. It will be closed 
+     *         by the worker when it ends.
+     * @throws DecisionException if the creation of the 
+     *         decision procedure fails.
+     */
+    DecisionProcedureAlgorithms makeDecisionProcedure(Calculator calc) throws DecisionException;
+    
+    /**
+     * Creates the actions for a worker. Note that the 
+     * actions of different workers are invoked concurrently.
+     * 
+     * @return a fresh {@link Actions} object.
+     */
+    Actions makeActions();
+}
@@ -25,6 +25,7 @@ import jbse.val.exc.InvalidTypeException;
  *  
  * @author Pietro Braione
  */
+@SuppressWarnings("serial")
 public interface Array extends Objekt {
     /** 
      * The {@link String} identifier of the {@link Term} used to
@@ -3,7 +3,9 @@ package jbse.mem;
 import static jbse.common.Type.getArrayMemberType;
 import static jbse.common.Type.isPrimitive;
 
+import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
@@ -39,6 +41,11 @@ import jbse.val.exc.InvalidTypeException;
  * @author Pietro Braione
  */
 public final class ArrayImpl extends ObjektImpl implements Array {
+    private static final long serialVersionUID = -831535413873570190L;
+
+    /** Value of {@link AccessOutcomeInImpl#writeIndex} for the entries not written at a concrete index. */
+    private static final int NO_WRITE_INDEX = -1;
+
     /*Fields*/
 
     /** 
@@ -65,9 +72,28 @@ public final class ArrayImpl extends ObjektImpl implements Array {
     /** An {@link Expression} stating that {@code INDEX} is in range. */
     private final Expression indexInRange;
 
-    /** Describes the values stored in the array. */
+    /** 
+     * Describes the values stored in the array; {@code null}
+     * when the array is stored in {@link #dense}. 
+     */
     private LinkedList<AccessOutcomeInImpl> entries; //TODO do not use AccessOutcome..., but define a suitable private Entry class
 
+    /**
+     * The values stored in the array when it has simple 
+     * representation and it is stored densely: The entry
+     * at index {@code i} is {@code dense[i]} with access
+     * condition {@code INDEX == i}; it is {@code null} 
+     * iff the array is stored in {@link #entries}. 
+     */
+    private Value[] dense;
+
+    /**
+     * Whether {@link #dense} may be shared with some
+     * clone, and thus must be copied before being 
+     * modified.
+     */
+    private boolean denseShared;
+
     /** 
      * Indicates whether the array has a simple representation, i.e., 
      * whether it has as many entries as its length, each corresponding 
@@ -76,7 +102,9 @@ public final class ArrayImpl extends ObjektImpl implements Array {
      */ 
     private boolean simpleRep;
 
-    public abstract class AccessOutcomeImpl implements AccessOutcome {
+    public abstract class AccessOutcomeImpl implements AccessOutcome, Serializable {
+        private static final long serialVersionUID = -2710643736215022197L;
+
         /** 
          * An {@link Expression} denoting the condition over 
          * the array index yielding this {@link AccessOutcome}. 
@@ -150,6 +178,19 @@ public final class ArrayImpl extends ObjektImpl implements Array {
     }
 
     public abstract class AccessOutcomeInImpl extends AccessOutcomeImpl implements AccessOutcomeIn { 
+        private static final long serialVersionUID = -1281649485715538655L;
+
+        /**
+         * The concrete index where this entry was written, if 
+         * its access condition is {@code INDEX == writeIndex}, 
+         * possibly conjoined with the condition that {@code INDEX}
+         * is in range; otherwise {@link #NO_WRITE_INDEX}. An access
+         * at a different concrete index surely does not hit 
+         * the entry, and a later write at the same index surely 
+         * overwrites it.
+         */
+        int writeIndex = NO_WRITE_INDEX;
+        
         /**
          * Constructor (outcome returned by a concrete get).
          */
@@ -168,6 +209,13 @@ public final class ArrayImpl extends ObjektImpl implements Array {
         private AccessOutcomeInImpl(Expression accessCondition) { 
             super(accessCondition);  
         }
+        
+        @Override
+        void strengthenAccessCondition(Expression condition) 
+        throws InvalidOperandException, InvalidTypeException {
+            super.strengthenAccessCondition(condition);
+            this.writeIndex = NO_WRITE_INDEX;
+        }
 
         @Override
         public AccessOutcomeInImpl clone() {
@@ -180,6 +228,8 @@ public final class ArrayImpl extends ObjektImpl implements Array {
     }
 
     public final class AccessOutcomeInInitialArrayImpl extends AccessOutcomeInImpl implements AccessOutcomeInInitialArray {
+        private static final long serialVersionUID = 1363079863237478963L;
+
         /**
          * A reference to the other (symbolic) {@link ArrayImpl} that backs 
          * this array.
@@ -245,6 +295,8 @@ public final class ArrayImpl extends ObjektImpl implements Array {
     }
 
     public final class AccessOutcomeInValueImpl extends AccessOutcomeInImpl implements AccessOutcomeInValue {
+        private static final long serialVersionUID = 2743174749368733194L;
+
         /**
          * A {@link Value} denoting the value returned  
          * by the array access. It can be either a 
@@ -307,6 +359,8 @@ public final class ArrayImpl extends ObjektImpl implements Array {
     }
 
     public final class AccessOutcomeOutImpl extends AccessOutcomeImpl implements AccessOutcomeOut { 
+        private static final long serialVersionUID = -2583758040993165114L;
+
         /**
          * Constructor (outcome returned by a concrete get).
          */
@@ -434,28 +488,81 @@ public final class ArrayImpl extends ObjektImpl implements Array {
         //we may hope that normalization will succeed upon array access, thus reducing 
         //the calls to the prover. Of course there is a complementary risk, i.e., that
         //having many entries results in the creation of many branches. 
-        this.entries = new LinkedList<>();
         if (getLength() instanceof Simplex) {
             final int ln = ((Integer) ((Simplex) getLength()).getActualValue()).intValue();
             if (ln <= maxSimpleArrayLength) {
                 this.simpleRep = true;
-                for (int i = 0; i < ln; i++) {
-                    try {
-                        this.entries.add(new AccessOutcomeInValueImpl((Expression) INDEX.eq(this.calc.valInt(i)),
-                                                                  entryValue));
-                    } catch (InvalidOperandException | InvalidTypeException e) {
-                        //this should never happen
-                        throw new UnexpectedInternalException(e);
-                    }
-                }
+                this.dense = new Value[ln];
+                Arrays.fill(this.dense, entryValue);
                 return;
             }
         }
         //otherwise, do not use simple representation
         this.simpleRep = false;
+        this.entries = new LinkedList<>();
         this.entries.add(new AccessOutcomeInValueImpl(this.indexInRange, entryValue));
     }
     
+    /**
+     * Builds the entry at a given index of {@link #dense}.
+     * 
+     * @param i an {@code int}, the index.
+     * @return a new {@link AccessOutcomeInValueImpl} with 
+     *         access condition {@code INDEX == i}. 
+     */
+    private AccessOutcomeInValueImpl denseEntry(int i) {
+        try {
+            final AccessOutcomeInValueImpl retVal = new AccessOutcomeInValueImpl((Expression) INDEX.eq(this.calc.valInt(i)), this.dense[i]);
+            retVal.writeIndex = i;
+            return retVal;
+        } catch (InvalidOperandException | InvalidTypeException e) {
+            //this should never happen
+            throw new UnexpectedInternalException(e);
+        }
+    }
+    
+    /**
+     * Returns the entries of this array.
+     * 
+     * @return a {@link List}{@code <}{@link AccessOutcomeInImpl}{@code >}; 
+     *         if this array is stored in {@link #dense} it is 
+     *         a list of new entries that can be freely modified,
+     *         otherwise it is {@link #entries}. 
+     */
+    private List<AccessOutcomeInImpl> entriesView() {
+        if (this.dense == null) {
+            return this.entries;
+        }
+        final ArrayList<AccessOutcomeInImpl> retVal = new ArrayList<>(this.dense.length);
+        for (int i = 0; i < this.dense.length; ++i) {
+            retVal.add(denseEntry(i));
+        }
+        return retVal;
+    }
+    
+    /**
+     * Moves the array from {@link #dense} to 
+     * {@link #entries}, if it is not already there.
+     */
+    private void materialize() {
+        if (this.dense != null) {
+            this.entries = new LinkedList<>(entriesView());
+            this.dense = null;
+            this.denseShared = false;
+        }
+    }
+    
+    /**
+     * Makes {@link #dense} modifiable, by copying
+     * it if it is possibly shared. 
+     */
+    private void unshareDense() {
+        if (this.denseShared) {
+            this.dense = this.dense.clone();
+            this.denseShared = false;
+        }
+    }
+    
     @Override
     ObjektWrapper<? extends ObjektImpl> makeWrapper(Heap destinationHeap, long destinationPosition) {
     	return new ArrayWrapper(destinationHeap, destinationPosition, this);
@@ -474,6 +581,14 @@ public final class ArrayImpl extends ObjektImpl implements Array {
     @Override
     public boolean isSimple() {
         if (hasSimpleRep()) {
+            if (this.dense != null) {
+                for (Value v : this.dense) {
+                    if (v == null || v.isSymbolic()) {
+                        return false;
+                    }
+                }
+                return true;
+            }
             for (AccessOutcomeIn e : this.entries) {
                 if (!(e instanceof AccessOutcomeInValue) || ((AccessOutcomeInValue) e).getValue().isSymbolic()) {
                     return false;
@@ -501,6 +616,14 @@ public final class ArrayImpl extends ObjektImpl implements Array {
         if (!this.simpleRep) {
             throw new FastArrayAccessNotAllowedException();
         }
+        if (this.dense != null) {
+            final int indexInt = ((Integer) index.getActualValue()).intValue();
+            if (indexInt >= 0 && indexInt < this.dense.length) {
+                return new AccessOutcomeInValueImpl(this.dense[indexInt]);
+            } else {
+                return new AccessOutcomeOutImpl();
+            }
+        }
         return get(index).iterator().next();
     }
 
@@ -508,6 +631,16 @@ public final class ArrayImpl extends ObjektImpl implements Array {
     public Collection<AccessOutcome> get(Primitive index) 
     throws InvalidOperandException, InvalidTypeException {
         final ArrayList<AccessOutcome> retVal = new ArrayList<>();
+        if (this.dense != null && index instanceof Simplex && index.getType() == Type.INT) {
+            //the fastest case, no need to build the range expression
+            final int indexInt = ((Integer) ((Simplex) index).getActualValue()).intValue();
+            if (indexInt >= 0 && indexInt < this.dense.length) {
+                retVal.add(new AccessOutcomeInValueImpl(this.dense[indexInt]));
+            } else {
+                retVal.add(new AccessOutcomeOutImpl());
+            }
+            return retVal;
+        }
         final Primitive inRange = inRange(index);
 
         //builds the answer
@@ -527,8 +660,14 @@ public final class ArrayImpl extends ObjektImpl implements Array {
             }
         } else {
             //scans the entries and adds all the (possibly) satisfiable 
-            //inbound cases
-            for (AccessOutcomeIn e : this.entries) {
+            //inbound cases; with a concrete index, the entries written 
+            //at another concrete index are skipped without building
+            //their (surely false) range expression
+            final int indexInt = concreteIndex(index);
+            for (AccessOutcomeInImpl e : entriesView()) {
+                if (indexInt != NO_WRITE_INDEX && e.writeIndex != NO_WRITE_INDEX && e.writeIndex != indexInt) {
+                    continue;
+                }
                 final Primitive inRangeEntry = e.inRange(index);
                 if (inRangeEntry.surelyTrue()) { //this may only happen when index is Simplex
                     if (e instanceof AccessOutcomeInValue) {
@@ -576,6 +715,13 @@ public final class ArrayImpl extends ObjektImpl implements Array {
             throw new FastArrayAccessNotAllowedException();
         }
         final int actualIndex = (Integer) index.getActualValue();
+        if (this.dense != null) {
+            if (actualIndex >= 0 && actualIndex < this.dense.length) {
+                unshareDense();
+                this.dense[actualIndex] = item;
+            } 	//TODO else throw an exception???
+            return;
+        }
         final int actualLength = (Integer) ((Simplex) this.getLength()).getActualValue();
         if (actualIndex >= 0 && actualIndex < actualLength) {
             final AccessOutcomeIn e = this.entries.get(actualIndex);
@@ -597,14 +743,34 @@ public final class ArrayImpl extends ObjektImpl implements Array {
         if (index.getType() != Type.INT) {
             throw new InvalidTypeException("attempted array access with an index with type " + index.getType());
         }
+        materialize();
         this.simpleRep = false;
         final Expression formalIndexIsSetIndex = (Expression) INDEX.eq(index);
         final Expression accessExpression = (Expression) this.indexInRange.and(formalIndexIsSetIndex); //if we assume that index may be in range, this is an Expression
-        this.entries.add(new AccessOutcomeInValueImpl(accessExpression, valToSet));
+        final AccessOutcomeInValueImpl entry = new AccessOutcomeInValueImpl(accessExpression, valToSet);
+        entry.writeIndex = concreteIndex(index);
+        this.entries.add(entry);
+    }
+    
+    /**
+     * Returns the value of an index, if it is a nonnegative concrete value.
+     * 
+     * @param index a {@link Primitive} with type {@link Type#INT INT}.
+     * @return the value of {@code index} if it is a nonnegative 
+     *         {@link Simplex}, otherwise {@link #NO_WRITE_INDEX}.
+     */
+    private static int concreteIndex(Primitive index) {
+        if (index instanceof Simplex && index.getType() == Type.INT) {
+            final int retVal = ((Integer) ((Simplex) index).getActualValue()).intValue();
+            return (retVal < 0 ? NO_WRITE_INDEX : retVal);
+        }
+        return NO_WRITE_INDEX;
     }
     
     @Override
     public Iterator<? extends AccessOutcomeIn> entriesPossiblyAffectedByAccess(final Primitive index, final Value valToSet) {
+        materialize(); //the caller may modify the entries
+        final int indexInt = concreteIndex(index);
         return new Iterator<AccessOutcomeIn>() {
             //this iterator filters the relevant members in Array.this.values
             //by wrapping the default iterator to it
@@ -617,7 +783,17 @@ public final class ArrayImpl extends ObjektImpl implements Array {
                 this.next = null;
                 //looks for the next entry possibly affected by the set operation
                 while (this.it.hasNext()) {
-                    final AccessOutcomeIn e = this.it.next();
+                    final AccessOutcomeInImpl e = this.it.next();
+                    
+                    //entries written at a concrete index are either 
+                    //surely overwritten (then they are dropped) or 
+                    //surely not affected
+                    if (indexInt != NO_WRITE_INDEX && e.writeIndex != NO_WRITE_INDEX) {
+                        if (e.writeIndex == indexInt) {
+                            this.it.remove();
+                        }
+                        continue;
+                    }
 
                     //determines whether the entry is possibly affected by the set
                     //operation
@@ -692,7 +868,15 @@ public final class ArrayImpl extends ObjektImpl implements Array {
     	if (!this.classFile.equals(otherImpl.classFile)) {
     		throw new InvalidTypeException("tried to clone entries of a " + otherImpl.classFile + " array into a " + this.classFile + " array");
     	}
-    	this.entries.clear();
+    	if (otherImpl.dense != null) {
+    		this.entries = null;
+    		this.dense = otherImpl.dense;
+    		this.denseShared = otherImpl.denseShared = true;
+    		return;
+    	}
+    	this.dense = null;
+    	this.denseShared = false;
+    	this.entries = new LinkedList<>();
     	for (AccessOutcomeInImpl entry : otherImpl.entries) {
     		final AccessOutcomeInImpl entryClone = entry.clone();
     		try {
@@ -731,8 +915,27 @@ public final class ArrayImpl extends ObjektImpl implements Array {
     		int srcPosInt = ((Integer) ((Simplex) srcPos).getActualValue()).intValue();
     		int destPosInt = ((Integer) ((Simplex) destPos).getActualValue()).intValue();
     		int lengthInt = ((Integer) ((Simplex) length).getActualValue()).intValue();
+    		if (this.dense != null && srcImpl.dense != null) {
+    			//bulk copy; a source overlapping the destination
+    			//is copied first, as System.arraycopy does
+    			final Value[] srcValues = (srcImpl == this ? Arrays.copyOfRange(srcImpl.dense, srcPosInt, srcPosInt + lengthInt) : srcImpl.dense);
+    			final int srcValuesPos = (srcImpl == this ? 0 : srcPosInt);
+    			unshareDense();
+    			if (!isPrimitive(srcTypeComponent) && !isPrimitive(destTypeComponent)) {
+    				for (int ofst = 0; ofst < lengthInt; ++ofst) {
+    					final Value srcValue = srcValues[srcValuesPos + ofst];
+    					checkOk.accept((Reference) srcValue);
+    					this.dense[destPosInt + ofst] = srcValue;
+    				}
+    			} else {
+    				System.arraycopy(srcValues, srcValuesPos, this.dense, destPosInt, lengthInt);
+    			}
+    			return EMPTY_ITERATOR;
+    		}
+    		materialize();
+    		final List<AccessOutcomeInImpl> srcEntries = srcImpl.entriesView();
     		for (int ofst = 0; ofst < lengthInt; ++ofst) {
-    			final AccessOutcomeIn srcEntry = srcImpl.entries.get(srcPosInt + ofst);
+    			final AccessOutcomeIn srcEntry = srcEntries.get(srcPosInt + ofst);
     			final AccessOutcomeInImpl destEntry;
     			if (srcEntry instanceof AccessOutcomeInValue) {
     				final Value srcValue = ((AccessOutcomeInValue) srcEntry).getValue();
@@ -750,6 +953,7 @@ public final class ArrayImpl extends ObjektImpl implements Array {
     		}
     		return EMPTY_ITERATOR;
     	} else {
+    		materialize();
     		this.simpleRep = false;
     		final Expression indexInDestRange = (Expression) INDEX.ge(destPos).and(INDEX.lt(destPos.add(length)));
     		final Expression indexNotInDestRange = (Expression) indexInDestRange.not();
@@ -761,7 +965,7 @@ public final class ArrayImpl extends ObjektImpl implements Array {
 
     		//adds new entries corresponding to the source array entries
     		final Primitive srcIndex = INDEX.sub(destPos).add(srcPos);
-    		for (AccessOutcomeIn srcEntry : srcImpl.entries) {
+    		for (AccessOutcomeIn srcEntry : srcImpl.entriesView()) {
     			final Expression accessCondition = (Expression) this.indexInRange.and(srcEntry.inRange(srcIndex)).and(indexInDestRange);
     			final AccessOutcomeInImpl destEntry;
     			if (srcEntry instanceof AccessOutcomeInValue) {
@@ -800,6 +1004,10 @@ public final class ArrayImpl extends ObjektImpl implements Array {
     @Override
     public List<AccessOutcomeIn> values() {
     	final ArrayList<AccessOutcomeIn> retVal = new ArrayList<>();
+    	if (this.dense != null) {
+    		retVal.addAll(entriesView());
+    		return retVal;
+    	}
     	for (AccessOutcomeIn entry : this.entries) {
     		retVal.add(entry.clone());
     	}
@@ -810,6 +1018,12 @@ public final class ArrayImpl extends ObjektImpl implements Array {
     public String valueString() {
     	if (this.classFile.getMemberClass().getClassName().equals("char") && isSimple()) {
     		final StringBuilder buf = new StringBuilder();
+    		if (this.dense != null) {
+    			for (Value v : this.dense) {
+    				buf.append(v.toString());
+    			}
+    			return buf.toString();
+    		}
     		for (AccessOutcomeIn e : this.entries) {
     			buf.append(((AccessOutcomeInValue) e).getValue().toString());
     		}
@@ -829,7 +1043,7 @@ public final class ArrayImpl extends ObjektImpl implements Array {
     	String str = "[Type:" + this.classFile + ", Length:" + this.getLength().toString() + ", Elements: {";
     	boolean firstEntryPassed = false;
     	final StringBuilder buf = new StringBuilder();
-    	for (AccessOutcomeIn e : this.entries) {
+    	for (AccessOutcomeIn e : entriesView()) {
     		if (firstEntryPassed) {
     			buf.append(", ");
     		} else {
@@ -845,6 +1059,11 @@ public final class ArrayImpl extends ObjektImpl implements Array {
     public ArrayImpl clone() {
     	final ArrayImpl o = (ArrayImpl) super.clone();
 
+    	if (this.dense != null) {
+    		//copy on write
+    		this.denseShared = o.denseShared = true;
+    		return o;
+    	}
     	o.entries = new LinkedList<>();
     	for (AccessOutcomeInImpl e : this.entries) {
     		o.entries.add(e.clone());
@@ -24,6 +24,8 @@ import jbse.val.exc.InvalidTypeException;
  * copy-on-write.
  */
 final class ArrayWrapper extends ObjektWrapper<ArrayImpl> implements Array {
+	private static final long serialVersionUID = 2286836207096670345L;
+
 	/**
 	 * Constructor.
 	 * 
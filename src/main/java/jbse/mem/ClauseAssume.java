@@ -11,6 +11,8 @@ import jbse.val.Primitive;
  *
  */
 public class ClauseAssume implements Clause {
+	private static final long serialVersionUID = -560912606965425861L;
+
 	private final Primitive p;
 	
 	/**
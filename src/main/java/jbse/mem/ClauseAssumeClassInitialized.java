@@ -11,6 +11,8 @@ import jbse.bc.ClassFile;
  *
  */
 public class ClauseAssumeClassInitialized implements Clause {
+    private static final long serialVersionUID = 68609267271904187L;
+
     private final ClassFile classFile;
     private final Klass k;
 
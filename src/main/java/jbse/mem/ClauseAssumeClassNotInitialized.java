@@ -11,6 +11,8 @@ import jbse.bc.ClassFile;
  *
  */
 public class ClauseAssumeClassNotInitialized implements Clause {
+    private static final long serialVersionUID = 818969504863646330L;
+
     private final ClassFile classFile;
 
     /**
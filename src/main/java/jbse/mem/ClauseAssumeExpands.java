@@ -11,6 +11,8 @@ import jbse.val.ReferenceSymbolic;
  *
  */
 public class ClauseAssumeExpands extends ClauseAssumeReferenceSymbolic {
+	private static final long serialVersionUID = -1100944659070262466L;
+
 	private final long heapPosition;
 	private final Objekt object;
 	
@@ -1,5 +1,6 @@
 package jbse.mem;
 
+import java.io.Serializable;
 import java.util.Collection;
 import java.util.SortedMap;
 
@@ -14,7 +15,9 @@ import jbse.val.Value;
  * Abstract class representing the activation context of 
  * a bytecode sequence.
  */
-public abstract class Frame implements Cloneable {
+public abstract class Frame implements Cloneable, Serializable {
+    private static final long serialVersionUID = -651203574895259915L;
+
     /** 
      * The value for the return program counter of 
      * the topmost (current) frame.
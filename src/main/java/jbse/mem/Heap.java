@@ -1,86 +1,74 @@
 package jbse.mem;
 
-import java.util.Collection;
-import java.util.Iterator;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
-import jbse.bc.ClassFile;
-import jbse.bc.Signature;
 import jbse.common.exc.UnexpectedInternalException;
 import jbse.mem.exc.HeapMemoryExhaustedException;
-import jbse.val.HistoryPoint;
-import jbse.val.Primitive;
-import jbse.val.ReferenceSymbolic;
-import jbse.val.Value;
 
 /**
- * Class that implements the heap in the JVM's memory.
+ * Class that implements the heap in the JVM's memory. The objects
+ * are stored in a persistent 32-way trie indexed by heap position, 
+ * whose nodes are shared among the heaps produced by {@link #lazyClone()} 
+ * and copied upon writing. Each heap owns an edit token, and may modify 
+ * in place only the nodes it created after its last cloning. The objects 
+ * in the heap are copied upon writing as well: When an object that is 
+ * shared with another heap is read, it is replaced by an 
+ * {@link ObjektWrapper} that clones it upon modification.
  */
-final class Heap implements Cloneable {
-    private final long maxHeapSize;
-	private Heap delegate; //TODO nonfinal to allow cloning
-    private SortedMap<Long, Objekt> objects; //TODO nonfinal to allow cloning
-    private long nextIndex;
-    
-    private static final class PleaseLookInDelegateHeap implements Objekt {
-    	private static final PleaseLookInDelegateHeap INSTANCE = new PleaseLookInDelegateHeap();
-		static PleaseLookInDelegateHeap instance() { return INSTANCE; }
-		
-		private PleaseLookInDelegateHeap() { }
-		
-		private static final String ERROR_USE = "Attempted to use class Heap.PleaseDelegate as it were a true Objekt.";
-
-		@Override
-		public ClassFile getType() { throw new UnexpectedInternalException(ERROR_USE); }
-
-		@Override
-		public ReferenceSymbolic getOrigin() { throw new UnexpectedInternalException(ERROR_USE); }
-
-		@Override
-		public HistoryPoint historyPoint() { throw new UnexpectedInternalException(ERROR_USE); }
-
-		@Override
-		public boolean isSymbolic() { throw new UnexpectedInternalException(ERROR_USE); }
-		
-		@Override
-		public void setIdentityHashCode(Primitive identityHashCode) { throw new UnexpectedInternalException(ERROR_USE); }
-
-		@Override
-		public Primitive getIdentityHashCode() { throw new UnexpectedInternalException(ERROR_USE); }
-
-		@Override
-		public Collection<Signature> getStoredFieldSignatures() { throw new UnexpectedInternalException(ERROR_USE); }
-
-		@Override
-		public boolean hasSlot(int slot) { throw new UnexpectedInternalException(ERROR_USE); }
-
-		@Override
-		public Value getFieldValue(Signature sig) { throw new UnexpectedInternalException(ERROR_USE); }
+final class Heap implements Cloneable, Serializable {
+    private static final long serialVersionUID = -2155044242747779381L;
 
-		@Override
-		public Value getFieldValue(String fieldName) { throw new UnexpectedInternalException(ERROR_USE); }
-
-		@Override
-		public Value getFieldValue(int slot) { throw new UnexpectedInternalException(ERROR_USE); }
-
-		@Override
-		public int getFieldSlot(Signature field) { throw new UnexpectedInternalException(ERROR_USE); }
-
-		@Override
-		public void setFieldValue(Signature field, Value item) { throw new UnexpectedInternalException(ERROR_USE); }
-
-		@Override
-		public void setFieldValue(int slot, Value item) { throw new UnexpectedInternalException(ERROR_USE); }
-
-		@Override
-		public Map<String, Variable> fields() { throw new UnexpectedInternalException(ERROR_USE); }
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+    
+    /** 
+     * Above this shift the trie covers all 
+     * the nonnegative {@code long}s.
+     */
+    private static final int MAX_SHIFT = 60;
+    
+    /**
+     * A node of the trie. Leaf nodes store {@link Objekt}s
+     * together with the edit token of the heap that stored
+     * them, inner nodes store children nodes.
+     */
+    private static final class Node implements Serializable {
+        private static final long serialVersionUID = -5340432361591512977L;
 
-		@Override
-		public Objekt clone() { throw new UnexpectedInternalException(ERROR_USE); }
+        final Object edit;
+        final Object[] slots;
+        final Object[] owners; //null for inner nodes
+        
+        Node(Object edit, boolean leaf) {
+            this.edit = edit;
+            this.slots = new Object[WIDTH];
+            this.owners = (leaf ? new Object[WIDTH] : null);
+        }
+        
+        private Node(Object edit, Node toCopy) {
+            this.edit = edit;
+            this.slots = toCopy.slots.clone();
+            this.owners = (toCopy.owners == null ? null : toCopy.owners.clone());
+        }
+        
+        Node copy(Object edit) {
+            return new Node(edit, this);
+        }
     }
+    
+    private final long maxHeapSize;
+    private Node root; //TODO nonfinal to allow cloning
+    private int shift; //TODO nonfinal to allow cloning
+    private int size; //TODO nonfinal to allow cloning
+    private Object edit; //TODO nonfinal to allow cloning
+    private long nextIndex;
 
     /**
      * Constructor.
@@ -89,9 +77,11 @@ final class Heap implements Cloneable {
      *        of objects this heap can store.
      */
     Heap(long maxHeapSize) {
-    	this.delegate = null;
         this.maxHeapSize = maxHeapSize;
-        this.objects = new TreeMap<>();
+        this.edit = new Object();
+        this.root = new Node(this.edit, true);
+        this.shift = 0;
+        this.size = 0;
         this.nextIndex = Util.POS_ROOT;
     }
 
@@ -107,7 +97,7 @@ final class Heap implements Cloneable {
      *         cannot store any more object.
      */
     long addNew(ObjektImpl item) throws HeapMemoryExhaustedException {
-        if (this.objects.size() >= this.maxHeapSize) {
+        if (this.size >= this.maxHeapSize) {
             throw new HeapMemoryExhaustedException();
         }
         return addNewSurely(item);
@@ -123,11 +113,8 @@ final class Heap implements Cloneable {
      *         where {@code item} is stored.
      */
     long addNewSurely(ObjektImpl item) {
-        this.objects.put(this.nextIndex, item);
-        long retVal = this.nextIndex;
-        while (this.objects.containsKey(this.nextIndex)) {
-            ++this.nextIndex;
-        }
+        final long retVal = this.nextIndex;
+        set(retVal, item);
         return retVal;
     }
 
@@ -139,9 +126,11 @@ final class Heap implements Cloneable {
      * @param item the {@link Objekt} to stored at {@code pos}.
      */
     void set(long pos, Objekt item) {
-        this.objects.put(pos, item);
-        //next free position, without garbage collection
-        while (objects.containsKey(this.nextIndex)) {
+        put(pos, item);
+        //next free position, without garbage collection; since
+        //nextIndex never decreases, on average it skips at
+        //most one position per stored object
+        while (getLocal(this.nextIndex) != null) {
             if (this.nextIndex == Long.MAX_VALUE) {
                 throw new UnexpectedInternalException("Heap space exhausted.");
             }
@@ -158,41 +147,160 @@ final class Heap implements Cloneable {
      *         {@code null} if nothing is stored at {@code pos}.
      **/
     Objekt getObject(long pos) {
-        final Objekt localObjekt = this.objects.get(pos);
-        if (localObjekt == PleaseLookInDelegateHeap.instance()) {
-        	final ObjektImpl trueObjekt = getTheRealThing(pos);
-        	final ObjektWrapper<?> delegateObjekt = trueObjekt.makeWrapper(this, pos);
-        	set(pos, delegateObjekt);
-        	return delegateObjekt;
+        final Node leaf = leaf(pos);
+        if (leaf == null) {
+            return null;
+        }
+        final int i = (int) (pos & MASK);
+        final Objekt localObjekt = (Objekt) leaf.slots[i];
+        if (localObjekt == null || leaf.owners[i] == this.edit) {
+            return localObjekt;
         } else {
-        	return localObjekt;
+            //the object is shared with some other heap
+            final ObjektImpl trueObjekt = theRealThing(localObjekt);
+            final ObjektWrapper<?> delegateObjekt = trueObjekt.makeWrapper(this, pos);
+            put(pos, delegateObjekt);
+            return delegateObjekt;
         }
     }
     
-    private ObjektImpl getTheRealThing(long pos) {
-        final Objekt localObjekt = this.objects.get(pos);
-        if (localObjekt == PleaseLookInDelegateHeap.instance()) {
-        	return this.delegate.getTheRealThing(pos);
-        } else if (localObjekt instanceof ObjektWrapper<?>) {
-        	return ((ObjektWrapper<?>) localObjekt).getDelegate();
+    private static ObjektImpl theRealThing(Objekt localObjekt) {
+        if (localObjekt instanceof ObjektWrapper<?>) {
+            return ((ObjektWrapper<?>) localObjekt).getDelegate();
         } else {
-        	return (ObjektImpl) localObjekt;
+            return (ObjektImpl) localObjekt;
         }
     }
     
-    private void makeAllWrappers() {
-        for (Map.Entry<Long, Objekt> e : this.objects.entrySet()) {
-            if (e.getValue() == PleaseLookInDelegateHeap.instance()) {
-            	final long pos = e.getKey();
-            	final ObjektImpl trueObjekt = getTheRealThing(pos);
-            	final ObjektWrapper<?> delegateObjekt = trueObjekt.makeWrapper(this, pos);
-            	e.setValue(delegateObjekt);
+    /**
+     * Returns the leaf node of the trie that 
+     * should store the object at a given position.
+     * 
+     * @param pos a {@code long}, a heap position.
+     * @return the leaf {@link Node} for {@code pos}, or 
+     *         {@code null} if there is no such node.
+     */
+    private Node leaf(long pos) {
+        if (pos < 0 || !fits(pos, this.shift)) {
+            return null;
+        }
+        Node n = this.root;
+        for (int s = this.shift; s > 0; s -= BITS) {
+            n = (Node) n.slots[(int) ((pos >>> s) & MASK)];
+            if (n == null) {
+                return null;
+            }
+        }
+        return n;
+    }
+    
+    private static boolean fits(long pos, int shift) {
+        return shift >= MAX_SHIFT || (pos >>> (shift + BITS)) == 0;
+    }
+    
+    private Objekt getLocal(long pos) {
+        final Node leaf = leaf(pos);
+        return (leaf == null ? null : (Objekt) leaf.slots[(int) (pos & MASK)]);
+    }
+    
+    private Node editable(Node n) {
+        return (n.edit == this.edit ? n : n.copy(this.edit));
+    }
+    
+    /**
+     * Stores an object at a position in the trie, 
+     * copying the shared nodes on the path to it.
+     * 
+     * @param pos a {@code long}, a heap position.
+     * @param item the {@link Objekt} to store at {@code pos}, 
+     *        or {@code null} to remove the object at {@code pos}.
+     */
+    private void put(long pos, Objekt item) {
+        if (pos < 0) {
+            throw new UnexpectedInternalException("Negative heap position " + pos + ".");
+        }
+        while (!fits(pos, this.shift)) {
+            final Node newRoot = new Node(this.edit, false);
+            newRoot.slots[0] = this.root;
+            this.root = newRoot;
+            this.shift += BITS;
+        }
+        this.root = editable(this.root);
+        Node n = this.root;
+        for (int s = this.shift; s > 0; s -= BITS) {
+            final int i = (int) ((pos >>> s) & MASK);
+            final Node child = (Node) n.slots[i];
+            final Node childEditable = (child == null ? new Node(this.edit, s == BITS) : editable(child));
+            n.slots[i] = childEditable;
+            n = childEditable;
+        }
+        final int i = (int) (pos & MASK);
+        if (n.slots[i] == null && item != null) {
+            ++this.size;
+        } else if (n.slots[i] != null && item == null) {
+            --this.size;
+        }
+        n.slots[i] = item;
+        n.owners[i] = (item == null ? null : this.edit);
+    }
+    
+    /**
+     * Returns the positions of all the objects in the heap.
+     * 
+     * @return a {@link List}{@code <}{@link Long}{@code >} of 
+     *         the positions, in ascending order.
+     */
+    private List<Long> positions() {
+        final ArrayList<Long> retVal = new ArrayList<>(this.size);
+        positions(this.root, this.shift, 0L, retVal);
+        return retVal;
+    }
+    
+    private static void positions(Node n, int shift, long base, List<Long> positions) {
+        for (int i = 0; i < WIDTH; ++i) {
+            final Object slot = n.slots[i];
+            if (slot == null) {
+                continue;
+            }
+            final long pos = base | (((long) i) << shift);
+            if (shift == 0) {
+                positions.add(pos);
+            } else {
+                positions((Node) slot, shift - BITS, pos, positions);
+            }
+        }
+    }
+
+    /**
+     * Adds to a set the nodes of the trie of this heap.
+     * The subtries rooted at the nodes already in the set 
+     * are not visited.
+     * 
+     * @param nodes a {@link Set}{@code <}{@link Object}{@code >}
+     *        comparing its elements by identity.
+     */
+    void collectNodes(Set<Object> nodes) {
+        collectNodes(this.root, nodes);
+    }
+    
+    private static void collectNodes(Node n, Set<Object> nodes) {
+        if (!nodes.add(n) || n.owners != null) {
+            return;
+        }
+        for (Object child : n.slots) {
+            if (child != null) {
+                collectNodes((Node) child, nodes);
             }
         }
     }
 
     /**
-     * Returns the objects in the heap as a {@link Map}.
+     * Returns the objects in the heap as a {@link Map}. Differently
+     * from {@link #getObject(long)}, it does not modify the trie: 
+     * The objects that are shared with other heaps are returned 
+     * wrapped by {@link ObjektWrapper}s that are not stored in the 
+     * trie, and that store there a clone of the object only if 
+     * they are written.
      * 
      * @return a 
      * {@link SortedMap}{@code <}{@link Long}{@code , }{@link Objekt}{@code >}
@@ -200,9 +308,28 @@ final class Heap implements Cloneable {
      * at them.
      */
     SortedMap<Long, Objekt> getObjects() {
-    	makeAllWrappers();
-        return new TreeMap<>(this.objects);
-    }    
+        final TreeMap<Long, Objekt> retVal = new TreeMap<>();
+        getObjects(this.root, this.shift, 0L, retVal);
+        return retVal;
+    }
+    
+    private void getObjects(Node n, int shift, long base, SortedMap<Long, Objekt> objects) {
+        for (int i = 0; i < WIDTH; ++i) {
+            final Object slot = n.slots[i];
+            if (slot == null) {
+                continue;
+            }
+            final long pos = base | (((long) i) << shift);
+            if (shift > 0) {
+                getObjects((Node) slot, shift - BITS, pos, objects);
+            } else if (n.owners[i] == this.edit) {
+                objects.put(pos, (Objekt) slot);
+            } else {
+                //the object is shared with some other heap
+                objects.put(pos, theRealThing((Objekt) slot).makeWrapper(this, pos));
+            }
+        }
+    }
 
     /**
      * Returns the number of objects in the heap.
@@ -210,7 +337,7 @@ final class Heap implements Cloneable {
      * @return a positive {@code int}.
      */
     int getSize() {
-        return this.objects.size();
+        return this.size;
     }
     
     /**
@@ -222,11 +349,11 @@ final class Heap implements Cloneable {
      *        will.
      */
     void disposeExcept(Set<Long> exceptPos) {
-        for (Iterator<Map.Entry<Long, Objekt>> it = this.objects.entrySet().iterator(); it.hasNext(); ) {
-            if (exceptPos.contains(it.next().getKey())) {
+        for (long pos : positions()) {
+            if (exceptPos.contains(pos)) {
                 continue;
             }
-            it.remove();
+            put(pos, null);
         }
     }
 
@@ -238,12 +365,10 @@ final class Heap implements Cloneable {
             throw new InternalError(e);
         }
 
-        h.delegate = this;
-        final SortedMap<Long, Objekt> objectsClone = new TreeMap<>();
-        for (Map.Entry<Long, Objekt> e : this.objects.entrySet()) {
-            objectsClone.put(e.getKey(), PleaseLookInDelegateHeap.instance());
-        }
-        h.objects = objectsClone;
+        //from now on the trie is shared, thus
+        //neither heap may modify it in place
+        this.edit = new Object();
+        h.edit = new Object();
         
         return h;
     }
@@ -253,15 +378,15 @@ final class Heap implements Cloneable {
         final StringBuilder buf = new StringBuilder();
         buf.append("[");
         boolean isFirst = true;
-        for (Map.Entry<Long, Objekt> e : this.objects.entrySet()) {
+        for (long pos : positions()) {
             if (isFirst) {
                 isFirst = false;
             } else {
                 buf.append(", ");
             }
-            buf.append(e.getKey());
+            buf.append(pos);
             buf.append(":");
-            buf.append(e.getValue().toString());
+            buf.append(getLocal(pos).toString());
         }
         buf.append("]");
         return buf.toString();
@@ -276,13 +401,14 @@ final class Heap implements Cloneable {
             throw new InternalError(e);
         }
 
-        h.delegate = null;
-        final SortedMap<Long, Objekt> objectsClone = new TreeMap<>();
-        for (Map.Entry<Long, Objekt> e : this.objects.entrySet()) {
-            objectsClone.put(e.getKey(), getTheRealThing(e.getKey()).clone());
+        h.edit = new Object();
+        h.root = new Node(h.edit, true);
+        h.shift = 0;
+        h.size = 0;
+        for (long pos : positions()) {
+            h.put(pos, theRealThing(getLocal(pos)).clone());
         }
-        h.objects = objectsClone;
         
         return h;
     }
-}
\ No newline at end of file
+}
@@ -13,6 +13,8 @@ import jbse.val.exc.InvalidTypeException;
  * Class that implements {@link Instance}.
  */
 public class InstanceImpl extends ObjektImpl implements Instance {
+    private static final long serialVersionUID = -2395432092690829023L;
+
     /**
      * Constructor.
      * 
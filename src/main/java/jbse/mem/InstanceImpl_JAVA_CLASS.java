@@ -13,6 +13,8 @@ import jbse.val.exc.InvalidTypeException;
  * Class that implements {@link Instance_JAVA_CLASS}.
  */
 public final class InstanceImpl_JAVA_CLASS extends InstanceImpl implements Instance_JAVA_CLASS {
+    private static final long serialVersionUID = 1438634228083709175L;
+
     /** The java class it represents. Immutable. */
     private final ClassFile representedClass;
     
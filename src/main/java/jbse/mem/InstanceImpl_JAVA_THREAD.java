@@ -12,6 +12,8 @@ import jbse.val.exc.InvalidTypeException;
  * whose class is {@code java.lang.Thread} or one of its subclasses. 
  */
 public final class InstanceImpl_JAVA_THREAD extends InstanceImpl implements Instance_JAVA_THREAD {
+    private static final long serialVersionUID = 5221443570386522881L;
+
     /** The interruption state of the thread. */
     private boolean interrupted;
     
@@ -16,6 +16,8 @@ import jbse.val.Value;
  * copy-on-write.
  */
 final class InstanceWrapper extends ObjektWrapper<InstanceImpl> implements Instance {
+	private static final long serialVersionUID = 3075579610011220711L;
+
 	/**
 	 * Constructor.
 	 * 
@@ -17,6 +17,8 @@ import jbse.val.Value;
  * in the heap, implementing copy-on-write.
  */
 final class InstanceWrapper_JAVA_CLASS extends ObjektWrapper<InstanceImpl_JAVA_CLASS> implements Instance_JAVA_CLASS {
+	private static final long serialVersionUID = 966695955828661169L;
+
 	/**
 	 * Constructor.
 	 * 
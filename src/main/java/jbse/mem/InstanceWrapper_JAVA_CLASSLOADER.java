@@ -17,6 +17,8 @@ import jbse.val.Value;
  * or subclass in the heap, implementing copy-on-write.
  */
 final class InstanceWrapper_JAVA_CLASSLOADER extends ObjektWrapper<InstanceImpl_JAVA_CLASSLOADER> implements Instance_JAVA_CLASSLOADER {
+	private static final long serialVersionUID = 7120674067540180037L;
+
 	/**
 	 * Constructor.
 	 * 
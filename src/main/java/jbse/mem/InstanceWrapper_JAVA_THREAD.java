@@ -17,6 +17,8 @@ import jbse.val.Value;
  * or subclass in the heap, implementing copy-on-write.
  */
 final class InstanceWrapper_JAVA_THREAD extends ObjektWrapper<InstanceImpl_JAVA_THREAD> implements Instance_JAVA_THREAD {
+	private static final long serialVersionUID = 576040779280989515L;
+
 	/**
 	 * Constructor.
 	 * 
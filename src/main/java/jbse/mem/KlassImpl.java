@@ -10,6 +10,8 @@ import jbse.val.KlassPseudoReference;
  * in the static method area, i.e., its static fields.
  */
 public final class KlassImpl extends ObjektImpl implements Klass {
+    private static final long serialVersionUID = 7952957453379316824L;
+
     private boolean initialized;
 
     /**
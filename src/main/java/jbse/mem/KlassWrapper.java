@@ -0,0 +1,139 @@
+package jbse.mem;
+
+import java.util.Collection;
+import java.util.Map;
+
+import jbse.bc.ClassFile;
+import jbse.bc.Signature;
+import jbse.val.HistoryPoint;
+import jbse.val.Primitive;
+import jbse.val.ReferenceSymbolic;
+import jbse.val.Value;
+
+/**
+ * Class that wraps a {@link Klass} in the static method area,
+ * implementing copy-on-write. Differently from the wrappers of
+ * the heap objects, it does not cache its delegate, but always
+ * looks it up in the static method area, so all the wrappers
+ * for a same class see the clone made upon the first writing
+ * through any of them.
+ */
+final class KlassWrapper implements Klass {
+	private static final long serialVersionUID = -8091863012878719444L;
+
+	private final StaticMethodArea destinationArea;
+	private final ClassFile destinationClassFile;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param destinationArea the {@link StaticMethodArea} where the clone
+	 *        of the wrapped {@link Klass} must be put.
+	 * @param destinationClassFile the {@link ClassFile} of the wrapped
+	 *        {@link Klass}.
+	 */
+    KlassWrapper(StaticMethodArea destinationArea, ClassFile destinationClassFile) {
+    	this.destinationArea = destinationArea;
+    	this.destinationClassFile = destinationClassFile;
+    }
+
+    private Klass getDelegate() {
+    	return this.destinationArea.getLocal(this.destinationClassFile);
+    }
+
+    private Klass possiblyCloneDelegate() {
+    	return this.destinationArea.possiblyCloneKlass(this.destinationClassFile);
+    }
+
+	@Override
+	public ClassFile getType() {
+		return getDelegate().getType();
+	}
+
+	@Override
+	public ReferenceSymbolic getOrigin() {
+		return getDelegate().getOrigin();
+	}
+
+	@Override
+	public HistoryPoint historyPoint() {
+		return getDelegate().historyPoint();
+	}
+
+	@Override
+	public boolean isSymbolic() {
+		return getDelegate().isSymbolic();
+	}
+
+	@Override
+	public void setIdentityHashCode(Primitive identityHashCode) {
+		possiblyCloneDelegate().setIdentityHashCode(identityHashCode);
+	}
+
+	@Override
+	public Primitive getIdentityHashCode() {
+		return getDelegate().getIdentityHashCode();
+	}
+
+	@Override
+	public Collection<Signature> getStoredFieldSignatures() {
+		return getDelegate().getStoredFieldSignatures();
+	}
+
+	@Override
+	public boolean hasSlot(int slot) {
+		return getDelegate().hasSlot(slot);
+	}
+
+	@Override
+	public Value getFieldValue(Signature sig) {
+		return getDelegate().getFieldValue(sig);
+	}
+
+	@Override
+	public Value getFieldValue(String fieldName) {
+		return getDelegate().getFieldValue(fieldName);
+	}
+
+	@Override
+	public Value getFieldValue(int slot) {
+		return getDelegate().getFieldValue(slot);
+	}
+
+	@Override
+	public int getFieldSlot(Signature field) {
+		return getDelegate().getFieldSlot(field);
+	}
+
+	@Override
+	public void setFieldValue(Signature field, Value item) {
+		possiblyCloneDelegate().setFieldValue(field, item);
+	}
+
+	@Override
+	public void setFieldValue(int slot, Value item) {
+		possiblyCloneDelegate().setFieldValue(slot, item);
+	}
+
+	@Override
+	public Map<String, Variable> fields() {
+		return getDelegate().fields();
+	}
+
+	@Override
+	public boolean isInitialized() {
+		return getDelegate().isInitialized();
+	}
+
+	@Override
+	public void setInitialized() {
+		possiblyCloneDelegate().setInitialized();
+	}
+
+	@Override
+	public Klass clone() {
+		//returns a copy of the current delegate, e.g.,
+		//for the safety copies of path condition clauses
+		return getDelegate().clone();
+	}
+}
@@ -18,6 +18,8 @@ import jbse.val.Value;
  * Class representing the activation {@link Frame} of a method invocation.
  */
 public final class MethodFrame extends Frame implements Cloneable {
+    private static final long serialVersionUID = 3759517244628196673L;
+
     /** The signature of the frame's method. */
     private final Signature methodSignature;
 
@@ -48,7 +50,7 @@ public final class MethodFrame extends Frame implements Cloneable {
         this.methodSignature = methodSignature;
         this.lnt = classMethodImpl.getLineNumberTable(methodSignature);
         this.localVariables = new LocalVariablesArea(classMethodImpl.getLocalVariableTable(methodSignature));
-        this.operandStack = new OperandStack();
+        this.operandStack = new OperandStack(classMethodImpl.getMaxStack(methodSignature));
     }
 
     @Override
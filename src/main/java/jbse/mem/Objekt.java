@@ -1,5 +1,6 @@
 package jbse.mem;
 
+import java.io.Serializable;
 import java.util.Collection;
 import java.util.Map;
 
@@ -14,7 +15,7 @@ import jbse.val.Value;
  * A Java object which may reside in the heap or in the static store, 
  * i.e., either a class, or an instance of a class, or an array.
  */
-public interface Objekt extends Cloneable {
+public interface Objekt extends Cloneable, Serializable {
     /**
      * Returns the class of this {@link Objekt}.
      * 
@@ -1,5 +1,8 @@
 package jbse.mem;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -19,6 +22,8 @@ import jbse.val.Value;
  * Base class for all classes that implement {@link Objekt}s.
  */
 public abstract class ObjektImpl implements Objekt {
+    private static final long serialVersionUID = 2896790592618597285L;
+
     /** Whether this object is symbolic. Immutable. */
     private final boolean symbolic;
 
@@ -62,9 +67,9 @@ public abstract class ObjektImpl implements Objekt {
      * The fields as a map of signatures (as strings) to variables.
      * Immutable for arrays, but mutable otherwise (the map
      * is by itself immutable but the stored Variables may be 
-     * mutable). 
+     * mutable). It is serialized by {@link #writeObject(ObjectOutputStream)}.
      */
-    protected HashMap<String, Variable> fields;
+    protected transient HashMap<String, Variable> fields;
 
     /**
      * Constructor.
@@ -216,6 +221,32 @@ public abstract class ObjektImpl implements Objekt {
         return retVal;
     }
 
+    /**
+     * Serializes this object. The fields are written in
+     * their iteration order, so they can be read back in the
+     * same order (a deserialized {@link HashMap} may have a 
+     * different capacity, and thus a different iteration order).
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(this.fields.size());
+        for (Map.Entry<String, Variable> e : this.fields.entrySet()) {
+            out.writeObject(e.getKey());
+            out.writeObject(e.getValue());
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        final int size = in.readInt();
+        this.fields = new HashMap<>();
+        for (int i = 0; i < size; ++i) {
+            final String key = (String) in.readObject();
+            final Variable value = (Variable) in.readObject();
+            this.fields.put(key, value);
+        }
+    }
+
     @Override
     public ObjektImpl clone() {
         try {
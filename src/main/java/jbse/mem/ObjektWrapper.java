@@ -9,6 +9,8 @@ package jbse.mem;
  * @param <T> the type of the wrapped {@link ObjektImpl}.
  */
 abstract class ObjektWrapper<T extends ObjektImpl> implements Objekt {
+	private static final long serialVersionUID = 1326301515381038212L;
+
 	private final Heap destinationHeap;
 	private final long destinationPosition;
 	private T delegate;
@@ -1,8 +1,9 @@
 package jbse.mem;
 
-import java.util.ArrayDeque;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 
 import jbse.mem.exc.InvalidNumberOfOperandsException;
 import jbse.val.Value;
@@ -11,16 +12,42 @@ import jbse.val.Value;
  * Class that represent the JVM's operand stack.
  */
 //TODO manage stack maps and possibly raise unexpected internal error
-final class OperandStack implements Cloneable {
-    /** Not final because of clone(). */
-    private ArrayDeque<Value> valueStack;
+final class OperandStack implements Cloneable, Serializable {
+    private static final long serialVersionUID = -172237242060633201L;
+    
+    /** The initial capacity of an operand stack with unknown maximum depth. */
+    private static final int DEFAULT_CAPACITY = 8;
+
+    /** 
+     * The values in the stack, from the bottom (position 0) to 
+     * the top (position {@code size - 1}). Not final because 
+     * of clone() and because it may grow.
+     */
+    private Value[] valueStack;
+    
+    /** The number of values in the stack. */
+    private int size;
+    
+    /**
+     * Constructor of empty operand stack with unknown 
+     * maximum depth.
+     */
+    OperandStack() {
+        this(DEFAULT_CAPACITY);
+    }
     
     /**
      * Constructor of empty operand stack.
      * 
+     * @param maxStack an {@code int}, the expected maximum 
+     *        depth of the stack (e.g., the {@code max_stack} of 
+     *        the frame's method). The stack grows past it if
+     *        necessary, e.g., when a snippet is executed in the
+     *        frame's context.
      */
-    OperandStack() {
-        this.valueStack = new ArrayDeque<Value>();
+    OperandStack(int maxStack) {
+        this.valueStack = new Value[Math.max(maxStack, 1)];
+        this.size = 0;
     }
     
     /**
@@ -29,7 +56,10 @@ final class OperandStack implements Cloneable {
      *             of the operand stack.
      */
     void push(Value item) {
-        this.valueStack.push(item);
+        if (this.size == this.valueStack.length) {
+            this.valueStack = Arrays.copyOf(this.valueStack, 2 * this.size);
+        }
+        this.valueStack[this.size++] = item;
     }
     
     /**
@@ -39,10 +69,12 @@ final class OperandStack implements Cloneable {
      * @throws InvalidNumberOfOperandsException if the operand stack is empty.
      */
     Value pop() throws InvalidNumberOfOperandsException {
-    	if (this.valueStack.isEmpty()) {
+    	if (this.size == 0) {
     		throw new InvalidNumberOfOperandsException();
     	}
-    	return this.valueStack.pop();
+    	final Value retVal = this.valueStack[--this.size];
+    	this.valueStack[this.size] = null;
+    	return retVal;
     }
 
     /**
@@ -54,12 +86,11 @@ final class OperandStack implements Cloneable {
      *         if {@code num} is negative.
      */
     void pop(int num) throws InvalidNumberOfOperandsException {
-        if (num < 0 || this.valueStack.size() < num) {
+        if (num < 0 || this.size < num) {
             throw new InvalidNumberOfOperandsException();
         }
-        for (int i = 1; i <= num; ++i) {
-            this.valueStack.pop();
-        }
+        Arrays.fill(this.valueStack, this.size - num, this.size, null);
+        this.size -= num;
     }
     
     /**
@@ -69,10 +100,10 @@ final class OperandStack implements Cloneable {
      * @throws InvalidNumberOfOperandsException if the operand stack is empty.
      */
     Value top() throws InvalidNumberOfOperandsException {
-    	if (this.valueStack.isEmpty()) {
+    	if (this.size == 0) {
     		throw new InvalidNumberOfOperandsException();
     	}
-        return(this.valueStack.peek());
+        return this.valueStack[this.size - 1];
     }
 
     /**
@@ -88,27 +119,40 @@ final class OperandStack implements Cloneable {
      *         or if {@code num} is negative. 
      */
     Value[] operands(int num) throws InvalidNumberOfOperandsException {
-        if (num < 0 || this.valueStack.size() < num) {
+        if (num < 0 || this.size < num) {
             throw new InvalidNumberOfOperandsException();
         }
-        final Value[] retVal = new Value[num];
-        int i = num - 1;
-        for (Value v : this.valueStack) {
-            if (i < 0) {
-                break;
-            }
-            retVal[i] = v;
-            --i;
-        }
-        return retVal;
+        return Arrays.copyOfRange(this.valueStack, this.size - num, this.size);
     }
     
     void clear() {
-    	this.valueStack.clear();
+    	Arrays.fill(this.valueStack, 0, this.size, null);
+    	this.size = 0;
     }
     
+    /**
+     * Returns an unmodifiable view of the values 
+     * in the operand stack.
+     * 
+     * @return a {@link Collection}{@code <}{@link Value}{@code >}
+     *         that iterates the values from the top 
+     *         to the bottom of the operand stack.
+     */
     Collection<Value> values() {
-    	return Collections.unmodifiableCollection(this.valueStack);
+    	return new AbstractList<Value>() {
+    	    @Override
+    	    public Value get(int index) {
+    	        if (index < 0 || index >= size()) {
+    	            throw new IndexOutOfBoundsException();
+    	        }
+    	        return OperandStack.this.valueStack[OperandStack.this.size - 1 - index];
+    	    }
+
+    	    @Override
+    	    public int size() {
+    	        return OperandStack.this.size;
+    	    }
+    	};
     }
     
     /**
@@ -118,7 +162,7 @@ final class OperandStack implements Cloneable {
         final StringBuilder buf = new StringBuilder();
         buf.append("{");
         boolean isFirst = true;
-        for (Value v : this.valueStack) {
+        for (Value v : values()) {
             if (isFirst) {
                 isFirst = false;
             } else {
@@ -138,7 +182,7 @@ final class OperandStack implements Cloneable {
         } catch (CloneNotSupportedException e) {
             throw new InternalError(e);
         }        
-        o.valueStack = new ArrayDeque<Value>(this.valueStack);
+        o.valueStack = this.valueStack.clone();
         return o;
     }
 }
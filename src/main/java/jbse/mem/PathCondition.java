@@ -1,11 +1,13 @@
 package jbse.mem;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import jbse.bc.ClassFile;
 import jbse.val.Primitive;
@@ -16,15 +18,17 @@ import jbse.val.ReferenceSymbolic;
  * different branch points traversed during execution as a 
  * suitable {@link Collection}{@code <}{@link Clause}{@code >}. 
  */
-final class PathCondition implements Cloneable {
+final class PathCondition implements Cloneable, Serializable {
+    private static final long serialVersionUID = -3470532647126757975L;
+
     /** {@link ArrayList} of all the {@link Clause}s forming the path condition. */
     private ArrayList<Clause> clauses;
 
     /** 
-     * Maps symbolic references to their respective heap positions.
+     * Maps symbolic references to the clauses that resolve them.
      * It is just a cache of information already contained in {@code clauses}.
      */
-    private HashMap<ReferenceSymbolic, Long> referenceResolutionMap;
+    private HashMap<ReferenceSymbolic, ClauseAssumeReferenceSymbolic> referenceResolutionMap;
 
     /**
      * Maps each class with the number of assumed objects in it. 
@@ -32,6 +36,34 @@ final class PathCondition implements Cloneable {
      */
     private HashMap<String, Integer> objectCounters;
 
+    /**
+     * All the {@link ClauseAssumeExpands} in {@code clauses}, in order.
+     * It is just a cache of information already contained in {@code clauses}.
+     */
+    private ArrayList<ClauseAssumeExpands> expansions;
+
+    /**
+     * Maps heap positions to the {@link ClauseAssumeExpands} that 
+     * assume the objects at them.
+     * It is just a cache of information already contained in {@code clauses}.
+     */
+    private HashMap<Long, ClauseAssumeExpands> expansionsByPosition;
+
+    /**
+     * Maps each class to the {@link ClauseAssumeExpands} that 
+     * assume objects with that class, in order.
+     * It is just a cache of information already contained in {@code clauses}.
+     */
+    private HashMap<ClassFile, ArrayList<ClauseAssumeExpands>> expansionsByClass;
+
+    /**
+     * Whether the caches of the reference resolutions are shared 
+     * with a clone, and must therefore be copied before being 
+     * modified. The caches change only upon reference resolution,
+     * so most clones never need to copy them.
+     */
+    private boolean resolutionCachesShared;
+
     /**
      * Constructor.
      */
@@ -39,6 +71,29 @@ final class PathCondition implements Cloneable {
         this.clauses = new ArrayList<>();
         this.referenceResolutionMap = new HashMap<>();
         this.objectCounters = new HashMap<>();
+        this.expansions = new ArrayList<>();
+        this.expansionsByPosition = new HashMap<>();
+        this.expansionsByClass = new HashMap<>();
+        this.resolutionCachesShared = false;
+    }
+    
+    /**
+     * Copies the caches of the reference resolutions
+     * if they are shared with a clone.
+     */
+    private void unshareResolutionCaches() {
+        if (this.resolutionCachesShared) {
+            this.referenceResolutionMap = new HashMap<>(this.referenceResolutionMap);
+            this.objectCounters = new HashMap<>(this.objectCounters);
+            this.expansions = new ArrayList<>(this.expansions);
+            this.expansionsByPosition = new HashMap<>(this.expansionsByPosition);
+            final HashMap<ClassFile, ArrayList<ClauseAssumeExpands>> expansionsByClass = new HashMap<>();
+            for (Map.Entry<ClassFile, ArrayList<ClauseAssumeExpands>> e : this.expansionsByClass.entrySet()) {
+                expansionsByClass.put(e.getKey(), new ArrayList<>(e.getValue()));
+            }
+            this.expansionsByClass = expansionsByClass;
+            this.resolutionCachesShared = false;
+        }
     }
 
     /**
@@ -63,8 +118,18 @@ final class PathCondition implements Cloneable {
      *        is expanded.
      */
     void addClauseAssumeExpands(ReferenceSymbolic reference, long heapPosition, Objekt object) {
-        this.clauses.add(new ClauseAssumeExpands(reference, heapPosition, object));
-        this.referenceResolutionMap.put(reference, heapPosition);
+        final ClauseAssumeExpands c = new ClauseAssumeExpands(reference, heapPosition, object);
+        this.clauses.add(c);
+        unshareResolutionCaches();
+        this.referenceResolutionMap.put(reference, c);
+        this.expansions.add(c);
+        this.expansionsByPosition.put(heapPosition, c);
+        ArrayList<ClauseAssumeExpands> expansionsOfClass = this.expansionsByClass.get(object.getType());
+        if (expansionsOfClass == null) {
+            expansionsOfClass = new ArrayList<>();
+            this.expansionsByClass.put(object.getType(), expansionsOfClass);
+        }
+        expansionsOfClass.add(c);
 
         //increments objectCounters
         if (!this.objectCounters.containsKey(object.getType().getClassName())) {
@@ -86,8 +151,10 @@ final class PathCondition implements Cloneable {
      *        at the time of its assumption.
      */
     void addClauseAssumeAliases(ReferenceSymbolic reference, long heapPosition, Objekt object) {
-        this.clauses.add(new ClauseAssumeAliases(reference, heapPosition, object));
-        this.referenceResolutionMap.put(reference, heapPosition);
+        final ClauseAssumeAliases c = new ClauseAssumeAliases(reference, heapPosition, object);
+        this.clauses.add(c);
+        unshareResolutionCaches();
+        this.referenceResolutionMap.put(reference, c);
     }
 
     /**
@@ -97,8 +164,10 @@ final class PathCondition implements Cloneable {
      * @param reference the {@link ReferenceSymbolic} which is resolved. 
      */
     void addClauseAssumeNull(ReferenceSymbolic reference) {
-        this.clauses.add(new ClauseAssumeNull(reference));
-        this.referenceResolutionMap.put(reference, Util.POS_NULL);
+        final ClauseAssumeNull c = new ClauseAssumeNull(reference);
+        this.clauses.add(c);
+        unshareResolutionCaches();
+        this.referenceResolutionMap.put(reference, c);
     }
 
     /**
@@ -142,12 +211,71 @@ final class PathCondition implements Cloneable {
      * {@link #resolved}{@code (reference) == true}.
      * @return a {@code long}, the heap position to which
      * {@code reference} has been resolved.
-     * @throws NullPointerException if {@code reference == null}.
+     * @throws NullPointerException if {@code reference == null}, or
+     *         {@code reference} is not resolved.
      */
     long getResolution(ReferenceSymbolic reference) {
+        final ClauseAssumeReferenceSymbolic c = this.referenceResolutionMap.get(reference);
+        if (c instanceof ClauseAssumeExpands) {
+            return ((ClauseAssumeExpands) c).getHeapPosition();
+        } else if (c instanceof ClauseAssumeAliases) {
+            return ((ClauseAssumeAliases) c).getHeapPosition();
+        } else if (c instanceof ClauseAssumeNull) {
+            return Util.POS_NULL;
+        } else { //c == null
+            throw new NullPointerException("Symbolic reference " + reference + " is not resolved.");
+        }
+    }
+
+    /**
+     * Returns the clause that resolves a symbolic reference.
+     * 
+     * @param reference a {@link ReferenceSymbolic}.
+     * @return the {@link ClauseAssumeReferenceSymbolic} in this
+     *         path condition that resolves {@code reference}, or
+     *         {@code null} if {@code reference} is not resolved.
+     * @throws NullPointerException if {@code reference == null}.
+     */
+    ClauseAssumeReferenceSymbolic getResolutionClause(ReferenceSymbolic reference) {
         return this.referenceResolutionMap.get(reference);
     }
 
+    /**
+     * Returns the clause that assumes the object at a 
+     * given heap position.
+     * 
+     * @param heapPosition a {@code long}.
+     * @return the {@link ClauseAssumeExpands} in this path condition
+     *         whose heap position is {@code heapPosition}, or 
+     *         {@code null} if there is none.
+     */
+    ClauseAssumeExpands getExpansion(long heapPosition) {
+        return this.expansionsByPosition.get(heapPosition);
+    }
+
+    /**
+     * Returns all the {@link ClauseAssumeExpands} of the path condition.
+     * 
+     * @return a read-only {@link List}{@code <}{@link ClauseAssumeExpands}{@code >},
+     *         in the order the clauses were added. It is valid until 
+     *         {@code this} is modified.
+     */
+    List<ClauseAssumeExpands> getExpansions() {
+        return Collections.unmodifiableList(this.expansions);
+    }
+
+    /**
+     * Returns the {@link ClauseAssumeExpands} of the path condition
+     * grouped by the class of the assumed objects.
+     * 
+     * @return a read-only {@link Map}{@code <}{@link ClassFile}{@code , }{@link List}{@code <}{@link ClauseAssumeExpands}{@code >>}.
+     *         The lists must not be modified. It is valid until 
+     *         {@code this} is modified.
+     */
+    Map<ClassFile, ? extends List<ClauseAssumeExpands>> getExpansionsByClass() {
+        return Collections.unmodifiableMap(this.expansionsByClass);
+    }
+
     /**
      * Tests whether this path condition refines, i.e., 
      * if it has more clauses than, another one.
@@ -228,10 +356,10 @@ final class PathCondition implements Cloneable {
             throw new InternalError(e);
         }
 
-        //does a deep copy
+        //does a deep copy of the clauses, and shares 
+        //the resolution caches until one is modified
         o.clauses = new ArrayList<Clause>(this.clauses);
-        o.referenceResolutionMap = new HashMap<>(this.referenceResolutionMap);
-        o.objectCounters = new HashMap<>(this.objectCounters);
+        this.resolutionCachesShared = o.resolutionCachesShared = true;
 
         return o;
     }
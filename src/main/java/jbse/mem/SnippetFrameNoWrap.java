@@ -18,6 +18,8 @@ import jbse.val.Value;
  * local variables initialized with the snippet's args.
  */
 public final class SnippetFrameNoWrap extends Frame implements Cloneable {
+    private static final long serialVersionUID = 1062283572344493L;
+
     /** The frame's operand stack. */ 
     private OperandStack operandStack; //not final because of clone
 
@@ -17,6 +17,8 @@ import jbse.val.Value;
  * the local variables and the operand stack.
  */
 public final class SnippetFrameWrap extends Frame implements Cloneable {
+    private static final long serialVersionUID = 1691525058668028607L;
+
     /** The {@link Frame} context this {@link SnippetFrame} must execute. */ 
     private MethodFrame contextFrame; //not final only because it must be cloneable
     
@@ -22,6 +22,7 @@ import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.Serializable;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -34,7 +35,6 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
-import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.SortedMap;
 
@@ -90,7 +90,9 @@ import jbse.val.exc.InvalidTypeException;
 /**
  * Class that represents the state of execution.
  */
-public final class State implements Cloneable {
+public final class State implements Cloneable, Serializable {
+    private static final long serialVersionUID = -533446135244924212L;
+
     /** The slot number of the "this" (method receiver) object. */
     private static final int ROOT_THIS_SLOT = 0;
 
@@ -232,6 +234,14 @@ public final class State implements Cloneable {
 
     /** The string literals. */
     private HashMap<String, ReferenceConcrete> stringLiterals = new HashMap<>();
+    
+    /** 
+     * Whether {@link #stringLiterals} is owned by this state. The maps and 
+     * sets of the registries of a state are shared with its clones until 
+     * one of them modifies them (copy on write). The first modification
+     * after a clone copies the whole map or set.
+     */
+    private boolean stringLiteralsOwned = true;
 
     /** The {@link ReferenceConcrete}s to {@link Instance_JAVA_CLASS}es for nonprimitive types. */
     private HashMap<ClassFile, ReferenceConcrete> classes = new HashMap<>();
@@ -239,6 +249,9 @@ public final class State implements Cloneable {
     /** The {@link ReferenceConcrete}s to {@link Instance_JAVA_CLASS}es for primitive types. */
     private HashMap<String, ReferenceConcrete> classesPrimitive = new HashMap<>();
     
+    /** Whether {@link #classes} and {@link #classesPrimitive} are owned by this state. */
+    private boolean classesOwned = true;
+    
     /** The identifier of the next {@link Instance_JAVA_CLASSLOADER} to be created. */
     private int nextClassLoaderIdentifier = 1;
     
@@ -254,6 +267,9 @@ public final class State implements Cloneable {
     /** The {@link ReferenceConcrete}s to {@link Instance}s of {@code java.lang.invoke.MethodType}s. */
     private HashMap<String, ReferenceConcrete> methodTypes = new HashMap<>();
     
+    /** Whether {@link #methodTypes} is owned by this state. */
+    private boolean methodTypesOwned = true;
+    
     /** Maps file descriptors to (meta-level) open files. */
     private HashMap<Integer, Object> files = new HashMap<>();
     
@@ -277,6 +293,9 @@ public final class State implements Cloneable {
     
     /** The registered performance counters. */
     private HashSet<String> perfCounters = new HashSet<>();
+    
+    /** Whether {@link #perfCounters} is owned by this state. */
+    private boolean perfCountersOwned = true;
 
     /** The JVM stack of the current execution thread. */
     private ThreadStack stack = new ThreadStack();
@@ -353,11 +372,14 @@ public final class State implements Cloneable {
      */
     private HashMap<Signature, ReferenceConcrete> linkAppendices = new HashMap<>();
     
+    /** Whether {@link #linkInvokers} and {@link #linkAppendices} are owned by this state. */
+    private boolean linksOwned = true;
+    
     /** The maximum length an array may have to be granted simple representation. */
     private final int maxSimpleArrayLength;
 
     /** The {@link Calculator}. */
-    private final Calculator calc;
+    private Calculator calc;
 
     /** 
      * The generator for unambiguous symbol identifiers; mutable
@@ -496,6 +518,23 @@ public final class State implements Cloneable {
         return this.calc;
     }
     
+    /**
+     * Sets this state's calculator, that will be used to
+     * build the values (symbols included) from now on. The 
+     * values already in this state keep the calculator they 
+     * were built with. 
+     * 
+     * @param calc a {@link Calculator}. It must not be {@code null}.
+     * @throws NullPointerException if {@code calc == null}.
+     */
+    public void setCalculator(Calculator calc) {
+        if (calc == null) {
+            throw new NullPointerException();
+        }
+        this.calc = calc;
+        this.symbolFactory = this.symbolFactory.clone(calc);
+    }
+    
     /**
      * Sets the main thread group.
      * 
@@ -840,6 +879,45 @@ public final class State implements Cloneable {
         return this.pathCondition.getResolution(ref);
     }
 
+    /**
+     * Tests whether a symbolic reference is resolved
+     * by expansion.
+     * 
+     * @param ref a {@link ReferenceSymbolic}.
+     * @return {@code true} iff {@code ref} is resolved
+     *         by a {@link ClauseAssumeExpands}.
+     * @throws NullPointerException if {@code ref == null}.
+     */
+    public boolean resolvedByExpansion(ReferenceSymbolic ref) {
+        return this.pathCondition.getResolutionClause(ref) instanceof ClauseAssumeExpands;
+    }
+
+    /**
+     * Tests whether a symbolic reference is resolved
+     * by alias.
+     * 
+     * @param ref a {@link ReferenceSymbolic}.
+     * @return {@code true} iff {@code ref} is resolved
+     *         by a {@link ClauseAssumeAliases}.
+     * @throws NullPointerException if {@code ref == null}.
+     */
+    public boolean resolvedByAlias(ReferenceSymbolic ref) {
+        return this.pathCondition.getResolutionClause(ref) instanceof ClauseAssumeAliases;
+    }
+
+    /**
+     * Returns the expansion clauses of the state's path
+     * condition grouped by the class of the objects
+     * they assume.
+     * 
+     * @return a read-only {@link Map}{@code <}{@link ClassFile}{@code , }{@link List}{@code <}{@link ClauseAssumeExpands}{@code >>},
+     *         whose lists must not be modified. It is valid until 
+     *         the state's path condition is modified.
+     */
+    public Map<ClassFile, ? extends List<ClauseAssumeExpands>> getExpansionsByClass() {
+        return this.pathCondition.getExpansionsByClass();
+    }
+
     /**
      * Tests whether a reference is null.
      * 
@@ -925,16 +1003,8 @@ public final class State implements Cloneable {
             pos = refConcrete.getHeapPosition();
         }
 
-        //TODO extract this code and share with DecisionProcedureAlgorithms.getPossibleAliases
-        for (Clause c : this.pathCondition.getClauses()) {
-            if (c instanceof ClauseAssumeExpands) {
-                final ClauseAssumeExpands cExpands = (ClauseAssumeExpands) c;
-                if (cExpands.getHeapPosition() == pos) {
-                    return cExpands.getObjekt();
-                }
-            }
-        }
-        return null;
+        final ClauseAssumeExpands cExpands = this.pathCondition.getExpansion(pos);
+        return (cExpands == null ? null : cExpands.getObjekt());
     }
 
     /**
@@ -1036,6 +1106,11 @@ public final class State implements Cloneable {
         if (signature == null || invoker == null || appendix == null) {
             throw new NullPointerException(); //TODO throw better exception
         }
+        if (!this.linksOwned) {
+            this.linkInvokers = new HashMap<>(this.linkInvokers);
+            this.linkAppendices = new HashMap<>(this.linkAppendices);
+            this.linksOwned = true;
+        }
         this.linkInvokers.put(signature, invoker);
         this.linkAppendices.put(signature, appendix);
     }
@@ -1066,6 +1141,22 @@ public final class State implements Cloneable {
         return this.linkAppendices.get(signature);
     }
     
+    /**
+     * Associates the open file descriptors of the standard 
+     * files (stdin, stdout, stderr) to the standard streams 
+     * of the current process. It must be invoked on a state 
+     * that was restored in another process than the one 
+     * that created it.
+     * 
+     * @throws FrozenStateException if the state is frozen.
+     */
+    public void resetStandardFiles() throws FrozenStateException {
+    	if (this.frozen) {
+    		throw new FrozenStateException();
+    	}
+        setStandardFiles();
+    }
+    
     /**
      * Returns the file stream associated to a open file descriptor.
      * 
@@ -1114,7 +1205,39 @@ public final class State implements Cloneable {
     	}
         this.files.remove(Integer.valueOf(descriptor));
     }
-    
+
+    /**
+     * Adds to a set the (opaque) structural components of this 
+     * state's heap, that are shared by reference among the states 
+     * that descend from a common ancestor. 
+     * 
+     * @param components a {@link Set}{@code <}{@link Object}{@code >}
+     *        comparing its elements by identity.
+     */
+    public void collectHeapComponents(Set<Object> components) {
+        this.heap.collectNodes(components);
+    }
+
+    /**
+     * Checks whether this state owns native resources, i.e.,
+     * open files other than the standard input, output
+     * and error, raw memory blocks, zip files or inflaters.
+     * These resources are released when the state is
+     * garbage collected, thus a state owning them cannot
+     * be stored outside of memory.
+     *
+     * @return {@code true} iff this state owns native resources.
+     */
+    public boolean hasNativeResources() {
+        for (Integer descriptor : this.files.keySet()) {
+            if (descriptor != 0 && descriptor != 1 && descriptor != 2) {
+                return true;
+            }
+        }
+        return !this.allocatedMemory.isEmpty() || !this.zipFiles.isEmpty() ||
+               !this.zipFileEntries.isEmpty() || !this.inflaters.isEmpty();
+    }
+
     /**
      * Registers a raw memory block.
      * 
@@ -1481,6 +1604,10 @@ public final class State implements Cloneable {
         if (this.perfCounters.contains(name)) {
             throw new InvalidInputException("Tried to register the performance counter " + name + " twice.");
         }
+        if (!this.perfCountersOwned) {
+            this.perfCounters = new HashSet<>(this.perfCounters);
+            this.perfCountersOwned = true;
+        }
         this.perfCounters.add(name);
     }
 
@@ -1913,6 +2040,10 @@ public final class State implements Cloneable {
             final Instance i = (Instance) getObject(retVal);
             i.setFieldValue(JAVA_STRING_VALUE,  value);
             i.setFieldValue(JAVA_STRING_HASH,   hash);
+            if (!this.stringLiteralsOwned) {
+                this.stringLiterals = new HashMap<>(this.stringLiterals);
+                this.stringLiteralsOwned = true;
+            }
             this.stringLiterals.put(stringLit, retVal);
         } catch (InvalidInputException e) {
             //this should never happen
@@ -2031,7 +2162,21 @@ public final class State implements Cloneable {
                 throw new UnexpectedInternalException(e);
             }
         } else {
-            this.classes.put(representedClass, createInstance_JAVA_CLASS(representedClass));
+            final ReferenceConcrete retVal = createInstance_JAVA_CLASS(representedClass);
+            possiblyCopyClasses();
+            this.classes.put(representedClass, retVal);
+        }
+    }
+    
+    /**
+     * Copies {@link #classes} and {@link #classesPrimitive}
+     * if they are shared with other states.
+     */
+    private void possiblyCopyClasses() {
+        if (!this.classesOwned) {
+            this.classes = new HashMap<>(this.classes);
+            this.classesPrimitive = new HashMap<>(this.classesPrimitive);
+            this.classesOwned = true;
         }
     }
 
@@ -2063,6 +2208,7 @@ public final class State implements Cloneable {
                     throw new UnexpectedInternalException("Could not find the classfile for the primitive type " + typeName + ".");
                 }
                 final ReferenceConcrete retVal = createInstance_JAVA_CLASS(cf);
+                possiblyCopyClasses();
                 this.classesPrimitive.put(typeName, retVal);
             } catch (InvalidInputException e) {
                 throw new UnexpectedInternalException(e);
@@ -2197,6 +2343,10 @@ public final class State implements Cloneable {
     	if (this.frozen) {
     		throw new FrozenStateException();
     	}
+        if (!this.methodTypesOwned) {
+            this.methodTypes = new HashMap<>(this.methodTypes);
+            this.methodTypesOwned = true;
+        }
         this.methodTypes.put(descriptor, ref);
     }
 
@@ -2751,39 +2901,17 @@ public final class State implements Cloneable {
             @Override
             public Iterator<Objekt> iterator() {
                 return new Iterator<Objekt>() {
-                    private final Iterator<Clause> it = pathCondition.getClauses().iterator();
-                    private boolean hasNext;
-                    private ClauseAssumeExpands next;
-                    {
-                        moveForward();
-                    }
-
-                    private void moveForward() {
-                        while (it.hasNext()) {
-                            final Clause next = it.next();
-                            if (next instanceof ClauseAssumeExpands) {
-                                this.hasNext = true;
-                                this.next = (ClauseAssumeExpands) next;
-                                return;
-                            }
-                        }
-                        this.hasNext = false;
-                        this.next = null;
-                    }
+                    private final Iterator<ClauseAssumeExpands> it = pathCondition.getExpansions().iterator();
 
                     @Override
                     public boolean hasNext() {
-                        return this.hasNext;
+                        return this.it.hasNext();
                     }
 
                     @Override
                     public Objekt next() {
-                        if (!hasNext()) {
-                            throw new NoSuchElementException();
-                        }
-                        final Objekt retVal = State.this.heap.getObjects().get(this.next.getHeapPosition());
-                        moveForward();
-                        return retVal;
+                        final ClauseAssumeExpands next = this.it.next();
+                        return State.this.heap.getObject(next.getHeapPosition());
                     }
 
                     @Override
@@ -3244,6 +3372,22 @@ public final class State implements Cloneable {
     	}
         this.historyPoint = this.historyPoint.nextBranch(additionalBranch);
     }
+
+    /**
+     * Adds a branch to the state's {@link HistoryPoint}.
+     * 
+     * @param additionalBranch 
+     *        an {@code int} representing the 
+     *        identifier of the subbranch to be added to 
+     *        the state's {@link HistoryPoint}.
+     * @throws FrozenStateException if the state is frozen.
+     */
+    public void addBranchToHistoryPoint(int additionalBranch) throws FrozenStateException {
+    	if (this.frozen) {
+    		throw new FrozenStateException();
+    	}
+        this.historyPoint = this.historyPoint.nextBranch(additionalBranch);
+    }
     
     /**
      * Gets the state's {@link HistoryPoint}.
@@ -3671,17 +3815,15 @@ public final class State implements Cloneable {
             throw new InternalError(e);
         }
         
-        //stringLiterals
-        o.stringLiterals = new HashMap<>(o.stringLiterals);
-
-        //classes
-        o.classes = new HashMap<>(o.classes);
-
-        //classesPrimitive
-        o.classesPrimitive = new HashMap<>(o.classesPrimitive);
-        
-        //methodTypes
-        o.methodTypes = new HashMap<>(o.methodTypes);
+        //stringLiterals, classes, classesPrimitive, methodTypes, 
+        //perfCounters, linkInvokers and linkAppendices: their values 
+        //are immutable, so the maps and sets become shared and are 
+        //copied upon writing
+        this.stringLiteralsOwned = o.stringLiteralsOwned = false;
+        this.classesOwned = o.classesOwned = false;
+        this.methodTypesOwned = o.methodTypesOwned = false;
+        this.perfCountersOwned = o.perfCountersOwned = false;
+        this.linksOwned = o.linksOwned = false;
         
         //files
         try {
@@ -3797,18 +3939,12 @@ public final class State implements Cloneable {
             throw new UnexpectedInternalException(e);
         }
 
-        //perfCounters
-        o.perfCounters = new HashSet<>(o.perfCounters);
-
         //stack
         o.stack = o.stack.clone();
 
         //classHierarchy
         o.classHierarchy = o.classHierarchy.clone();
 
-        //staticStore
-        o.staticMethodArea = o.staticMethodArea.clone();
-
         //pathCondition
         o.pathCondition = o.pathCondition.clone();
 
@@ -3817,13 +3953,9 @@ public final class State implements Cloneable {
         //symbolFactory
         o.symbolFactory = o.symbolFactory.clone();
         
-        //linkInvokers
-        o.linkInvokers = new HashMap<>(o.linkInvokers);
-        
-        //linkAppendices
-        o.linkAppendices = new HashMap<>(o.linkAppendices);
-        
-        //all other members are immutable
+        //all other members are immutable, except
+        //the heap and the static method area that
+        //are copied by the callers
 
         return o;
     }
@@ -3834,6 +3966,9 @@ public final class State implements Cloneable {
         //heap
         o.heap = o.heap.lazyClone();
         
+        //staticMethodArea
+        o.staticMethodArea = o.staticMethodArea.lazyClone();
+        
         return o;
     }
     
@@ -3894,6 +4029,9 @@ public final class State implements Cloneable {
 
         //heap
         o.heap = o.heap.clone();
+        
+        //staticMethodArea
+        o.staticMethodArea = o.staticMethodArea.clone();
                 
         return o;
     }
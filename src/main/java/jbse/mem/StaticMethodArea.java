@@ -1,6 +1,8 @@
 package jbse.mem;
 
+import java.io.Serializable;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
@@ -8,16 +10,44 @@ import jbse.bc.ClassFile;
 
 /**
  * The static method area, where all the {@link Klass} objects of a 
- * JVM state are stored.
+ * JVM state are stored. The static method areas produced by 
+ * {@link #lazyClone()} share their table and their {@link Klass} 
+ * objects, and copy them upon writing: When a {@link Klass} that 
+ * is shared with another static method area is read, it is returned 
+ * wrapped by a {@link KlassWrapper} that clones it upon modification.
+ * The wrappers are cached, so reading a shared {@link Klass} many 
+ * times allocates one wrapper. Note that the first insertion of a 
+ * {@link Klass} after a lazy clone copies the whole table, thus it
+ * costs time linear in the number of the loaded classes.
  * 
  * @author Pietro Braione
  *
  */
-public final class StaticMethodArea implements Cloneable {
-    private HashMap<ClassFile, Klass> objTable;
+public final class StaticMethodArea implements Cloneable, Serializable {
+    private static final long serialVersionUID = -3696924657747961324L;
+
+    private HashMap<ClassFile, Klass> objTable; //not final because of clone
+    
+    /** Whether {@link #objTable} is owned by this area. */
+    private boolean objTableOwned;
+    
+    /** 
+     * The classes whose {@link Klass} objects in {@link #objTable}
+     * are owned by this area. Not final because of clone. 
+     */
+    private HashSet<ClassFile> klassesOwned;
+    
+    /** 
+     * The wrappers returned by {@link #get(ClassFile)} for the
+     * shared {@link Klass} objects, or {@code null} if there 
+     * are none. Not final because of clone.
+     */
+    private transient HashMap<ClassFile, KlassWrapper> wrappers;
 
     public StaticMethodArea() {
         this.objTable = new HashMap<>();
+        this.objTableOwned = true;
+        this.klassesOwned = new HashSet<>();
     }
 
     public boolean contains(ClassFile classFile) { 
@@ -25,12 +55,63 @@ public final class StaticMethodArea implements Cloneable {
     }
 
     public Klass get(ClassFile classFile) {
-        return this.objTable.get(classFile);
+        final Klass k = this.objTable.get(classFile);
+        if (k == null || this.klassesOwned.contains(classFile)) {
+            return k;
+        } else {
+            //the Klass is shared with some other area
+            if (this.wrappers == null) {
+                this.wrappers = new HashMap<>();
+            }
+            KlassWrapper retVal = this.wrappers.get(classFile);
+            if (retVal == null) {
+                retVal = new KlassWrapper(this, classFile);
+                this.wrappers.put(classFile, retVal);
+            }
+            return retVal;
+        }
     }
 
     public Klass set(ClassFile classFile, Klass k) {
+        if (!this.objTableOwned) {
+            this.objTable = new HashMap<>(this.objTable);
+            this.objTableOwned = true;
+        }
+        this.klassesOwned.add(classFile);
         return this.objTable.put(classFile, k);
     }
+    
+    /**
+     * Returns the {@link Klass} object of a class as 
+     * stored in this area, without wrapping it.
+     * 
+     * @param classFile a {@link ClassFile}.
+     * @return the {@link Klass} for {@code classFile}, 
+     *         possibly shared with other areas.
+     */
+    Klass getLocal(ClassFile classFile) {
+        return this.objTable.get(classFile);
+    }
+    
+    /**
+     * Returns the {@link Klass} object of a class, 
+     * cloning it and storing the clone in this area 
+     * if it is shared with other areas.
+     * 
+     * @param classFile a {@link ClassFile}. It must have
+     *        a {@link Klass} in this area.
+     * @return the {@link Klass} for {@code classFile}, 
+     *         owned by this area.
+     */
+    Klass possiblyCloneKlass(ClassFile classFile) {
+        final Klass k = this.objTable.get(classFile);
+        if (this.klassesOwned.contains(classFile)) {
+            return k;
+        }
+        final Klass kClone = k.clone();
+        set(classFile, kClone);
+        return kClone;
+    }
 
     public Map<ClassFile, Klass> getObjects() {
         return this.objTable;
@@ -60,6 +141,31 @@ public final class StaticMethodArea implements Cloneable {
         return buf.toString();
     }
 
+    /**
+     * Clones this area without copying its 
+     * {@link Klass} objects, that become shared 
+     * and are copied upon writing.
+     * 
+     * @return a {@link StaticMethodArea}.
+     */
+    StaticMethodArea lazyClone() {
+        final StaticMethodArea o;
+        try {
+            o = (StaticMethodArea) super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new InternalError(e);
+        }
+        
+        //from now on the table and the Klass 
+        //objects are shared
+        this.objTableOwned = o.objTableOwned = false;
+        this.klassesOwned = new HashSet<>();
+        o.klassesOwned = new HashSet<>();
+        o.wrappers = null;
+
+        return o;
+    }
+
     @Override
     public StaticMethodArea clone() {
         final StaticMethodArea o;
@@ -76,6 +182,9 @@ public final class StaticMethodArea implements Cloneable {
             objTableClone.put(e.getKey(), val.clone());
         }
         o.objTable = objTableClone;
+        o.objTableOwned = true;
+        o.klassesOwned = new HashSet<>(objTableClone.keySet());
+        o.wrappers = null;
 
         return o;
     }
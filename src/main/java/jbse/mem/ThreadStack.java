@@ -1,5 +1,6 @@
 package jbse.mem;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -7,20 +8,46 @@ import java.util.List;
 import jbse.mem.exc.ThreadStackEmptyException;
 
 /**
- * Class representing JVM thread stacks.
+ * Class representing JVM thread stacks. Cloning a thread stack 
+ * is shallow: The frames are shared between the original stack 
+ * and its clone, and a shared frame is cloned only when it 
+ * becomes the current frame of one of them.
  */
-class ThreadStack implements Cloneable {
+class ThreadStack implements Cloneable, Serializable {
+    private static final long serialVersionUID = -3026239342489546536L;
+
     /** The stack position of the root frame. */
     private static final int ROOT_FRAME = 0;
 
-    /** The actual stack of {@link Frame}s. */
+    /** The actual stack of {@link Frame}s. Not final because of clone(). */
     private ArrayList<Frame> frameStack;
+    
+    /** 
+     * The number of {@link Frame}s, from the bottom of {@link #frameStack}, 
+     * that may be shared with other thread stacks and thus must be cloned 
+     * before being modified.
+     */
+    private int numShared;
 
     /**
      * Constructor of stack.
      */
     ThreadStack() {
         this.frameStack = new ArrayList<Frame>();
+        this.numShared = 0;
+    }
+    
+    /**
+     * Ensures that the topmost frame in the stack is 
+     * not shared with other stacks, by cloning it if 
+     * it is. Assumes the stack is not empty.
+     */
+    private void unshareTop() {
+        final int top = this.frameStack.size() - 1;
+        if (top < this.numShared) {
+            this.frameStack.set(top, this.frameStack.get(top).clone());
+            this.numShared = top;
+        }
     }
 
     /**
@@ -46,6 +73,7 @@ class ThreadStack implements Cloneable {
         if (isEmpty()) {
             throw new ThreadStackEmptyException();
         }
+        unshareTop();
         return this.frameStack.remove(this.frameStack.size() - 1);
     }
 
@@ -63,10 +91,12 @@ class ThreadStack implements Cloneable {
      */
     void clear() {
         this.frameStack.clear();
+        this.numShared = 0;
     }
 
     /**
-     * Returns the current frame.
+     * Returns the current frame. The returned frame 
+     * is owned by this stack and can be modified.
      * 
      * @return the current {@link Frame}, i.e., the 
      *         {@link Frame} on the top of the stack.
@@ -77,11 +107,14 @@ class ThreadStack implements Cloneable {
         if (isEmpty()) {
             throw new ThreadStackEmptyException();
         }
+        unshareTop();
         return this.frameStack.get(this.frameStack.size() - 1);
     }
 
     /**
-     * Returns the root frame.
+     * Returns the root frame. The returned frame 
+     * may be shared with other stacks, and must 
+     * not be modified.
      * 
      * @return the current {@link Frame}, i.e., the 
      *         one on the bottom of the stack.
@@ -97,7 +130,8 @@ class ThreadStack implements Cloneable {
 
     /**
      * Returns an unmodifiable list of all the frames
-     * in the stack.
+     * in the stack. The returned frames may be shared 
+     * with other stacks, and must not be modified.
      * 
      * @return a {@link List}{@code <}{@link Frame}{@code >} 
      *         of the frames in the stack, in their push order.
@@ -134,11 +168,9 @@ class ThreadStack implements Cloneable {
             throw new InternalError(e);
         }
 
-        final ArrayList<Frame> frameStackClone = new ArrayList<Frame>();
-        for (int i = 0; i < this.frameStack.size(); ++i) {
-            frameStackClone.add(this.frameStack.get(i).clone());
-        }
-        o.frameStack = frameStackClone;
+        //from now on all the frames are shared
+        o.frameStack = new ArrayList<Frame>(this.frameStack);
+        this.numShared = o.numShared = this.frameStack.size();
         return o;
     }   
 }
\ No newline at end of file
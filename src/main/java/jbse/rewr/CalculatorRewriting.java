@@ -1,7 +1,7 @@
 package jbse.rewr;
 
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.List;
 
 import jbse.common.exc.UnexpectedInternalException;
 import jbse.rewr.exc.NoResultException;
@@ -336,7 +336,7 @@ public class CalculatorRewriting extends Calculator {
     @Override
     public Primitive applyFunctionPrimitive(char type, HistoryPoint historyPoint, String operator, Value... args) 
     throws InvalidOperandException, InvalidTypeException {
-        return applyRewriters(new PrimitiveSymbolicApply(type, historyPoint, this, operator, args));
+        return applyRewriters(PrimitiveSymbolicApply.make(type, historyPoint, this, operator, args));
     }
 
     /**
@@ -360,12 +360,30 @@ public class CalculatorRewriting extends Calculator {
     /**
      * Adds a rewriter.
      * 
-     * @param r the {@link Rewriter} to add.
+     * @param r the {@link Rewriter} to add. It must not
+     *        be added to other {@link CalculatorRewriting}s.
      */
     public void addRewriter(Rewriter r) {
+        r.setCalculator(this);
         this.rewriters.add(r);
     }
 
+    /**
+     * Returns the classes of the rewriters.
+     * 
+     * @return a {@link List}{@code <}{@link Class}{@code <? extends }{@link Rewriter}{@code >>}
+     *         with the classes of the {@link Rewriter}s registered by 
+     *         the invocations of {@link #addRewriter(Rewriter)}, in their 
+     *         invocation order.
+     */
+    public List<Class<? extends Rewriter>> getRewriterClasses() {
+        final ArrayList<Class<? extends Rewriter>> retVal = new ArrayList<>();
+        for (Rewriter r : this.rewriters) {
+            retVal.add(r.getClass());
+        }
+        return retVal;
+    }
+
     /**
      * Applies a sequence of rewriters to a {@link Primitive}.
      * 
@@ -375,21 +393,28 @@ public class CalculatorRewriting extends Calculator {
      *         the {@link Rewriter}s in {@code rewriters}, in their
      *         parameter order, then all the {@link Rewriter}s registered
      *         by subsequent invocations of {@link #addRewriter(Rewriter)}, 
-     *         in their invocation order.
+     *         in their invocation order. The {@link Rewriter}s in 
+     *         {@code rewriters} must not be used at the same time by 
+     *         other threads with other {@link CalculatorRewriting}s.
      */
     public Primitive applyRewriters(Primitive p, Rewriter...rewriters) {
         Primitive retVal = p;
-        final ArrayList<Rewriter> toApply = new ArrayList<Rewriter>(Arrays.asList(rewriters));
-        toApply.addAll(this.rewriters);
-        for (Rewriter r : toApply) {
-            try {
-                r.setCalculator(this);
-                retVal = r.rewrite(retVal);
-            } catch (NoResultException e) {
-                //this should not happen
-                throw new UnexpectedInternalException(e);
-            }
+        for (Rewriter r : rewriters) {
+            r.setCalculator(this);
+            retVal = applyRewriter(r, retVal);
+        }
+        for (Rewriter r : this.rewriters) {
+            retVal = applyRewriter(r, retVal);
         }
         return retVal;
     }
+    
+    private static Primitive applyRewriter(Rewriter r, Primitive p) {
+        try {
+            return r.rewrite(p);
+        } catch (NoResultException e) {
+            //this should not happen
+            throw new UnexpectedInternalException(e);
+        }
+    }
 }
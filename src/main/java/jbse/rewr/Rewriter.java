@@ -20,12 +20,15 @@ import jbse.val.exc.InvalidOperatorException;
 import jbse.val.exc.InvalidTypeException;
 
 /**
- * An abstract term rewriter for {@link Primitive}s.
+ * An abstract term rewriter for {@link Primitive}s. The result
+ * of a rewriting is confined to the thread that performs it, 
+ * so a {@link Rewriter} can be used concurrently by the 
+ * threads of a parallel symbolic execution.
  * 
  * @author Pietro Braione
  */
 public class Rewriter {
-	private Primitive value;
+	private final ThreadLocal<Primitive> value = new ThreadLocal<>();
 	private RewriteVisitor visitor;
 	
 	protected CalculatorRewriting calc;
@@ -53,7 +56,7 @@ public class Rewriter {
 				//this should never happen
 				throw new UnexpectedInternalException(e);
 			}
-			return this.value;
+			return this.value.get();
 		}
 	}
 	
@@ -61,15 +64,15 @@ public class Rewriter {
 		if (x == null) {
 			throw new NoResultException();
 		} else {
-			this.value = x;
+			this.value.set(x);
 		}
 	}
 		
 	protected final Primitive getResult() throws NoResultException {
-		if (this.value == null) {
+		if (this.value.get() == null) {
 			throw new NoResultException();
 		} else {
-			return this.value;
+			return this.value.get();
 		}
 	}
 		
@@ -100,7 +103,7 @@ public class Rewriter {
 		}
 		final PrimitiveSymbolicApply result;
 		try {
-			result = new PrimitiveSymbolicApply(x.getType(), x.historyPoint(), this.calc, x.getOperator(), args);
+			result = PrimitiveSymbolicApply.make(x.getType(), x.historyPoint(), this.calc, x.getOperator(), args);
 		} catch (InvalidTypeException | InvalidOperandException e) {
 			throw new NoResultException(e);
 		}
@@ -157,7 +160,7 @@ public class Rewriter {
 	}
 
 	private void clear() {
-		this.value = null;
+		this.value.set(null);
 	}
 	
 	/**
@@ -0,0 +1,82 @@
+package jbse.tree;
+
+import java.io.Serializable;
+
+import jbse.mem.State;
+import jbse.mem.State.Phase;
+
+/**
+ * A state stored in a {@link StateTree}. It may either hold
+ * the {@link State} itself, or just the way to rebuild it,
+ * i.e., a checkpoint (an ancestor state) and the list of the
+ * alternatives that were chosen at the branch points from
+ * the checkpoint to the state.
+ *
+ * @author Pietro Braione
+ */
+final class PendingState implements Serializable {
+    private static final long serialVersionUID = 3419405436532745178L;
+
+    /**
+     * The stored {@link State}, or {@code null} if it must
+     * be rebuilt from {@link #checkpoint}.
+     */
+    State state;
+
+    /**
+     * The {@link State} from which {@link #state} can be rebuilt,
+     * or {@code null} if it cannot be rebuilt. It is never executed.
+     */
+    final State checkpoint;
+
+    /**
+     * The positions, in the order they were added to the
+     * tree, of the states chosen at each of the branch points
+     * from {@link #checkpoint} to {@link #state}.
+     */
+    final int[] choices;
+
+    /**
+     * An estimate of the number of steps necessary to
+     * rebuild {@link #state} from {@link #checkpoint}.
+     */
+    final int cost;
+
+    /** The phase of {@link #state}. */
+    final Phase phase;
+
+    /**
+     * Constructor for a state that cannot be rebuilt.
+     *
+     * @param state a {@link State}.
+     */
+    PendingState(State state) {
+        this(state, null, null, 0);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param state a {@link State}.
+     * @param checkpoint a {@link State}, or {@code null}.
+     * @param choices an {@code int[]}, or {@code null} if
+     *        {@code checkpoint == null}.
+     * @param cost an {@code int}.
+     */
+    PendingState(State state, State checkpoint, int[] choices, int cost) {
+        this.state = state;
+        this.checkpoint = checkpoint;
+        this.choices = choices;
+        this.cost = cost;
+        this.phase = state.phase();
+    }
+
+    /**
+     * Drops the stored state if it can be rebuilt.
+     */
+    void dropState() {
+        if (this.checkpoint != null) {
+            this.state = null;
+        }
+    }
+}
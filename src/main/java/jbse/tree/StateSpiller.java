@@ -0,0 +1,260 @@
+package jbse.tree;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import jbse.mem.State;
+import jbse.mem.State.Phase;
+
+/**
+ * Moves batches of pending {@link State}s from memory to
+ * compressed files in a spill directory, and back. The objects
+ * in the states that are not {@link Serializable} (classfiles,
+ * class hierarchies, calculators...) are shared with the rest
+ * of the execution, thus they are not written to the file but
+ * kept in memory and referred by the file; the same happens
+ * for the states that own native resources. The states in a
+ * batch are written together, so the objects they share (e.g.,
+ * the heap they inherited from their common ancestors) are
+ * written once.
+ *
+ * @author Pietro Braione
+ */
+final class StateSpiller {
+    private static final int BUFFER_SIZE = 65536;
+    
+    /**
+     * A batch of states stored in a spill file.
+     */
+    static final class Batch {
+        /** The spill file. */
+        private final Path file;
+
+        /** The objects referred by the spill file. */
+        private final ArrayList<Object> residents;
+
+        /** The number of states in the batch. */
+        private final int size;
+
+        /** The phase of the last state in the batch. */
+        private final Phase lastPhase;
+
+        private Batch(Path file, ArrayList<Object> residents, int size, Phase lastPhase) {
+            this.file = file;
+            this.residents = residents;
+            this.size = size;
+            this.lastPhase = lastPhase;
+        }
+
+        int size() {
+            return this.size;
+        }
+
+        Phase lastPhase() {
+            return this.lastPhase;
+        }
+    }
+
+    /**
+     * A {@link GZIPOutputStream} favoring speed over compression.
+     */
+    private static final class FastGZIPOutputStream extends GZIPOutputStream {
+        FastGZIPOutputStream(OutputStream out) throws IOException {
+            super(out, BUFFER_SIZE);
+            this.def.setLevel(Deflater.BEST_SPEED);
+        }
+    }
+
+    /**
+     * Stands, in a spill file, for an object
+     * that was kept in memory.
+     */
+    private static final class ResidentReference implements Serializable {
+        private static final long serialVersionUID = -1934761085573618442L;
+
+        final int index;
+
+        ResidentReference(int index) {
+            this.index = index;
+        }
+    }
+
+    private static final class SpillOutputStream extends ObjectOutputStream {
+        private final ArrayList<Object> residents = new ArrayList<>();
+        private final IdentityHashMap<Object, ResidentReference> references = new IdentityHashMap<>();
+        private final Set<Object> shared;
+
+        SpillOutputStream(OutputStream out, Set<Object> shared) throws IOException {
+            super(out);
+            this.shared = shared;
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) {
+            if (obj instanceof Serializable && !this.shared.contains(obj) && 
+                !(obj instanceof State && ((State) obj).hasNativeResources())) {
+                return obj;
+            }
+            ResidentReference retVal = this.references.get(obj);
+            if (retVal == null) {
+                retVal = new ResidentReference(this.residents.size());
+                this.residents.add(obj);
+                this.references.put(obj, retVal);
+            }
+            return retVal;
+        }
+    }
+
+    private static final class SpillInputStream extends ObjectInputStream {
+        private final List<Object> residents;
+
+        SpillInputStream(InputStream in, List<Object> residents) throws IOException {
+            super(in);
+            this.residents = residents;
+            enableResolveObject(true);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            try {
+                return Class.forName(desc.getName(), false, StateSpiller.class.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                return super.resolveClass(desc);
+            }
+        }
+
+        @Override
+        protected Object resolveObject(Object obj) {
+            if (obj instanceof ResidentReference) {
+                return this.residents.get(((ResidentReference) obj).index);
+            }
+            return obj;
+        }
+    }
+
+    /**
+     * The directory where the spill directory is
+     * created, or {@code null} for the default
+     * temporary-file directory.
+     */
+    private final Path parentDirectory;
+
+    /** The spill directory, created upon the first spill. */
+    private Path directory = null;
+
+    /** The number of batches spilled so far. */
+    private int nBatches = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param parentDirectory a {@link Path}, the directory where
+     *        the spill directory must be created, or {@code null}
+     *        for the default temporary-file directory.
+     */
+    StateSpiller(Path parentDirectory) {
+        this.parentDirectory = parentDirectory;
+    }
+
+    /**
+     * Writes a batch of states to a spill file.
+     *
+     * @param states a {@link List}{@code <}{@link PendingState}{@code >}.
+     *        It must not be empty. After the invocation the
+     *        states must not be used anymore.
+     * @param shared a {@link Set}{@code <}{@link Object}{@code >}
+     *        comparing its elements by identity, containing objects
+     *        that are shared with the states that stay in memory. 
+     *        These objects are not written to the spill file.
+     * @return the {@link Batch} for {@code states}.
+     * @throws IOException if writing the spill file fails.
+     */
+    Batch spill(List<PendingState> states, Set<Object> shared) throws IOException {
+        if (this.directory == null) {
+            this.directory = (this.parentDirectory == null ?
+                              Files.createTempDirectory("jbse-spill") :
+                              Files.createTempDirectory(Files.createDirectories(this.parentDirectory), "jbse-spill"));
+            this.directory.toFile().deleteOnExit();
+        }
+        final Path file = this.directory.resolve("states-" + this.nBatches + ".gz");
+        ++this.nBatches;
+        try (final SpillOutputStream out = new SpillOutputStream(new BufferedOutputStream(new FastGZIPOutputStream(Files.newOutputStream(file)), BUFFER_SIZE), shared)) {
+            out.writeInt(states.size());
+            for (PendingState s : states) {
+                out.writeObject(s);
+            }
+            out.flush();
+            return new Batch(file, out.residents, states.size(), states.get(states.size() - 1).phase);
+        } catch (IOException | RuntimeException | StackOverflowError e) {
+            Files.deleteIfExists(file);
+            if (e instanceof StackOverflowError) {
+                //too deep object graph
+                throw new IOException(e);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Reads a batch of states from its spill file,
+     * and deletes the spill file.
+     *
+     * @param batch a {@link Batch}. It must not have
+     *        been restored yet.
+     * @return the {@link List}{@code <}{@link PendingState}{@code >}
+     *         in {@code batch}, in the same order they were
+     *         spilled.
+     * @throws IOException if reading the spill file fails.
+     */
+    List<PendingState> restore(Batch batch) throws IOException {
+        try (final SpillInputStream in = new SpillInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(batch.file), BUFFER_SIZE), BUFFER_SIZE), batch.residents)) {
+            final int size = in.readInt();
+            final ArrayList<PendingState> retVal = new ArrayList<>(size);
+            for (int i = 0; i < size; ++i) {
+                retVal.add((PendingState) in.readObject());
+            }
+            return retVal;
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        } finally {
+            Files.deleteIfExists(batch.file);
+        }
+    }
+
+    /**
+     * Deletes the spill directory with all
+     * the spill files in it.
+     */
+    void dispose() {
+        if (this.directory == null) {
+            return;
+        }
+        try (final Stream<Path> files = Files.list(this.directory)) {
+            for (Path f : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(f);
+            }
+            Files.deleteIfExists(this.directory);
+        } catch (IOException e) {
+            //nothing to do, it will be removed by the user
+        }
+        this.directory = null;
+    }
+}
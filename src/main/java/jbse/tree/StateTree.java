@@ -1,9 +1,18 @@
 package jbse.tree;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
 
 import jbse.common.exc.InvalidInputException;
 import jbse.common.exc.UnexpectedInternalException;
+import jbse.dec.exc.DecisionException;
 import jbse.mem.State;
 import jbse.mem.State.Phase;
 import jbse.mem.exc.FrozenStateException;
@@ -12,7 +21,13 @@ import jbse.val.HistoryPoint;
 /**
  * Class storing the {@link State}s in the symbolic execution
  * tree which have been discovered but not yet analyzed. It stores
- * only the states at branch points.
+ * only the states at branch points. Optionally, the number of 
+ * states kept in memory can be bounded, in which case the states
+ * that will be emitted last are moved to disk (see 
+ * {@link #setMaxNumOfResidentStates(int, Path)}), and the pending states
+ * can be stored as the sequence of decisions that produced them
+ * starting from a checkpoint state, and rebuilt by replaying the
+ * execution when they are emitted (see {@link #setMaxReplay(int, int)}).
  * 
  * @author Pietro Braione
  * @author unknown
@@ -92,6 +107,75 @@ public class StateTree {
         ALL_DECISIONS;
     }
 
+    /**
+     * Reexecutes the steps necessary to rebuild the pending 
+     * states from their checkpoints.
+     * 
+     * @author Pietro Braione
+     */
+    public interface Replayer {
+        /**
+         * Executes the bytecode at the program counter of a 
+         * state. The execution adds to the tree the states 
+         * it produces, exactly as during the original execution.
+         * 
+         * @param state the {@link State} to be stepped. 
+         * @throws DecisionException if the decision procedure fails.
+         */
+        void execute(State state) throws DecisionException;
+
+        /**
+         * Does on a state all the operations that follow its 
+         * emission, i.e., updates its depth and count and 
+         * synchronizes the decision procedure with its path
+         * condition.
+         * 
+         * @param state a {@link State}.
+         * @param resync {@code true} iff the decision procedure 
+         *        must be synchronized with the whole path condition
+         *        of {@code state}, {@code false} iff it must be
+         *        synchronized only with the clauses pushed by the 
+         *        last step.
+         * @throws DecisionException if the decision procedure fails.
+         */
+        void settle(State state, boolean resync) throws DecisionException;
+    }
+
+    /**
+     * A replay in progress.
+     * 
+     * @author Pietro Braione
+     */
+    private static final class Replay {
+        /** The choices at the branch points. */
+        final int[] choices;
+        
+        /** The position in {@link #choices} of the current branch point. */
+        int position = 0;
+        
+        /** The number of states added at the current branch point. */
+        int added = 0;
+        
+        /** The chosen state at the current branch point. */
+        State chosen = null;
+        
+        Replay(int[] choices) {
+            this.choices = choices;
+        }
+        
+        void branch() {
+            this.added = 0;
+            this.chosen = null;
+        }
+        
+        void offer(State s) {
+            if (this.added == this.choices[this.position]) {
+                this.chosen = s;
+            }
+            ++this.added;
+        }
+    }
+
     /**
      * A Memento for tree branches.
      * 
@@ -119,14 +203,25 @@ public class StateTree {
          * Used for COMPACT branch identification.
          */
         int emittedStates;
+        
+        /**
+         * {@code true} iff the states in the branch were stolen
+         * from another tree, and thus their identification is 
+         * already complete.
+         */
+        final boolean stolen;
 
         /** 
          * Constructor for branch identification.
+         * 
+         * @param stolen {@code true} iff the branch will
+         *        contain a state stolen from another tree.
          */
-        BranchInfo() {
+        BranchInfo(boolean stolen) {
             this.branch = new BranchPoint();
             this.totalStates = 0;
             this.emittedStates = 0;
+            this.stolen = stolen;
         }
     }
 
@@ -136,8 +231,62 @@ public class StateTree {
     /** Breadth mode. */
     private final BreadthMode breadthMode;
 
-    /** Buffer of the inserted {@link State}s. */
-    private final LinkedList<State> stateBuffer = new LinkedList<State>();
+    /** Buffer of the inserted states that are in memory. */
+    private final LinkedList<PendingState> stateBuffer = new LinkedList<>();
+
+    /** 
+     * Buffer of the batches of inserted {@link State}s that were
+     * moved to disk. They will be emitted after all the states
+     * in {@link #stateBuffer}.
+     */
+    private final LinkedList<StateSpiller.Batch> spilledBuffer = new LinkedList<>();
+
+    /** 
+     * The maximum number of states in {@link #stateBuffer}, 
+     * or {@code 0} if the states are never moved to disk. 
+     */
+    private int maxNumOfResidentStates = 0;
+
+    /** The {@link StateSpiller} moving states to disk and back. */
+    private StateSpiller spiller = null;
+
+    /** The total number of states moved to disk. */
+    private long spilledStates = 0L;
+
+    /** 
+     * The maximum number of steps necessary to rebuild a 
+     * pending state from its checkpoint, or {@code 0} if 
+     * the pending states are never rebuilt. 
+     */
+    private int maxReplaySteps = 0;
+
+    /** 
+     * The maximum number of branch points between a 
+     * pending state and its checkpoint. 
+     */
+    private int maxReplayDepth = 0;
+
+    /** The {@link Replayer} used to rebuild the pending states. */
+    private Replayer replayer = null;
+
+    /** The total number of states rebuilt by replay. */
+    private long replayedStates = 0L;
+
+    /** 
+     * The checkpoint from which the last emitted state can be 
+     * rebuilt, or {@code null} if the states it produces 
+     * cannot be rebuilt. 
+     */
+    private State currentCheckpoint = null;
+
+    /** The choices from {@link #currentCheckpoint} to the last emitted state. */
+    private int[] currentChoices = null;
+
+    /** The cost of rebuilding the last emitted state from {@link #currentCheckpoint}. */
+    private int currentCost = 0;
+
+    /** The {@link Replay} in progress, or {@code null} if not replaying. */
+    private Replay replay = null;
 
     /** Buffer of the inserted {@link BranchInfo}s. */
     private final LinkedList<BranchInfo> branchList = new LinkedList<BranchInfo>();
@@ -157,6 +306,116 @@ public class StateTree {
         this.breadthMode = breadthMode;
     }
 
+    /**
+     * Bounds the number of states that this tree keeps in memory.
+     * The bound is a count of states, not a size in bytes: States
+     * of very different sizes count the same. When the bound is 
+     * exceeded, the oldest half of the states in memory, i.e., 
+     * the ones that will be emitted last, are moved to a spill 
+     * directory, and read back when all the other states have 
+     * been emitted. If moving the states to disk fails, the tree 
+     * keeps all its states in memory from then on.
+     * 
+     * @param maxNumOfResidentStates an {@code int}, the maximum 
+     *        number of states kept in memory. If it is less than 2, 
+     *        the states are always kept in memory.
+     * @param spillDirectory a {@link Path}, the directory where 
+     *        the spill directory is created, or {@code null} for
+     *        the default temporary-file directory.
+     */
+    public void setMaxNumOfResidentStates(int maxNumOfResidentStates, Path spillDirectory) {
+        this.maxNumOfResidentStates = (maxNumOfResidentStates < 2 ? 0 : maxNumOfResidentStates);
+        this.spiller = (this.maxNumOfResidentStates == 0 ? null : new StateSpiller(spillDirectory));
+    }
+    
+    /**
+     * Makes this tree store the pending states as the decisions
+     * that produced them, rather than as full states. A pending 
+     * state is stored as a checkpoint, i.e., an ancestor state, 
+     * plus the choices taken at the branch points between the 
+     * checkpoint and the pending state, and is rebuilt by 
+     * reexecuting the steps from the checkpoint when it is 
+     * emitted. An emitted state becomes a checkpoint when 
+     * the number of branch points or the estimated number of
+     * steps from its checkpoint exceed the given bounds. 
+     * The state that will be emitted next, the pre-initial and
+     * initial states, and the states that own native resources
+     * are always stored in full. The pending states are rebuilt
+     * only if a {@link Replayer} is set (see 
+     * {@link #setReplayer(Replayer)}).
+     * 
+     * @param maxReplaySteps an {@code int}, the maximum number 
+     *        of steps to be reexecuted to rebuild a state. If it 
+     *        is less than 1, the pending states are stored in full.
+     * @param maxReplayDepth an {@code int}, the maximum number 
+     *        of branch points between a state and its checkpoint. 
+     *        If it is less than 1, the pending states are stored 
+     *        in full.
+     */
+    public void setMaxReplay(int maxReplaySteps, int maxReplayDepth) {
+        final boolean enabled = (maxReplaySteps > 0 && maxReplayDepth > 0);
+        this.maxReplaySteps = (enabled ? maxReplaySteps : 0);
+        this.maxReplayDepth = (enabled ? maxReplayDepth : 0);
+    }
+    
+    /**
+     * Sets the {@link Replayer} that this tree uses to
+     * rebuild the pending states.
+     * 
+     * @param replayer a {@link Replayer}.
+     */
+    public void setReplayer(Replayer replayer) {
+        this.replayer = replayer;
+    }
+    
+    /**
+     * Returns the total number of states that this tree
+     * rebuilt by replaying the execution.
+     * 
+     * @return a {@code long}.
+     */
+    public long getReplayedStates() {
+        return this.replayedStates;
+    }
+    
+    /**
+     * Returns the total number of states that this tree 
+     * moved to disk.
+     * 
+     * @return a {@code long}.
+     */
+    public long getSpilledStates() {
+        return this.spilledStates;
+    }
+    
+    /**
+     * Deletes the states that this tree moved to disk 
+     * and that were not emitted yet. 
+     */
+    public void dispose() {
+        if (this.spiller != null) {
+            this.spiller.dispose();
+        }
+    }
+
+    /**
+     * Removes all the states from this tree, so it
+     * can be reused for another symbolic execution.
+     * The settings of the tree and its statistics 
+     * are preserved.
+     */
+    public void clear() {
+        dispose();
+        this.stateBuffer.clear();
+        this.spilledBuffer.clear();
+        this.branchList.clear();
+        this.createdBranch = false;
+        this.currentCheckpoint = null;
+        this.currentChoices = null;
+        this.currentCost = 0;
+        this.replay = null;
+    }
+
     /**
      * Returns the branch identification mode.
      * 
@@ -233,7 +492,7 @@ public class StateTree {
     		if (this.stateIdMode == StateIdentificationMode.COMPACT) {
     			addState(s);
     		} else if (this.stateIdMode == StateIdentificationMode.REPLICABLE) {
-    			s.addBranchToHistoryPoint(String.valueOf(branchNumber));
+    			s.addBranchToHistoryPoint(branchNumber);
         		add(s);
     		} else { // (this.stateIdMode == StateIdentificationMode.LONG)
     			s.addBranchToHistoryPoint(branchIdentifier);
@@ -251,7 +510,7 @@ public class StateTree {
      *              to emit.
      */
     public boolean hasStates() {
-        return !this.stateBuffer.isEmpty();
+        return !this.stateBuffer.isEmpty() || !this.spilledBuffer.isEmpty();
     }
     
     /**
@@ -276,23 +535,205 @@ public class StateTree {
      * 
      * @return the {@link State} removed from the store.
      * @throws FrozenStateException if the returned {@link State} is frozen.
+     * @throws DecisionException if the decision procedure fails while
+     *         rebuilding the state.
      * @throws NoSuchElementException if {@link #hasStates()} {@code == false}.
      */
-    public State nextState() throws FrozenStateException {
-        final State s = this.stateBuffer.removeFirst();
+    public State nextState() throws FrozenStateException, DecisionException {
+        if (this.stateBuffer.isEmpty() && !this.spilledBuffer.isEmpty()) {
+            this.stateBuffer.addAll(restore(this.spilledBuffer.removeFirst()));
+        }
+        final PendingState p = this.stateBuffer.removeFirst();
+        final State s = materialize(p);
         final BranchInfo b = this.branchList.getFirst();
         ++b.emittedStates;
         if (b.emittedStates == b.totalStates) {
             this.branchList.removeFirst();
         }
         
-        if (this.stateIdMode == StateIdentificationMode.COMPACT && s.phase() == Phase.POST_INITIAL) {
-            s.addBranchToHistoryPoint(String.valueOf(b.emittedStates));
-        } //else, the history point was already set by addState
+        if (this.stateIdMode == StateIdentificationMode.COMPACT && s.phase() == Phase.POST_INITIAL && !b.stolen) {
+            s.addBranchToHistoryPoint(b.emittedStates);
+        } //else, the history point was already set by addState or stealState
+        
+        setCurrent(p, s);
 
         return s;
     }    
     
+    /**
+     * Returns the {@link State} of a {@link PendingState},
+     * possibly rebuilding it.
+     * 
+     * @param p a {@link PendingState}.
+     * @return a {@link State}.
+     * @throws DecisionException if the decision procedure 
+     *         fails while rebuilding the state.
+     */
+    private State materialize(PendingState p) throws DecisionException {
+        return (p.state == null ? replay(p) : p.state);
+    }
+    
+    /**
+     * Rebuilds the {@link State} of a {@link PendingState}
+     * by reexecuting the steps from its checkpoint.
+     * 
+     * @param p a {@link PendingState} with {@code p.state == null}.
+     * @return the rebuilt {@link State}.
+     * @throws DecisionException if the decision procedure 
+     *         fails while rebuilding the state.
+     */
+    private State replay(PendingState p) throws DecisionException {
+        final Replay replay = new Replay(p.choices);
+        State s = p.checkpoint.lazyClone();
+        this.replay = replay;
+        try {
+            this.replayer.settle(s, true);
+            while (true) {
+                if (s.isStuck()) {
+                    //this should never happen
+                    throw new UnexpectedInternalException("Replay of a pending state reached a stuck state.");
+                }
+                this.replayer.execute(s);
+                if (createdBranch()) {
+                    final State chosen = replay.chosen;
+                    if (chosen == null) {
+                        //this should never happen
+                        throw new UnexpectedInternalException("Replay of a pending state diverged from the original execution.");
+                    }
+                    final int choice = replay.choices[replay.position++];
+                    if (replay.position == replay.choices.length) {
+                        ++this.replayedStates;
+                        return chosen;
+                    }
+                    if (this.stateIdMode == StateIdentificationMode.COMPACT) {
+                        //the states of a branch are emitted in reverse order
+                        chosen.addBranchToHistoryPoint(replay.added - choice);
+                    }
+                    s = chosen;
+                } else {
+                    s.incSequenceNumber();
+                }
+                this.replayer.settle(s, false);
+            }
+        } catch (FrozenStateException e) {
+            //this should never happen
+            throw new UnexpectedInternalException(e);
+        } finally {
+            this.replay = null;
+        }
+    }
+    
+    /**
+     * Records how the states produced by an emitted
+     * state can be rebuilt, possibly making it a 
+     * checkpoint.
+     * 
+     * @param p the emitted {@link PendingState}.
+     * @param s the {@link State} of {@code p}.
+     */
+    private void setCurrent(PendingState p, State s) {
+        if (this.maxReplaySteps == 0 || this.replayer == null || 
+            s.phase() != Phase.POST_INITIAL || s.hasNativeResources()) {
+            this.currentCheckpoint = null;
+            this.currentChoices = null;
+            this.currentCost = 0;
+        } else if (p.checkpoint == null || p.choices.length >= this.maxReplayDepth || p.cost >= this.maxReplaySteps) {
+            this.currentCheckpoint = s.lazyClone();
+            this.currentChoices = new int[0];
+            this.currentCost = 0;
+        } else {
+            this.currentCheckpoint = p.checkpoint;
+            this.currentChoices = p.choices;
+            this.currentCost = p.cost;
+        }
+    }
+    
+    /**
+     * Checks whether some {@link State} can be stolen
+     * by another tree.
+     * 
+     * @return {@code true} iff the store has one or more 
+     *         states to emit, and the state that would be 
+     *         returned by {@link #stealState()} is post-initial.
+     */
+    public boolean canStealState() {
+        if (this.spilledBuffer.isEmpty()) {
+            return hasStates() && this.stateBuffer.getLast().phase == Phase.POST_INITIAL;
+        } else {
+            return this.spilledBuffer.getLast().lastPhase() == Phase.POST_INITIAL;
+        }
+    }
+    
+    /**
+     * Removes from the store the state that {@link #nextState()}
+     * would emit last, i.e., the one nearest to the root of the 
+     * symbolic execution tree, so it can be explored by somebody
+     * else. The identifier of the removed state is completed 
+     * as if the state were emitted by {@link #nextState()}.
+     * 
+     * @return the {@link State} removed from the store.
+     * @throws FrozenStateException if the returned {@link State} is frozen.
+     * @throws DecisionException if the decision procedure fails while
+     *         rebuilding the state.
+     * @throws InvalidInputException if {@link #canStealState()} {@code == false}.
+     */
+    public State stealState() throws InvalidInputException, DecisionException {
+        if (!canStealState()) {
+            throw new InvalidInputException("Tried to steal a state from a state tree with no post-initial state to emit.");
+        }
+        final PendingState p;
+        if (this.spilledBuffer.isEmpty()) {
+            p = this.stateBuffer.removeLast();
+        } else {
+            //takes the last spilled state and spills back the others
+            final List<PendingState> batch = restore(this.spilledBuffer.removeLast());
+            p = batch.remove(batch.size() - 1);
+            if (!batch.isEmpty()) {
+                final StateSpiller.Batch rest = spill(batch, Collections.emptySet());
+                if (rest == null) {
+                    //cannot spill: restores all the spilled states
+                    while (!this.spilledBuffer.isEmpty()) {
+                        this.stateBuffer.addAll(restore(this.spilledBuffer.removeFirst()));
+                    }
+                    this.stateBuffer.addAll(batch);
+                } else {
+                    this.spilledBuffer.addLast(rest);
+                }
+            }
+        }
+        final State s = materialize(p);
+        final BranchInfo b = this.branchList.getLast();
+        if (this.stateIdMode == StateIdentificationMode.COMPACT && !b.stolen) {
+            //s is the last state of its branch that nextState() would emit
+            s.addBranchToHistoryPoint(b.totalStates);
+        } //else, the history point was already set by addState
+        --b.totalStates;
+        if (b.emittedStates == b.totalStates) {
+            this.branchList.removeLast();
+        }
+        
+        return s;
+    }
+    
+    /**
+     * Adds to the store a state stolen from another 
+     * tree by means of {@link #stealState()}. The state 
+     * is put in a branch by itself, and will be the next 
+     * one emitted by {@link #nextState()}. Differently 
+     * from {@link #possiblyAddBranchPoint(boolean, boolean, boolean, boolean) possiblyAddBranchPoint}, 
+     * the created branch is not reported by {@link #createdBranch()}.
+     * 
+     * @param s the {@link State} to be added.
+     * @throws InvalidInputException if {@code s} is not post-initial.
+     */
+    public void addStolenState(State s) throws InvalidInputException {
+        if (s.phase() != Phase.POST_INITIAL) {
+            throw new InvalidInputException("Tried to add a stolen pre-initial or initial state.");
+        }
+        this.branchList.addFirst(new BranchInfo(true));
+        add(new PendingState(s));
+    }
+    
     
     /**
      * Possibly increases by one the level of the tree. 
@@ -311,6 +752,35 @@ public class StateTree {
      *         the tree level.
      */
     public boolean possiblyAddBranchPoint(boolean moreThanOneResult, boolean trivial, boolean concrete, boolean noDecision) {
+        final boolean retVal = shouldAddBranchPoint(moreThanOneResult, trivial, concrete, noDecision);
+        if (retVal) {
+            if (this.replay == null) {
+                addBranchPoint();
+            } else {
+                this.replay.branch();
+                this.createdBranch = true;
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * Checks whether {@link #possiblyAddBranchPoint(boolean, boolean, boolean, boolean) possiblyAddBranchPoint}
+     * would increase the level of the tree, without increasing it.
+     * 
+     * @param moreThanOneResult {@code true} iff the 
+     *        created branch will have than one state. 
+     * @param trivial iff the branch originates from a 
+     *        trivial decision.
+     * @param concrete iff the branch originates from a 
+     *        concrete decision.
+     * @param noDecision iff the branch originates from a
+     *        bytecode that takes no decision.
+     * @return {@code true} iff a branch point should be 
+     *         added with the current breadth mode.
+     */
+    public boolean shouldAddBranchPoint(boolean moreThanOneResult, boolean trivial, boolean concrete, boolean noDecision) {
         boolean retVal = moreThanOneResult;
         switch (this.breadthMode) {
         case MORE_THAN_ONE:
@@ -327,11 +797,6 @@ public class StateTree {
         default: 
             throw new UnexpectedInternalException("Unexpected breadth mode " + this.breadthMode + ".");	    		
         }
-
-        if (retVal) {
-            addBranchPoint();
-        }
-
         return retVal;
     }
 
@@ -341,7 +806,7 @@ public class StateTree {
      * will crash the engine.
      */
     private void addBranchPoint() {
-        this.branchList.addFirst(new BranchInfo());
+        this.branchList.addFirst(new BranchInfo(false));
         this.createdBranch = true;
     }
 
@@ -380,12 +845,121 @@ public class StateTree {
 
     /**
      * Adds a state to the buffer and increases the 
-     * total count of states in the branch.
+     * total count of states in the branch. If a 
+     * replay is in progress, offers the state to it
+     * instead.
      * 
      * @param s the {@link State} to be added.
      */
     private void add(State s) {
-        this.stateBuffer.addFirst(s);
+        if (this.replay != null) {
+            this.replay.offer(s);
+            return;
+        }
+        if (this.currentCheckpoint == null || s.phase() != Phase.POST_INITIAL) {
+            add(new PendingState(s));
+        } else {
+            final int[] choices = Arrays.copyOf(this.currentChoices, this.currentChoices.length + 1);
+            choices[this.currentChoices.length] = this.branchList.getFirst().totalStates;
+            add(new PendingState(s, this.currentCheckpoint, choices, this.currentCost + s.getCount()));
+        }
+    }
+
+    /**
+     * Adds a {@link PendingState} to the buffer and increases 
+     * the total count of states in the branch. Only the added
+     * state, that will be emitted next, is kept in full.
+     * 
+     * @param p the {@link PendingState} to be added.
+     */
+    private void add(PendingState p) {
+        this.stateBuffer.addFirst(p);
+        if (this.stateBuffer.size() > 1) {
+            this.stateBuffer.get(1).dropState();
+        }
         ++(this.branchList.getFirst().totalStates);
+        if (this.maxNumOfResidentStates > 0 && this.stateBuffer.size() > this.maxNumOfResidentStates) {
+            spillOldest();
+        }
+    }
+    
+    /**
+     * Moves the oldest half of the states in 
+     * {@link #stateBuffer} to disk. The checkpoints
+     * and the parts of the heaps that are shared with 
+     * the states that stay in memory are not moved.
+     */
+    private void spillOldest() {
+        final int nSpilled = this.stateBuffer.size() / 2;
+        final ArrayList<PendingState> batch = new ArrayList<>(nSpilled);
+        for (int i = 0; i < nSpilled; ++i) {
+            batch.add(this.stateBuffer.removeLast());
+        }
+        //batch is in reverse order
+        Collections.reverse(batch);
+        final Set<Object> shared = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (PendingState p : this.stateBuffer) {
+            if (p.state != null) {
+                p.state.collectHeapComponents(shared);
+            }
+            addCheckpoint(p.checkpoint, shared);
+        }
+        addCheckpoint(this.currentCheckpoint, shared);
+        final StateSpiller.Batch spilled = spill(batch, shared);
+        if (spilled == null) {
+            //cannot spill: keeps the states in memory
+            this.stateBuffer.addAll(batch);
+        } else {
+            this.spilledBuffer.addFirst(spilled);
+        }
+    }
+    
+    /**
+     * Adds a checkpoint and its heap to a set of 
+     * objects that must be kept in memory.
+     * 
+     * @param checkpoint a {@link State}, possibly {@code null}.
+     * @param shared a {@link Set}{@code <}{@link Object}{@code >}.
+     */
+    private static void addCheckpoint(State checkpoint, Set<Object> shared) {
+        if (checkpoint != null && shared.add(checkpoint)) {
+            checkpoint.collectHeapComponents(shared);
+        }
+    }
+    
+    /**
+     * Moves a batch of states to disk. If it fails, 
+     * stops moving states to disk.
+     * 
+     * @param batch a {@link List}{@code <}{@link PendingState}{@code >}.
+     * @param shared a {@link Set}{@code <}{@link Object}{@code >}
+     *        of objects that must be kept in memory.
+     * @return the {@link StateSpiller.Batch} for {@code batch}, 
+     *         or {@code null} if moving to disk failed.
+     */
+    private StateSpiller.Batch spill(List<PendingState> batch, Set<Object> shared) {
+        try {
+            final StateSpiller.Batch retVal = this.spiller.spill(batch, shared);
+            this.spilledStates += batch.size();
+            return retVal;
+        } catch (IOException e) {
+            this.maxNumOfResidentStates = 0;
+            return null;
+        }
+    }
+    
+    /**
+     * Moves a batch of states back from disk.
+     * 
+     * @param batch a {@link StateSpiller.Batch}.
+     * @return the {@link List}{@code <}{@link PendingState}{@code >} in {@code batch}.
+     */
+    private List<PendingState> restore(StateSpiller.Batch batch) {
+        try {
+            return this.spiller.restore(batch);
+        } catch (IOException e) {
+            //the states are lost
+            throw new UnexpectedInternalException("Unable to read back states from disk.", e);
+        }
     }
 }
@@ -16,6 +16,8 @@ import jbse.val.exc.InvalidTypeException;
  * @author Pietro Braione
  */
 public final class Any extends PrimitiveSymbolic {
+    private static final long serialVersionUID = 5012685718801495881L;
+
     private Any(Calculator calc) throws InvalidTypeException {
         super(Type.BOOLEAN, unknown(), calc);
     }
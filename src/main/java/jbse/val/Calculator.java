@@ -20,6 +20,12 @@ import jbse.val.exc.InvalidOperatorException;
 import jbse.val.exc.InvalidTypeException;
 
 public abstract class Calculator {
+    /** 
+     * The unique instances of the {@link Primitive}s 
+     * built by this calculator. 
+     */
+    private final HashConsTable hashConsTable = new HashConsTable();
+    
     /** The (only) {@link Any} value. */
     private final Any ANY;
 
@@ -80,6 +86,18 @@ public abstract class Calculator {
         this.DEFAULT_REFERENCE = Null.getInstance();
     }
 
+    /**
+     * Returns the unique instance of a {@link Primitive} 
+     * built by this calculator.
+     * 
+     * @param p a {@link Primitive} whose calculator is {@code this}.
+     * @return the {@link Primitive} equal to {@code p} that
+     *         was built first, possibly {@code p} itself.
+     */
+    <T extends Primitive> T hashCons(T p) {
+        return this.hashConsTable.intern(p);
+    }
+
     /**
      * Factory method for values with type {@link Any}.
      * 
@@ -13,6 +13,8 @@ import jbse.val.exc.InvalidTypeException;
  * by applying a unary or binary {@link Operator} to arguments.
  */
 public final class Expression extends PrimitiveSymbolicComputed {
+    private static final long serialVersionUID = 7082047977064885626L;
+
     /** The operator. */
     private final Operator operator;
 
@@ -25,8 +27,11 @@ public final class Expression extends PrimitiveSymbolicComputed {
     /** The hash code of this object. */
     private final int hashCode;
 
-    /** The string representation of this object. */
-    private final String toString;
+    /** 
+     * The string representation of this object, 
+     * or {@code null} if not yet calculated. 
+     */
+    private transient volatile String toString;
 
     /**
      * Factory method for verbatim expressions (binary).
@@ -61,7 +66,7 @@ public final class Expression extends PrimitiveSymbolicComputed {
         //calculates the default type
         final char defaultType = operator.returnType(firstOperand.getType(), secondOperand.getType()); 
 
-        return new Expression(defaultType, calc, firstOperand, operator, secondOperand);
+        return calc.hashCons(new Expression(defaultType, calc, firstOperand, operator, secondOperand));
     }
 
     /**
@@ -92,7 +97,7 @@ public final class Expression extends PrimitiveSymbolicComputed {
         //calculates the default type
         final char defaultType = (operator.returnsBoolean() ? Type.BOOLEAN : operand.getType());
 
-        return new Expression(defaultType, calc, null, operator, operand);
+        return calc.hashCons(new Expression(defaultType, calc, null, operator, operand));
     }
 
     /**
@@ -114,9 +119,10 @@ public final class Expression extends PrimitiveSymbolicComputed {
     	tmpHashCode = prime * tmpHashCode + this.operator.hashCode();
     	tmpHashCode = prime * tmpHashCode + this.secondOp.hashCode();
     	this.hashCode = tmpHashCode;
-
-    	//calculates toString
-    	this.toString = stringify(true);
+    }
+    
+    private Object readResolve() {
+        return this.calc.hashCons(this);
     }
     
     private String stringify(boolean toString) {
@@ -260,7 +266,12 @@ public final class Expression extends PrimitiveSymbolicComputed {
      */
     @Override
     public String toString() {
-        return this.toString;
+        String retVal = this.toString;
+        if (retVal == null) {
+            retVal = stringify(true);
+            this.toString = retVal;
+        }
+        return retVal;
     }
 
     /**
@@ -0,0 +1,108 @@
+package jbse.val;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A table of {@link Primitive}s that ensures that every
+ * {@link Primitive} built by a {@link Calculator} through
+ * its factory methods exists once (hash consing). Since
+ * the operands of a {@link Primitive} are unique as well,
+ * two equal {@link Primitive}s are usually the same object,
+ * and their comparison by {@link Object#equals(Object)} stops
+ * at the first reference comparison. The table does not
+ * prevent its {@link Primitive}s from being garbage collected
+ * when they are no longer used, and can be used concurrently 
+ * by many threads without locking.
+ *
+ * @author Pietro Braione
+ */
+final class HashConsTable {
+    /**
+     * A weak reference to a {@link Primitive} in the table,
+     * that is equal to the weak references to equal 
+     * {@link Primitive}s.
+     */
+    private static final class Entry extends WeakReference<Primitive> {
+        private final int hashCode;
+
+        Entry(Primitive p, ReferenceQueue<Primitive> queue) {
+            super(p, queue);
+            this.hashCode = p.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Entry)) {
+                return false;
+            }
+            final Entry other = (Entry) obj;
+            if (this.hashCode != other.hashCode) {
+                return false;
+            }
+            //a collected Primitive is equal to nothing
+            final Primitive p = get();
+            return (p != null && p.equals(other.get()));
+        }
+    }
+
+    /**
+     * Maps every {@link Primitive}, through its {@link Entry}, 
+     * to its {@link Entry}.
+     */
+    private final ConcurrentHashMap<Entry, Entry> table = new ConcurrentHashMap<>();
+
+    /** The queue of the {@link Entry}s of the collected {@link Primitive}s. */
+    private final ReferenceQueue<Primitive> collected = new ReferenceQueue<>();
+
+    /**
+     * Returns the unique {@link Primitive} that is equal
+     * to a given one.
+     *
+     * @param p a {@link Primitive}. It must not be
+     *        modified after the invocation of this method.
+     * @return the {@link Primitive} stored in this table
+     *         that is equal to {@code p}, or {@code p}
+     *         itself if there was none (in which case
+     *         {@code p} is added to this table).
+     */
+    @SuppressWarnings("unchecked")
+    <T extends Primitive> T intern(T p) {
+        purge();
+        final Entry entry = new Entry(p, this.collected);
+        while (true) {
+            final Entry previous = this.table.putIfAbsent(entry, entry);
+            if (previous == null) {
+                return p;
+            }
+            final Primitive retVal = previous.get();
+            if (retVal != null) {
+                return (T) retVal;
+            }
+            //collected after the lookup
+            this.table.remove(previous, previous);
+        }
+    }
+
+    /**
+     * Removes the {@link Entry}s of the collected 
+     * {@link Primitive}s from the table.
+     */
+    private void purge() {
+        Reference<? extends Primitive> r;
+        while ((r = this.collected.poll()) != null) {
+            //a collected entry is only equal to itself
+            this.table.remove(r, r);
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package jbse.val;
 
-import java.util.ArrayList;
+import java.io.Serializable;
 
 /**
  * Class for history points in symbolic execution. A history point identifies a
@@ -11,7 +11,9 @@ import java.util.ArrayList;
  * @author Pietro Braione
  *
  */
-public final class HistoryPoint {
+public final class HistoryPoint implements Serializable {
+    private static final long serialVersionUID = -3720958657989204912L;
+
     public static final String BRANCH_IDENTIFIER_SEPARATOR_COMPACT = ".";
     public static final String BRANCH_IDENTIFIER_DEFAULT_COMPACT = "1";
     public static final String BRANCH_IDENTIFIER_SEPARATOR_LONG = "|";
@@ -19,27 +21,141 @@ public final class HistoryPoint {
     
     private final boolean compact;
     
-    private final ArrayList<String> branchIdentifier;
+    /** 
+     * The last component of the branch identifier, or 
+     * {@code null} for the unknown history point.
+     */
+    private final Branch branch;
     
     private final int sequenceNumber;
     
     /**
-     * Constructor for the unknown history point.
+     * A component of a branch identifier. Branch identifiers are
+     * persistent lists linked from the last component to the first
+     * one, so that a subbranch shares all the components of
+     * its parent branch. Numeric components (as in the compact 
+     * and replicable state identification modes) are stored as 
+     * numbers and rendered as strings only when printed.
+     * 
+     * @author Pietro Braione
      */
-    private HistoryPoint() {
-        this.compact = true;
-        this.branchIdentifier = null;
-        this.sequenceNumber = 0;
+    private static final class Branch implements Serializable {
+        private static final long serialVersionUID = 5204728417043867315L;
+        
+        /** The empty branch identifier. */
+        static final Branch EMPTY = new Branch();
+        
+        /** The preceding components, {@code null} for {@link #EMPTY}. */
+        final Branch parent;
+        
+        /** The component when it is numeric, otherwise ignored. */
+        final int number;
+        
+        /** The component when it is not numeric, otherwise {@code null}. */
+        final String label;
+        
+        /** The number of components. */
+        final int length;
+        
+        /** 
+         * The hash code, equal to that of the {@link java.util.List}
+         * of the components rendered as {@link String}s.
+         */
+        final int hashCode;
+        
+        private Branch() {
+            this.parent = null;
+            this.number = 0;
+            this.label = null;
+            this.length = 0;
+            this.hashCode = 1;
+        }
+        
+        Branch(Branch parent, int number) {
+            this.parent = parent;
+            this.number = number;
+            this.label = null;
+            this.length = parent.length + 1;
+            this.hashCode = 31 * parent.hashCode + decimalHashCode(number);
+        }
+        
+        Branch(Branch parent, String label) {
+            this.parent = parent;
+            this.number = 0;
+            this.label = label;
+            this.length = parent.length + 1;
+            this.hashCode = 31 * parent.hashCode + label.hashCode();
+        }
+        
+        boolean sameComponent(Branch other) {
+            if (this.label == null) {
+                return other.label == null && this.number == other.number;
+            } else {
+                return this.label.equals(other.label);
+            }
+        }
+        
+        /**
+         * Checks whether this branch identifier equals another 
+         * one with same length.
+         * 
+         * @param other a {@link Branch}, with {@code other.length == this.length}.
+         * @return {@code true} iff the two identifiers have the same components.
+         */
+        boolean sameComponents(Branch other) {
+            Branch b1 = this, b2 = other;
+            while (b1 != b2) {
+                if (!b1.sameComponent(b2)) {
+                    return false;
+                }
+                b1 = b1.parent;
+                b2 = b2.parent;
+            }
+            return true;
+        }
+        
+        void appendTo(StringBuilder sb, String separator) {
+            final Branch[] components = new Branch[this.length];
+            for (Branch b = this; b.length > 0; b = b.parent) {
+                components[b.length - 1] = b;
+            }
+            for (Branch b : components) {
+                sb.append(separator);
+                if (b.label == null) {
+                    sb.append(b.number);
+                } else {
+                    sb.append(b.label);
+                }
+            }
+        }
+        
+        /**
+         * Returns the hash code of the decimal
+         * representation of a nonnegative number,
+         * without building it.
+         * 
+         * @param number a nonnegative {@code int}.
+         * @return {@code String.valueOf(number).hashCode()}.
+         */
+        private static int decimalHashCode(int number) {
+            int divisor = 1;
+            while (number / divisor >= 10) {
+                divisor *= 10;
+            }
+            int retVal = 0;
+            for (; divisor > 0; divisor /= 10) {
+                retVal = 31 * retVal + ('0' + (number / divisor) % 10);
+            }
+            return retVal;
+        }
     }
     
     /**
-     * Constructor for the root history point.
-     * 
-     * @param compact a {@code boolean}.
+     * Constructor for the unknown history point.
      */
-    private HistoryPoint(boolean compact) {
-        this.compact = compact;
-        this.branchIdentifier = new ArrayList<>();
+    private HistoryPoint() {
+        this.compact = true;
+        this.branch = null;
         this.sequenceNumber = 0;
     }
     
@@ -47,12 +163,12 @@ public final class HistoryPoint {
      * Constructor.
      * 
      * @param compact a {@code boolean}.
-     * @param branchIdentifier an {@link ArrayList}{@code <}{@link String}{@code >}.
+     * @param branch a {@link Branch}.
      * @param sequenceNumber an {@code int}.
      */
-    private HistoryPoint(boolean compact, ArrayList<String> branchIdentifier, int sequenceNumber) {
+    private HistoryPoint(boolean compact, Branch branch, int sequenceNumber) {
         this.compact = compact;
-        this.branchIdentifier = branchIdentifier;
+        this.branch = branch;
         this.sequenceNumber = sequenceNumber;
     }
     
@@ -72,7 +188,7 @@ public final class HistoryPoint {
      * @return a {@link HistoryPoint}.
      */
     public static HistoryPoint startingPreInitial(boolean compact) {
-        return new HistoryPoint(compact);
+        return new HistoryPoint(compact, Branch.EMPTY, 0);
     }
     
     /**
@@ -81,9 +197,7 @@ public final class HistoryPoint {
      * @return a {@link HistoryPoint}.
      */
     public HistoryPoint startingInitial() {
-        final ArrayList<String> nextBranchIdentifier = new ArrayList<>();
-        nextBranchIdentifier.add(this.compact ? BRANCH_IDENTIFIER_DEFAULT_COMPACT : BRANCH_IDENTIFIER_DEFAULT_LONG);
-        return new HistoryPoint(this.compact, nextBranchIdentifier, 0);
+        return nextBranch(this.compact ? BRANCH_IDENTIFIER_DEFAULT_COMPACT : BRANCH_IDENTIFIER_DEFAULT_LONG);
     }
     
     /**
@@ -93,7 +207,7 @@ public final class HistoryPoint {
      * @return a {@link HistoryPoint}.
      */
     public HistoryPoint next() {
-        return new HistoryPoint(this.compact, this.branchIdentifier, this.sequenceNumber + 1);
+        return new HistoryPoint(this.compact, this.branch, this.sequenceNumber + 1);
     }
     
     /**
@@ -107,9 +221,53 @@ public final class HistoryPoint {
      *         the unknown {@link HistoryPoint}.
      */
     public HistoryPoint nextBranch(String additionalBranch) {
-        final ArrayList<String> nextBranchIdentifier = new ArrayList<>(this.branchIdentifier);
-        nextBranchIdentifier.add(additionalBranch);
-        return new HistoryPoint(this.compact, nextBranchIdentifier, 0);
+        final int number = parseBranchNumber(additionalBranch);
+        if (number < 0) {
+            return new HistoryPoint(this.compact, new Branch(this.branch, additionalBranch), 0);
+        } else {
+            return nextBranch(number);
+        }
+    }
+    
+    /**
+     * Factory method. Builds a {@link HistoryPoint} next in time
+     * on a subbranch identified by a number. It is equivalent 
+     * to {@link #nextBranch(String) nextBranch}{@code (String.valueOf(additionalBranch))}.
+     * 
+     * @param additionalBranch an {@code int} that 
+     *        identifies the subbranch.
+     * @return a {@link HistoryPoint}.
+     * @throws NullPointerException if this {@link HistoryPoint} is
+     *         the unknown {@link HistoryPoint}.
+     */
+    public HistoryPoint nextBranch(int additionalBranch) {
+        if (additionalBranch < 0) {
+            return new HistoryPoint(this.compact, new Branch(this.branch, String.valueOf(additionalBranch)), 0);
+        }
+        return new HistoryPoint(this.compact, new Branch(this.branch, additionalBranch), 0);
+    }
+    
+    /**
+     * Parses a branch identifier component.
+     * 
+     * @param additionalBranch a {@link String}.
+     * @return the nonnegative {@code int} whose decimal representation
+     *         is {@code additionalBranch}, or {@code -1} if there is none.
+     */
+    private static int parseBranchNumber(String additionalBranch) {
+        final int length = additionalBranch.length();
+        if (length == 0 || length > 9 || (length > 1 && additionalBranch.charAt(0) == '0')) {
+            return -1;
+        }
+        int retVal = 0;
+        for (int i = 0; i < length; ++i) {
+            final char c = additionalBranch.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            retVal = retVal * 10 + (c - '0');
+        }
+        return retVal;
     }
     
     /**
@@ -119,10 +277,7 @@ public final class HistoryPoint {
      */
     public String getBranchIdentifier() {
         final StringBuilder retVal = new StringBuilder();
-        for (String b : this.branchIdentifier) {
-            retVal.append(this.compact ? BRANCH_IDENTIFIER_SEPARATOR_COMPACT : BRANCH_IDENTIFIER_SEPARATOR_LONG);
-            retVal.append(b);
-        }
+        this.branch.appendTo(retVal, this.compact ? BRANCH_IDENTIFIER_SEPARATOR_COMPACT : BRANCH_IDENTIFIER_SEPARATOR_LONG);
         return retVal.toString();
     }
     
@@ -147,17 +302,19 @@ public final class HistoryPoint {
      * @throws NullPointerException if {@code other == null}.
      */
     public boolean weaklyBefore(HistoryPoint other) {
-        if (this.branchIdentifier.size() > other.branchIdentifier.size()) {
+        if (this.branch.length > other.branch.length) {
             return false;
         }
         
-        for (int i = 0; i < this.branchIdentifier.size(); ++i) {
-            if (!this.branchIdentifier.get(i).equals(other.branchIdentifier.get(i))) {
-                return false;
-            }
+        Branch otherPrefix = other.branch;
+        while (otherPrefix.length > this.branch.length) {
+            otherPrefix = otherPrefix.parent;
+        }
+        if (!this.branch.sameComponents(otherPrefix)) {
+            return false;
         }
         
-        if (this.branchIdentifier.size() == other.branchIdentifier.size() && this.sequenceNumber > other.sequenceNumber) {
+        if (this.branch.length == other.branch.length && this.sequenceNumber > other.sequenceNumber) {
             return false;
         }
         
@@ -168,7 +325,7 @@ public final class HistoryPoint {
     public int hashCode() {
         final int prime = 31;
         int result = 1;
-        result = prime * result + (this.branchIdentifier == null ? 0 : this.branchIdentifier.hashCode());
+        result = prime * result + (this.branch == null ? 0 : this.branch.hashCode);
         result = prime * result + this.sequenceNumber;
         return result;
     }
@@ -185,23 +342,21 @@ public final class HistoryPoint {
             return false;
         }
         final HistoryPoint other = (HistoryPoint) obj;
-        if (this.branchIdentifier == null) {
-        	if (other.branchIdentifier != null) {
-        		return false;
-        	}
-        }
-        if (!this.branchIdentifier.equals(other.branchIdentifier)) {
+        if (this.sequenceNumber != other.sequenceNumber) {
             return false;
         }
-        if (this.sequenceNumber != other.sequenceNumber) {
+        if (this.branch == null || other.branch == null) {
+            return this.branch == other.branch;
+        }
+        if (this.branch.length != other.branch.length || this.branch.hashCode != other.branch.hashCode) {
             return false;
         }
-        return true;
+        return this.branch.sameComponents(other.branch);
     }
 
     @Override
     public String toString() {
-    	if (this.branchIdentifier == null) {
+    	if (this.branch == null) {
     		return "?";
     	} else {
     		return getBranchIdentifier() + "[" + getSequenceNumber() + "]";
@@ -9,6 +9,8 @@ import jbse.mem.Klass;
  * origin to {@link Klass} objects.
  */
 public final class KlassPseudoReference extends ReferenceSymbolic {
+    private static final long serialVersionUID = 8100793909258355547L;
+
     private final ClassFile classFile;
     
     /**
@@ -13,8 +13,10 @@ import jbse.val.exc.ValueDoesNotSupportNativeException;
  *
  */
 public final class NarrowingConversion extends Primitive {
+    private static final long serialVersionUID = 8164480918609424996L;
+
     private final Primitive arg;
-    private final String toString;
+    private transient volatile String toString;
     private final int hashCode;
 
     private NarrowingConversion(char type, Calculator calc, Primitive arg) 
@@ -36,14 +38,15 @@ public final class NarrowingConversion extends Primitive {
         result = prime * result + arg.hashCode();
         result = prime * result + type;
         this.hashCode = result;
-
-        //calculates toString
-        this.toString = "NARROW-"+ this.getType() + "(" + arg.toString() + ")";
+    }
+    
+    private Object readResolve() {
+        return this.calc.hashCons(this);
     }
 
     public static NarrowingConversion make(char type, Calculator calc, Primitive arg) 
     throws InvalidOperandException, InvalidTypeException {
-        return new NarrowingConversion(type, calc, arg);
+        return calc.hashCons(new NarrowingConversion(type, calc, arg));
     }
 
     public Primitive getArg() {
@@ -77,7 +80,12 @@ public final class NarrowingConversion extends Primitive {
 
     @Override
     public String toString() {
-        return this.toString;
+        String retVal = this.toString;
+        if (retVal == null) {
+            retVal = "NARROW-"+ this.getType() + "(" + this.arg.toString() + ")";
+            this.toString = retVal;
+        }
+        return retVal;
     }
 
     @Override
@@ -97,6 +105,9 @@ public final class NarrowingConversion extends Primitive {
             return false;
         }
         final NarrowingConversion other = (NarrowingConversion) obj;
+        if (getType() != other.getType()) {
+            return false;
+        }
         if (this.arg == null) {
             if (other.arg != null) {
                 return false;
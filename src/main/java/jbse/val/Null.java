@@ -9,6 +9,8 @@ import jbse.mem.Util;
  * @author Pietro Braione
  */
 public final class Null extends ReferenceConcrete {
+    private static final long serialVersionUID = 3902125834911650871L;
+
 	private static Null instance = new Null();
     
     /**
@@ -22,6 +24,15 @@ public final class Null extends ReferenceConcrete {
         return instance;
     }
     
+    /**
+     * Preserves the singleton property upon deserialization.
+     * 
+     * @return the only instance of {@link Null}.
+     */
+    private Object readResolve() {
+        return instance;
+    }
+    
     /**
      * Returns the value
      */
@@ -11,6 +11,8 @@ import jbse.val.exc.InvalidTypeException;
  * Class that represent a primitive type value of any kind.
  */
 public abstract class Primitive extends Value implements Cloneable {
+    private static final long serialVersionUID = -5805295374778915326L;
+
     /** {@link Calculator} to perform operation on primitives. */
     protected final Calculator calc;
 
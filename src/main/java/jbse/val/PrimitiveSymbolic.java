@@ -7,6 +7,8 @@ import jbse.val.exc.ValueDoesNotSupportNativeException;
  * Class that represent a symbolic value. 
  */
 public abstract class PrimitiveSymbolic extends Primitive implements Symbolic {
+    private static final long serialVersionUID = -7986210758496292186L;
+
     /** The creation history point of this symbol. */
     private final HistoryPoint historyPoint;
 
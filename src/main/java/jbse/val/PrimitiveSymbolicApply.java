@@ -35,6 +35,8 @@ import jbse.val.exc.InvalidTypeException;
  * @author Pietro Braione
  */
 public final class PrimitiveSymbolicApply extends PrimitiveSymbolicComputed {
+    private static final long serialVersionUID = -8991653324099686224L;
+
     //pure functions implemented in java.lang.StrictMath 
     
     /** Absolute value (double) */
@@ -112,11 +114,34 @@ public final class PrimitiveSymbolicApply extends PrimitiveSymbolicComputed {
 	/** The hash code of this object. */
     private final int hashCode;
 
-    /** The string representation of this object. */
-	private final String toString;
+    /** 
+     * The string representation of this object, 
+     * or {@code null} if not yet calculated. 
+     */
+	private transient volatile String toString;
 	
 	/**
-	 * Constructor. 
+	 * Factory method. 
+	 * 
+     * @param type a {@code char}, the type of this {@link PrimitiveSymbolicApply}. 
+     * @param historyPoint the current {@link HistoryPoint}.
+     * @param calc a {@link Calculator}.
+     * @param operator the name of the function.
+     * @param args the {@link Value} arguments to which the function is applied.
+     * @return a {@link PrimitiveSymbolicApply}.
+	 * @throws InvalidOperandException if any of {@code args} is null. 
+	 * @throws InvalidTypeException if {@code type} is not primitive.
+	 */
+	public static PrimitiveSymbolicApply make(char type, HistoryPoint historyPoint, Calculator calc, String operator, Value... args) 
+	throws InvalidTypeException, InvalidOperandException {
+	    return calc.hashCons(new PrimitiveSymbolicApply(type, historyPoint, calc, operator, args));
+	}
+	
+	/**
+	 * Constructor. The created object is not hash-consed, 
+	 * thus it is equal, but not identical, to the ones
+	 * created by {@link #make(char, HistoryPoint, Calculator, String, Value...) make}
+	 * with the same parameters. 
 	 * 
      * @param type a {@code char}, the type of this {@link PrimitiveSymbolicApply}. 
      * @param historyPoint the current {@link HistoryPoint}.
@@ -146,21 +171,10 @@ public final class PrimitiveSymbolicApply extends PrimitiveSymbolicComputed {
 		tmpHashCode = prime * tmpHashCode + ((operator == null) ? 0 : operator.hashCode());
                 tmpHashCode = prime * tmpHashCode + ((historyPoint == null) ? 0 : historyPoint.hashCode());
 		this.hashCode = tmpHashCode;
-		
-		//calculates toString
-		final StringBuilder buf = new StringBuilder();
-		buf.append(this.operator + "(");
-		boolean first = true;
-		for (Value v : this.args) {
-			buf.append((first ? "" : ",") + v.toString());
-			first = false;
-		}
-                buf.append(")");
-                if (historyPoint != null) {
-                    buf.append("@");
-                    buf.append(historyPoint.toString());
-                }
-		this.toString = buf.toString();
+	}
+	
+	private Object readResolve() {
+	    return this.calc.hashCons(this);
 	}
 	
 	public String getOperator() {
@@ -226,7 +240,24 @@ public final class PrimitiveSymbolicApply extends PrimitiveSymbolicComputed {
 	 */
 	@Override
 	public String toString() {
-		return this.toString;
+	    String retVal = this.toString;
+	    if (retVal == null) {
+	        final StringBuilder buf = new StringBuilder();
+	        buf.append(this.operator + "(");
+	        boolean first = true;
+	        for (Value v : this.args) {
+	            buf.append((first ? "" : ",") + v.toString());
+	            first = false;
+	        }
+	        buf.append(")");
+	        if (historyPoint() != null) {
+	            buf.append("@");
+	            buf.append(historyPoint().toString());
+	        }
+	        retVal = buf.toString();
+	        this.toString = retVal;
+	    }
+	    return retVal;
 	}
 
 	/**
@@ -252,6 +283,9 @@ public final class PrimitiveSymbolicApply extends PrimitiveSymbolicComputed {
 			return false;
 		}
 		final PrimitiveSymbolicApply other = (PrimitiveSymbolicApply) obj;
+		if (getType() != other.getType()) {
+		    return false;
+		}
 		if (!Arrays.equals(this.args, other.args))
 			return false;
 		if (this.operator == null) {
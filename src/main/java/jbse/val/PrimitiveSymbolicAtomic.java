@@ -7,6 +7,8 @@ import jbse.val.exc.InvalidTypeException;
  * (non computed) value. 
  */
 public abstract class PrimitiveSymbolicAtomic extends PrimitiveSymbolic implements SymbolicAtomic {    
+    private static final long serialVersionUID = 404106603560660247L;
+
     /** The identifier of this symbol. */
     private final int id;
     
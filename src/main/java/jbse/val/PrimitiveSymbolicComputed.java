@@ -8,6 +8,8 @@ import jbse.val.exc.InvalidTypeException;
  * from a set of other {@link Value}s. 
  */
 public abstract class PrimitiveSymbolicComputed extends PrimitiveSymbolic {    
+    private static final long serialVersionUID = 7528002863985319852L;
+
     /**
      * Constructor.
      * 
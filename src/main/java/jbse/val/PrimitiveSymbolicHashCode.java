@@ -9,6 +9,8 @@ import jbse.val.exc.InvalidTypeException;
  * the hash code of an object. 
  */
 public final class PrimitiveSymbolicHashCode extends PrimitiveSymbolicAtomic {
+    private static final long serialVersionUID = 3268231573356436937L;
+
     /** 
      * The container object can be null if this is the hash code
      * of a concrete object.
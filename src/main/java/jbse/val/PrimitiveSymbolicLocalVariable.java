@@ -7,6 +7,8 @@ import jbse.val.exc.InvalidTypeException;
  * local variable in the root frame. 
  */
 public final class PrimitiveSymbolicLocalVariable extends PrimitiveSymbolicAtomic implements SymbolicLocalVariable {
+    private static final long serialVersionUID = 8969320418283145615L;
+
     final String variableName;
     
     /**
@@ -7,6 +7,8 @@ import jbse.val.exc.InvalidTypeException;
  * (that is, is a member of an object transitively referred by a root). 
  */
 public abstract class PrimitiveSymbolicMember extends PrimitiveSymbolicAtomic implements SymbolicMember {
+    private static final long serialVersionUID = 5758034657006977544L;
+
     private final ReferenceSymbolic container;
 
     /**
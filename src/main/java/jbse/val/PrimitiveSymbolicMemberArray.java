@@ -7,6 +7,8 @@ import jbse.val.exc.InvalidTypeException;
  * in an array. 
  */
 public final class PrimitiveSymbolicMemberArray extends PrimitiveSymbolicMember implements SymbolicMemberArray {
+    private static final long serialVersionUID = -3948821145090876874L;
+
     private final Primitive index;
     
     /**
@@ -9,6 +9,8 @@ import jbse.val.exc.InvalidTypeException;
  * length of an array.
  */
 public final class PrimitiveSymbolicMemberArrayLength extends PrimitiveSymbolicMember {
+    private static final long serialVersionUID = 6033385399315837408L;
+
     /**
      * Constructor.
      * 
@@ -7,6 +7,8 @@ import jbse.val.exc.InvalidTypeException;
  * in an object (non array). 
  */
 public final class PrimitiveSymbolicMemberField extends PrimitiveSymbolicMember implements SymbolicMemberField {
+    private static final long serialVersionUID = -5058333148454614053L;
+
     private final String fieldName;
     
     /**
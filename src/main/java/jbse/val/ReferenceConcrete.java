@@ -4,6 +4,8 @@ import jbse.common.Type;
 import jbse.mem.Util;
 
 public class ReferenceConcrete extends Reference {
+    private static final long serialVersionUID = -288666277267235408L;
+
     /** The position in the heap denoted by this {@link Reference}. */
     private final long pos;
 
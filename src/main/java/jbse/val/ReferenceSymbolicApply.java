@@ -11,6 +11,8 @@ import jbse.val.exc.InvalidOperandException;
  * @author Pietro Braione
  */
 public final class ReferenceSymbolicApply extends ReferenceSymbolic {
+    private static final long serialVersionUID = 7581224512002182454L;
+
     //pure functions 
     //TODO move them elsewhere? should make an enum? (no special advantage in both)
     
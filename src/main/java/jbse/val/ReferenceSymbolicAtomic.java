@@ -7,6 +7,8 @@ package jbse.val;
  * @author Pietro Braione
  */
 public abstract class ReferenceSymbolicAtomic extends ReferenceSymbolic implements SymbolicAtomic {
+    private static final long serialVersionUID = -8424721321525415162L;
+
     /** An identifier for the value, in order to track lazy initialization. */
     private final int id;
 
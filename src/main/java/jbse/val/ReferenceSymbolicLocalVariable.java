@@ -5,6 +5,8 @@ package jbse.val;
  * local variable in the root frame. 
  */
 public final class ReferenceSymbolicLocalVariable extends ReferenceSymbolicAtomic implements SymbolicLocalVariable {
+    private static final long serialVersionUID = 3223270630683427528L;
+
     private final String variableName;
 
     /**
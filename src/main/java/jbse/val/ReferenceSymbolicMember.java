@@ -5,6 +5,8 @@ package jbse.val;
  * (that is, is a member of an object transitively referred by a root). 
  */
 public abstract class ReferenceSymbolicMember extends ReferenceSymbolicAtomic implements SymbolicMember {
+    private static final long serialVersionUID = 8012323959406238628L;
+
     private final ReferenceSymbolic container;
 
     /**
@@ -5,6 +5,8 @@ package jbse.val;
  * in an array. 
  */
 public final class ReferenceSymbolicMemberArray extends ReferenceSymbolicMember implements SymbolicMemberArray {
+    private static final long serialVersionUID = 4638888255215500666L;
+
     private final Primitive index;
     
     /**
@@ -5,6 +5,8 @@ package jbse.val;
  * in an object (non array). 
  */
 public final class ReferenceSymbolicMemberField extends ReferenceSymbolicMember implements SymbolicMemberField {
+    private static final long serialVersionUID = -2558594389128248977L;
+
     private final String fieldName;
     
     /**
@@ -9,14 +9,19 @@ import jbse.val.exc.InvalidTypeException;
  * Class for concrete primitive values.
  */
 public final class Simplex extends Primitive implements Cloneable {	
+    private static final long serialVersionUID = -2072071824878557653L;
+
     /** The primitive value this object represents. */
     private final Object value;
 
     /** The hash code. */
     private final int hashCode;
 
-    /** The string representation of this object. */
-    private final String toString;
+    /** 
+     * The string representation of this object, 
+     * or {@code null} if not yet calculated. 
+     */
+    private transient volatile String toString;
 
     /**
      * Constructor.
@@ -64,9 +69,10 @@ public final class Simplex extends Primitive implements Cloneable {
         int result = 1;
         result = prime + result * this.value.hashCode();
         this.hashCode = result;
-
-        //calculates toString
-        this.toString = this.value.toString();
+    }
+    
+    private Object readResolve() {
+        return this.calc.hashCons(this);
     }
 
     /**
@@ -83,23 +89,25 @@ public final class Simplex extends Primitive implements Cloneable {
      */
     public static Simplex make(Calculator calc, Object n) 
     throws InvalidTypeException, InvalidOperandException {
+        final Simplex retVal;
         if (n instanceof Boolean) {
-            return new Simplex(Type.BOOLEAN, calc, n);
+            retVal = new Simplex(Type.BOOLEAN, calc, n);
         } else if (n instanceof Byte) {
-            return new Simplex(Type.BYTE, calc, n);
+            retVal = new Simplex(Type.BYTE, calc, n);
         } else if (n instanceof Character) {
-            return new Simplex(Type.CHAR, calc, n);
+            retVal = new Simplex(Type.CHAR, calc, n);
         } else if (n instanceof Double) {
-            return new Simplex(Type.DOUBLE, calc, n);
+            retVal = new Simplex(Type.DOUBLE, calc, n);
         } else if (n instanceof Float) {
-            return new Simplex(Type.FLOAT, calc, n);
+            retVal = new Simplex(Type.FLOAT, calc, n);
         } else if (n instanceof Integer) {
-            return new Simplex(Type.INT, calc, n);
+            retVal = new Simplex(Type.INT, calc, n);
         } else if (n instanceof Long) {
-            return new Simplex(Type.LONG, calc, n);
+            retVal = new Simplex(Type.LONG, calc, n);
         } else {
-            return new Simplex(Type.SHORT, calc, n);
+            retVal = new Simplex(Type.SHORT, calc, n);
         }
+        return calc.hashCons(retVal);
     }
 
     /**
@@ -230,7 +238,12 @@ public final class Simplex extends Primitive implements Cloneable {
 
     @Override
     public String toString() {
-        return this.toString;
+        String retVal = this.toString;
+        if (retVal == null) {
+            retVal = this.value.toString();
+            this.toString = retVal;
+        }
+        return retVal;
     }
 
     @Override
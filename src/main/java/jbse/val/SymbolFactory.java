@@ -1,5 +1,7 @@
 package jbse.val;
 
+import java.io.Serializable;
+
 import jbse.bc.ClassFile;
 import jbse.common.Type;
 import jbse.common.exc.UnexpectedInternalException;
@@ -13,9 +15,11 @@ import jbse.val.exc.InvalidTypeException;
  * 
  * @author Pietro Braione
  */
-public final class SymbolFactory implements Cloneable {
+public final class SymbolFactory implements Cloneable, Serializable {
+    private static final long serialVersionUID = -2875293200062377941L;
+
     /** The {@link Calculator}. */
-    private final Calculator calc;
+    private Calculator calc;
 
 	/** The next available identifier for a new reference-typed symbolic value. */
 	private int nextIdRefSym;
@@ -181,4 +185,18 @@ public final class SymbolFactory implements Cloneable {
 		}
 		return o;
 	}
+	
+	/**
+	 * Clones this factory, making the clone
+	 * create symbols with another calculator.
+	 * 
+	 * @param calc a {@link Calculator}.
+	 * @return a clone of this {@link SymbolFactory} 
+	 *         that uses {@code calc}.
+	 */
+	public SymbolFactory clone(Calculator calc) {
+		final SymbolFactory o = clone();
+		o.calc = calc;
+		return o;
+	}
 }
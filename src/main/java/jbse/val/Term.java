@@ -22,6 +22,8 @@ import jbse.val.exc.ValueDoesNotSupportNativeException;
  * @author Pietro Braione
  */
 public final class Term extends Primitive implements Symbolic {
+    private static final long serialVersionUID = -7453180521184156608L;
+
     /** The conventional value of the {@link Term}, a {@link String}. */
     private final String value;
 
@@ -1,5 +1,7 @@
 package jbse.val;
 
+import java.io.Serializable;
+
 import jbse.val.exc.ValueDoesNotSupportNativeException;
 
 /**
@@ -8,7 +10,9 @@ import jbse.val.exc.ValueDoesNotSupportNativeException;
  * @author unknown
  * @author Pietro Braione
  */
-public abstract class Value {
+public abstract class Value implements Serializable {
+    private static final long serialVersionUID = 2671521945691753783L;
+
     /** The type of this {@link Value}. */
     private final char type;
 
@@ -0,0 +1,225 @@
+package jbse;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import jbse.apps.run.Run;
+import jbse.apps.run.RunParameters;
+import jbse.apps.run.RunParameters.DecisionProcedureType;
+import jbse.apps.run.RunParameters.StepShowMode;
+import jbse.dec.DecisionProcedureAlgorithms;
+import jbse.dec.DecisionProcedureAlwSat;
+import jbse.dec.DecisionProcedureClassInit;
+import jbse.jvm.Engine;
+import jbse.jvm.Runner;
+import jbse.jvm.RunnerBuilder;
+import jbse.jvm.RunnerParameters;
+import jbse.mem.State;
+import jbse.rewr.CalculatorRewriting;
+import jbse.rewr.RewriterOperationOnSimplex;
+import jbse.rules.ClassInitRulesRepo;
+import jbse.val.Calculator;
+
+/**
+ * The symbolic execution of {@code jbse/apps/run/testdata/Node.walk}
+ * that the tests comparing whole explorations run, either through
+ * a {@link Runner} or through {@link Run}, with all the parameters
+ * they do not vary.
+ *
+ * @author Pietro Braione
+ */
+public final class NodeWalkFixture {
+    public static final String CLASS_NAME = "jbse/apps/run/testdata/Node";
+    public static final String METHOD_DESCRIPTOR = "()I";
+    public static final String METHOD_NAME = "walk";
+
+    /**
+     * What a run records: The events, the calculators
+     * created for the workers, and the statistics.
+     */
+    public static final class Result {
+        public final List<String> events = new ArrayList<>();
+        public final List<Calculator> calculators = new ArrayList<>();
+        public int leavesOfFirstWorker;
+        public long tracesTotal;
+        public long tracesOutOfScope;
+        public long analyzedStates;
+        public long replayedStates;
+
+        public synchronized void add(String event) {
+            this.events.add(event);
+        }
+
+        public synchronized void add(Calculator calc) {
+            this.calculators.add(calc);
+        }
+    }
+
+    /**
+     * Records a leaf event at the end of every trace.
+     */
+    public static class Recorder extends Runner.Actions {
+        protected final Result result;
+        private final Function<State, String> describer;
+
+        /**
+         * Constructor.
+         *
+         * @param result the {@link Result} where the events are recorded.
+         * @param describer the {@link Function} describing the leaf states,
+         *        either {@link NodeWalkFixture#describe(State) describe}
+         *        or {@link NodeWalkFixture#summarize(State) summarize}.
+         */
+        public Recorder(Result result, Function<State, String> describer) {
+            this.result = result;
+            this.describer = describer;
+        }
+
+        protected String describeCurrentState() {
+            return this.describer.apply(getEngine().getCurrentState());
+        }
+
+        @Override
+        public boolean atTraceEnd() {
+            this.result.add("leaf " + describeCurrentState());
+            return false;
+        }
+    }
+
+    public static CalculatorRewriting makeCalculator() {
+        final CalculatorRewriting calc = new CalculatorRewriting();
+        calc.addRewriter(new RewriterOperationOnSimplex());
+        return calc;
+    }
+
+    public static DecisionProcedureAlgorithms makeDecisionProcedure(Calculator calc) {
+        return new DecisionProcedureAlgorithms(new DecisionProcedureClassInit(new DecisionProcedureAlwSat(), calc, new ClassInitRulesRepo()), calc);
+    }
+
+    /**
+     * Returns the parameters for running a {@link Runner}.
+     *
+     * @param calc the {@link CalculatorRewriting} of the run.
+     * @param depthScope an {@code int}, the depth scope.
+     * @return a {@link RunnerParameters}.
+     */
+    public static RunnerParameters runnerParameters(CalculatorRewriting calc, int depthScope) {
+        final RunnerParameters p = new RunnerParameters();
+        p.addUserClasspath("target/test-classes", "target/classes");
+        p.setMethodSignature(CLASS_NAME, METHOD_DESCRIPTOR, METHOD_NAME);
+        p.setCalculator(calc);
+        p.setDecisionProcedure(makeDecisionProcedure(calc));
+        p.setDepthScope(depthScope);
+        return p;
+    }
+
+    /**
+     * Returns the parameters for running a {@link Runner}
+     * with a fresh calculator.
+     *
+     * @param depthScope an {@code int}, the depth scope.
+     * @return a {@link RunnerParameters}.
+     */
+    public static RunnerParameters runnerParameters(int depthScope) {
+        return runnerParameters(makeCalculator(), depthScope);
+    }
+
+    /**
+     * Returns the parameters for running {@link Run}
+     * with an all-sat decision procedure.
+     *
+     * @param depthScope an {@code int}, the depth scope.
+     * @return a {@link RunParameters}.
+     */
+    public static RunParameters runParameters(int depthScope) {
+        final RunParameters p = new RunParameters();
+        p.addUserClasspath("target/test-classes", "target/classes");
+        p.setMethodSignature(CLASS_NAME, METHOD_DESCRIPTOR, METHOD_NAME);
+        p.setDecisionProcedureType(DecisionProcedureType.ALL_SAT);
+        p.setDepthScope(depthScope);
+        return p;
+    }
+
+    /**
+     * Runs a {@link Runner} to the end, and records the
+     * statistics of the run.
+     *
+     * @param p the {@link RunnerParameters}, with the {@link Runner.Actions}
+     *        recording the events in {@code result}.
+     * @param result the {@link Result} of the run.
+     * @return {@code result}.
+     * @throws Exception if the run fails.
+     */
+    public static Result run(RunnerParameters p, Result result) throws Exception {
+        final RunnerBuilder rb = new RunnerBuilder();
+        final Runner runner = rb.build(p);
+        runner.run();
+        final Engine engine = rb.getEngine();
+        result.tracesTotal = runner.getTracesTotal();
+        result.tracesOutOfScope = runner.getTracesOutOfScope();
+        result.analyzedStates = engine.getAnalyzedStates();
+        result.replayedStates = engine.getReplayedStates();
+        engine.close();
+        return result;
+    }
+
+    /**
+     * Runs {@link Run}, printing the leaves to a file.
+     *
+     * @param p the {@link RunParameters}.
+     * @param out the {@link Path} of the output file.
+     * @return the content of the output file, with the
+     *         parts that differ from run to run scrubbed.
+     * @throws Exception if the run fails.
+     */
+    public static String runPrintingLeaves(RunParameters p, Path out) throws Exception {
+        p.setStepShowMode(StepShowMode.LEAVES);
+        p.setShowOnConsole(false);
+        p.setShowInfo(false);
+        p.setShowWarnings(false);
+        p.setOutputFileName(out.toString());
+        final Run r = new Run(p);
+        assertEquals(0, r.run());
+        return scrub(new String(Files.readAllBytes(out), "UTF-8"));
+    }
+
+    /**
+     * Describes a state completely, dropping the identity
+     * hash codes that the string representation of some
+     * objects has, and the timestamps taken during class
+     * initialization.
+     *
+     * @param s a {@link State}.
+     * @return a {@link String}.
+     */
+    public static String describe(State s) {
+        return scrub(s.toString());
+    }
+
+    /**
+     * Describes a state by its identifier, path condition
+     * and return value.
+     *
+     * @param s a {@link State}.
+     * @return a {@link String}.
+     */
+    public static String summarize(State s) {
+        return s.getIdentifier() + " " + s.getPathCondition() + " " + s.getStuckReturn();
+    }
+
+    private static String scrub(String s) {
+        return s.replaceAll("@[0-9a-f]+", "@").replaceAll("Name: timestamp, Type: J, Value: [0-9]+", "Name: timestamp");
+    }
+
+    /**
+     * Do not instantiate!
+     */
+    private NodeWalkFixture() {
+        //nothing to do
+    }
+}
@@ -0,0 +1,36 @@
+package jbse.algo;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import jbse.NodeWalkFixture;
+import jbse.NodeWalkFixture.Recorder;
+import jbse.NodeWalkFixture.Result;
+import jbse.jvm.RunnerParameters;
+import jbse.tree.StateTree.BranchPoint;
+
+public class ConcreteFastPathTest {
+    private static Result run(boolean concreteFastPath) throws Exception {
+        final RunnerParameters p = NodeWalkFixture.runnerParameters(30);
+        p.setConcreteFastPath(concreteFastPath);
+        final Result retVal = new Result();
+        p.setActions(new Recorder(retVal, NodeWalkFixture::describe) {
+            @Override
+            public boolean atBranch(BranchPoint bp) {
+                this.result.add("branch " + NodeWalkFixture.summarize(getEngine().getCurrentState()));
+                return false;
+            }
+        });
+        return NodeWalkFixture.run(p, retVal);
+    }
+
+    @Test
+    public void testSameStatesAndBranchPoints() throws Exception {
+        final Result withFastPath = run(true);
+        final Result withoutFastPath = run(false);
+        assertFalse(withFastPath.events.isEmpty());
+        assertEquals(withoutFastPath.events, withFastPath.events);
+        assertEquals(withoutFastPath.analyzedStates, withFastPath.analyzedStates);
+    }
+}
@@ -0,0 +1,41 @@
+package jbse.algo;
+
+import static jbse.bc.Opcodes.*;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class DispatcherBytecodeAlgorithmTest {
+    @Test
+    public void testTableAgreesWithCases() {
+        final DispatcherBytecodeAlgorithm d = new DispatcherBytecodeAlgorithm();
+        for (int i = 0; i < 256; ++i) {
+            final byte bytecode = (byte) i;
+            assertSame(d.select(Byte.valueOf(bytecode)), d.select(bytecode));
+        }
+    }
+
+    @Test
+    public void testPositiveAndNegativeOpcodes() {
+        final DispatcherBytecodeAlgorithm d = new DispatcherBytecodeAlgorithm();
+        assertTrue(d.select(OP_NOP) instanceof Algo_NOP);
+        assertTrue(d.select(OP_IADD) instanceof Algo_XADD);
+        assertSame(d.select(OP_IADD), d.select(OP_DADD));
+        assertTrue(d.select(OP_INVOKEVIRTUAL) instanceof Algo_INVOKEX);
+        assertNotSame(d.select(OP_INVOKEVIRTUAL), d.select(OP_INVOKESTATIC));
+    }
+
+    @Test
+    public void testReservedAndUnusedOpcodes() {
+        final DispatcherBytecodeAlgorithm d = new DispatcherBytecodeAlgorithm();
+        //reserved opcodes are ignored
+        assertTrue(d.select(OP_BREAKPOINT) instanceof Algo_NOP);
+        assertSame(d.select(OP_BREAKPOINT), d.select(OP_IMPDEP1));
+        assertSame(d.select(OP_BREAKPOINT), d.select(OP_IMPDEP2));
+        
+        //unused opcodes are not allowed
+        for (int i = 0xCB; i < 0xFE; ++i) {
+            assertTrue(d.select((byte) i) instanceof Algo_NOTALLOWED);
+        }
+    }
+}
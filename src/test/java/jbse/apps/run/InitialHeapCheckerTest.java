@@ -0,0 +1,187 @@
+package jbse.apps.run;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.Test;
+
+import jbse.dec.DecisionProcedure;
+import jbse.dec.DecisionProcedureAlgorithms;
+import jbse.dec.DecisionProcedureAlwSat;
+import jbse.dec.DecisionProcedureClassInit;
+import jbse.dec.DecisionProcedureIntervalAnalysis;
+import jbse.jvm.Engine;
+import jbse.jvm.Runner;
+import jbse.jvm.RunnerBuilder;
+import jbse.jvm.RunnerParameters;
+import jbse.jvm.WorkerFactory;
+import jbse.rewr.CalculatorRewriting;
+import jbse.rewr.RewriterOperationOnSimplex;
+import jbse.rules.ClassInitRulesRepo;
+import jbse.val.Calculator;
+
+public class InitialHeapCheckerTest {
+    private static final String NODE = "jbse/apps/run/testdata/Node";
+    private static final String CELL = "jbse/apps/run/testdata/Cell";
+    
+    private static final class Result {
+        final List<String> traces = new ArrayList<>();
+        long cacheHits;
+        long cacheMisses;
+        int numOfEngines;
+        int numOfEnginesSharingDecisionProcedure;
+    }
+    
+    /**
+     * Makes a decision procedure.
+     * 
+     * @param calc a {@link CalculatorRewriting}.
+     * @param numeric a {@code boolean}; if {@code true} the decision 
+     *        procedure decides the numeric assumptions with an interval
+     *        analysis, otherwise it deems all of them satisfiable.
+     * @return a {@link DecisionProcedureAlgorithms}.
+     */
+    private static DecisionProcedureAlgorithms makeDecisionProcedure(CalculatorRewriting calc, boolean numeric) {
+        return new DecisionProcedureAlgorithms(makeDecisionProcedureBase(calc, numeric), calc);
+    }
+
+    private static DecisionProcedure makeDecisionProcedureBase(CalculatorRewriting calc, boolean numeric) {
+        final DecisionProcedure alwSat = new DecisionProcedureAlwSat();
+        return new DecisionProcedureClassInit((numeric ? new DecisionProcedureIntervalAnalysis(alwSat, calc) : alwSat), calc, new ClassInitRulesRepo());
+    }
+
+    private static Result run(boolean cache, int checkWorkers) throws Exception {
+        return run(NODE, "()I", "walk", false, cache, checkWorkers);
+    }
+
+    private static Result run(String className, String descriptor, String methodName, boolean numeric, boolean cache, int checkWorkers) throws Exception {
+        final CalculatorRewriting calc = new CalculatorRewriting();
+        calc.addRewriter(new RewriterOperationOnSimplex());
+        final RunnerParameters p = new RunnerParameters();
+        p.addUserClasspath("target/test-classes", "target/classes");
+        p.setMethodSignature(className, descriptor, methodName);
+        p.setCalculator(calc);
+        p.setDepthScope(40);
+        final RunnerParameters checkerParameters = p.clone();
+        checkerParameters.setDecisionProcedure(makeDecisionProcedure(calc, numeric));
+        checkerParameters.setHeapScope(className, 5);
+        checkerParameters.setDepthScope(100);
+        if (checkWorkers > 1) {
+            checkerParameters.setParallel(checkWorkers, new WorkerFactory() {
+                @Override
+                public Calculator makeCalculator() {
+                    final CalculatorRewriting c = new CalculatorRewriting();
+                    c.addRewriter(new RewriterOperationOnSimplex());
+                    return c;
+                }
+                
+                @Override
+                public DecisionProcedureAlgorithms makeDecisionProcedure(Calculator c) {
+                    return InitialHeapCheckerTest.makeDecisionProcedure((CalculatorRewriting) c, numeric);
+                }
+                
+                @Override
+                public Runner.Actions makeActions() {
+                    return new Runner.Actions();
+                }
+            });
+        }
+        final HashMap<String, String> checkMethods = new HashMap<>();
+        checkMethods.put(className, "repOk");
+        final Engine[] engine = new Engine[1];
+        final DecisionProcedureConservativeRepOk repOk = 
+            new DecisionProcedureConservativeRepOk(makeDecisionProcedureBase(calc, numeric), calc, checkerParameters, checkMethods);
+        repOk.setInitialStateSupplier(() -> engine[0].getInitialState());
+        repOk.setCurrentStateSupplier(() -> engine[0].getCurrentState());
+        if (!cache) {
+            repOk.getChecker().setMaxCachedResults(0);
+        }
+        p.setDecisionProcedure(new DecisionProcedureAlgorithms(repOk, calc));
+        final Result retVal = new Result();
+        p.setActions(new Runner.Actions() {
+            @Override
+            public boolean atTraceEnd() {
+                retVal.traces.add(getEngine().getCurrentState().getIdentifier() + " " + getEngine().getCurrentState().getStuckReturn());
+                return false;
+            }
+        });
+        final RunnerBuilder rb = new RunnerBuilder();
+        final Runner runner = rb.build(p);
+        engine[0] = rb.getEngine();
+        runner.run();
+        Collections.sort(retVal.traces);
+        retVal.cacheHits = repOk.getCacheHits();
+        retVal.cacheMisses = repOk.getCacheMisses();
+        retVal.numOfEngines = repOk.getChecker().getNumOfEngines();
+        retVal.numOfEnginesSharingDecisionProcedure = repOk.getChecker().getNumOfEnginesSharingDecisionProcedure();
+        rb.getEngine().close();
+        return retVal;
+    }
+
+    @Test
+    public void testRepeatedShapeHitsCache() throws Exception {
+        final Result withCache = run(true, 1);
+        final Result withoutCache = run(false, 1);
+        assertEquals(withoutCache.traces, withCache.traces);
+        assertFalse(withCache.traces.isEmpty());
+        assertTrue(withCache.cacheHits > 0);
+        assertEquals(0L, withoutCache.cacheHits);
+    }
+
+    @Test
+    public void testEnginePoolSequential() throws Exception {
+        final Result r = run(false, 1);
+        assertTrue(r.cacheMisses > 1);
+        assertEquals(1, r.numOfEngines);
+        assertEquals(1, r.numOfEnginesSharingDecisionProcedure);
+    }
+
+    @Test
+    public void testEnginePoolParallel() throws Exception {
+        final Result sequential = run(false, 1);
+        final Result parallel = run(false, 3);
+        assertEquals(sequential.traces, parallel.traces);
+        assertTrue(parallel.numOfEngines > 1 && parallel.numOfEngines <= 3);
+        assertEquals(1, parallel.numOfEnginesSharingDecisionProcedure);
+    }
+
+    private static boolean returns(List<String> traces, String value) {
+        for (String trace : traces) {
+            if (trace.endsWith(" " + value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void testNumericAssumptionsAreInCacheKey() throws Exception {
+        //the heaps where some cell has a value out of range have
+        //the same shape as the others, but a failing repOk
+        final Result withCache = run(CELL, "()I", "walk", true, true, 1);
+        final Result withoutCache = run(CELL, "()I", "walk", true, false, 1);
+        assertEquals(withoutCache.traces, withCache.traces);
+        assertFalse(withCache.traces.isEmpty());
+        assertFalse(returns(withCache.traces, "-1"));
+        assertFalse(returns(withCache.traces, "-2"));
+        assertTrue(withCache.cacheHits > 0);
+
+        //without a numeric decision procedure repOk prunes nothing
+        final Result alwSat = run(CELL, "()I", "walk", false, true, 1);
+        assertTrue(returns(alwSat.traces, "-1"));
+    }
+
+    @Test
+    public void testPossibleAliasesAreInCacheKey() throws Exception {
+        //this.next may alias other, that is not reachable from this
+        final Result withCache = run(CELL, "(L" + CELL + ";)I", "pair", true, true, 1);
+        final Result withoutCache = run(CELL, "(L" + CELL + ";)I", "pair", true, false, 1);
+        assertEquals(withoutCache.traces, withCache.traces);
+        assertTrue(returns(withCache.traces, "1"));
+        assertTrue(returns(withCache.traces, "0"));
+    }
+}
@@ -0,0 +1,31 @@
+package jbse.apps.run.testdata;
+
+public class Cell {
+    int v;
+    Cell next;
+    
+    boolean repOk() {
+        return this.v >= 0 && this.v < 100;
+    }
+    
+    public int walk() {
+        int s = 0;
+        for (Cell c = this; c != null && s < 2; c = c.next) {
+            if (c.v < 0) {
+                return -1;
+            }
+            if (c.v >= 100) {
+                return -2;
+            }
+            ++s;
+        }
+        return s;
+    }
+    
+    public int pair(Cell other) {
+        if (this.next == other) {
+            return (other.v < 0 ? -1 : 1);
+        }
+        return (other.v >= 100 ? -2 : 0);
+    }
+}
@@ -0,0 +1,30 @@
+package jbse.apps.run.testdata;
+
+public class Node {
+    int v;
+    Node next;
+    
+    boolean repOk() {
+        if (this.next == null) {
+            return true;
+        }
+        if (this.next == this) {
+            return false;
+        }
+        return this.v < 100;
+    }
+    
+    public int walk() {
+        int s = 0;
+        Node n = this;
+        for (int i = 0; i < 2 && n != null; ++i) {
+            if (n.v > s) {
+                s += n.v;
+            } else {
+                s -= 1;
+            }
+            n = n.next;
+        }
+        return s;
+    }
+}
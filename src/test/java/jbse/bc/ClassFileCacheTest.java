@@ -0,0 +1,102 @@
+package jbse.bc;
+
+import static jbse.bc.ClassLoaders.CLASSLOADER_APP;
+import static jbse.bc.ClassLoaders.CLASSLOADER_BOOT;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jbse.bc.exc.ClassFileIllFormedException;
+import jbse.common.exc.InvalidInputException;
+
+public class ClassFileCacheTest {
+    private static ClassFileFactory f;
+
+    @BeforeClass
+    public static void setUpClass() {
+        f = new ClassFileFactoryJavassist();
+    }
+
+    private static byte[] getFromJar(String className) throws IOException {
+        try (final JarFile jarFile = new JarFile("src/test/resources/jbse/bc/testdata/lib/rt.jar")) {
+            final JarEntry jarEntry = jarFile.getJarEntry(className + ".class");
+            final InputStream inStr = jarFile.getInputStream(jarEntry);
+            final ByteArrayOutputStream outStr = new ByteArrayOutputStream();
+            final byte[] buf = new byte[2048];
+            int nbytes;
+            while ((nbytes = inStr.read(buf)) != -1) {
+                outStr.write(buf, 0, nbytes);
+            }
+            return outStr.toByteArray();
+        }
+    }
+
+    private static ClassFile dummy(int definingClassLoader, String className)
+    throws IOException, InvalidInputException, ClassFileIllFormedException {
+        return ClassFileCache.getClassFileClassDummy(f, definingClassLoader, className, getFromJar(className));
+    }
+
+    @Test
+    public void testSameBytecodeSameLoaderIsReused() throws IOException, InvalidInputException, ClassFileIllFormedException {
+        final ClassFile c1 = dummy(CLASSLOADER_BOOT, "java/lang/Object");
+        final ClassFile c2 = dummy(CLASSLOADER_BOOT, "java/lang/Object");
+        assertSame(c1, c2);
+    }
+
+    @Test
+    public void testSameBytecodeDifferentLoadersIsNotReused() throws IOException, InvalidInputException, ClassFileIllFormedException {
+        final ClassFile cBoot = dummy(CLASSLOADER_BOOT, "java/lang/Object");
+        final ClassFile cApp = dummy(CLASSLOADER_APP, "java/lang/Object");
+        assertNotSame(cBoot, cApp);
+        assertEquals(CLASSLOADER_BOOT, cBoot.getDefiningClassLoader());
+        assertEquals(CLASSLOADER_APP, cApp.getDefiningClassLoader());
+    }
+
+    @Test
+    public void testChangedBytecodeIsNotReused() throws IOException, InvalidInputException, ClassFileIllFormedException {
+        final String className = "java/lang/Object";
+        final byte[] bytecode = getFromJar(className);
+        final ClassFile c1 = ClassFileCache.getClassFileClassDummy(f, CLASSLOADER_APP, className, bytecode);
+
+        //changes the minor version of the classfile
+        final byte[] bytecodeChanged = bytecode.clone();
+        bytecodeChanged[5] ^= 1;
+        final ClassFile c2 = ClassFileCache.getClassFileClassDummy(f, CLASSLOADER_APP, className, bytecodeChanged);
+        assertNotSame(c1, c2);
+        assertNotEquals(c1.getMinorVersion(), c2.getMinorVersion());
+        assertSame(c1, ClassFileCache.getClassFileClassDummy(f, CLASSLOADER_APP, className, bytecode));
+    }
+
+    @Test
+    public void testCompleteClassIsReusedOnlyWithSameSupertypes() throws IOException, InvalidInputException, ClassFileIllFormedException {
+        //two distinct complete classfiles for java.lang.Object and
+        //java.io.Serializable, defined by different loaders
+        final ClassFile objectBoot = ClassFileCache.getClassFileClass(f, dummy(CLASSLOADER_BOOT, "java/lang/Object"), null, new ClassFile[0]);
+        final ClassFile objectApp = ClassFileCache.getClassFileClass(f, dummy(CLASSLOADER_APP, "java/lang/Object"), null, new ClassFile[0]);
+        final ClassFile serializableBoot = ClassFileCache.getClassFileClass(f, dummy(CLASSLOADER_BOOT, "java/io/Serializable"), null, new ClassFile[0]);
+        final ClassFile serializableApp = ClassFileCache.getClassFileClass(f, dummy(CLASSLOADER_APP, "java/io/Serializable"), null, new ClassFile[0]);
+        assertNotSame(objectBoot, objectApp);
+        assertNotSame(serializableBoot, serializableApp);
+
+        //java.lang.Number extends java.lang.Object implements java.io.Serializable
+        final ClassFile numberDummy = dummy(CLASSLOADER_BOOT, "java/lang/Number");
+        final ClassFile number = ClassFileCache.getClassFileClass(f, numberDummy, objectBoot, new ClassFile[] { serializableBoot });
+        assertSame(number, ClassFileCache.getClassFileClass(f, numberDummy, objectBoot, new ClassFile[] { serializableBoot }));
+
+        final ClassFile numberOtherSuperclass = ClassFileCache.getClassFileClass(f, numberDummy, objectApp, new ClassFile[] { serializableBoot });
+        assertNotSame(number, numberOtherSuperclass);
+        assertSame(objectApp, numberOtherSuperclass.getSuperclass());
+
+        final ClassFile numberOtherSuperinterface = ClassFileCache.getClassFileClass(f, numberDummy, objectBoot, new ClassFile[] { serializableApp });
+        assertNotSame(number, numberOtherSuperinterface);
+        assertNotSame(numberOtherSuperclass, numberOtherSuperinterface);
+        assertSame(serializableApp, numberOtherSuperinterface.getSuperInterfaces().get(0));
+    }
+}
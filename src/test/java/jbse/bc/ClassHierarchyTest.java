@@ -0,0 +1,126 @@
+package jbse.bc;
+
+import static jbse.bc.ClassLoaders.CLASSLOADER_APP;
+import static org.junit.Assert.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ClassHierarchyTest {
+    private static final String TESTDATA = "src/test/resources/jbse/bc/testdata";
+
+    private ClassHierarchy hier;
+    private ClassFile a, b, c, d, e, f, g, h, i;
+
+    @Before
+    public void setUp() throws Exception {
+        final ArrayList<Path> userPath = new ArrayList<>();
+        userPath.add(Paths.get(TESTDATA));
+        final Classpath env = new Classpath(Paths.get(System.getProperty("java.home")), new ArrayList<>(), userPath);
+        this.hier = new ClassHierarchy(env, ClassFileFactoryJavassist.class, new HashMap<>());
+
+        //hier.A extends hier.B implements hier.D, hier.E;
+        //hier.B extends hier.C implements hier.I;
+        //hier.E extends hier.F, hier.G; hier.F, hier.G extend hier.H;
+        //every interface X declares a default method x()
+        this.a = this.hier.loadCreateClass(CLASSLOADER_APP, "hier/A", true);
+        this.b = this.hier.loadCreateClass(CLASSLOADER_APP, "hier/B", true);
+        this.c = this.hier.loadCreateClass(CLASSLOADER_APP, "hier/C", true);
+        this.d = this.hier.loadCreateClass(CLASSLOADER_APP, "hier/D", true);
+        this.e = this.hier.loadCreateClass(CLASSLOADER_APP, "hier/E", true);
+        this.f = this.hier.loadCreateClass(CLASSLOADER_APP, "hier/F", true);
+        this.g = this.hier.loadCreateClass(CLASSLOADER_APP, "hier/G", true);
+        this.h = this.hier.loadCreateClass(CLASSLOADER_APP, "hier/H", true);
+        this.i = this.hier.loadCreateClass(CLASSLOADER_APP, "hier/I", true);
+    }
+
+    /**
+     * Creates a classfile for hier.A that is equal to the
+     * loaded one, but is not the same object, and has
+     * hier.C as superclass.
+     */
+    private ClassFile otherA() throws Exception {
+        final byte[] bytecode = Files.readAllBytes(Paths.get(TESTDATA, "hier/A.class"));
+        final ClassFile retVal = new ClassFileFactoryJavassist().newClassFileClass(CLASSLOADER_APP, "hier/A", bytecode, this.c, new ClassFile[] { this.d, this.e });
+        assertEquals(this.a, retVal);
+        assertNotSame(this.a, retVal);
+        return retVal;
+    }
+
+    private boolean isSubclassUncached(ClassFile sub, ClassFile sup) {
+        final HashSet<ClassFile> supertypes = new HashSet<>();
+        for (ClassFile cf : this.hier.superclasses(sub)) {
+            supertypes.add(cf);
+        }
+        for (ClassFile cf : this.hier.superinterfaces(sub)) {
+            supertypes.add(cf);
+        }
+        return supertypes.contains(sup);
+    }
+
+    @Test
+    public void testSupertypesMatchUncached() throws Exception {
+        final ClassFile[] all = { this.a, this.b, this.c, this.d, this.e, this.f, this.g, this.h, this.i };
+        for (int k = 0; k < 2; ++k) {
+            for (ClassFile sub : all) {
+                for (ClassFile sup : all) {
+                    assertEquals(sub + " <: " + sup, isSubclassUncached(sub, sup), this.hier.isSubclass(sub, sup));
+                }
+            }
+        }
+        assertTrue(this.hier.isSubclass(this.a, this.h));
+        assertTrue(this.hier.isSubclass(this.a, this.i));
+        assertFalse(this.hier.isSubclass(this.b, this.d));
+    }
+
+    @Test
+    public void testSupertypesOfEqualClassFileAreRevalidated() throws Exception {
+        final ClassFile otherA = otherA();
+        for (int k = 0; k < 2; ++k) {
+            assertTrue(this.hier.isSubclass(this.a, this.b));
+            assertTrue(this.hier.isSubclass(this.a, this.i));
+            assertFalse(this.hier.isSubclass(otherA, this.b));
+            assertFalse(this.hier.isSubclass(otherA, this.i));
+            assertTrue(this.hier.isSubclass(otherA, this.c));
+            assertTrue(this.hier.isSubclass(otherA, this.h));
+        }
+
+        //the clones share the memoized supertypes
+        final ClassHierarchy clone = this.hier.clone();
+        assertTrue(clone.isSubclass(this.a, this.b));
+        assertFalse(clone.isSubclass(otherA, this.b));
+    }
+
+    @Test
+    public void testDispatchMatchesUncached() throws Exception {
+        final ClassFile otherA = otherA();
+        final ClassFile[] interfaces = { this.d, this.e, this.f, this.g, this.h, this.i };
+        for (int k = 0; k < 2; ++k) {
+            for (ClassFile receiver : new ClassFile[] { this.a, this.b, otherA }) {
+                for (ClassFile resolution : interfaces) {
+                    if (!this.hier.isSubclass(receiver, resolution)) {
+                        continue;
+                    }
+                    final String name = resolution.getClassName().substring("hier/".length()).toLowerCase();
+                    final Signature m = new Signature(resolution.getClassName(), "()V", name);
+                    assertSame(this.hier.doLookupMethodImplInterface(receiver, resolution, m),
+                               this.hier.lookupMethodImplInterface(receiver, resolution, m));
+                    assertSame(resolution, this.hier.lookupMethodImplInterface(receiver, resolution, m));
+                    assertSame(this.hier.doLookupMethodImplVirtual(receiver, resolution, m),
+                               this.hier.lookupMethodImplVirtual(receiver, resolution, m));
+                }
+            }
+            final Signature mA = new Signature("hier/A", "()V", "a");
+            assertSame(this.hier.doLookupMethodImplVirtual(this.a, this.a, mA), this.hier.lookupMethodImplVirtual(this.a, this.a, mA));
+            assertSame(this.a, this.hier.lookupMethodImplVirtual(this.a, this.a, mA));
+            assertSame(otherA, this.hier.lookupMethodImplVirtual(otherA, otherA, mA));
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package jbse.bc;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JarIndexTest {
+    private static final int EOCD_COMMENT_LENGTH = 4000;
+
+    private Path jar;
+
+    @Before
+    public void setUp() throws IOException {
+        this.jar = Files.createTempFile("jbse", ".jar");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(this.jar);
+    }
+
+    /**
+     * Returns some (compressible) content for a fake classfile.
+     */
+    private static byte[] content(int seed, int length) {
+        final byte[] retVal = new byte[length];
+        for (int i = 0; i < length; ++i) {
+            retVal[i] = (byte) ((seed + i / 7) % 13);
+        }
+        return retVal;
+    }
+
+    private static void putDeflated(ZipOutputStream zos, String name, byte[] content) throws IOException {
+        zos.putNextEntry(new ZipEntry(name));
+        zos.write(content);
+        zos.closeEntry();
+    }
+
+    private static void putStored(ZipOutputStream zos, String name, byte[] content) throws IOException {
+        final ZipEntry e = new ZipEntry(name);
+        final CRC32 crc = new CRC32();
+        crc.update(content);
+        e.setMethod(ZipEntry.STORED);
+        e.setSize(content.length);
+        e.setCompressedSize(content.length);
+        e.setCrc(crc.getValue());
+        zos.putNextEntry(e);
+        zos.write(content);
+        zos.closeEntry();
+    }
+
+    @Test
+    public void testStoredEntries() throws IOException {
+        final byte[] a = content(1, 300);
+        final byte[] b = content(2, 0);
+        try (final ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(this.jar))) {
+            putStored(zos, "foo/A.class", a);
+            putStored(zos, "foo/B.class", b);
+            putStored(zos, "foo/C.txt", a);
+        }
+        final JarIndex index = JarIndex.get(this.jar);
+        assertTrue(index.isIndexed());
+        assertTrue(index.contains("foo/A"));
+        assertTrue(index.contains("foo/B"));
+        assertFalse(index.contains("foo/C"));
+        assertArrayEquals(a, index.read("foo/A"));
+        assertArrayEquals(b, index.read("foo/B"));
+        assertNull(index.read("foo/C"));
+    }
+
+    @Test
+    public void testDeflatedEntries() throws IOException {
+        final byte[] a = content(3, 5000);
+        final byte[] b = content(4, 1);
+        try (final ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(this.jar))) {
+            putDeflated(zos, "foo/A.class", a);
+            putStored(zos, "foo/S.class", b);
+            putDeflated(zos, "foo/bar/B.class", b);
+        }
+        final JarIndex index = JarIndex.get(this.jar);
+        assertTrue(index.isIndexed());
+        assertArrayEquals(a, index.read("foo/A"));
+        assertArrayEquals(b, index.read("foo/S"));
+        assertArrayEquals(b, index.read("foo/bar/B"));
+        assertNull(index.read("foo/B"));
+    }
+
+    @Test
+    public void testEndOfCentralDirectoryWithComment() throws IOException {
+        final byte[] a = content(5, 1000);
+        final char[] comment = new char[EOCD_COMMENT_LENGTH];
+        Arrays.fill(comment, 'x');
+        try (final ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(this.jar))) {
+            putDeflated(zos, "foo/A.class", a);
+            zos.setComment(new String(comment));
+        }
+        final JarIndex index = JarIndex.get(this.jar);
+        assertTrue(index.isIndexed());
+        assertArrayEquals(a, index.read("foo/A"));
+    }
+
+    @Test
+    public void testUnindexableJarIsReadThroughJarFile() throws IOException {
+        //more than 0xFFFF entries: the jar has a ZIP64 end of central directory
+        final byte[] a = content(6, 1000);
+        try (final ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(this.jar))) {
+            for (int i = 0; i < 0x10000; ++i) {
+                putStored(zos, "res/" + i, new byte[0]);
+            }
+            putDeflated(zos, "foo/A.class", a);
+        }
+        final JarIndex index = JarIndex.get(this.jar);
+        assertFalse(index.isIndexed());
+        assertTrue(index.contains("foo/A"));
+        assertFalse(index.contains("foo/B"));
+        assertArrayEquals(a, index.read("foo/A"));
+        assertNull(index.read("foo/B"));
+    }
+
+    @Test
+    public void testRebuiltJarIsReindexed() throws IOException {
+        final byte[] a = content(7, 1000);
+        final byte[] b = content(8, 2000);
+        try (final ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(this.jar))) {
+            putDeflated(zos, "foo/A.class", a);
+        }
+        final JarIndex index = JarIndex.get(this.jar);
+        assertSame(index, JarIndex.get(this.jar));
+        assertArrayEquals(a, index.read("foo/A"));
+
+        //rebuilds the jar with different content, size and modification time
+        final FileTime lastModified = Files.getLastModifiedTime(this.jar);
+        try (final OutputStream os = Files.newOutputStream(this.jar);
+             final ZipOutputStream zos = new ZipOutputStream(os)) {
+            putStored(zos, "foo/A.class", b);
+            putStored(zos, "foo/B.class", a);
+        }
+        Files.setLastModifiedTime(this.jar, FileTime.fromMillis(lastModified.toMillis() + 2000));
+        final JarIndex indexRebuilt = JarIndex.get(this.jar);
+        assertNotSame(index, indexRebuilt);
+        assertArrayEquals(b, indexRebuilt.read("foo/A"));
+        assertArrayEquals(a, indexRebuilt.read("foo/B"));
+        assertSame(indexRebuilt, JarIndex.get(this.jar));
+    }
+}
@@ -0,0 +1,280 @@
+package jbse.dec;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import jbse.bc.ClassFile;
+import jbse.bc.ClassFileFactoryJavassist;
+import jbse.bc.ClassHierarchy;
+import jbse.bc.Classpath;
+import jbse.bc.exc.InvalidClassFileFactoryClassException;
+import jbse.common.Type;
+import jbse.common.exc.InvalidInputException;
+import jbse.dec.exc.DecisionException;
+import jbse.mem.Clause;
+import jbse.mem.ClauseAssume;
+import jbse.mem.Objekt;
+import jbse.rewr.CalculatorRewriting;
+import jbse.rewr.RewriterOperationOnSimplex;
+import jbse.val.Expression;
+import jbse.val.HistoryPoint;
+import jbse.val.PrimitiveSymbolic;
+import jbse.val.ReferenceSymbolic;
+import jbse.val.Simplex;
+import jbse.val.SymbolFactory;
+import jbse.val.Term;
+import jbse.val.exc.InvalidOperandException;
+import jbse.val.exc.InvalidTypeException;
+
+public class DecisionProcedureDecoratorCacheTest {
+    HistoryPoint hist;
+    CalculatorRewriting calc;
+    ClassHierarchy hier;
+    DecisionProcedureScripted component;
+    DecisionProcedureDecoratorCache dec;
+
+    /**
+     * Answers unsat to a fixed set of queries and sat to all the
+     * others, and counts the satisfiability checks.
+     */
+    static class DecisionProcedureScripted implements DecisionProcedure {
+        final Set<Expression> unsat = new HashSet<>();
+        Map<PrimitiveSymbolic, Simplex> model = new HashMap<>();
+        int calls = 0;
+
+        @Override
+        public void pushAssumption(Clause c) { }
+
+        @Override
+        public void clearAssumptions() { }
+
+        @Override
+        public Collection<Clause> getAssumptions() { return null; }
+
+        @Override
+        public boolean isSat(ClassHierarchy hier, Expression exp) {
+            ++this.calls;
+            return !this.unsat.contains(exp);
+        }
+
+        @Override
+        public boolean isSatNull(ClassHierarchy hier, ReferenceSymbolic r) { return true; }
+
+        @Override
+        public boolean isSatAliases(ClassHierarchy hier, ReferenceSymbolic r, long heapPos, Objekt o) { return true; }
+
+        @Override
+        public boolean isSatExpands(ClassHierarchy hier, ReferenceSymbolic r, ClassFile classFile) { return true; }
+
+        @Override
+        public boolean isSatInitialized(ClassHierarchy hier, ClassFile classFile) { return true; }
+
+        @Override
+        public boolean isSatNotInitialized(ClassHierarchy hier, ClassFile classFile) { return true; }
+
+        @Override
+        public Map<PrimitiveSymbolic, Simplex> getModel() { return this.model; }
+    }
+
+    @Before
+    public void setUp() throws InvalidClassFileFactoryClassException, IOException {
+        this.hist = HistoryPoint.unknown();
+        this.calc = new CalculatorRewriting();
+        this.calc.addRewriter(new RewriterOperationOnSimplex());
+        this.hier = new ClassHierarchy(new Classpath(Paths.get(System.getProperty("java.home")), Collections.emptyList(), Collections.emptyList()), ClassFileFactoryJavassist.class, new HashMap<>());
+        this.component = new DecisionProcedureScripted();
+        this.dec = new DecisionProcedureDecoratorCache(this.component);
+    }
+
+    @Test
+    public void testExactHit()
+    throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException {
+        //A > 0 |- A < 5, asked twice
+        final Term A = this.calc.valTerm(Type.INT, "A");
+        this.dec.pushAssumption(new ClauseAssume((Expression) A.gt(this.calc.valInt(0))));
+        assertTrue(this.dec.isSat(this.hier, (Expression) A.lt(this.calc.valInt(5))));
+        assertTrue(this.dec.isSat(this.hier, (Expression) A.lt(this.calc.valInt(5))));
+        assertEquals(1, this.component.calls);
+        assertEquals(1, this.dec.getHitsExact());
+        assertEquals(1, this.dec.getMisses());
+    }
+
+    @Test
+    public void testHashConsedAssumption()
+    throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException {
+        //A > 0 |- A < 5, then the same assumption is rebuilt from scratch
+        final Term A = this.calc.valTerm(Type.INT, "A");
+        this.dec.pushAssumption(new ClauseAssume((Expression) A.gt(this.calc.valInt(0))));
+        assertTrue(this.dec.isSat(this.hier, (Expression) A.lt(this.calc.valInt(5))));
+        this.dec.clearAssumptions();
+        this.dec.pushAssumption(new ClauseAssume((Expression) this.calc.valTerm(Type.INT, "A").gt(this.calc.valInt(0))));
+        assertTrue(this.dec.isSat(this.hier, (Expression) A.lt(this.calc.valInt(5))));
+        assertEquals(1, this.component.calls);
+        assertEquals(1, this.dec.getHitsExact());
+    }
+
+    @Test
+    public void testUnsatSubsumption()
+    throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException {
+        //A > 0 |-/- A < 0 implies A > 0, B > 0 |-/- A < 0
+        final Term A = this.calc.valTerm(Type.INT, "A");
+        final Term B = this.calc.valTerm(Type.INT, "B");
+        final Expression query = (Expression) A.lt(this.calc.valInt(0));
+        this.component.unsat.add(query);
+        this.dec.pushAssumption(new ClauseAssume((Expression) A.gt(this.calc.valInt(0))));
+        assertFalse(this.dec.isSat(this.hier, query));
+        this.dec.pushAssumption(new ClauseAssume((Expression) B.gt(this.calc.valInt(0))));
+        assertFalse(this.dec.isSat(this.hier, query));
+        assertEquals(1, this.component.calls);
+        assertEquals(1, this.dec.getHitsSubsumed());
+    }
+
+    @Test
+    public void testSatSubsumption()
+    throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException {
+        //A > 0, B > 0 |- A < B implies A > 0 |- A < B
+        final Term A = this.calc.valTerm(Type.INT, "A");
+        final Term B = this.calc.valTerm(Type.INT, "B");
+        final Expression query = (Expression) A.lt(B);
+        final Clause c1 = new ClauseAssume((Expression) A.gt(this.calc.valInt(0)));
+        final Clause c2 = new ClauseAssume((Expression) B.gt(this.calc.valInt(0)));
+        this.dec.setAssumptions(Arrays.asList(c1, c2));
+        assertTrue(this.dec.isSat(this.hier, query));
+        this.dec.setAssumptions(Arrays.asList(c1));
+        assertTrue(this.dec.isSat(this.hier, query));
+        assertEquals(1, this.component.calls);
+        assertEquals(1, this.dec.getHitsSubsumed());
+    }
+
+    @Test
+    public void testNoUnsoundReuse()
+    throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException {
+        //A > 0 |- A < B does not imply A > 0, B < 0 |- A < B,
+        //and B < 0 |-/- A < B does not imply A > 0 |-/- A < B
+        final Term A = this.calc.valTerm(Type.INT, "A");
+        final Term B = this.calc.valTerm(Type.INT, "B");
+        final Expression query = (Expression) A.lt(B);
+        final Clause c1 = new ClauseAssume((Expression) A.gt(this.calc.valInt(0)));
+        final Clause c2 = new ClauseAssume((Expression) B.lt(this.calc.valInt(0)));
+        this.dec.pushAssumption(c1);
+        assertTrue(this.dec.isSat(this.hier, query));
+        this.dec.pushAssumption(c2);
+        this.component.unsat.add(query);
+        assertFalse(this.dec.isSat(this.hier, query));
+        this.dec.setAssumptions(Arrays.asList(c2));
+        this.component.unsat.remove(query);
+        assertTrue(this.dec.isSat(this.hier, query));
+        assertEquals(3, this.component.calls);
+        assertEquals(0, this.dec.getHits());
+    }
+
+    @Test
+    public void testModelReuse()
+    throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException {
+        //the model {x = 3} of x > 0 satisfies x > 0, x < 5 |- x != 4
+        //but does not satisfy x > 0 |- x < 0
+        final PrimitiveSymbolic x = (PrimitiveSymbolic) new SymbolFactory(this.calc).createSymbolLocalVariable(this.hist, "" + Type.INT, "x");
+        this.component.model.put(x, this.calc.valInt(3));
+        this.dec.pushAssumption(new ClauseAssume((Expression) x.gt(this.calc.valInt(0))));
+        this.dec.getModel();
+        this.dec.pushAssumption(new ClauseAssume((Expression) x.lt(this.calc.valInt(5))));
+        assertTrue(this.dec.isSat(this.hier, (Expression) x.ne(this.calc.valInt(4))));
+        assertEquals(0, this.component.calls);
+        assertEquals(1, this.dec.getHitsModel());
+        this.dec.isSat(this.hier, (Expression) x.lt(this.calc.valInt(0)));
+        assertEquals(1, this.component.calls);
+    }
+
+    @Test
+    public void testModelReuseDoesNotOverflow()
+    throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException {
+        //the model {x = MAX_INT} satisfies x + 1 < 0 with Java
+        //semantics, but not with the unbounded integers of the
+        //solver, thus the query must be forwarded
+        final PrimitiveSymbolic x = (PrimitiveSymbolic) new SymbolFactory(this.calc).createSymbolLocalVariable(this.hist, "" + Type.INT, "x");
+        this.component.model.put(x, this.calc.valInt(Integer.MAX_VALUE));
+        this.dec.pushAssumption(new ClauseAssume((Expression) x.gt(this.calc.valInt(0))));
+        this.dec.getModel();
+        this.dec.isSat(this.hier, (Expression) x.add(this.calc.valInt(1)).lt(this.calc.valInt(0)));
+        assertEquals(1, this.component.calls);
+        assertEquals(0, this.dec.getHitsModel());
+
+        //x + 1 > 0 holds with both semantics
+        assertTrue(this.dec.isSat(this.hier, (Expression) x.add(this.calc.valInt(1)).gt(this.calc.valInt(0))));
+        assertEquals(1, this.component.calls);
+        assertEquals(1, this.dec.getHitsModel());
+    }
+
+    @Test
+    public void testModelReuseDoesNotTruncate()
+    throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException {
+        //the model {x = 200} satisfies (byte) x < 0 with Java
+        //semantics, but not with the solver's one, where integral
+        //narrowing does not truncate
+        final PrimitiveSymbolic x = (PrimitiveSymbolic) new SymbolFactory(this.calc).createSymbolLocalVariable(this.hist, "" + Type.INT, "x");
+        this.component.model.put(x, this.calc.valInt(200));
+        this.dec.pushAssumption(new ClauseAssume((Expression) x.gt(this.calc.valInt(0))));
+        this.dec.getModel();
+        this.dec.isSat(this.hier, (Expression) x.narrow(Type.BYTE).lt(this.calc.valByte((byte) 0)));
+        assertEquals(1, this.component.calls);
+        assertEquals(0, this.dec.getHitsModel());
+    }
+
+    @Test
+    public void testModelReuseUninterpretedOperator()
+    throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException {
+        //shifts are not interpreted by the solver, thus
+        //the model is not used to answer x << 1 > 0
+        final PrimitiveSymbolic x = (PrimitiveSymbolic) new SymbolFactory(this.calc).createSymbolLocalVariable(this.hist, "" + Type.INT, "x");
+        this.component.model.put(x, this.calc.valInt(3));
+        this.dec.pushAssumption(new ClauseAssume((Expression) x.gt(this.calc.valInt(0))));
+        this.dec.getModel();
+        this.dec.isSat(this.hier, (Expression) x.shl(this.calc.valInt(1)).gt(this.calc.valInt(0)));
+        assertEquals(1, this.component.calls);
+        assertEquals(0, this.dec.getHitsModel());
+    }
+
+    @Test
+    public void testBatch()
+    throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException {
+        //only the queries that were not already answered are forwarded
+        final Term A = this.calc.valTerm(Type.INT, "A");
+        final Expression q1 = (Expression) A.lt(this.calc.valInt(0));
+        final Expression q2 = (Expression) A.gt(this.calc.valInt(0));
+        this.component.unsat.add(q1);
+        assertFalse(this.dec.isSat(this.hier, q1));
+        final boolean[] result = this.dec.isSatBatch(this.hier, Arrays.asList(q1, q2));
+        assertFalse(result[0]);
+        assertTrue(result[1]);
+        assertEquals(2, this.component.calls);
+        assertEquals(1, this.dec.getHits());
+    }
+
+    @Test
+    public void testEviction()
+    throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException {
+        //with room for one query, the least recently used one is evicted
+        this.dec = new DecisionProcedureDecoratorCache(this.component, 1);
+        final Term A = this.calc.valTerm(Type.INT, "A");
+        final Expression q1 = (Expression) A.lt(this.calc.valInt(0));
+        final Expression q2 = (Expression) A.gt(this.calc.valInt(0));
+        this.dec.isSat(this.hier, q1);
+        this.dec.isSat(this.hier, q2);
+        this.dec.isSat(this.hier, q2);
+        this.dec.isSat(this.hier, q1);
+        assertEquals(3, this.component.calls);
+        assertEquals(1, this.dec.getHitsExact());
+    }
+}
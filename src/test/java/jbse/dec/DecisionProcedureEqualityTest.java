@@ -4,6 +4,7 @@ import static org.junit.Assert.*;
 
 import java.io.IOException;
 import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -26,6 +27,7 @@ import jbse.rewr.CalculatorRewriting;
 import jbse.rewr.RewriterOperationOnSimplex;
 import jbse.val.Expression;
 import jbse.val.HistoryPoint;
+import jbse.val.ReferenceConcrete;
 import jbse.val.ReferenceSymbolic;
 import jbse.val.Term;
 import jbse.val.exc.InvalidOperandException;
@@ -196,4 +198,52 @@ public class DecisionProcedureEqualityTest {
         this.dec.pushAssumption(new ClauseAssume((Expression) A.add(this.calc.valInt(-1).mul(B)).eq(this.calc.valInt(0))));
         assertFalse(this.dec.isSat(this.hier, (Expression) A.add(this.calc.valInt(-1).mul(B)).ne(this.calc.valInt(0))));
     }	
+
+    @Test
+    public void congruenceTest1() 
+    throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException {
+        //f(A) == C, f(B) == D, A == B |-/- C != D
+    	final Term A = this.calc.valTerm(Type.INT, "A");
+    	final Term B = this.calc.valTerm(Type.INT, "B");
+    	final Term C = this.calc.valTerm(Type.INT, "C");
+    	final Term D = this.calc.valTerm(Type.INT, "D");
+        this.dec.pushAssumption(new ClauseAssume((Expression) this.calc.applyFunctionPrimitive(Type.INT, this.hist, "f", A).eq(C)));
+        this.dec.pushAssumption(new ClauseAssume((Expression) this.calc.applyFunctionPrimitive(Type.INT, this.hist, "f", B).eq(D)));
+        this.dec.pushAssumption(new ClauseAssume((Expression) A.eq(B)));
+        assertFalse(this.dec.isSat(this.hier, (Expression) C.ne(D)));
+    }	
+
+    @Test(expected=NoDecisionException.class)
+    public void congruenceTest2() 
+    throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException {
+        //f(r)@hp1 == C, f(r)@hp2 == D |- C != D (applications on references are independent)
+    	final HistoryPoint hp1 = HistoryPoint.startingPreInitial(true).startingInitial();
+    	final HistoryPoint hp2 = hp1.next();
+    	final ReferenceConcrete r = new ReferenceConcrete(1);
+    	final Term C = this.calc.valTerm(Type.INT, "C");
+    	final Term D = this.calc.valTerm(Type.INT, "D");
+        this.dec.pushAssumption(new ClauseAssume((Expression) this.calc.applyFunctionPrimitive(Type.INT, hp1, "f", r).eq(C)));
+        this.dec.pushAssumption(new ClauseAssume((Expression) this.calc.applyFunctionPrimitive(Type.INT, hp2, "f", r).eq(D)));
+        this.dec.isSat(this.hier, (Expression) C.ne(D));
+    }	
+
+    @Test(expected=NoDecisionException.class)
+    public void popTest1() 
+    throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException {
+        //A == B, D == E, B == C then only A == B, D == E |-?- A != C
+    	final Term A = this.calc.valTerm(Type.INT, "A");
+    	final Term B = this.calc.valTerm(Type.INT, "B");
+    	final Term C = this.calc.valTerm(Type.INT, "C");
+    	final Term D = this.calc.valTerm(Type.INT, "D");
+    	final Term E = this.calc.valTerm(Type.INT, "E");
+    	final Clause c0 = new ClauseAssume((Expression) A.eq(B));
+    	final Clause c1 = new ClauseAssume((Expression) D.eq(E));
+    	final Clause c2 = new ClauseAssume((Expression) B.eq(C));
+        this.dec.pushAssumption(c0);
+        this.dec.pushAssumption(c1);
+        this.dec.pushAssumption(c2);
+        assertFalse(this.dec.isSat(this.hier, (Expression) A.ne(C)));
+        this.dec.setAssumptions(Arrays.asList(c0, c1));
+        this.dec.isSat(this.hier, (Expression) A.ne(C));
+    }	
 }
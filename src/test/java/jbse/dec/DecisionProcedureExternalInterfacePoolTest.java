@@ -0,0 +1,256 @@
+package jbse.dec;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import jbse.bc.ClassHierarchy;
+import jbse.dec.exc.ExternalProtocolInterfaceException;
+import jbse.mem.Objekt;
+import jbse.rewr.CalculatorRewriting;
+import jbse.val.Primitive;
+import jbse.val.ReferenceSymbolic;
+
+public class DecisionProcedureExternalInterfacePoolTest {
+    /**
+     * A fake solver, that deems unsatisfiable the terms named "unsat",
+     * hangs on the terms named "hang" until it is killed, hangs the
+     * same way on the first term named "flaky" checked by any solver
+     * of the pool, throws a {@link RuntimeException} on the terms
+     * named "crash", and deems satisfiable everything else.
+     */
+    private static final class FakeSolver extends DecisionProcedureExternalInterface {
+        private final CountDownLatch killed = new CountDownLatch(1);
+        private final AtomicBoolean flakyHangs;
+        private Primitive current = null;
+        private int numOfPushed = 0;
+        private int numOfChecks = 0;
+        private boolean working = true;
+
+        FakeSolver(AtomicBoolean flakyHangs) {
+            this.flakyHangs = flakyHangs;
+        }
+
+        @Override
+        public boolean isWorking() {
+            return this.working;
+        }
+
+        @Override
+        public void sendClauseAssume(Primitive predicate) {
+            this.current = predicate;
+        }
+
+        @Override
+        public void sendClauseAssumeAliases(ReferenceSymbolic r, long heapPos, Objekt o) { }
+
+        @Override
+        public void sendClauseAssumeExpands(ReferenceSymbolic r, String className) { }
+
+        @Override
+        public void sendClauseAssumeNull(ReferenceSymbolic r) { }
+
+        @Override
+        public void sendClauseAssumeClassInitialized(String className) { }
+
+        @Override
+        public void sendClauseAssumeClassNotInitialized(String className) { }
+
+        @Override
+        public void retractClause() {
+            this.current = null;
+        }
+
+        @Override
+        public boolean checkSat(ClassHierarchy hier, boolean positive)
+        throws ExternalProtocolInterfaceException {
+            ++this.numOfChecks;
+            final String predicate = (this.current == null ? "" : this.current.toString());
+            if ("hang".equals(predicate) || ("flaky".equals(predicate) && this.flakyHangs.getAndSet(false))) {
+                try {
+                    this.killed.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new ExternalProtocolInterfaceException("killed");
+            }
+            if ("crash".equals(predicate)) {
+                throw new IllegalStateException("crashed");
+            }
+            return !"unsat".equals(predicate);
+        }
+
+        @Override
+        public void pushAssumption(boolean positive) {
+            ++this.numOfPushed;
+        }
+
+        @Override
+        public void popAssumption() {
+            --this.numOfPushed;
+        }
+
+        @Override
+        public void clear() {
+            this.numOfPushed = 0;
+        }
+
+        @Override
+        public void quit() {
+            this.working = false;
+        }
+
+        @Override
+        public void fail() {
+            this.working = false;
+            this.killed.countDown();
+        }
+    }
+
+    private CalculatorRewriting calc;
+    private ArrayList<FakeSolver> solvers;
+    private AtomicBoolean flakyHangs;
+    private DecisionProcedureExternalInterfacePool pool;
+
+    @Before
+    public void setUp() throws Exception {
+        this.calc = new CalculatorRewriting();
+        this.solvers = new ArrayList<>();
+        this.flakyHangs = new AtomicBoolean(true);
+        this.pool = new DecisionProcedureExternalInterfacePool(() -> {
+            final FakeSolver s = new FakeSolver(this.flakyHangs);
+            synchronized (this.solvers) {
+                this.solvers.add(s);
+            }
+            return s;
+        }, 3, 200, TimeUnit.MILLISECONDS);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        this.pool.quit();
+    }
+
+    private Primitive term(String name) throws Exception {
+        return this.calc.valTerm('Z', name);
+    }
+
+    @Test
+    public void testBatchIsDistributed() throws Exception {
+        final List<Primitive> predicates =
+            Arrays.asList(term("a"), term("unsat"), term("b"), term("c"), term("unsat"), term("d"));
+        final boolean[] sat = this.pool.checkSatBatch(null, predicates);
+        assertTrue(Arrays.equals(new boolean[] { true, false, true, true, false, true }, sat));
+        assertEquals(3, this.solvers.size());
+        for (FakeSolver s : this.solvers) {
+            assertEquals(2, s.numOfChecks);
+        }
+    }
+
+    @Test
+    public void testSingleCheck() throws Exception {
+        this.pool.sendClauseAssume(term("unsat"));
+        assertFalse(this.pool.checkSat(null, true));
+        this.pool.retractClause();
+        this.pool.sendClauseAssume(term("a"));
+        assertTrue(this.pool.checkSat(null, true));
+        this.pool.retractClause();
+    }
+
+    @Test
+    public void testTimeoutIsRetried() throws Exception {
+        //pushes an assumption, that must be replayed on the restarted solver
+        this.pool.sendClauseAssume(term("a"));
+        this.pool.pushAssumption(true);
+
+        final boolean[] sat = this.pool.checkSatBatch(null, Arrays.asList(term("a"), term("flaky"), term("unsat")));
+        assertTrue(Arrays.equals(new boolean[] { true, true, false }, sat));
+        assertEquals(4, this.solvers.size());
+        assertFalse(this.solvers.get(1).isWorking());
+        assertEquals(1, this.solvers.get(3).numOfPushed);
+    }
+
+    @Test
+    public void testSingleCheckTimeoutIsRetried() throws Exception {
+        this.pool.sendClauseAssume(term("flaky"));
+        assertTrue(this.pool.checkSat(null, true));
+        this.pool.retractClause();
+        assertEquals(4, this.solvers.size());
+        assertFalse(this.solvers.get(0).isWorking());
+    }
+
+    @Test
+    public void testTimeoutIsReported() throws Exception {
+        //pushes an assumption, that must be replayed on the restarted solver
+        this.pool.sendClauseAssume(term("a"));
+        this.pool.pushAssumption(true);
+
+        final List<Primitive> predicates = Arrays.asList(term("a"), term("hang"), term("unsat"));
+        try {
+            this.pool.checkSatBatch(null, predicates);
+            fail("a timed out query was not reported");
+        } catch (ExternalProtocolInterfaceException e) {
+            //expected
+        }
+
+        //the hung solver was replaced twice, and the pool still works
+        assertTrue(this.pool.isWorking());
+        assertEquals(5, this.solvers.size());
+        assertFalse(this.solvers.get(1).isWorking());
+        assertFalse(this.solvers.get(3).isWorking());
+        assertEquals(1, this.solvers.get(4).numOfPushed);
+        final boolean[] sat = this.pool.checkSatBatch(null, Arrays.asList(term("a"), term("b"), term("unsat")));
+        assertTrue(Arrays.equals(new boolean[] { true, true, false }, sat));
+    }
+
+    @Test
+    public void testSingleCheckTimeoutIsReported() throws Exception {
+        this.pool.sendClauseAssume(term("hang"));
+        try {
+            this.pool.checkSat(null, true);
+            fail("a timed out query was not reported");
+        } catch (ExternalProtocolInterfaceException e) {
+            //expected
+        }
+        assertTrue(this.pool.isWorking());
+        assertEquals(5, this.solvers.size());
+
+        //the failed clause was discarded, so a new check succeeds
+        this.pool.sendClauseAssume(term("a"));
+        assertTrue(this.pool.checkSat(null, true));
+        this.pool.retractClause();
+        this.pool.sendClauseAssume(term("unsat"));
+        assertFalse(this.pool.checkSat(null, true));
+        this.pool.retractClause();
+    }
+
+    @Test
+    public void testCrashedMemberIsRestarted() throws Exception {
+        this.pool.sendClauseAssume(term("crash"));
+        try {
+            this.pool.checkSat(null, true);
+            fail("a crashed query was not reported");
+        } catch (IllegalStateException e) {
+            //expected
+        }
+
+        //the crashed solver was replaced, and the pool still works
+        assertTrue(this.pool.isWorking());
+        assertEquals(4, this.solvers.size());
+        assertFalse(this.solvers.get(0).isWorking());
+        this.pool.sendClauseAssume(term("unsat"));
+        assertFalse(this.pool.checkSat(null, true));
+        this.pool.retractClause();
+        final boolean[] sat = this.pool.checkSatBatch(null, Arrays.asList(term("a"), term("b"), term("unsat")));
+        assertTrue(Arrays.equals(new boolean[] { true, true, false }, sat));
+    }
+}
@@ -0,0 +1,177 @@
+package jbse.dec;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import jbse.common.Type;
+import jbse.rewr.CalculatorRewriting;
+import jbse.rewr.RewriterOperationOnSimplex;
+import jbse.val.Primitive;
+import jbse.val.Term;
+
+public class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRATest {
+    /**
+     * A fake SMTLIB2 solver, that logs the commands it
+     * receives to the file passed as first argument,
+     * deems everything satisfiable and answers success
+     * to all the other commands.
+     */
+    public static final class FakeSolver {
+        public static void main(String[] args) throws IOException {
+            try (final BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+                 final PrintWriter log = new PrintWriter(new FileWriter(args[0]), true)) {
+                String command;
+                while ((command = in.readLine()) != null) {
+                    log.println(command);
+                    if (command.equals("(exit)")) {
+                        return;
+                    } else if (command.equals("(check-sat)")) {
+                        System.out.println("sat");
+                    } else if (command.startsWith("(get-value")) {
+                        System.out.println("()");
+                    } else {
+                        System.out.println("success");
+                    }
+                    System.out.flush();
+                }
+            }
+        }
+    }
+
+    private CalculatorRewriting calc;
+    private Path log;
+    private DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA dec;
+    private Term A, B, C;
+
+    @Before
+    public void setUp() throws Exception {
+        this.calc = new CalculatorRewriting();
+        this.calc.addRewriter(new RewriterOperationOnSimplex());
+        this.log = Files.createTempFile("jbse-smtlib2", ".log");
+        final String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        this.dec = new DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA(this.calc,
+            Arrays.asList(java, "-cp", System.getProperty("java.class.path"), FakeSolver.class.getName(), this.log.toString()));
+        this.A = this.calc.valTerm(Type.INT, "A");
+        this.B = this.calc.valTerm(Type.INT, "B");
+        this.C = this.calc.valTerm(Type.INT, "C");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        this.dec.quit();
+        Files.deleteIfExists(this.log);
+    }
+
+    private List<String> commands() throws IOException {
+        return Files.readAllLines(this.log);
+    }
+
+    private List<String> commandsSince(int mark) throws IOException {
+        final List<String> commands = commands();
+        return commands.subList(mark, commands.size());
+    }
+
+    private static int count(List<String> commands, String prefix) {
+        int retVal = 0;
+        for (String command : commands) {
+            if (command.startsWith(prefix)) {
+                ++retVal;
+            }
+        }
+        return retVal;
+    }
+
+    private void assume(Primitive p) throws Exception {
+        this.dec.sendClauseAssume(p);
+        this.dec.pushAssumption(true);
+    }
+
+    private void check(Primitive p) throws Exception {
+        this.dec.sendClauseAssume(p);
+        assertTrue(this.dec.checkSat(null, true));
+        this.dec.retractClause();
+    }
+
+    @Test
+    public void testNoEmptyPushes() throws Exception {
+        final int mark = commands().size();
+        this.dec.sendClauseAssumeClassInitialized("java/lang/Object");
+        this.dec.pushAssumption(true);
+        check(this.A.gt(this.calc.valInt(0)));
+        final List<String> sent = commandsSince(mark);
+        assertEquals(1, count(sent, "(push"));
+        assertEquals(1, count(sent, "(assert"));
+        assertEquals("(check-sat)", sent.get(sent.size() - 1));
+    }
+
+    @Test
+    public void testBacktrackPopsToCommonPrefix() throws Exception {
+        assume(this.A.gt(this.calc.valInt(0)));
+        assume(this.B.gt(this.calc.valInt(0)));
+        check(this.C.gt(this.calc.valInt(0)));
+        final int mark = commands().size();
+
+        //backtracks to the other alternative for B
+        this.dec.popAssumption();
+        assume(this.B.le(this.calc.valInt(0)));
+        check(this.C.gt(this.calc.valInt(0)));
+
+        //pops the checked clause and B in one command,
+        //and does not resend A
+        final List<String> sent = commandsSince(mark);
+        assertEquals("(pop 2)", sent.get(0));
+        assertEquals(1, count(sent, "(pop"));
+        assertEquals(2, count(sent, "(push"));
+        assertEquals(2, count(sent, "(assert"));
+        assertEquals(0, count(sent, "(declare-fun A "));
+    }
+
+    @Test
+    public void testClearReusesCommonPrefix() throws Exception {
+        assume(this.A.gt(this.calc.valInt(0)));
+        assume(this.B.gt(this.calc.valInt(0)));
+        check(this.C.gt(this.calc.valInt(0)));
+        final int mark = commands().size();
+
+        //clears and pushes again the same first assumption
+        this.dec.clear();
+        assume(this.A.gt(this.calc.valInt(0)));
+        assume(this.B.le(this.calc.valInt(0)));
+        check(this.C.gt(this.calc.valInt(0)));
+
+        final List<String> sent = commandsSince(mark);
+        assertEquals("(pop 2)", sent.get(0));
+        assertEquals(2, count(sent, "(assert"));
+        assertEquals(0, count(sent, "(declare-fun A "));
+    }
+
+    @Test
+    public void testNothingSentUntilQuery() throws Exception {
+        final int mark = commands().size();
+        assume(this.A.gt(this.calc.valInt(0)));
+        assume(this.B.gt(this.calc.valInt(0)));
+        this.dec.popAssumption();
+        this.dec.popAssumption();
+        assertEquals(mark, commands().size());
+
+        //with no frames the query is a bare check
+        check(this.C.gt(this.calc.valInt(0)));
+        final List<String> sent = commandsSince(mark);
+        assertEquals(0, count(sent, "(pop"));
+        assertEquals(1, count(sent, "(push"));
+    }
+}
@@ -0,0 +1,130 @@
+package jbse.dec;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import jbse.bc.ClassFileFactoryJavassist;
+import jbse.bc.ClassHierarchy;
+import jbse.bc.Classpath;
+import jbse.bc.exc.InvalidClassFileFactoryClassException;
+import jbse.common.Type;
+import jbse.common.exc.InvalidInputException;
+import jbse.dec.DecisionProcedureSignAnalysisTest.DecisionProcedureNoDecision;
+import jbse.dec.DecisionProcedureSignAnalysisTest.NoDecisionException;
+import jbse.dec.exc.DecisionException;
+import jbse.mem.Clause;
+import jbse.mem.ClauseAssume;
+import jbse.rewr.CalculatorRewriting;
+import jbse.rewr.RewriterOperationOnSimplex;
+import jbse.val.Expression;
+import jbse.val.Term;
+import jbse.val.exc.InvalidOperandException;
+import jbse.val.exc.InvalidTypeException;
+
+public class DecisionProcedureIntervalAnalysisTest {
+    CalculatorRewriting calc;
+    ClassHierarchy hier;
+    DecisionProcedureIntervalAnalysis dec;
+
+    @Before
+    public void setUp() throws InvalidClassFileFactoryClassException, IOException {
+        this.calc = new CalculatorRewriting();
+        this.calc.addRewriter(new RewriterOperationOnSimplex());
+        this.hier = new ClassHierarchy(new Classpath(Paths.get(System.getProperty("java.home")), Collections.emptyList(), Collections.emptyList()), ClassFileFactoryJavassist.class, new HashMap<>());
+        this.dec = new DecisionProcedureIntervalAnalysis(new DecisionProcedureNoDecision(), this.calc);
+    }
+
+    @Test
+    public void simpleTest1()
+    throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException {
+        //A >= 0, A < 10 |-/- A >= 10
+        final Term A = this.calc.valTerm(Type.INT, "A");
+        this.dec.pushAssumption(new ClauseAssume((Expression) A.ge(this.calc.valInt(0))));
+        this.dec.pushAssumption(new ClauseAssume((Expression) A.lt(this.calc.valInt(10))));
+        assertFalse(this.dec.isSat(this.hier, (Expression) A.ge(this.calc.valInt(10))));
+    }
+
+    @Test(expected=NoDecisionException.class)
+    public void simpleTest2()
+    throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException {
+        //A >= 0, A < 10 |-?- A >= 9
+        final Term A = this.calc.valTerm(Type.INT, "A");
+        this.dec.pushAssumption(new ClauseAssume((Expression) A.ge(this.calc.valInt(0))));
+        this.dec.pushAssumption(new ClauseAssume((Expression) A.lt(this.calc.valInt(10))));
+        this.dec.isSat(this.hier, (Expression) A.ge(this.calc.valInt(9)));
+    }
+
+    @Test
+    public void offsetTest()
+    throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException {
+        //A + 1 < 5 |-/- A > 3
+        final Term A = this.calc.valTerm(Type.INT, "A");
+        this.dec.pushAssumption(new ClauseAssume((Expression) A.add(this.calc.valInt(1)).lt(this.calc.valInt(5))));
+        assertFalse(this.dec.isSat(this.hier, (Expression) A.gt(this.calc.valInt(3))));
+    }
+
+    @Test
+    public void notEqualsTest()
+    throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException {
+        //A : INT, A >= 0, A != 0 |-/- A < 1
+        final Term A = this.calc.valTerm(Type.INT, "A");
+        this.dec.pushAssumption(new ClauseAssume((Expression) A.ge(this.calc.valInt(0))));
+        this.dec.pushAssumption(new ClauseAssume((Expression) A.ne(this.calc.valInt(0))));
+        assertFalse(this.dec.isSat(this.hier, (Expression) A.lt(this.calc.valInt(1))));
+    }
+
+    @Test(expected=NoDecisionException.class)
+    public void floatTest()
+    throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException {
+        //A : FLOAT, A > 0, A != 0 |-?- A < 1
+        final Term A = this.calc.valTerm(Type.FLOAT, "A");
+        this.dec.pushAssumption(new ClauseAssume((Expression) A.gt(this.calc.valFloat(0.0f))));
+        this.dec.pushAssumption(new ClauseAssume((Expression) A.ne(this.calc.valFloat(0.0f))));
+        this.dec.isSat(this.hier, (Expression) A.lt(this.calc.valFloat(1.0f)));
+    }
+
+    @Test
+    public void twoTermsTest()
+    throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException {
+        //I < N, N <= 5 |-/- I >= 5
+        final Term I = this.calc.valTerm(Type.INT, "I");
+        final Term N = this.calc.valTerm(Type.INT, "N");
+        this.dec.pushAssumption(new ClauseAssume((Expression) N.le(this.calc.valInt(5))));
+        this.dec.pushAssumption(new ClauseAssume((Expression) I.lt(N)));
+        assertFalse(this.dec.isSat(this.hier, (Expression) I.ge(this.calc.valInt(5))));
+    }
+
+    @Test
+    public void rangeTest()
+    throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException {
+        //A >= 0, A < 10 |-/- !(A >= 0 && A < 10)
+        final Term A = this.calc.valTerm(Type.INT, "A");
+        this.dec.pushAssumption(new ClauseAssume((Expression) A.ge(this.calc.valInt(0))));
+        this.dec.pushAssumption(new ClauseAssume((Expression) A.lt(this.calc.valInt(10))));
+        assertFalse(this.dec.isSat(this.hier, (Expression) A.ge(this.calc.valInt(0)).and(A.lt(this.calc.valInt(10))).not()));
+    }
+
+    @Test(expected=NoDecisionException.class)
+    public void popTest()
+    throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException {
+        //A > 0, A > 5, A < 8 then only A > 0, A > 5 |-?- A >= 8
+        final Term A = this.calc.valTerm(Type.INT, "A");
+        final Clause c0 = new ClauseAssume((Expression) A.gt(this.calc.valInt(0)));
+        final Clause c1 = new ClauseAssume((Expression) A.gt(this.calc.valInt(5)));
+        final Clause c2 = new ClauseAssume((Expression) A.lt(this.calc.valInt(8)));
+        this.dec.pushAssumption(c0);
+        this.dec.pushAssumption(c1);
+        this.dec.pushAssumption(c2);
+        assertFalse(this.dec.isSat(this.hier, (Expression) A.ge(this.calc.valInt(8))));
+        this.dec.setAssumptions(Arrays.asList(c0, c1));
+        this.dec.isSat(this.hier, (Expression) A.ge(this.calc.valInt(8)));
+    }
+}
@@ -0,0 +1,112 @@
+package jbse.jvm;
+
+import static org.junit.Assert.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import jbse.NodeWalkFixture;
+import jbse.NodeWalkFixture.Result;
+import jbse.apps.run.RunParameters;
+import jbse.rewr.CalculatorRewriting;
+import jbse.val.Calculator;
+
+public class PreInitialStateCacheTest {
+    private Path cacheDirectory;
+
+    @Before
+    public void setUp() throws Exception {
+        this.cacheDirectory = Files.createTempDirectory("jbse-snapshots");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try (final Stream<Path> files = Files.list(this.cacheDirectory)) {
+            for (Path f : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(f);
+            }
+        }
+        Files.deleteIfExists(this.cacheDirectory);
+    }
+
+    private Path snapshotFile() throws Exception {
+        try (final Stream<Path> files = Files.list(this.cacheDirectory)) {
+            return files.filter(f -> f.toString().endsWith(".ser")).findFirst().orElse(null);
+        }
+    }
+
+    private String run(Path out) throws Exception {
+        final RunParameters p = NodeWalkFixture.runParameters(30);
+        p.setPreInitialStateCaching(true);
+        p.setPreInitialStateCacheDirectory(this.cacheDirectory);
+        return NodeWalkFixture.runPrintingLeaves(p, out);
+    }
+
+    @Test
+    public void testSecondRunRestoresSnapshot() throws Exception {
+        final Path out1 = Files.createTempFile("jbse", ".txt");
+        final Path out2 = Files.createTempFile("jbse", ".txt");
+        try {
+            final String first = run(out1);
+            assertNotNull(snapshotFile());
+            final long hits = PreInitialStateCache.getHits();
+            final String second = run(out2);
+            assertEquals(hits + 1, PreInitialStateCache.getHits());
+            assertFalse(first.isEmpty());
+            assertEquals(first, second);
+        } finally {
+            Files.deleteIfExists(out1);
+            Files.deleteIfExists(out2);
+        }
+    }
+
+    @Test
+    public void testDamagedSnapshotIsReplaced() throws Exception {
+        final Path out1 = Files.createTempFile("jbse", ".txt");
+        final Path out2 = Files.createTempFile("jbse", ".txt");
+        try {
+            final String first = run(out1);
+            final Path snapshot = snapshotFile();
+            Files.write(snapshot, new byte[] { 1, 2, 3 });
+            final long hits = PreInitialStateCache.getHits();
+            final String second = run(out2);
+            assertEquals(hits, PreInitialStateCache.getHits());
+            assertEquals(first, second);
+            assertTrue(Files.size(snapshot) > 3);
+        } finally {
+            Files.deleteIfExists(out1);
+            Files.deleteIfExists(out2);
+        }
+    }
+
+    private Calculator runWithCalculator(CalculatorRewriting calc) throws Exception {
+        final RunnerParameters p = NodeWalkFixture.runnerParameters(calc, 5);
+        p.setPreInitialStateCaching(true);
+        p.setPreInitialStateCacheDirectory(this.cacheDirectory);
+        final Calculator[] retVal = new Calculator[1];
+        p.setActions(new Runner.Actions() {
+            @Override
+            public boolean atTraceEnd() {
+                retVal[0] = getEngine().getCurrentState().getCalculator();
+                return true;
+            }
+        });
+        NodeWalkFixture.run(p, new Result());
+        return retVal[0];
+    }
+
+    @Test
+    public void testRestoredSnapshotUsesNewCalculator() throws Exception {
+        final CalculatorRewriting calc1 = NodeWalkFixture.makeCalculator();
+        final CalculatorRewriting calc2 = NodeWalkFixture.makeCalculator();
+        assertSame(calc1, runWithCalculator(calc1));
+        final long hits = PreInitialStateCache.getHits();
+        assertSame(calc2, runWithCalculator(calc2));
+        assertEquals(hits + 1, PreInitialStateCache.getHits());
+    }
+}
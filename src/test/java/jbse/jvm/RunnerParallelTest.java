@@ -0,0 +1,109 @@
+package jbse.jvm;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+import jbse.NodeWalkFixture;
+import jbse.NodeWalkFixture.Recorder;
+import jbse.NodeWalkFixture.Result;
+import jbse.dec.DecisionProcedureAlgorithms;
+import jbse.val.Calculator;
+
+public class RunnerParallelTest {
+    /**
+     * Records the leaves of the traces. The leaves of
+     * the first worker are recorded slowly, so the other
+     * workers wait and the first worker donates them states.
+     */
+    private static final class ActionsRecord extends Recorder {
+        private final boolean first;
+
+        ActionsRecord(Result result, boolean first) {
+            super(result, NodeWalkFixture::summarize);
+            this.first = first;
+        }
+
+        @Override
+        public boolean atTraceEnd() {
+            synchronized (this.result) {
+                super.atTraceEnd();
+                if (this.first) {
+                    ++this.result.leavesOfFirstWorker;
+                }
+            }
+            if (this.first) {
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return false;
+        }
+    }
+
+    private static Result run(int numOfWorkers, int depthScope) throws Exception {
+        final Result retVal = new Result();
+        final RunnerParameters p = NodeWalkFixture.runnerParameters(depthScope);
+        p.setActions(new ActionsRecord(retVal, true));
+        p.setParallel(numOfWorkers, new WorkerFactory() {
+            @Override
+            public Calculator makeCalculator() {
+                final Calculator c = NodeWalkFixture.makeCalculator();
+                retVal.add(c);
+                return c;
+            }
+
+            @Override
+            public DecisionProcedureAlgorithms makeDecisionProcedure(Calculator c) {
+                return NodeWalkFixture.makeDecisionProcedure(c);
+            }
+
+            @Override
+            public Runner.Actions makeActions() {
+                return new ActionsRecord(retVal, false);
+            }
+        });
+        NodeWalkFixture.run(p, retVal);
+        Collections.sort(retVal.events);
+        return retVal;
+    }
+
+    @Test
+    public void testWorkIsStolen() throws Exception {
+        final Result r = run(3, 40);
+        assertFalse(r.events.isEmpty());
+        assertTrue(r.leavesOfFirstWorker < r.events.size());
+    }
+
+    @Test
+    public void testWorkersHaveTheirOwnCalculator() throws Exception {
+        final Result r = run(3, 40);
+        assertFalse(r.calculators.isEmpty());
+        for (int i = 0; i < r.calculators.size(); ++i) {
+            for (int j = i + 1; j < r.calculators.size(); ++j) {
+                assertNotSame(r.calculators.get(i), r.calculators.get(j));
+            }
+        }
+    }
+
+    @Test
+    public void testStateIdentifiersArePreserved() throws Exception {
+        final Result sequential = run(1, 40);
+        final Result parallel = run(3, 40);
+        assertFalse(sequential.events.isEmpty());
+        assertEquals(sequential.events, parallel.events);
+    }
+
+    @Test
+    public void testStatsAreMerged() throws Exception {
+        final Result sequential = run(1, 4);
+        final Result parallel = run(3, 4);
+        assertTrue(sequential.tracesOutOfScope > 0);
+        assertEquals(sequential.tracesTotal, parallel.tracesTotal);
+        assertEquals(sequential.tracesOutOfScope, parallel.tracesOutOfScope);
+    }
+}
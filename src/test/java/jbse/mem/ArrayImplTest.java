@@ -0,0 +1,143 @@
+package jbse.mem;
+
+import static jbse.bc.ClassLoaders.*;
+import static org.junit.Assert.*;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jbse.bc.ClassFile;
+import jbse.bc.ClassFileFactoryJavassist;
+import jbse.bc.ClassHierarchy;
+import jbse.bc.Classpath;
+import jbse.common.Type;
+import jbse.mem.Array.AccessOutcome;
+import jbse.mem.Array.AccessOutcomeIn;
+import jbse.mem.Array.AccessOutcomeInValue;
+import jbse.rewr.CalculatorRewriting;
+import jbse.rewr.RewriterOperationOnSimplex;
+import jbse.val.Simplex;
+import jbse.val.Term;
+
+public class ArrayImplTest {
+    private static CalculatorRewriting calc;
+    private static ClassFile classFile;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        //environment
+        final ArrayList<Path> userPath = new ArrayList<>();
+        final Classpath env = new Classpath(Paths.get(System.getProperty("java.home")), new ArrayList<>(), userPath);
+
+        //class hierarchy
+        final ClassHierarchy hier = new ClassHierarchy(env, ClassFileFactoryJavassist.class, new HashMap<>());
+
+        //calculator
+        calc = new CalculatorRewriting();
+        calc.addRewriter(new RewriterOperationOnSimplex());
+
+        //class of the test arrays (its supertypes must be loaded first)
+        hier.loadCreateClass("java/lang/Object");
+        hier.loadCreateClass("java/lang/Cloneable");
+        hier.loadCreateClass("java/io/Serializable");
+        classFile = hier.loadCreateClass(CLASSLOADER_BOOT, "" + Type.ARRAYOF + Type.INT, true);
+    }
+
+    private static ArrayImpl makeArray(int length) throws Exception {
+        final ArrayImpl retVal = new ArrayImpl(false, calc, false, null, calc.valInt(length), classFile, null, null, false, 100);
+        for (int i = 0; i < length; ++i) {
+            retVal.setFast(calc.valInt(i), calc.valInt(i));
+        }
+        return retVal;
+    }
+
+    private static int valueAt(Array array, int index) throws Exception {
+        final AccessOutcomeInValue e = (AccessOutcomeInValue) array.getFast(calc.valInt(index));
+        return ((Integer) ((Simplex) e.getValue()).getActualValue()).intValue();
+    }
+
+    @Test
+    public void testCloneIsIndependent() throws Exception {
+        final ArrayImpl a = makeArray(5);
+        final ArrayImpl b = a.clone();
+        b.setFast(calc.valInt(2), calc.valInt(42));
+        assertEquals(2, valueAt(a, 2));
+        assertEquals(42, valueAt(b, 2));
+        a.setFast(calc.valInt(3), calc.valInt(43));
+        assertEquals(43, valueAt(a, 3));
+        assertEquals(3, valueAt(b, 3));
+    }
+
+    @Test
+    public void testArraycopyOverlapping() throws Exception {
+        final ArrayImpl a = makeArray(6);
+        a.arraycopy(a, calc.valInt(0), calc.valInt(2), calc.valInt(4), r -> { });
+        final int[] expected = { 0, 1, 0, 1, 2, 3 };
+        for (int i = 0; i < expected.length; ++i) {
+            assertEquals(expected[i], valueAt(a, i));
+        }
+    }
+
+    @Test
+    public void testOutOfRange() throws Exception {
+        final ArrayImpl a = makeArray(3);
+        assertTrue(a.getFast(calc.valInt(3)) instanceof Array.AccessOutcomeOut);
+        assertTrue(a.getFast(calc.valInt(-1)) instanceof Array.AccessOutcomeOut);
+    }
+
+    @Test
+    public void testSymbolicSetLeavesSimpleRep() throws Exception {
+        final ArrayImpl a = makeArray(3);
+        final Term I = calc.valTerm(Type.INT, "I");
+        a.set(I, calc.valInt(7));
+        assertFalse(a.hasSimpleRep());
+        final Collection<AccessOutcome> outcomes = a.get(calc.valInt(1));
+        //the entry for index 1 and the entry for index I
+        assertEquals(2, outcomes.size());
+        assertEquals(4, a.values().size());
+    }
+
+    private static ArrayImpl makeSymbolicLengthArray() throws Exception {
+        return new ArrayImpl(false, calc, false, null, calc.valTerm(Type.INT, "N"), classFile, null, null, false, 100);
+    }
+
+    private static void store(ArrayImpl array, int index, int value) throws Exception {
+        final Iterator<? extends AccessOutcomeIn> it = array.entriesPossiblyAffectedByAccess(calc.valInt(index), calc.valInt(value));
+        while (it.hasNext()) {
+            it.next().excludeIndexFromAccessCondition(calc.valInt(index));
+        }
+        array.set(calc.valInt(index), calc.valInt(value));
+    }
+
+    @Test
+    public void testConcreteIndexSkipsOtherWrites() throws Exception {
+        final ArrayImpl a = makeSymbolicLengthArray();
+        store(a, 1, 10);
+        store(a, 2, 20);
+        int inCount = 0;
+        for (AccessOutcome o : a.get(calc.valInt(1))) {
+            if (o instanceof AccessOutcomeInValue) {
+                ++inCount;
+                assertEquals(calc.valInt(10), ((AccessOutcomeInValue) o).getValue());
+            }
+        }
+        assertEquals(1, inCount);
+    }
+
+    @Test
+    public void testOverwrittenEntryIsDropped() throws Exception {
+        final ArrayImpl a = makeSymbolicLengthArray();
+        store(a, 1, 10);
+        store(a, 1, 11);
+        store(a, 1, 12);
+        //the default entry and the last write
+        assertEquals(2, a.values().size());
+    }
+}
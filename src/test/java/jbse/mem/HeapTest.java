@@ -0,0 +1,170 @@
+package jbse.mem;
+
+import static jbse.bc.ClassLoaders.*;
+import static org.junit.Assert.*;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.SortedMap;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jbse.bc.ClassFile;
+import jbse.bc.ClassFileFactoryJavassist;
+import jbse.bc.ClassHierarchy;
+import jbse.bc.Classpath;
+import jbse.bc.Signature;
+import jbse.mem.exc.HeapMemoryExhaustedException;
+import jbse.rewr.CalculatorRewriting;
+import jbse.val.Simplex;
+
+public class HeapTest {
+    private static ClassHierarchy hier;
+    private static CalculatorRewriting calc;
+    private static ClassFile classFile;
+    private static Signature sigMinLat;
+    private Heap heap;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        //environment
+        final ArrayList<Path> userPath = new ArrayList<>();
+        userPath.add(Paths.get("src/test/resources/jbse/bc/testdata"));
+        final Classpath env = new Classpath(Paths.get(System.getProperty("java.home")), new ArrayList<>(), userPath);
+
+        //class hierarchy
+        hier = new ClassHierarchy(env, ClassFileFactoryJavassist.class, new HashMap<>());
+
+        //calculator
+        calc = new CalculatorRewriting();
+
+        //class of the test objects
+        final String className = "tsafe/main/SimpleCalculator";
+        classFile = hier.loadCreateClass(CLASSLOADER_APP, className, true);
+        sigMinLat = new Signature(className, "D", "minLat");
+    }
+
+    @Before
+    public void setUp() {
+        this.heap = new Heap(Long.MAX_VALUE);
+    }
+
+    private static InstanceImpl makeInstance(double minLat) throws Exception {
+        final InstanceImpl retVal = new InstanceImpl(false, calc, classFile, null, null, hier.numOfStaticFields(classFile), hier.getAllFields(classFile));
+        retVal.setFieldValue(sigMinLat, calc.valDouble(minLat));
+        return retVal;
+    }
+
+    private double minLat(long pos) {
+        return ((Double) ((Simplex) this.heap.getObject(pos).getFieldValue(sigMinLat)).getActualValue()).doubleValue();
+    }
+
+    @Test
+    public void testAddNewIsSequential() throws Exception {
+        for (int i = 0; i < 100; ++i) {
+            assertEquals(Util.POS_ROOT + i, this.heap.addNew(makeInstance(i)));
+        }
+        assertEquals(100, this.heap.getSize());
+        assertEquals(42.0, minLat(Util.POS_ROOT + 42), 0.0);
+    }
+
+    @Test
+    public void testSetSkipsOccupiedPositions() throws Exception {
+        this.heap.set(Util.POS_ROOT + 1, makeInstance(1));
+        assertEquals(Util.POS_ROOT, this.heap.addNew(makeInstance(0)));
+        assertEquals(Util.POS_ROOT + 2, this.heap.addNew(makeInstance(2)));
+        this.heap.set(100_000L, makeInstance(3));
+        assertEquals(3.0, minLat(100_000L), 0.0);
+        assertNull(this.heap.getObject(99_999L));
+        assertNull(this.heap.getObject(Long.MAX_VALUE));
+        assertEquals(4, this.heap.getSize());
+    }
+
+    @Test
+    public void testLazyCloneIsolation() throws Exception {
+        final long pos0 = this.heap.addNew(makeInstance(0));
+        final long pos1 = this.heap.addNew(makeInstance(1));
+        final Heap original = this.heap;
+        final Heap clone = original.lazyClone();
+
+        //writing in the clone does not affect the original
+        clone.getObject(pos0).setFieldValue(sigMinLat, calc.valDouble(10));
+        final long pos2 = clone.addNew(makeInstance(2));
+        assertEquals(calc.valDouble(10), clone.getObject(pos0).getFieldValue(sigMinLat));
+        assertEquals(calc.valDouble(0), original.getObject(pos0).getFieldValue(sigMinLat));
+        assertNull(original.getObject(pos2));
+        assertEquals(3, clone.getSize());
+        assertEquals(2, original.getSize());
+
+        //writing in the original does not affect the clone
+        original.getObject(pos1).setFieldValue(sigMinLat, calc.valDouble(11));
+        assertEquals(calc.valDouble(1), clone.getObject(pos1).getFieldValue(sigMinLat));
+
+        //cloning a clone
+        final Heap cloneOfClone = clone.lazyClone();
+        cloneOfClone.getObject(pos0).setFieldValue(sigMinLat, calc.valDouble(20));
+        assertEquals(calc.valDouble(10), clone.getObject(pos0).getFieldValue(sigMinLat));
+        assertEquals(calc.valDouble(0), original.getObject(pos0).getFieldValue(sigMinLat));
+    }
+
+    @Test
+    public void testClone() throws Exception {
+        final long pos = this.heap.addNew(makeInstance(0));
+        final Heap clone = this.heap.clone();
+        clone.getObject(pos).setFieldValue(sigMinLat, calc.valDouble(1));
+        assertEquals(0.0, minLat(pos), 0.0);
+        assertEquals(1, clone.getSize());
+    }
+
+    @Test
+    public void testDisposeExcept() throws Exception {
+        for (int i = 0; i < 40; ++i) {
+            this.heap.addNew(makeInstance(i));
+        }
+        final Heap clone = this.heap.lazyClone();
+        final Set<Long> keep = new HashSet<>();
+        keep.add(Util.POS_ROOT + 3);
+        keep.add(Util.POS_ROOT + 35);
+        clone.disposeExcept(keep);
+        final SortedMap<Long, Objekt> objects = clone.getObjects();
+        assertEquals(keep, objects.keySet());
+        assertEquals(2, clone.getSize());
+        assertEquals(40, this.heap.getSize());
+    }
+
+    @Test
+    public void testGetObjectsDoesNotCopyTheTrie() throws Exception {
+        for (int i = 0; i < 40; ++i) {
+            this.heap.addNew(makeInstance(i));
+        }
+        final Heap clone = this.heap.lazyClone();
+        final Set<Object> nodesBefore = Collections.newSetFromMap(new IdentityHashMap<>());
+        clone.collectNodes(nodesBefore);
+        final SortedMap<Long, Objekt> objects = clone.getObjects();
+        assertEquals(40, objects.size());
+        final Set<Object> nodesAfter = Collections.newSetFromMap(new IdentityHashMap<>());
+        clone.collectNodes(nodesAfter);
+        assertEquals(nodesBefore, nodesAfter);
+
+        //writing through the returned objects is still copy-on-write
+        objects.get(Util.POS_ROOT + 5).setFieldValue(sigMinLat, calc.valDouble(100));
+        assertEquals(calc.valDouble(100), clone.getObject(Util.POS_ROOT + 5).getFieldValue(sigMinLat));
+        assertEquals(5.0, minLat(Util.POS_ROOT + 5), 0.0);
+    }
+
+    @Test(expected=HeapMemoryExhaustedException.class)
+    public void testMaxHeapSize() throws Exception {
+        this.heap = new Heap(2);
+        this.heap.addNew(makeInstance(0));
+        this.heap.addNew(makeInstance(1));
+        this.heap.addNew(makeInstance(2));
+    }
+}
@@ -0,0 +1,106 @@
+package jbse.mem;
+
+import static jbse.bc.ClassLoaders.*;
+import static org.junit.Assert.*;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jbse.bc.ClassFile;
+import jbse.bc.ClassFileFactoryJavassist;
+import jbse.bc.ClassHierarchy;
+import jbse.bc.Classpath;
+import jbse.common.Type;
+import jbse.rewr.CalculatorRewriting;
+import jbse.val.HistoryPoint;
+import jbse.val.ReferenceSymbolic;
+import jbse.val.SymbolFactory;
+
+public class PathConditionTest {
+    private static ClassHierarchy hier;
+    private static CalculatorRewriting calc;
+    private static ClassFile classFile;
+    private static HistoryPoint hist;
+    private static SymbolFactory symbolFactory;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        //environment
+        final ArrayList<Path> userPath = new ArrayList<>();
+        userPath.add(Paths.get("src/test/resources/jbse/bc/testdata"));
+        final Classpath env = new Classpath(Paths.get(System.getProperty("java.home")), new ArrayList<>(), userPath);
+
+        //class hierarchy
+        hier = new ClassHierarchy(env, ClassFileFactoryJavassist.class, new HashMap<>());
+
+        //calculator
+        calc = new CalculatorRewriting();
+
+        //class of the test objects
+        classFile = hier.loadCreateClass(CLASSLOADER_APP, "tsafe/main/SimpleCalculator", true);
+
+        //history point of the test references
+        hist = HistoryPoint.startingPreInitial(true).startingInitial();
+        symbolFactory = new SymbolFactory(calc);
+    }
+
+    private static InstanceImpl makeInstance() throws Exception {
+        return new InstanceImpl(false, calc, classFile, null, null, hier.numOfStaticFields(classFile), hier.getAllFields(classFile));
+    }
+
+    private static ReferenceSymbolic makeReference(String name) throws Exception {
+        return (ReferenceSymbolic) symbolFactory.createSymbolLocalVariable(hist, "" + Type.REFERENCE + classFile.getClassName() + Type.TYPEEND, name);
+    }
+
+    @Test
+    public void testIndexesFollowClauses() throws Exception {
+        final PathCondition pc = new PathCondition();
+        final ReferenceSymbolic r1 = makeReference("r1");
+        final ReferenceSymbolic r2 = makeReference("r2");
+        final ReferenceSymbolic r3 = makeReference("r3");
+        final InstanceImpl o = makeInstance();
+        pc.addClauseAssumeExpands(r1, 5L, o);
+        pc.addClauseAssumeAliases(r2, 5L, o);
+        pc.addClauseAssumeNull(r3);
+        assertEquals(5L, pc.getResolution(r1));
+        assertEquals(5L, pc.getResolution(r2));
+        assertEquals(Util.POS_NULL, pc.getResolution(r3));
+        assertTrue(pc.getResolutionClause(r1) instanceof ClauseAssumeExpands);
+        assertTrue(pc.getResolutionClause(r2) instanceof ClauseAssumeAliases);
+        assertEquals(classFile, pc.getExpansion(5L).getObjekt().getType());
+        assertNull(pc.getExpansion(6L));
+        assertEquals(1, pc.getExpansions().size());
+        assertEquals(1, pc.getExpansionsByClass().get(classFile).size());
+        assertEquals(1, pc.getNumAssumed(classFile.getClassName()));
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testUnresolvedReferenceHasNoResolution() throws Exception {
+        final PathCondition pc = new PathCondition();
+        pc.addClauseAssumeNull(makeReference("r1"));
+        pc.getResolution(makeReference("r2"));
+    }
+
+    @Test
+    public void testCloneIsIndependent() throws Exception {
+        final PathCondition pc = new PathCondition();
+        final ReferenceSymbolic r1 = makeReference("r1");
+        final ReferenceSymbolic r2 = makeReference("r2");
+        pc.addClauseAssumeExpands(r1, 5L, makeInstance());
+        final PathCondition pcClone = pc.clone();
+        pcClone.addClauseAssumeExpands(r2, 6L, makeInstance());
+        assertFalse(pc.resolved(r2));
+        assertNull(pc.getExpansion(6L));
+        assertEquals(1, pc.getExpansionsByClass().get(classFile).size());
+        assertEquals(1, pc.getNumAssumed(classFile.getClassName()));
+        assertTrue(pcClone.resolved(r1));
+        assertTrue(pcClone.resolved(r2));
+        assertEquals(2, pcClone.getExpansionsByClass().get(classFile).size());
+        assertEquals(2, pcClone.getNumAssumed(classFile.getClassName()));
+    }
+}
@@ -0,0 +1,87 @@
+package jbse.mem;
+
+import static jbse.bc.ClassLoaders.*;
+import static org.junit.Assert.*;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jbse.bc.ClassFile;
+import jbse.bc.ClassFileFactoryJavassist;
+import jbse.bc.ClassHierarchy;
+import jbse.bc.Classpath;
+import jbse.bc.Signature;
+import jbse.rewr.CalculatorRewriting;
+
+public class StaticMethodAreaTest {
+    private static ClassHierarchy hier;
+    private static CalculatorRewriting calc;
+    private static ClassFile classFile;
+    private static Signature field;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        //environment
+        final ArrayList<Path> userPath = new ArrayList<>();
+        userPath.add(Paths.get("src/test/resources/jbse/bc/testdata"));
+        final Classpath env = new Classpath(Paths.get(System.getProperty("java.home")), new ArrayList<>(), userPath);
+
+        //class hierarchy
+        hier = new ClassHierarchy(env, ClassFileFactoryJavassist.class, new HashMap<>());
+
+        //calculator
+        calc = new CalculatorRewriting();
+
+        //class of the test klasses and one of its static fields
+        classFile = hier.loadCreateClass(CLASSLOADER_APP, "tsafe/main/SimpleCalculator", true);
+        field = new Signature("tsafe/main/SimpleCalculator", "D", "EARTH_RADIUS");
+    }
+
+    private static StaticMethodArea makeArea() throws Exception {
+        final KlassImpl k = new KlassImpl(false, calc, null, null, hier.numOfStaticFields(classFile), hier.getAllFields(classFile));
+        k.setFieldValue(field, calc.valDouble(1.0d));
+        final StaticMethodArea retVal = new StaticMethodArea();
+        retVal.set(classFile, k);
+        return retVal;
+    }
+
+    @Test
+    public void testLazyCloneIsIndependent() throws Exception {
+        final StaticMethodArea a = makeArea();
+        final StaticMethodArea b = a.lazyClone();
+        b.get(classFile).setFieldValue(field, calc.valDouble(2.0d));
+        b.get(classFile).setInitialized();
+        assertEquals(calc.valDouble(1.0d), a.get(classFile).getFieldValue(field));
+        assertFalse(a.get(classFile).isInitialized());
+        assertEquals(calc.valDouble(2.0d), b.get(classFile).getFieldValue(field));
+        assertTrue(b.get(classFile).isInitialized());
+    }
+
+    @Test
+    public void testWrappersSeeTheSameClone() throws Exception {
+        final StaticMethodArea a = makeArea();
+        final StaticMethodArea b = a.lazyClone();
+        final Klass k1 = a.get(classFile);
+        final Klass k2 = a.get(classFile);
+        k1.setFieldValue(field, calc.valDouble(2.0d));
+        k2.setInitialized();
+        assertEquals(calc.valDouble(2.0d), k2.getFieldValue(field));
+        assertTrue(k1.isInitialized());
+        assertEquals(calc.valDouble(1.0d), b.get(classFile).getFieldValue(field));
+        assertFalse(b.get(classFile).isInitialized());
+    }
+
+    @Test
+    public void testSharedKlassIsWrappedOnce() throws Exception {
+        final StaticMethodArea a = makeArea();
+        final StaticMethodArea b = a.lazyClone();
+        assertSame(a.get(classFile), a.get(classFile));
+        assertSame(b.get(classFile), b.get(classFile));
+        assertNotSame(a.get(classFile), b.get(classFile));
+    }
+}
@@ -0,0 +1,92 @@
+package jbse.mem;
+
+import static jbse.bc.ClassLoaders.*;
+import static org.junit.Assert.*;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jbse.bc.ClassFile;
+import jbse.bc.ClassFileFactoryJavassist;
+import jbse.bc.ClassHierarchy;
+import jbse.bc.Classpath;
+import jbse.bc.Signature;
+import jbse.rewr.CalculatorRewriting;
+import jbse.val.Null;
+import jbse.val.Simplex;
+
+public class ThreadStackTest {
+    private static CalculatorRewriting calc;
+    private static ClassFile classFile;
+    private static Signature methodSignature;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        //environment
+        final ArrayList<Path> userPath = new ArrayList<>();
+        userPath.add(Paths.get("src/test/resources/jbse/bc/testdata"));
+        final Classpath env = new Classpath(Paths.get(System.getProperty("java.home")), new ArrayList<>(), userPath);
+
+        //class hierarchy
+        final ClassHierarchy hier = new ClassHierarchy(env, ClassFileFactoryJavassist.class, new HashMap<>());
+
+        //calculator
+        calc = new CalculatorRewriting();
+
+        //method of the test frames
+        classFile = hier.loadCreateClass(CLASSLOADER_APP, "tsafe/main/SimpleCalculator", true);
+        methodSignature = new Signature("tsafe/main/SimpleCalculator", "(D)D", "metersPerLonAt");
+    }
+
+    private static MethodFrame makeFrame() throws Exception {
+        final MethodFrame retVal = new MethodFrame(methodSignature, classFile);
+        retVal.setArgs(Null.getInstance(), calc.valDouble(1.0d));
+        return retVal;
+    }
+
+    private static int topAsInt(Frame frame) throws Exception {
+        return ((Integer) ((Simplex) frame.top()).getActualValue()).intValue();
+    }
+
+    @Test
+    public void testCloneIsIndependent() throws Exception {
+        final ThreadStack stack = new ThreadStack();
+        stack.push(makeFrame());
+        stack.currentFrame().push(calc.valInt(1));
+        stack.push(makeFrame());
+        stack.currentFrame().push(calc.valInt(2));
+        final ThreadStack stackClone = stack.clone();
+
+        //modifies the top frames
+        stackClone.currentFrame().push(calc.valInt(3));
+        stack.currentFrame().setLocalVariableValue(1, 0, calc.valDouble(4.0d));
+        assertEquals(3, topAsInt(stackClone.currentFrame()));
+        assertEquals(2, topAsInt(stack.currentFrame()));
+        assertEquals(calc.valDouble(1.0d), stackClone.currentFrame().getLocalVariableValue(1));
+        assertEquals(calc.valDouble(4.0d), stack.currentFrame().getLocalVariableValue(1));
+
+        //modifies the bottom frames
+        stackClone.pop();
+        stackClone.currentFrame().pop();
+        assertEquals(1, topAsInt(stack.frames().get(0)));
+        assertEquals(2, stack.frames().size());
+    }
+
+    @Test
+    public void testOperandStackGrows() throws Exception {
+        final MethodFrame f = makeFrame();
+        for (int i = 0; i < 100; ++i) {
+            f.push(calc.valInt(i));
+        }
+        assertEquals(99, topAsInt(f));
+        final Object[] operands = f.operands(3);
+        assertEquals(calc.valInt(97), operands[0]);
+        assertEquals(calc.valInt(99), operands[2]);
+        assertEquals(calc.valInt(99), f.operands().iterator().next());
+    }
+}
@@ -0,0 +1,102 @@
+package jbse.tree;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import jbse.NodeWalkFixture;
+import jbse.apps.run.RunParameters;
+import jbse.jvm.Engine;
+import jbse.jvm.RunnerBuilder;
+import jbse.mem.State;
+
+public class StateSpillerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static Engine engine() throws Exception {
+        final RunnerBuilder rb = new RunnerBuilder();
+        rb.build(NodeWalkFixture.runnerParameters(30));
+        return rb.getEngine();
+    }
+
+    private static String run(Path out, int maxResidentPendingStates, Path spillDirectory) throws Exception {
+        final RunParameters p = NodeWalkFixture.runParameters(30);
+        p.setMaxResidentPendingStates(maxResidentPendingStates);
+        if (spillDirectory != null) {
+            p.setSpillDirectory(spillDirectory);
+        }
+        return NodeWalkFixture.runPrintingLeaves(p, out);
+    }
+
+    @Test
+    public void testSpillAndRestore() throws Exception {
+        //collects some states along the execution of walk
+        final Engine engine = engine();
+        final ArrayList<PendingState> states = new ArrayList<>();
+        for (int i = 0; i < 40 && engine.canStep(); ++i) {
+            engine.step();
+            if (i % 10 == 9) {
+                states.add(new PendingState(engine.getCurrentState().clone()));
+            }
+        }
+        assertEquals(4, states.size());
+        final ArrayList<String> expected = new ArrayList<>();
+        for (PendingState s : states) {
+            expected.add(NodeWalkFixture.describe(s.state));
+        }
+
+        //the heap of the first state stays in memory
+        final Set<Object> shared = Collections.newSetFromMap(new IdentityHashMap<>());
+        states.get(0).state.collectHeapComponents(shared);
+
+        final Path parent = this.folder.getRoot().toPath();
+        final StateSpiller spiller = new StateSpiller(parent);
+        final StateSpiller.Batch batch = spiller.spill(states, shared);
+        assertEquals(4, batch.size());
+        assertEquals(states.get(3).phase, batch.lastPhase());
+        final File[] spillDirectories = parent.toFile().listFiles();
+        assertEquals(1, spillDirectories.length);
+        assertEquals(1, spillDirectories[0].listFiles().length);
+
+        //reads them back, and deletes the spill file
+        final List<PendingState> restored = spiller.restore(batch);
+        assertEquals(expected.size(), restored.size());
+        for (int i = 0; i < expected.size(); ++i) {
+            assertNotSame(states.get(i).state, restored.get(i).state);
+            assertTrue("state " + i + " differs after restore", expected.get(i).equals(NodeWalkFixture.describe(restored.get(i).state)));
+        }
+        assertEquals(0, spillDirectories[0].listFiles().length);
+
+        //the restored states can be executed
+        final State s = restored.get(3).state;
+        engine.restart(s);
+        while (engine.canStep()) {
+            engine.step();
+        }
+        engine.close();
+
+        spiller.dispose();
+        assertEquals(0, parent.toFile().listFiles().length);
+    }
+
+    @Test
+    public void testSpillingRunVisitsSameLeaves() throws Exception {
+        final Path spillDirectory = this.folder.newFolder().toPath();
+        final String inMemory = run(this.folder.newFile().toPath(), 0, null);
+        final String spilled = run(this.folder.newFile().toPath(), 2, spillDirectory);
+        assertFalse(inMemory.isEmpty());
+        assertTrue(inMemory.equals(spilled));
+        assertEquals(0, spillDirectory.toFile().listFiles().length);
+    }
+}
@@ -0,0 +1,46 @@
+package jbse.tree;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import jbse.NodeWalkFixture;
+import jbse.NodeWalkFixture.Recorder;
+import jbse.NodeWalkFixture.Result;
+import jbse.jvm.RunnerParameters;
+import jbse.tree.StateTree.BranchPoint;
+
+public class StateTreeReplayTest {
+    private static Result run(int maxReplaySteps, int maxReplayDepth) throws Exception {
+        final RunnerParameters p = NodeWalkFixture.runnerParameters(30);
+        p.setMaxReplaySteps(maxReplaySteps);
+        p.setMaxReplayDepth(maxReplayDepth);
+        final Result retVal = new Result();
+        p.setActions(new Recorder(retVal, NodeWalkFixture::summarize) {
+            @Override
+            public boolean atBacktrackPost(BranchPoint bp) {
+                this.result.add("backtrack " + describeCurrentState());
+                return false;
+            }
+        });
+        return NodeWalkFixture.run(p, retVal);
+    }
+
+    @Test
+    public void testReplayPreservesExploration() throws Exception {
+        final Result full = run(0, 16);
+        final Result replayed = run(20, 2);
+        assertEquals(0L, full.replayedStates);
+        assertTrue(replayed.replayedStates > 0);
+        assertFalse(full.events.isEmpty());
+        assertEquals(full.events, replayed.events);
+    }
+
+    @Test
+    public void testReplayFromDistantCheckpoints() throws Exception {
+        final Result full = run(0, 16);
+        final Result replayed = run(1000, 16);
+        assertTrue(replayed.replayedStates > 0);
+        assertEquals(full.events, replayed.events);
+    }
+}
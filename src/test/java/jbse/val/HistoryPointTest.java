@@ -0,0 +1,137 @@
+package jbse.val;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class HistoryPointTest {
+    /**
+     * The hash code of a history point with given branch
+     * identifier components and sequence number, as it was
+     * when the components were stored in a {@link List}{@code <}{@link String}{@code >}.
+     */
+    private static int listHashCode(List<String> branchIdentifier, int sequenceNumber) {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + branchIdentifier.hashCode();
+        result = prime * result + sequenceNumber;
+        return result;
+    }
+
+    private static HistoryPoint make(String... components) {
+        HistoryPoint retVal = HistoryPoint.startingPreInitial(true);
+        for (String component : components) {
+            retVal = retVal.nextBranch(component);
+        }
+        return retVal;
+    }
+
+    @Test
+    public void testHashCodeMatchesListOfStrings() {
+        final String[][] branches = {
+            { },
+            { "1" },
+            { "1", "0" },
+            { "1", "2", "10", "123456789" },
+            { "ROOT", "a", "1" },
+            { "1", "01" },
+            { "1", "1234567890" },
+            { "1", "-3" },
+            { "1", "" },
+        };
+        for (String[] branch : branches) {
+            HistoryPoint hp = make(branch);
+            for (int seq = 0; seq < 3; ++seq) {
+                assertEquals(Arrays.toString(branch), listHashCode(Arrays.asList(branch), seq), hp.hashCode());
+                hp = hp.next();
+            }
+        }
+        assertEquals(31 * 31, HistoryPoint.unknown().hashCode());
+    }
+
+    @Test
+    public void testNumericAndLabelComponentsAreEqual() {
+        final HistoryPoint byString = make("1", "2", "30");
+        final HistoryPoint byNumber = HistoryPoint.startingPreInitial(true).nextBranch(1).nextBranch(2).nextBranch(30);
+        assertEquals(byString, byNumber);
+        assertEquals(byString.hashCode(), byNumber.hashCode());
+        assertEquals(byString.next(), byNumber.next());
+        assertNotEquals(byString, byNumber.next());
+
+        //"01" is a label, different from the number 1
+        final HistoryPoint leadingZero = make("1", "01");
+        final HistoryPoint one = make("1", "1");
+        assertNotEquals(leadingZero, one);
+        assertNotEquals(one, leadingZero);
+        assertEquals(make("1", "01"), leadingZero);
+        assertEquals(".1.01", leadingZero.getBranchIdentifier());
+        assertEquals(".1.1", one.getBranchIdentifier());
+
+        //a negative number is a label as well
+        assertEquals(make("1", "-3"), HistoryPoint.startingPreInitial(true).nextBranch(1).nextBranch(-3));
+
+        //the same components in the long mode
+        final HistoryPoint compact = HistoryPoint.startingPreInitial(true).startingInitial().nextBranch("a");
+        final HistoryPoint notCompact = HistoryPoint.startingPreInitial(false).nextBranch("1").nextBranch("a");
+        assertEquals(compact, notCompact);
+        assertEquals("|1|a", notCompact.getBranchIdentifier());
+
+        assertEquals(HistoryPoint.unknown(), HistoryPoint.unknown());
+        assertNotEquals(HistoryPoint.unknown(), HistoryPoint.startingPreInitial(true));
+        assertNotEquals(HistoryPoint.startingPreInitial(true), HistoryPoint.unknown());
+    }
+
+    @Test
+    public void testEqualsMatchesListOfStrings() {
+        final ArrayList<String[]> branches = new ArrayList<>();
+        for (String c1 : new String[] { "1", "01", "a" }) {
+            for (String c2 : new String[] { "0", "1", "10", "b" }) {
+                branches.add(new String[] { c1, c2 });
+            }
+            branches.add(new String[] { c1 });
+        }
+        for (String[] b1 : branches) {
+            for (String[] b2 : branches) {
+                assertEquals(Arrays.toString(b1) + " " + Arrays.toString(b2), Arrays.equals(b1, b2), make(b1).equals(make(b2)));
+            }
+        }
+    }
+
+    @Test
+    public void testWeaklyBeforeOnPrefixes() {
+        final HistoryPoint root = make("1");
+        final HistoryPoint sub = root.nextBranch(2);
+        final HistoryPoint subsub = sub.next().next().nextBranch("x");
+        assertTrue(root.weaklyBefore(root));
+        assertTrue(root.weaklyBefore(root.next()));
+        assertFalse(root.next().weaklyBefore(root));
+        assertTrue(root.weaklyBefore(sub));
+        assertTrue(root.next().next().weaklyBefore(sub));
+        assertTrue(root.weaklyBefore(subsub));
+        assertTrue(sub.weaklyBefore(subsub));
+        assertFalse(sub.weaklyBefore(root));
+        assertFalse(subsub.weaklyBefore(sub));
+        assertTrue(HistoryPoint.startingPreInitial(true).weaklyBefore(subsub));
+    }
+
+    @Test
+    public void testWeaklyBeforeOnSiblings() {
+        final HistoryPoint root = make("1");
+        final HistoryPoint left = root.nextBranch(1);
+        final HistoryPoint right = root.nextBranch(2);
+        assertFalse(left.weaklyBefore(right));
+        assertFalse(right.weaklyBefore(left));
+        assertFalse(left.weaklyBefore(right.nextBranch(1)));
+        assertFalse(left.nextBranch(1).weaklyBefore(right.nextBranch(1)));
+
+        //"01" and 1 are siblings, not the same branch
+        final HistoryPoint leadingZero = root.nextBranch("01");
+        assertFalse(left.weaklyBefore(leadingZero));
+        assertFalse(leadingZero.weaklyBefore(left));
+        assertFalse(leadingZero.weaklyBefore(left.nextBranch(3)));
+    }
+}